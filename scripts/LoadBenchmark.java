@@ -0,0 +1,255 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 起動中のアプリケーションに対して一覧画面・詳細画面の負荷をかけ、スループットとレイテンシを計測する
+ * <p>
+ * ビルド不要の単一ファイルとして {@code java scripts/LoadBenchmark.java --label platform} のように実行します。
+ * 通常は scripts/load-benchmark.sh から、プラットフォームスレッドと仮想スレッドの両方のモードで呼び出します。
+ * <p>
+ * オプション（括弧内は既定値）:
+ * <ul>
+ *     <li>--base-url：アプリケーションのURL（http://localhost:8080）</li>
+ *     <li>--label：結果に付けるモード名（default）</li>
+ *     <li>--concurrency：同時に送信するクライアント数（200）</li>
+ *     <li>--warmup：シナリオごとのウォームアップ秒数（10）</li>
+ *     <li>--duration：シナリオごとの計測秒数（30）</li>
+ *     <li>--seed：計測前にCSV一括登録で投入する件数（0）</li>
+ *     <li>--output：結果を追記するCSVファイル（target/load-benchmark/results.csv）</li>
+ * </ul>
+ */
+public class LoadBenchmark {
+
+    private static final Pattern RECORD_LINK = Pattern.compile("href=\"/reading-records/(\\d+)\"");
+    private static final Pattern NEXT_CURSOR = Pattern.compile("after=([^\"&]+)\"");
+    private static final Pattern IMPORT_TOKEN = Pattern.compile("name=\"importToken\"\\s+value=\"([^\"]+)\"");
+    private static final String[] STATUSES = {"UNREAD", "READING", "COMPLETED", "PAUSED"};
+    private static final String[] STATUS_NAMES = {"未読", "読書中", "読了", "中断"};
+    private static final int SEED_BATCH_ROWS = 5000;
+    private static final int MAX_PAGES_PER_STATUS = 50;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String baseUrl;
+
+    private LoadBenchmark(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        LoadBenchmark benchmark = new LoadBenchmark(options.getOrDefault("base-url", "http://localhost:8080"));
+        String label = options.getOrDefault("label", "default");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int seedRows = Integer.parseInt(options.getOrDefault("seed", "0"));
+        Path output = Path.of(options.getOrDefault("output", "target/load-benchmark/results.csv"));
+
+        if (seedRows > 0) {
+            benchmark.seed(seedRows);
+        }
+        long[] recordIds = benchmark.findRecordIds();
+        if (recordIds.length == 0) {
+            throw new IllegalStateException("読書記録が見つかりません。--seed で投入してください。");
+        }
+        System.out.printf("[%s] %d件の読書記録IDを対象に計測します（同時接続数 %d）%n", label, recordIds.length, concurrency);
+
+        Map<String, Supplier<String>> scenarios = new LinkedHashMap<>();
+        scenarios.put("/reading-records", () -> "/reading-records?status="
+                + STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)]);
+        scenarios.put("/reading-records/{id}", () -> "/reading-records/"
+                + recordIds[ThreadLocalRandom.current().nextInt(recordIds.length)]);
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        if (Files.notExists(output)) {
+            Files.writeString(output, "mode,scenario,concurrency,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms\n");
+        }
+        for (Map.Entry<String, Supplier<String>> scenario : scenarios.entrySet()) {
+            benchmark.run(scenario.getValue(), concurrency, warmupSeconds);
+            Result result = benchmark.run(scenario.getValue(), concurrency, durationSeconds);
+            String line = String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f%n", label, scenario.getKey(),
+                    concurrency, result.requests(), result.errors(), result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(100));
+            System.out.print(line);
+            Files.writeString(output, line, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * 指定した秒数の間、各クライアントが応答を待っては次のリクエストを送り続けます。
+     */
+    private Result run(Supplier<String> paths, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get()))
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+            return new Result(all, errors.get(), seconds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 各読書状態の一覧画面を次ページのリンクをたどって読み、詳細画面で使う読書記録IDを集めます。
+     */
+    private long[] findRecordIds() throws IOException, InterruptedException {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String status : STATUSES) {
+            String path = "/reading-records?status=" + status;
+            for (int page = 0; page < MAX_PAGES_PER_STATUS && path != null; page++) {
+                String body = get(path).body();
+                Matcher matcher = RECORD_LINK.matcher(body);
+                while (matcher.find()) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                }
+                Matcher next = NEXT_CURSOR.matcher(body);
+                path = next.find() ? "/reading-records?status=" + status + "&after=" + next.group(1) : null;
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * CSV一括登録で読書記録を投入し、登録ジョブの完了を待ちます。
+     */
+    private void seed(int rows) throws IOException, InterruptedException {
+        for (int first = 1; first <= rows; first += SEED_BATCH_ROWS) {
+            int last = Math.min(rows, first + SEED_BATCH_ROWS - 1);
+            StringBuilder csv = new StringBuilder("タイトル,著者,読書状態,現在ページ,総ページ数,評価,概要,感想\n");
+            for (int i = first; i <= last; i++) {
+                csv.append("負荷試験用の本").append(i).append(",著者").append(i % 100).append(',')
+                        .append(STATUS_NAMES[i % STATUS_NAMES.length]).append(",10,300,")
+                        .append(i % 5 + 1).append(",概要").append(i).append(",感想").append(i).append('\n');
+            }
+
+            Matcher token = IMPORT_TOKEN.matcher(uploadCsv(csv.toString()));
+            if (!token.find()) {
+                throw new IllegalStateException("CSVの確認画面から登録トークンを取得できませんでした");
+            }
+            HttpResponse<String> saved = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/reading-records/upload/save"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("importToken=" + token.group(1)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            String jobUrl = saved.headers().firstValue("Location")
+                    .orElseThrow(() -> new IllegalStateException("登録ジョブが受け付けられませんでした"));
+            while (!client.send(HttpRequest.newBuilder(URI.create(jobUrl + "/status")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body().contains("\"finished\":true")) {
+                Thread.sleep(200);
+            }
+            System.out.printf("%d件を投入しました%n", last);
+        }
+    }
+
+    private String uploadCsv(String csv) throws IOException, InterruptedException {
+        String boundary = UUID.randomUUID().toString();
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"csvFile\"; filename=\"seed.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n"
+                + csv + "\r\n--" + boundary + "--\r\n";
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/reading-records/upload/confirm"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("不明な引数です: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * 計測結果（レイテンシは昇順のナノ秒）
+     */
+    private record Result(long[] latencies, long errors, int seconds) {
+
+        long requests() {
+            return latencies.length;
+        }
+
+        double throughput() {
+            return (double) latencies.length / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+#
+# プラットフォームスレッドと仮想スレッドのモードで、一覧画面・詳細画面のスループットとp99レイテンシを比較する
+#
+# 使い方: scripts/load-benchmark.sh [同時接続数] [計測秒数]
+#   環境変数 MODES     : 計測するモード（既定: "platform virtual"）
+#   環境変数 SEED_ROWS : 計測前に投入する件数（既定: 10000）
+#   環境変数 PORT      : アプリケーションのポート（既定: 18080）
+#   環境変数 CACHE     : 読み取りキャッシュを使うかどうか（既定: false。毎回H2へのアクセスで待つ状態を計測する）
+#   環境変数 JAVA      : アプリケーションを起動するjavaコマンド（既定: java。仮想スレッドの比較にはJava 21以上を指定する）
+#
+# 結果は target/load-benchmark/results.csv に出力されます。
+# 仮想スレッドのモードでは -Djdk.tracePinnedThreads=full を指定し、
+# キャリアスレッドへの固定（ピン留め）が検出された場合は終了コード1で終了します。
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+CONCURRENCY=${1:-200}
+DURATION=${2:-30}
+MODES=${MODES:-"platform virtual"}
+SEED_ROWS=${SEED_ROWS:-10000}
+PORT=${PORT:-18080}
+CACHE=${CACHE:-false}
+JAVA=${JAVA:-java}
+OUT_DIR=target/load-benchmark
+JAR=target/readrico.jar
+
+mkdir -p "$OUT_DIR"
+rm -f "$OUT_DIR/results.csv"
+
+if [ ! -f "$JAR" ]; then
+    ./mvnw -B -q -DskipTests package
+fi
+
+JAVA_MAJOR=$("$JAVA" -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')
+if [ "${JAVA_MAJOR%%.*}" -lt 21 ]; then
+    echo "警告: Java ${JAVA_MAJOR} では仮想スレッドを使えないため、virtual モードもプラットフォームスレッドで動作します" >&2
+fi
+
+pinned=0
+for mode in $MODES; do
+    log="$OUT_DIR/app-$mode.log"
+    jvm_args=()
+    app_args=("--server.port=$PORT" "--spring.jpa.show-sql=false" "--readrico.cache.enabled=$CACHE")
+    if [ "$mode" = "virtual" ]; then
+        jvm_args+=("-Djdk.tracePinnedThreads=full")
+        app_args+=("--spring.profiles.active=virtual-threads")
+    fi
+
+    echo "== $mode =="
+    "$JAVA" "${jvm_args[@]}" -jar "$JAR" "${app_args[@]}" > "$log" 2>&1 &
+    app_pid=$!
+    trap 'kill $app_pid 2>/dev/null || true' EXIT
+
+    for _ in $(seq 1 120); do
+        if curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; then
+            break
+        fi
+        sleep 1
+    done
+
+    java -Dfile.encoding=UTF-8 scripts/LoadBenchmark.java --base-url "http://localhost:$PORT" --label "$mode" \
+        --concurrency "$CONCURRENCY" --duration "$DURATION" --seed "$SEED_ROWS" \
+        --output "$OUT_DIR/results.csv"
+
+    kill "$app_pid"
+    wait "$app_pid" 2>/dev/null || true
+    trap - EXIT
+
+    if grep -q "onPinned" "$log"; then
+        echo "仮想スレッドのピン留めを検出しました（$log を確認してください）" >&2
+        pinned=1
+    fi
+done
+
+echo
+if command -v column > /dev/null; then
+    column -s, -t < "$OUT_DIR/results.csv"
+else
+    cat "$OUT_DIR/results.csv"
+fi
+exit $pinned
@@ -0,0 +1,109 @@
+#!/usr/bin/env bash
+#
+# persistentプロファイル（ファイルDB）に読書記録が登録済みの状態から、起動にかかる時間を計測する
+#
+# 使い方: scripts/startup-benchmark.sh [件数] [起動回数]
+#   既定は100万件・3回。環境変数 PORT でアプリケーションのポートを変更できます（既定: 18080）。
+#
+# 初回起動でスキーマを作成した後、H2のRunScriptで読書記録を一括登録し、続けて指定回数だけ起動します。
+# 結果は target/startup-benchmark/results.csv に出力されます。
+#   started_seconds    : Spring Bootの起動完了（"Started Main in ..."）までの秒数
+#   ready_seconds      : プロセス開始からヘルスチェックが応答するまでの秒数
+#   search_index_ms    : 起動直後の検索インデックス作成にかかった時間（ミリ秒）
+#   search_ready_seconds: プロセス開始から検索インデックスの作成が終わるまでの秒数
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+ROWS=${1:-1000000}
+RUNS=${2:-3}
+PORT=${PORT:-18080}
+OUT_DIR=$(pwd)/target/startup-benchmark
+DATA_DIR=$OUT_DIR/data
+JAR=$(pwd)/target/readrico.jar
+
+rm -rf "$OUT_DIR"
+mkdir -p "$OUT_DIR"
+
+if [ ! -f "$JAR" ]; then
+    ./mvnw -B -q -DskipTests package
+fi
+
+now_millis() {
+    date +%s%3N
+}
+
+start_app() {
+    # ログの日本語を検索するため、ロケールに関係なくUTF-8で出力する
+    java -Dfile.encoding=UTF-8 -jar "$JAR" --server.port="$PORT" --spring.profiles.active=persistent \
+        --readrico.data-dir="$DATA_DIR" --spring.jpa.show-sql=false > "$1" 2>&1 &
+    app_pid=$!
+    trap 'kill $app_pid 2>/dev/null || true' EXIT
+}
+
+wait_for() {
+    for _ in $(seq 1 6000); do
+        if eval "$1"; then
+            return 0
+        fi
+        if ! kill -0 "$app_pid" 2>/dev/null; then
+            echo "アプリケーションが終了しました" >&2
+            return 1
+        fi
+        sleep 0.1
+    done
+    echo "タイムアウトしました: $1" >&2
+    return 1
+}
+
+stop_app() {
+    kill "$app_pid"
+    wait "$app_pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+echo "== スキーマの作成 =="
+start_app "$OUT_DIR/init.log"
+wait_for "curl -sf localhost:$PORT/actuator/health > /dev/null"
+stop_app
+
+echo "== ${ROWS}件の登録 =="
+h2_entry=$(jar tf "$JAR" | grep '^BOOT-INF/lib/h2-.*\.jar$')
+(cd "$OUT_DIR" && jar xf "$JAR" "$h2_entry")
+cat > "$OUT_DIR/insert.sql" <<SQL
+INSERT INTO reading_record (title, author, reading_status, current_page, total_pages, rating, summary, thoughts,
+                            created_at, updated_at)
+SELECT '起動時間計測用の本' || X,
+       '著者' || MOD(X, 1000),
+       CASE MOD(X, 4) WHEN 0 THEN 'UNREAD' WHEN 1 THEN 'READING' WHEN 2 THEN 'COMPLETED' ELSE 'PAUSED' END,
+       MOD(X, 300),
+       300,
+       MOD(X, 5) + 1,
+       '概要' || X || REPEAT('あらすじ', 20),
+       '感想' || X || REPEAT('おもしろい', 20),
+       DATEADD('SECOND', -X, CURRENT_TIMESTAMP),
+       DATEADD('SECOND', -X, CURRENT_TIMESTAMP)
+FROM SYSTEM_RANGE(1, $ROWS);
+SQL
+insert_start=$(now_millis)
+java -Dfile.encoding=UTF-8 -cp "$OUT_DIR/$h2_entry" org.h2.tools.RunScript \
+    -url "jdbc:h2:file:$DATA_DIR/readrico" -user sa -script "$OUT_DIR/insert.sql"
+echo "登録: $(( $(now_millis) - insert_start ))ms, DBファイル: $(du -h "$DATA_DIR/readrico.mv.db" | cut -f1)"
+
+echo "run,rows,started_seconds,ready_seconds,search_index_ms,search_ready_seconds" > "$OUT_DIR/results.csv"
+for run in $(seq 1 "$RUNS"); do
+    echo "== 起動 $run/$RUNS =="
+    log="$OUT_DIR/run-$run.log"
+    start=$(now_millis)
+    start_app "$log"
+    wait_for "curl -sf localhost:$PORT/actuator/health > /dev/null"
+    ready=$(( $(now_millis) - start ))
+    wait_for "grep -q '検索インデックスを作成しました' '$log'"
+    search_ready=$(( $(now_millis) - start ))
+    stop_app
+
+    started=$(grep -o 'Started Main in [0-9.]*' "$log" | awk '{print $4}')
+    search_ms=$(grep -o '検索インデックスを作成しました: .*' "$log" | grep -o '[0-9]*ms' | tr -d 'ms')
+    echo "$run,$ROWS,$started,$(awk "BEGIN {print $ready / 1000}"),$search_ms,$(awk "BEGIN {print $search_ready / 1000}")" \
+        | tee -a "$OUT_DIR/results.csv"
+done
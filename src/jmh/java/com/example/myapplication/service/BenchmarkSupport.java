@@ -0,0 +1,59 @@
+package com.example.myapplication.service;
+
+import ch.qos.logback.classic.Level;
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.repository.ReadingRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ベンチマーク用にDBなしでReadingRecordServiceを組み立てる
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * DBを使わないサービスを生成します。
+     * <p>
+     * 解析できない行ごとの警告ログの出力時間を計測に含めないよう、ログはERRORのみにします。
+     *
+     * @param records CSV出力時にリポジトリから返す読書記録
+     */
+    static ReadingRecordService createService(Supplier<Stream<ReadingRecord>> records) {
+        return createService(records, false);
+    }
+
+    /**
+     * DBを使わないサービスを生成します。
+     *
+     * @param records  CSV出力時にリポジトリから返す読書記録
+     * @param parallel CSVの行の解析を並列に行うかどうか（1万行を超えた分から並列化）
+     */
+    static ReadingRecordService createService(Supplier<Stream<ReadingRecord>> records, boolean parallel) {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.ERROR);
+
+        ReadingRecordRepository repository = (ReadingRecordRepository) Proxy.newProxyInstance(
+                ReadingRecordRepository.class.getClassLoader(), new Class<?>[]{ReadingRecordRepository.class},
+                (proxy, method, args) -> "streamAllByOrderByIdAsc".equals(method.getName()) ? records.get() : null);
+        EntityManager entityManager = (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(), new Class<?>[]{EntityManager.class},
+                (proxy, method, args) -> null);
+
+        ReadingStatusCounter counter = new ReadingStatusCounter(repository, false);
+        return new ReadingRecordService(repository, entityManager, new TransactionTemplate(), counter,
+                new ReadingRecordCache(false, 1, 1, Duration.ofMinutes(1)), new ReadingRecordSearchIndex(),
+                new ReadingRecordMetrics(new SimpleMeterRegistry(), counter),
+                new ParallelCsvRowMapper(parallel, 10_000, 1000, 0), null, // 削除・差分出力は計測しない
+                new ReadingRecordDataVersion());
+    }
+}
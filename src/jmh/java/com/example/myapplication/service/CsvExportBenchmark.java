@@ -0,0 +1,45 @@
+package com.example.myapplication.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * CSV出力（ストリーミング）のベンチマーク
+ * <p>
+ * リポジトリの代わりに読書記録を1件ずつ生成するストリームを渡し、出力先は書き捨てます。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvExportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    @Param({"false", "true"})
+    boolean longJapanese;
+
+    private ReadingRecordService service;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkSupport.createService(
+                () -> IntStream.range(0, rows).mapToObj(i -> CsvFixtures.readingRecord(i, longJapanese)));
+    }
+
+    @Benchmark
+    public void exportToCsv() throws IOException {
+        service.exportToCsv(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.status.ReadingStatus;
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * ベンチマーク用の合成CSV・読書記録を生成する
+ * <p>
+ * 同じ行番号からは常に同じ内容を生成するため、実行ごとの結果を比較できます。
+ */
+final class CsvFixtures {
+
+    private static final String[] HEADERS = {"ID", "タイトル", "著者", "読書状態", "現在ページ", "総ページ数",
+            "評価", "概要", "感想", "作成日時", "更新日時"};
+    private static final String[] TITLES = {"吾輩は猫である", "坊っちゃん", "銀河鉄道の夜", "羅生門", "人間失格",
+            "Effective Java", "リーダブルコード", "ノルウェイの森"};
+    private static final String[] AUTHORS = {"夏目漱石", "宮沢賢治", "芥川龍之介", "太宰治", "Joshua Bloch",
+            "村上春樹", ""};
+    private static final String LONG_TEXT_UNIT = "明治時代の教師の家で飼われている猫の視点から描かれた風刺小説。"
+            + "登場人物たちの会話を通して当時の知識人の姿が生き生きと描写されている。";
+    private static final String LONG_TEXT = LONG_TEXT_UNIT.repeat(8);
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private CsvFixtures() {
+    }
+
+    /**
+     * 指定した形・行数のCSVをファイルに書き込みます。
+     */
+    static void writeCsv(Path file, CsvShape shape, int rows) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             CSVWriter csvWriter = new CSVWriter(writer)) {
+            if (shape != CsvShape.WITHOUT_ID) {
+                csvWriter.writeNext(HEADERS);
+            }
+            for (int i = 0; i < rows; i++) {
+                csvWriter.writeNext(row(shape, i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 指定した形のCSV1行分を生成します。
+     */
+    static String[] row(CsvShape shape, int i) {
+        String id = Integer.toString(i + 1);
+        String title = TITLES[i % TITLES.length] + " 第" + (i % 97 + 1) + "巻";
+        String author = AUTHORS[i % AUTHORS.length];
+        String status = ReadingStatus.values()[i % ReadingStatus.values().length].getDisplayName();
+        String currentPage = Integer.toString(i % 300);
+        String totalPages = Integer.toString(300);
+        String rating = Integer.toString(i % 5 + 1);
+        String summary = "あらすじ" + i;
+        String thoughts = i % 3 == 0 ? "" : "感想" + i;
+        String time = BASE_TIME.plusSeconds(i).format(TIME_FORMAT);
+
+        return switch (shape) {
+            case WITH_ID -> new String[]{id, title, author, status, currentPage, totalPages, rating, summary,
+                    thoughts, time, time};
+            case WITHOUT_ID -> new String[]{title, author, status, currentPage, totalPages, rating, summary,
+                    thoughts};
+            case MALFORMED -> malformedRow(i, new String[]{id, title, author, status, currentPage, totalPages,
+                    rating, summary, thoughts, time, time});
+            case LONG_JAPANESE -> new String[]{id, title, author, status, currentPage, totalPages, rating,
+                    LONG_TEXT, LONG_TEXT, time, time};
+        };
+    }
+
+    /**
+     * 10行に1行、解析できない・既定値で補う値に置き換えます。
+     */
+    private static String[] malformedRow(int i, String[] row) {
+        if (i % 10 != 9) {
+            return row;
+        }
+        switch ((i / 10) % 4) {
+            case 0 -> row[1] = "";
+            case 1 -> row[4] = "abc";
+            case 2 -> row[6] = "9";
+            default -> row[3] = "不明";
+        }
+        return row;
+    }
+
+    /**
+     * CSV出力用の読書記録を生成します。
+     */
+    static ReadingRecord readingRecord(int i, boolean longText) {
+        ReadingRecord readingRecord = new ReadingRecord();
+        readingRecord.setId((long) i + 1);
+        readingRecord.setTitle(TITLES[i % TITLES.length] + " 第" + (i % 97 + 1) + "巻");
+        readingRecord.setAuthor(AUTHORS[i % AUTHORS.length]);
+        readingRecord.setReadingStatus(ReadingStatus.values()[i % ReadingStatus.values().length]);
+        readingRecord.setCurrentPage(i % 300);
+        readingRecord.setTotalPages(300);
+        readingRecord.setRating(i % 6 == 0 ? null : i % 5 + 1);
+        readingRecord.setSummary(longText ? LONG_TEXT : "あらすじ" + i);
+        readingRecord.setThoughts(longText ? LONG_TEXT : null);
+        readingRecord.setCreatedAt(BASE_TIME.plusSeconds(i));
+        readingRecord.setUpdatedAt(BASE_TIME.plusSeconds(i));
+        return readingRecord;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.myapplication.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * CSVファイル全体の解析のベンチマーク
+ * <p>
+ * 1行ずつ読書記録を渡すparseCsv（CSV一括登録で使用）と、
+ * 全件をリストに展開するparseCsvFileを計測します。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvParseBenchmark {
+
+    /**
+     * ファイルから読み込むCSV
+     */
+    @State(Scope.Benchmark)
+    public static class FileInput {
+
+        @Param({"1000", "100000", "1000000"})
+        int rows;
+
+        @Param({"WITH_ID", "WITHOUT_ID", "MALFORMED", "LONG_JAPANESE"})
+        CsvShape shape;
+
+        @Param({"false", "true"})
+        boolean parallel;
+
+        ReadingRecordService service;
+        Path file;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            service = BenchmarkSupport.createService(Stream::empty, parallel);
+            file = Files.createTempFile("readrico-bench-", ".csv");
+            CsvFixtures.writeCsv(file, shape, rows);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * メモリ上のアップロードファイル（全件をリストに展開するため、行数は10万件まで）
+     */
+    @State(Scope.Benchmark)
+    public static class UploadInput {
+
+        @Param({"1000", "100000"})
+        int rows;
+
+        @Param({"WITH_ID", "WITHOUT_ID", "MALFORMED", "LONG_JAPANESE"})
+        CsvShape shape;
+
+        ReadingRecordService service;
+        MockMultipartFile csvFile;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            service = BenchmarkSupport.createService(Stream::empty);
+            Path file = Files.createTempFile("readrico-bench-", ".csv");
+            try {
+                CsvFixtures.writeCsv(file, shape, rows);
+                csvFile = new MockMultipartFile("csvFile", "bench.csv", "text/csv", Files.readAllBytes(file));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long parseCsv(FileInput input, Blackhole blackhole) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(input.file))) {
+            return input.service.parseCsv(inputStream, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<?> parseCsvFile(UploadInput input) throws IOException {
+        return input.service.parseCsvFile(input.csvFile);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * CSV1行分の変換（ヘッダー行の判定・行の解析・CSV出力用の変換）のベンチマーク
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CsvRowBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    @Param({"WITH_ID", "WITHOUT_ID", "MALFORMED", "LONG_JAPANESE"})
+    CsvShape shape;
+
+    private ReadingRecordService service;
+    private CsvRowDecoder decoder;
+    private String[][] rows;
+    private ReadingRecord[] records;
+    private DateTimeFormatter formatter;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkSupport.createService(Stream::empty);
+        rows = new String[SAMPLE_SIZE][];
+        records = new ReadingRecord[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            rows[i] = CsvFixtures.row(shape, i);
+            records[i] = CsvFixtures.readingRecord(i, shape == CsvShape.LONG_JAPANESE);
+        }
+        decoder = CsvRowDecoder.forFirstRow(rows[0]);
+        formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Benchmark
+    public CsvRowDecoder detectLayout() {
+        return CsvRowDecoder.forFirstRow(nextRow());
+    }
+
+    @Benchmark
+    public ReadingRecord decodeRow() {
+        return decoder.decode(nextRow());
+    }
+
+    @Benchmark
+    public String[] convertToCsvRow() {
+        return service.convertToCsvRow(records[nextIndex()], formatter);
+    }
+
+    private String[] nextRow() {
+        return rows[nextIndex()];
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (SAMPLE_SIZE - 1);
+        return index;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.myapplication.service;
+
+/**
+ * ベンチマーク用の合成CSVの形
+ * <p>
+ * JMHが生成するコードから参照されるため、publicなトップレベルの列挙型にしています。
+ */
+public enum CsvShape {
+    /**
+     * CSV出力と同じ形式（ヘッダー行・ID列あり）
+     */
+    WITH_ID,
+    /**
+     * ヘッダー行・ID列なし（タイトルから始まる）
+     */
+    WITHOUT_ID,
+    /**
+     * ID列あり。10行に1行、タイトルなし・数値でない値・範囲外の評価・不明な読書状態を含む
+     */
+    MALFORMED,
+    /**
+     * ID列あり。あらすじ・感想が長い日本語
+     */
+    LONG_JAPANESE
+}
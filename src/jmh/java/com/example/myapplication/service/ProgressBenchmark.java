@@ -0,0 +1,48 @@
+package com.example.myapplication.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 進捗率計算のベンチマーク
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProgressBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    private ReadingRecordService service;
+    private Integer[] totals;
+    private Integer[] currents;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkSupport.createService(Stream::empty);
+        totals = new Integer[SAMPLE_SIZE];
+        currents = new Integer[SAMPLE_SIZE];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            // 計算対象外（null・0ページ・読了）も一定の割合で含める
+            totals[i] = i % 16 == 0 ? null : random.nextInt(0, 1500);
+            currents[i] = totals[i] == null ? null : random.nextInt(0, totals[i] + 50);
+        }
+    }
+
+    @Benchmark
+    public int getProgressPercent() {
+        index = (index + 1) & (SAMPLE_SIZE - 1);
+        return service.getProgressPercent(totals[index], currents[index]);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * バイナリスナップショットとCSVの出力・読み込みを比較するベンチマーク
+ * <p>
+ * 同じ読書記録を両方の形式で出力・読み込みします。
+ * 両方の形式のファイルサイズは、準備の時点で標準出力に表示します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    @Param({"false", "true"})
+    boolean longJapanese;
+
+    private Supplier<Stream<ReadingRecord>> records;
+    private ReadingRecordService service;
+    private Path csvFile;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        records = () -> IntStream.range(0, rows).mapToObj(i -> CsvFixtures.readingRecord(i, longJapanese));
+        service = BenchmarkSupport.createService(records);
+
+        csvFile = Files.createTempFile("readrico-bench-", ".csv");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(csvFile))) {
+            service.exportToCsv(outputStream);
+        }
+        snapshotFile = Files.createTempFile("readrico-bench-", ".rdsnap");
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.WRITE)) {
+            writeSnapshot(channel);
+        }
+
+        long csvBytes = Files.size(csvFile);
+        long snapshotBytes = Files.size(snapshotFile);
+        System.out.printf("%nサイズ（%d件）: CSV %,d バイト / スナップショット %,d バイト（%.1f%%）%n",
+                rows, csvBytes, snapshotBytes, snapshotBytes * 100.0 / csvBytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csvFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public void exportCsv() throws IOException {
+        service.exportToCsv(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public long exportSnapshot() throws IOException {
+        return writeSnapshot(Channels.newChannel(OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public long parseCsv(Blackhole blackhole) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(csvFile))) {
+            return service.parseCsv(inputStream, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void readSnapshot(Blackhole blackhole) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ReadingRecordSnapshot.Reader reader = new ReadingRecordSnapshot.Reader(channel);
+            ReadingRecord readingRecord;
+            while ((readingRecord = reader.next()) != null) {
+                blackhole.consume(readingRecord);
+            }
+        }
+    }
+
+    private long writeSnapshot(WritableByteChannel channel) throws IOException {
+        ReadingRecordSnapshot.Writer writer = new ReadingRecordSnapshot.Writer(channel);
+        try (Stream<ReadingRecord> stream = records.get()) {
+            Iterator<ReadingRecord> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+        return writer.finish();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.myapplication.controller;
+
+import com.example.myapplication.service.ImportJob;
+import com.example.myapplication.service.ImportJobService;
+import com.example.myapplication.service.ImportJobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.time.Clock;
+import java.util.Optional;
+
+@Controller
+@RequestMapping("/reading-records/import-jobs")
+public class ImportJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobController.class);
+
+    private static final String REDIRECT_UPLOAD = "redirect:/reading-records/upload";
+
+    private final ImportJobService importJobService;
+    private final Clock clock;
+
+    @Autowired
+    public ImportJobController(ImportJobService importJobService) {
+        this(importJobService, Clock.systemUTC());
+    }
+
+    ImportJobController(ImportJobService importJobService, Clock clock) {
+        this.importJobService = importJobService;
+        this.clock = clock;
+    }
+
+    /**
+     * 一括登録ジョブの進捗画面
+     * <p>
+     * 画面からは状態取得APIを定期的に呼び出して進捗を更新します。
+     */
+    @GetMapping("/{jobId}")
+    public String show(@PathVariable String jobId, Model model, RedirectAttributes redirectAttributes) {
+        Optional<ImportJob> job = importJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "指定された一括登録ジョブが見つかりません。");
+            return REDIRECT_UPLOAD;
+        }
+        model.addAttribute("job", job.get().getStatus(clock.instant()));
+        return "reading-records/import-job";
+    }
+
+    /**
+     * 一括登録ジョブの状態取得API
+     *
+     * @return ジョブの状態と進捗（JSON）。ジョブが見つからない場合は404
+     */
+    @GetMapping("/{jobId}/status")
+    @ResponseBody
+    public ResponseEntity<ImportJobStatus> status(@PathVariable String jobId) {
+        return importJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(job.getStatus(clock.instant())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 一括登録ジョブの中止処理
+     */
+    @PostMapping("/{jobId}/cancel")
+    public String cancel(@PathVariable String jobId, RedirectAttributes redirectAttributes) {
+        if (importJobService.cancel(jobId)) {
+            logger.info("一括登録ジョブの中止を受け付けました: {}", jobId);
+            redirectAttributes.addFlashAttribute("message",
+                    "中止を受け付けました。登録済みの読書記録はそのまま残ります。");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "このジョブは既に終了しています。");
+        }
+        return "redirect:/reading-records/import-jobs/" + jobId;
+    }
+}
@@ -1,13 +1,27 @@
 package com.example.myapplication.controller;
 
 import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.service.ImportJob;
+import com.example.myapplication.service.ImportJobService;
+import com.example.myapplication.service.ImportLimitExceededException;
+import com.example.myapplication.service.ImportMode;
+import com.example.myapplication.service.ImportStagingService;
+import com.example.myapplication.service.ReadingProgressBuffer;
+import com.example.myapplication.service.ReadingRecordListQuery;
+import com.example.myapplication.service.ReadingRecordPage;
 import com.example.myapplication.service.ReadingRecordService;
+import com.example.myapplication.service.ReadingRecordSort;
+import com.example.myapplication.service.SearchResult;
+import com.example.myapplication.service.StagedImport;
 import com.example.myapplication.status.ReadingStatus;
-import com.example.myapplication.util.TempMultipartFile;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -16,15 +30,24 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/reading-records")
@@ -36,19 +59,50 @@ public class ReadingRecordController {
     private static final String READING_RECORD = "readingRecord";
     private static final String REDIRECT = "redirect:/reading-records";
     private static final String REDIRECT_UPLOAD = "redirect:/reading-records/upload";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 差分出力で次回の起点（high-water mark）を返すレスポンスヘッダー
+     */
+    static final String HIGH_WATER_MARK_HEADER = "X-High-Water-Mark";
 
     private final ReadingRecordService readingRecordService;
+    private final ImportStagingService importStagingService;
+    private final ImportJobService importJobService;
+    private final ReadingProgressBuffer readingProgressBuffer;
 
     @Autowired
-    public ReadingRecordController(ReadingRecordService readingRecordService) {
+    public ReadingRecordController(ReadingRecordService readingRecordService,
+                                   ImportStagingService importStagingService,
+                                   ImportJobService importJobService,
+                                   ReadingProgressBuffer readingProgressBuffer) {
         this.readingRecordService = readingRecordService;
+        this.importStagingService = importStagingService;
+        this.importJobService = importJobService;
+        this.readingProgressBuffer = readingProgressBuffer;
     }
 
     /**
      * 読書記録一覧画面
+     * <p>
+     * 1ページずつ表示し、次のページは前ページ最後の読書記録を表すカーソルで指定します。
+     * 評価の範囲・著者（完全一致）で絞り込めます。進捗率の高い順に並べる場合は、進捗率の下限でも絞り込めます。
+     * 読書記録が変更されていなければ、DBから読み出さずに304を返します。
      */
     @GetMapping
-    public String list(@RequestParam(defaultValue = "UNREAD") String status, Model model) {
+    public String list(@RequestParam(defaultValue = "UNREAD") String status,
+                       @RequestParam(defaultValue = "UPDATED") String sort,
+                       @RequestParam(defaultValue = "0") int minProgress,
+                       @RequestParam(required = false) Integer minRating,
+                       @RequestParam(required = false) Integer maxRating,
+                       @RequestParam(required = false) String author,
+                       @RequestParam(required = false) String after,
+                       ServletWebRequest webRequest,
+                       Model model) {
+        if (isNotModified(webRequest, model, readingRecordService.getDataVersion())) {
+            return null;
+        }
+
         ReadingStatus readingStatus;
         try {
             readingStatus = ReadingStatus.valueOf(status);
@@ -56,25 +110,79 @@ public class ReadingRecordController {
             readingStatus = ReadingStatus.UNREAD;
         }
 
-        model.addAttribute("readingRecords", readingRecordService.getReadingRecordsByStatus(readingStatus));
+        ReadingRecordSort readingRecordSort;
+        try {
+            readingRecordSort = ReadingRecordSort.valueOf(sort);
+        } catch (IllegalArgumentException e) {
+            readingRecordSort = ReadingRecordSort.UPDATED;
+        }
+
+        ReadingRecordListQuery query = new ReadingRecordListQuery(readingStatus, readingRecordSort, minProgress,
+                minRating, maxRating, author);
+        ReadingRecordPage page = readingRecordService.getReadingRecordPage(query, after);
+        model.addAttribute("readingRecords", page.records());
+        model.addAttribute("nextCursor", page.nextCursor());
+        model.addAttribute("firstPage", after == null || after.isBlank());
         model.addAttribute("currentStatusName", readingStatus.name());
+        model.addAttribute("currentSortName", query.sort().name());
+        model.addAttribute("minProgress", query.minProgress());
+        model.addAttribute("minRating", query.minRating());
+        model.addAttribute("maxRating", query.maxRating());
+        model.addAttribute("author", query.author());
+        model.addAttribute("sorts", ReadingRecordSort.values());
 
         // 各ステータスの件数を追加
-        model.addAttribute("unreadCount", readingRecordService.getCountByStatus(ReadingStatus.UNREAD));
-        model.addAttribute("readingCount", readingRecordService.getCountByStatus(ReadingStatus.READING));
-        model.addAttribute("completedCount", readingRecordService.getCountByStatus(ReadingStatus.COMPLETED));
-        model.addAttribute("pausedCount", readingRecordService.getCountByStatus(ReadingStatus.PAUSED));
+        Map<ReadingStatus, Long> counts = readingRecordService.getCountsByStatus();
+        model.addAttribute("unreadCount", counts.get(ReadingStatus.UNREAD));
+        model.addAttribute("readingCount", counts.get(ReadingStatus.READING));
+        model.addAttribute("completedCount", counts.get(ReadingStatus.COMPLETED));
+        model.addAttribute("pausedCount", counts.get(ReadingStatus.PAUSED));
 
         return "reading-records/list";
     }
 
+    /**
+     * 読書記録検索画面
+     * <p>
+     * タイトル・著者・あらすじ・感想を対象に検索し、関連度の高い順に表示します。
+     */
+    @GetMapping("/search")
+    public String search(@RequestParam(defaultValue = "") String q,
+                         @RequestParam(defaultValue = "") String status,
+                         Model model) {
+        ReadingStatus readingStatus = null;
+        if (!status.isBlank()) {
+            try {
+                readingStatus = ReadingStatus.valueOf(status);
+            } catch (IllegalArgumentException e) {
+                readingStatus = null;
+            }
+        }
+
+        SearchResult result = readingRecordService.searchReadingRecords(q, readingStatus);
+        model.addAttribute("searchQuery", q);
+        model.addAttribute("currentStatusName", readingStatus != null ? readingStatus.name() : "");
+        model.addAttribute(STATUSES, ReadingStatus.values());
+        model.addAttribute("readingRecords", result.records());
+        model.addAttribute("totalHits", result.totalHits());
+        model.addAttribute("truncated", result.isTruncated());
+        return "reading-records/search";
+    }
+
     /**
      * 読書記録詳細・編集画面
+     * <p>
+     * ETagには読書記録ごとのデータのバージョンを使い、変更がなければ読書記録を読み出さずに304を返します。
+     * 他の読書記録の変更ではETagは変わりません。
+     * 読書記録は読み取りキャッシュから取得するため、キャッシュにあればDBにも問い合わせません。
      */
     @GetMapping("/{id}")
-    public String detail(@PathVariable Long id, Model model) {
-        Optional<ReadingRecord> readingRecord = readingRecordService.getReadingRecordById(id);
+    public String detail(@PathVariable Long id, ServletWebRequest webRequest, Model model) {
+        if (isNotModified(webRequest, model, readingRecordService.getRecordVersion(id))) {
+            return null;
+        }
 
+        Optional<ReadingRecord> readingRecord = readingRecordService.getReadingRecordById(id);
         if (readingRecord.isEmpty()) {
             return REDIRECT;
         }
@@ -119,13 +227,21 @@ public class ReadingRecordController {
 
     /**
      * 読書記録保存処理
+     * <p>
+     * 編集画面を開いた後に他の画面・端末で更新されていた場合は保存せず、
+     * 入力内容と最新の内容を並べた編集画面を409で返します。
      */
     @PostMapping("/save")
-    public String save(@ModelAttribute ReadingRecord readingRecord, RedirectAttributes redirectAttributes) {
+    public String save(@ModelAttribute ReadingRecord readingRecord, Model model, HttpServletResponse response,
+                       RedirectAttributes redirectAttributes) {
         try {
             ReadingRecord saved = readingRecordService.saveReadingRecord(readingRecord);
             redirectAttributes.addFlashAttribute("message", "読書記録を保存しました。");
             return REDIRECT + "/" + saved.getId();
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("読書記録の保存が他の更新と競合しました: id={}, version={}",
+                    readingRecord.getId(), readingRecord.getVersion());
+            return saveConflict(readingRecord, model, response, redirectAttributes);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "保存中にエラーが発生しました。");
             if (readingRecord.getId() != null) {
@@ -136,62 +252,296 @@ public class ReadingRecordController {
         }
     }
 
+    /**
+     * 保存が他の更新と競合した場合の編集画面
+     * <p>
+     * 入力内容はそのまま残し、最新のバージョンを設定します（確認したうえで再度保存すると上書きされます）。
+     */
+    private String saveConflict(ReadingRecord readingRecord, Model model, HttpServletResponse response,
+                                RedirectAttributes redirectAttributes) {
+        Optional<ReadingRecord> latest = readingRecordService.getReadingRecordById(readingRecord.getId());
+        if (latest.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "他の画面・端末で削除されたため、保存できませんでした。");
+            return REDIRECT;
+        }
+
+        readingRecord.setVersion(latest.get().getVersion());
+        readingRecord.setCreatedAt(latest.get().getCreatedAt());
+        response.setStatus(HttpStatus.CONFLICT.value());
+        model.addAttribute("error", "他の画面・端末で先に更新されたため、保存していません。"
+                + "最新の内容を確認し、上書きする場合はもう一度保存してください。");
+        model.addAttribute(READING_RECORD, readingRecord);
+        model.addAttribute("latestRecord", latest.get());
+        model.addAttribute(STATUSES, ReadingStatus.values());
+        return "reading-records/form";
+    }
+
     /**
      * 読書記録削除処理
+     * <p>
+     * 詳細画面から表示した時点のバージョンが送られた場合は、その後に更新されていれば削除しません。
      */
     @PostMapping("/{id}/delete")
-    public String delete(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+    public String delete(@PathVariable Long id, @RequestParam(required = false) Long version,
+                         RedirectAttributes redirectAttributes) {
         try {
-            readingRecordService.deleteReadingRecord(id);
+            if (version != null) {
+                readingRecordService.deleteReadingRecord(id, version);
+            } else {
+                readingRecordService.deleteReadingRecord(id);
+            }
             redirectAttributes.addFlashAttribute("message", "読書記録を削除しました。");
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("読書記録の削除が他の更新と競合しました: id={}, version={}", id, version);
+            redirectAttributes.addFlashAttribute("error",
+                    "他の画面・端末で更新されたため、削除していません。内容を確認してから削除してください。");
+            return REDIRECT + "/" + id;
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "削除中にエラーが発生しました。");
         }
         return REDIRECT;
     }
 
+    /**
+     * 現在ページの報告API（電子書籍リーダーなどからの頻繁な報告向け）
+     * <p>
+     * 読書記録全体を保存せず、現在ページだけを受け付けてすぐに202を返します。
+     * 書き込みは一定間隔でまとめて行い、総ページ数に達した読書記録は読了にします。
+     *
+     * @return 受け付けた場合は202、現在ページが負の場合は400
+     */
+    @PostMapping("/{id}/progress")
+    @ResponseBody
+    public ResponseEntity<Void> reportProgress(@PathVariable Long id, @RequestParam int currentPage) {
+        if (currentPage < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        readingProgressBuffer.submit(id, currentPage);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * 選択した読書記録の読書状態の一括変更処理
+     */
+    @PostMapping("/bulk/status")
+    public String bulkUpdateStatus(@RequestParam(required = false) List<Long> ids,
+                                   @RequestParam ReadingStatus status,
+                                   @RequestParam(defaultValue = "UNREAD") String currentStatus,
+                                   RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "読書記録が選択されていません。");
+        } else {
+            try {
+                int updated = readingRecordService.updateReadingStatus(ids, status);
+                redirectAttributes.addFlashAttribute("message",
+                        updated + "件の読書記録を「" + status.getDisplayName() + "」に変更しました。");
+            } catch (Exception e) {
+                logger.error("読書状態の一括変更中にエラーが発生しました: {}", e.getMessage(), e);
+                redirectAttributes.addFlashAttribute("error", "一括変更中にエラーが発生しました。");
+            }
+        }
+        return redirectToList(currentStatus);
+    }
+
+    /**
+     * 選択した読書記録の進捗の一括設定処理
+     */
+    @PostMapping("/bulk/progress")
+    public String bulkUpdateProgress(@RequestParam(required = false) List<Long> ids,
+                                     @RequestParam(required = false) Integer percent,
+                                     @RequestParam(defaultValue = "UNREAD") String currentStatus,
+                                     RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "読書記録が選択されていません。");
+        } else if (percent == null || percent < 0 || percent > 100) {
+            redirectAttributes.addFlashAttribute("error", "進捗率は0〜100で指定してください。");
+        } else {
+            try {
+                int updated = readingRecordService.updateProgress(ids, percent);
+                redirectAttributes.addFlashAttribute("message",
+                        updated + "件の読書記録の進捗を" + percent + "%に設定しました（総ページ数が未設定のものは除く）。");
+            } catch (Exception e) {
+                logger.error("進捗の一括設定中にエラーが発生しました: {}", e.getMessage(), e);
+                redirectAttributes.addFlashAttribute("error", "一括変更中にエラーが発生しました。");
+            }
+        }
+        return redirectToList(currentStatus);
+    }
+
+    private String redirectToList(String currentStatus) {
+        try {
+            return REDIRECT + "?status=" + ReadingStatus.valueOf(currentStatus).name();
+        } catch (IllegalArgumentException e) {
+            return REDIRECT;
+        }
+    }
+
     /**
      * 読書記録CSV出力処理
+     * <p>
+     * DBから読み出しながらレスポンスへ直接書き込むため、全件をメモリに保持しません。
+     * {@code gzip=true}の場合はgzip圧縮したファイル（.csv.gz）として出力します。
+     * 指定がなくても、クライアントがgzipを受け付ける場合は{@code Content-Encoding: gzip}で圧縮して送信します。
+     * 読書記録が変更されていなければ、DBから読み出さずに304を返します。
      */
     @GetMapping("/export-csv")
-    public ResponseEntity<byte[]> exportCsv() {
-        try {
-            byte[] csvData = readingRecordService.exportToCsv();
-            String fileName = readingRecordService.generateCsvFileName();
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            ServletWebRequest webRequest) {
+        // 圧縮して送る場合は内容のバイト列が異なるため、ETagも分ける
+        String version = readingRecordService.getDataVersion() + (gzip || acceptsGzip(acceptEncoding) ? "-gzip" : "");
+        if (isNotModified(webRequest, version)) {
+            return null;
+        }
+        return streamCsv(readingRecordService.generateCsvFileName(), gzip, acceptEncoding, new HttpHeaders(),
+                readingRecordService::exportToCsv);
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+    /**
+     * 読書記録CSVの差分出力処理
+     * <p>
+     * {@code since}より後に更新・削除された読書記録だけを出力します（削除は削除日時の列で示します）。
+     * {@code since}を指定しない場合は全件を出力します。
+     * 次回の{@code since}に指定する日時を{@value #HIGH_WATER_MARK_HEADER}ヘッダーで返します。
+     * 復元・全件削除・削除記録の整理より前を起点とする場合は、全件を取得し直す必要があるため410を返します。
+     */
+    @GetMapping("/export-csv/changes")
+    public ResponseEntity<StreamingResponseBody> exportChangesCsv(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        LocalDateTime sinceDateTime = null;
+        if (since != null && !since.isBlank()) {
+            try {
+                sinceDateTime = LocalDateTime.parse(since, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            } catch (DateTimeParseException e) {
+                logger.warn("差分出力の起点が不正です: {}", since);
+                return ResponseEntity.badRequest().build();
+            }
+            if (!readingRecordService.isChangeTrackingAvailable(sinceDateTime)) {
+                logger.info("差分出力の起点が記録の範囲外のため、全件の取得が必要です: {}", since);
+                return ResponseEntity.status(HttpStatus.GONE).build();
+            }
+        }
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                    .body(csvData);
-        } catch (IOException e) {
-            // エラーメッセージをログに出力
-            logger.error("CSVファイルの出力中にエラーが発生しました: {}", e.getMessage(), e);
-
-            // ユーザー向けのエラーメッセージを返す
-            String errorMessage = "CSVファイルの出力中にエラーが発生しました。";
-            return ResponseEntity.internalServerError()
-                    .contentType(MediaType.TEXT_PLAIN)
-                    .body(errorMessage.getBytes());
+        // 次回の起点は読み出しを始める前に決めておく（読み出し中の変更は次回も出力される）
+        LocalDateTime highWaterMark = readingRecordService.getChangesHighWaterMark(sinceDateTime);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HIGH_WATER_MARK_HEADER, highWaterMark.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+        LocalDateTime changesSince = sinceDateTime;
+        return streamCsv(readingRecordService.generateChangesCsvFileName(), gzip, acceptEncoding, headers,
+                outputStream -> readingRecordService.exportChangesToCsv(changesSince, outputStream));
+    }
+
+    /**
+     * CSVをレスポンスへ直接書き込むレスポンスを作成します（必要に応じてgzip圧縮します）。
+     */
+    private ResponseEntity<StreamingResponseBody> streamCsv(String fileName, boolean gzip, String acceptEncoding,
+                                                            HttpHeaders headers, StreamingResponseBody csv) {
+        boolean contentEncoding = !gzip && acceptsGzip(acceptEncoding);
+
+        headers.add("Content-Disposition", "attachment; filename=\"" + fileName + (gzip ? ".gz" : "") + "\"");
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (contentEncoding) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                if (gzip || contentEncoding) {
+                    GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+                    csv.writeTo(gzipStream);
+                    gzipStream.finish();
+                } else {
+                    csv.writeTo(outputStream);
+                }
+            } catch (IOException e) {
+                // ヘッダー送信後のためステータスは変更できない。ログのみ出力して接続を打ち切る
+                logger.error("CSVファイルの出力中にエラーが発生しました: {}", e.getMessage(), e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * 条件付きGETの判定を行います（直前の操作のメッセージを表示する画面用）。
+     * <p>
+     * フラッシュ属性でメッセージを受け取った場合は、ブラウザに保存された画面には含まれないため判定せず、常に画面を作ります。
+     */
+    private static boolean isNotModified(ServletWebRequest webRequest, Model model, String version) {
+        if (!model.asMap().isEmpty()) {
+            return false;
+        }
+        return isNotModified(webRequest, version);
+    }
+
+    /**
+     * 条件付きGETの判定を行います。
+     * <p>
+     * 内容が変わると必ず変わるバージョンをETagとして返し、If-None-Matchと一致する場合は304を設定します。
+     * ブラウザが表示のたびに確認するよう、{@code Cache-Control: no-cache}を付けます。
+     *
+     * @return 304を返す場合はtrue（呼び出し元はDBの読み出し・テンプレートの描画をせずにnullを返すこと）
+     */
+    private static boolean isNotModified(ServletWebRequest webRequest, String version) {
+        HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return webRequest.checkNotModified("\"" + version + "\"");
+    }
+
+    /**
+     * Accept-Encodingヘッダーがgzipを受け付けるかどうか（q=0で拒否している場合を除く）
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
     }
 
     /**
      * CSVアップロード画面
      */
     @GetMapping("/upload")
-    public String upload() {
+    public String upload(Model model) {
+        model.addAttribute("importModes", ImportMode.values());
         return "reading-records/upload";
     }
 
     /**
      * CSVファイル確認処理
+     * <p>
+     * 確認画面にプレビューと新規登録・更新・スキップの見込み件数を表示するため、CSVの解析はこのリクエストの中で行います。
+     * 解析は読み込みながら行い、展開後のサイズ・件数の上限で打ち切るため、かかる時間は上限の件数までに収まります。
+     * 時間のかかる登録（コミット）は、登録実行時にバックグラウンドのジョブで行います。
      */
     @PostMapping("/upload/confirm")
-    public String uploadConfirm(@RequestParam("csvFile") MultipartFile csvFile, 
-                                Model model, 
+    public String uploadConfirm(@RequestParam("csvFile") MultipartFile csvFile,
+                                @RequestParam(defaultValue = "INSERT") ImportMode importMode,
+                                Model model,
                                 RedirectAttributes redirectAttributes) {
         try {
             // ファイルの基本チェック
@@ -201,27 +551,32 @@ public class ReadingRecordController {
             }
 
             String filename = csvFile.getOriginalFilename();
-            if (filename == null || !filename.toLowerCase().endsWith(".csv")) {
-                redirectAttributes.addFlashAttribute("error", "CSVファイルを選択してください。");
+            if (filename == null || !isCsvFileName(filename.toLowerCase(Locale.ROOT))) {
+                redirectAttributes.addFlashAttribute("error", "CSVファイル（.csv または .csv.gz）を選択してください。");
                 return REDIRECT_UPLOAD;
             }
 
-            // CSVファイルを解析
-            List<ReadingRecord> records = readingRecordService.parseCsvFile(csvFile);
+            // CSVファイルを解析してサーバー側に保持
+            StagedImport stagedImport = importStagingService.stage(csvFile, importMode);
 
-            if (records.isEmpty()) {
+            if (stagedImport.getRecordCount() == 0) {
+                importStagingService.discard(stagedImport.getToken());
                 redirectAttributes.addFlashAttribute("error", "有効なデータが見つかりませんでした。");
                 return REDIRECT_UPLOAD;
             }
 
-            // CSVデータをBase64エンコードして保持
-            String csvData = Base64.getEncoder().encodeToString(csvFile.getBytes());
-
-            model.addAttribute("readingRecords", records);
-            model.addAttribute("csvData", csvData);
+            model.addAttribute("readingRecords", stagedImport.getPreview());
+            model.addAttribute("totalCount", stagedImport.getRecordCount());
+            model.addAttribute("importMode", stagedImport.getImportMode());
+            model.addAttribute("plannedCounts", stagedImport.getPlannedCounts());
+            model.addAttribute("importToken", stagedImport.getToken());
 
             return "reading-records/upload-confirm";
 
+        } catch (ImportLimitExceededException e) {
+            logger.warn("CSVファイルが取り込みの上限を超えました: {}", e.getMessage());
+            redirectAttributes.addFlashAttribute("error", e.getMessage() + "。");
+            return REDIRECT_UPLOAD;
         } catch (IOException e) {
             logger.error("CSVファイルの読み込み中にエラーが発生しました: {}", e.getMessage(), e);
             redirectAttributes.addFlashAttribute("error", "CSVファイルの読み込み中にエラーが発生しました。");
@@ -233,30 +588,28 @@ public class ReadingRecordController {
         }
     }
 
+    private static boolean isCsvFileName(String filename) {
+        return filename.endsWith(".csv") || filename.endsWith(".csv.gz");
+    }
+
     /**
      * CSV一括登録実行処理
+     * <p>
+     * 確認画面で解析・保持したデータをトークンで指定し、バックグラウンドのジョブとして登録します。
+     * 登録の完了を待たずにジョブの進捗画面へ遷移します。
      */
     @PostMapping("/upload/save")
-    public String uploadSave(@RequestParam("csvData") String csvData, RedirectAttributes redirectAttributes) {
+    public String uploadSave(@RequestParam("importToken") String importToken, RedirectAttributes redirectAttributes) {
         try {
-            // Base64デコードしてCSVデータを復元
-            byte[] decodedData = Base64.getDecoder().decode(csvData);
-            
-            // 一時的なMultipartFileを作成して再解析
-            MultipartFile tempFile = new TempMultipartFile(decodedData, "temp.csv", "text/csv");
-            List<ReadingRecord> records = readingRecordService.parseCsvFile(tempFile);
-
-            if (records.isEmpty()) {
-                redirectAttributes.addFlashAttribute("error", "有効なデータが見つかりませんでした。");
+            Optional<ImportJob> job = importJobService.submit(importToken);
+
+            if (job.isEmpty()) {
+                redirectAttributes.addFlashAttribute("error",
+                        "登録データの有効期限が切れました。もう一度CSVファイルを選択してください。");
                 return REDIRECT_UPLOAD;
             }
 
-            // 一括登録
-            List<ReadingRecord> savedRecords = readingRecordService.saveReadingRecords(records);
-
-            redirectAttributes.addFlashAttribute("message", 
-                savedRecords.size() + "件の読書記録を登録しました。");
-            return REDIRECT;
+            return "redirect:/reading-records/import-jobs/" + job.get().getId();
 
         } catch (Exception e) {
             logger.error("CSV一括登録中にエラーが発生しました: {}", e.getMessage(), e);
@@ -1,31 +1,50 @@
 package com.example.myapplication.controller;
 
 import com.example.myapplication.service.ReadingRecordService;
+import com.example.myapplication.service.ReadingRecordSnapshotService;
+import com.example.myapplication.status.ReadingStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @Controller
 @RequestMapping("/settings")
 public class SettingsController {
 
     private static final Logger logger = LoggerFactory.getLogger(SettingsController.class);
 
+    private static final String REDIRECT_SETTINGS = "redirect:/settings";
+
     private final ReadingRecordService readingRecordService;
+    private final ReadingRecordSnapshotService snapshotService;
 
-    public SettingsController(ReadingRecordService readingRecordService) {
+    public SettingsController(ReadingRecordService readingRecordService,
+                              ReadingRecordSnapshotService snapshotService) {
         this.readingRecordService = readingRecordService;
+        this.snapshotService = snapshotService;
     }
 
     /**
      * 設定画面
      */
     @GetMapping
-    public String settings() {
+    public String settings(Model model) {
+        model.addAttribute("cacheStatistics", readingRecordService.getCacheStatistics());
+        model.addAttribute("statuses", ReadingStatus.values());
         return "settings";
     }
 
@@ -35,12 +54,80 @@ public class SettingsController {
     @PostMapping("/delete-all")
     public String deleteAll(RedirectAttributes redirectAttributes) {
         try {
-            readingRecordService.deleteAllReadingRecords();
-            redirectAttributes.addFlashAttribute("message", "全ての読書記録を削除しました。");
+            int deleted = readingRecordService.deleteAllReadingRecords();
+            redirectAttributes.addFlashAttribute("message", "全ての読書記録（" + deleted + "件）を削除しました。");
         } catch (Exception e) {
             logger.error("一括削除中にエラーが発生しました: {}", e.getMessage(), e);
             redirectAttributes.addFlashAttribute("error", "一括削除中にエラーが発生しました。");
         }
-        return "redirect:/settings";
+        return REDIRECT_SETTINGS;
+    }
+
+    /**
+     * 読書状態を指定した一括削除処理
+     */
+    @PostMapping("/delete-by-status")
+    public String deleteByStatus(@RequestParam ReadingStatus status, RedirectAttributes redirectAttributes) {
+        try {
+            int deleted = readingRecordService.deleteReadingRecordsByStatus(status);
+            redirectAttributes.addFlashAttribute("message",
+                    "「" + status.getDisplayName() + "」の読書記録を" + deleted + "件削除しました。");
+        } catch (Exception e) {
+            logger.error("一括削除中にエラーが発生しました: {}", e.getMessage(), e);
+            redirectAttributes.addFlashAttribute("error", "一括削除中にエラーが発生しました。");
+        }
+        return REDIRECT_SETTINGS;
+    }
+
+    /**
+     * スナップショット（バックアップ）出力処理
+     * <p>
+     * DBから読み出しながらレスポンスへ直接書き込むため、全件をメモリに保持しません。
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<StreamingResponseBody> exportSnapshot() {
+        String fileName = snapshotService.generateSnapshotFileName();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                snapshotService.exportSnapshot(outputStream);
+            } catch (IOException e) {
+                // ヘッダー送信後のためステータスは変更できない。ログのみ出力して接続を打ち切る
+                logger.error("スナップショットの出力中にエラーが発生しました: {}", e.getMessage(), e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    /**
+     * スナップショットからの復元処理（既存の読書記録は全て置き換えます）
+     */
+    @PostMapping("/snapshot/restore")
+    public String restoreSnapshot(@RequestParam("snapshotFile") MultipartFile snapshotFile,
+                                  RedirectAttributes redirectAttributes) {
+        if (snapshotFile.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "ファイルが選択されていません。");
+            return REDIRECT_SETTINGS;
+        }
+
+        try (InputStream inputStream = snapshotFile.getInputStream()) {
+            long restoredCount = snapshotService.restoreSnapshot(inputStream);
+            redirectAttributes.addFlashAttribute("message", restoredCount + "件の読書記録を復元しました。");
+        } catch (IOException e) {
+            logger.error("スナップショットの復元に失敗しました: {}", e.getMessage(), e);
+            redirectAttributes.addFlashAttribute("error", "スナップショットの復元に失敗しました: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("スナップショットの復元中にエラーが発生しました: {}", e.getMessage(), e);
+            redirectAttributes.addFlashAttribute("error", "スナップショットの復元中にエラーが発生しました。");
+        }
+        return REDIRECT_SETTINGS;
     }
 }
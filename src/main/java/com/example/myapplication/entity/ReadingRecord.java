@@ -8,7 +8,9 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -18,8 +20,10 @@ import java.time.LocalDateTime;
 @Data
 public class ReadingRecord {
 
+    // IDENTITYではJDBCバッチINSERTが使えないため、採番をまとめて行うシーケンスを使用
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reading_record_seq")
+    @SequenceGenerator(name = "reading_record_seq", sequenceName = "reading_record_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -37,6 +41,10 @@ public class ReadingRecord {
     @Column(name = "total_pages")
     private Integer totalPages;
 
+    // 進捗率（％）。現在ページ・総ページ数からDB側で計算する列のため読み込み専用（保存後の値は読み込み直すまで更新されない）
+    @Column(name = "progress_percent", insertable = false, updatable = false)
+    private Integer progressPercent;
+
     private Integer rating;
 
     @Column(columnDefinition = "TEXT")
@@ -50,4 +58,8 @@ public class ReadingRecord {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // 楽観的ロック用のバージョン。編集画面で読み込んだ時点から他の更新があれば保存を失敗させる
+    @Version
+    private Long version;
 }
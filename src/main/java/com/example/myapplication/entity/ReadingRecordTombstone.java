@@ -0,0 +1,29 @@
+package com.example.myapplication.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 削除した読書記録の記録（差分出力で削除を伝えるために使用）
+ */
+@Entity
+@Table(name = "reading_record_tombstone")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingRecordTombstone {
+
+    // 削除した読書記録のID（採番はしない）
+    @Id
+    private Long id;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
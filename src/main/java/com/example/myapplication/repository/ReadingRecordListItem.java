@@ -0,0 +1,27 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.status.ReadingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 読書記録一覧の1件分（一覧のカード表示とページ送りに必要な列だけを持つ）
+ * <p>
+ * 概要・感想（TEXT列）は読み込まないため、長い感想を書いている場合も一覧の取得で読み出すデータ量が増えません。
+ * ページ送りのカーソルには、並び順に使う列（更新日時・進捗率・評価・タイトル・著者・登録日時）とIDを使います。
+ *
+ * @param id              ID
+ * @param title           タイトル
+ * @param author          著者
+ * @param readingStatus   読書状態
+ * @param currentPage     現在ページ
+ * @param totalPages      総ページ数
+ * @param progressPercent 進捗率（％、DB側で計算した値）
+ * @param rating          評価
+ * @param createdAt       登録日時
+ * @param updatedAt       更新日時
+ */
+public record ReadingRecordListItem(Long id, String title, String author, ReadingStatus readingStatus,
+                                    Integer currentPage, Integer totalPages, Integer progressPercent, Integer rating,
+                                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
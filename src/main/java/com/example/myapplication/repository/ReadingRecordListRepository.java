@@ -0,0 +1,27 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.entity.ReadingRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * 条件を組み合わせて読書記録一覧を取得するクエリ（{@link ReadingRecordRepository}に組み込む）
+ */
+public interface ReadingRecordListRepository {
+
+    /**
+     * 条件に合う読書記録一覧を指定した順に取得（一覧表示用の列のみ）
+     * <p>
+     * 条件は{@link ReadingRecordSpecifications}で組み立ててください。
+     * 概要・感想（TEXT列）は読み込みません。
+     *
+     * @param spec  絞り込み条件
+     * @param sort  並び順
+     * @param limit 取得する件数の上限
+     * @return 一覧表示用の読書記録
+     */
+    List<ReadingRecordListItem> findListItems(Specification<ReadingRecord> spec, Sort sort, Limit limit);
+}
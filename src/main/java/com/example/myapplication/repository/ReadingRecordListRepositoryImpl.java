@@ -0,0 +1,52 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.entity.ReadingRecord;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * {@link ReadingRecordListRepository}の実装
+ * <p>
+ * {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}はエンティティ全体を読み込むため、
+ * 一覧表示用の列だけを選ぶCriteriaクエリに条件（Specification）を適用しています。
+ */
+class ReadingRecordListRepositoryImpl implements ReadingRecordListRepository {
+
+    private final EntityManager entityManager;
+
+    ReadingRecordListRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ReadingRecordListItem> findListItems(Specification<ReadingRecord> spec, Sort sort, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReadingRecordListItem> query = cb.createQuery(ReadingRecordListItem.class);
+        Root<ReadingRecord> r = query.from(ReadingRecord.class);
+        query.select(cb.construct(ReadingRecordListItem.class,
+                r.get("id"), r.get("title"), r.get("author"), r.get("readingStatus"), r.get("currentPage"),
+                r.get("totalPages"), r.get("progressPercent"), r.get("rating"), r.get("createdAt"),
+                r.get("updatedAt")));
+        Predicate predicate = spec.toPredicate(r, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, r, cb));
+
+        TypedQuery<ReadingRecordListItem> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+}
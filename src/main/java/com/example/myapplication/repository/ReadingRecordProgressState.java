@@ -0,0 +1,17 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.status.ReadingStatus;
+
+/**
+ * 進捗の反映に必要な読書記録の列（進捗の書き込み前に読み込む）
+ */
+public interface ReadingRecordProgressState {
+
+    Long getId();
+
+    ReadingStatus getReadingStatus();
+
+    Integer getTotalPages();
+
+    long getVersion();
+}
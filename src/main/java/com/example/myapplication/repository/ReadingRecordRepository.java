@@ -2,15 +2,208 @@ package com.example.myapplication.repository;
 
 import com.example.myapplication.entity.ReadingRecord;
 import com.example.myapplication.status.ReadingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ReadingRecordRepository extends JpaRepository<ReadingRecord, Long> {
+public interface ReadingRecordRepository extends JpaRepository<ReadingRecord, Long>, ReadingRecordListRepository {
 
-    List<ReadingRecord> findByReadingStatusOrderByUpdatedAtDesc(ReadingStatus readingStatus);
+    /**
+     * 読書状態ごとの読書記録一覧を更新日時の新しい順に取得（一覧表示用の列のみ）
+     */
+    @Query("SELECT new com.example.myapplication.repository.ReadingRecordListItem("
+            + "r.id, r.title, r.author, r.readingStatus, r.currentPage, r.totalPages, r.progressPercent, r.rating, "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM ReadingRecord r WHERE r.readingStatus = :readingStatus ORDER BY r.updatedAt DESC")
+    List<ReadingRecordListItem> findByReadingStatusOrderByUpdatedAtDesc(ReadingStatus readingStatus);
+
+    /**
+     * 読書状態ごとの読書記録一覧の先頭ページを更新日時の新しい順に取得（一覧表示用の列のみ）
+     * <p>
+     * ORDER BYの先頭にWHEREで固定済みの読書状態を含めることで、
+     * (reading_status, updated_at DESC, id DESC) の複合インデックス順に読み出し、ソートを不要にしています。
+     * 概要・感想（TEXT列）は読み込みません。
+     */
+    @Query("SELECT new com.example.myapplication.repository.ReadingRecordListItem("
+            + "r.id, r.title, r.author, r.readingStatus, r.currentPage, r.totalPages, r.progressPercent, r.rating, "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM ReadingRecord r WHERE r.readingStatus = :readingStatus "
+            + "ORDER BY r.readingStatus, r.updatedAt DESC, r.id DESC")
+    List<ReadingRecordListItem> findPageByReadingStatus(ReadingStatus readingStatus, Limit limit);
+
+    /**
+     * 読書状態ごとの読書記録一覧の続きのページを取得（キーセット方式、一覧表示用の列のみ）
+     * <p>
+     * 前ページ最後の(更新日時, ID)より後ろの行だけを、複合インデックス順に読み出します。
+     */
+    @Query("SELECT new com.example.myapplication.repository.ReadingRecordListItem("
+            + "r.id, r.title, r.author, r.readingStatus, r.currentPage, r.totalPages, r.progressPercent, r.rating, "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM ReadingRecord r WHERE r.readingStatus = :readingStatus "
+            + "AND (r.updatedAt < :updatedAt OR (r.updatedAt = :updatedAt AND r.id < :id)) "
+            + "ORDER BY r.readingStatus, r.updatedAt DESC, r.id DESC")
+    List<ReadingRecordListItem> findPageByReadingStatusAfter(ReadingStatus readingStatus, LocalDateTime updatedAt, Long id,
+                                                     Limit limit);
+
+    /**
+     * 読書状態ごとの読書記録一覧の先頭ページを進捗率の高い順に取得（一覧表示用の列のみ）
+     * <p>
+     * (reading_status, progress_percent DESC, id DESC) の複合インデックスを範囲検索し、
+     * 指定した進捗率以上の行だけをインデックス順に読み出します。
+     *
+     * @param minProgress 進捗率の下限（％、絞り込まない場合は0）
+     */
+    @Query("SELECT new com.example.myapplication.repository.ReadingRecordListItem("
+            + "r.id, r.title, r.author, r.readingStatus, r.currentPage, r.totalPages, r.progressPercent, r.rating, "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM ReadingRecord r WHERE r.readingStatus = :readingStatus AND r.progressPercent >= :minProgress "
+            + "ORDER BY r.readingStatus, r.progressPercent DESC, r.id DESC")
+    List<ReadingRecordListItem> findPageByReadingStatusOrderByProgress(ReadingStatus readingStatus, int minProgress,
+                                                                       Limit limit);
+
+    /**
+     * 読書状態ごとの読書記録一覧の続きのページを進捗率の高い順に取得（キーセット方式、一覧表示用の列のみ）
+     * <p>
+     * 前ページ最後の(進捗率, ID)より後ろの行だけを、複合インデックス順に読み出します。
+     *
+     * @param minProgress 進捗率の下限（％、絞り込まない場合は0）
+     */
+    @Query("SELECT new com.example.myapplication.repository.ReadingRecordListItem("
+            + "r.id, r.title, r.author, r.readingStatus, r.currentPage, r.totalPages, r.progressPercent, r.rating, "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM ReadingRecord r WHERE r.readingStatus = :readingStatus AND r.progressPercent >= :minProgress "
+            + "AND (r.progressPercent < :progressPercent OR (r.progressPercent = :progressPercent AND r.id < :id)) "
+            + "ORDER BY r.readingStatus, r.progressPercent DESC, r.id DESC")
+    List<ReadingRecordListItem> findPageByReadingStatusOrderByProgressAfter(ReadingStatus readingStatus, int minProgress,
+                                                                            int progressPercent, Long id, Limit limit);
 
     long countByReadingStatus(ReadingStatus readingStatus);
+
+    /**
+     * 読書記録が1件以上あるかどうか（全件を数えずに判定）
+     */
+    boolean existsBy();
+
+    /**
+     * 読書状態ごとの件数を1回の集計クエリで取得（件数0の読書状態は含まれない）
+     */
+    @Query("SELECT r.readingStatus AS readingStatus, COUNT(r) AS count FROM ReadingRecord r GROUP BY r.readingStatus")
+    List<ReadingStatusCount> countGroupByReadingStatus();
+
+    /**
+     * 読書記録の読書状態だけを取得
+     */
+    @Query("SELECT r.readingStatus FROM ReadingRecord r WHERE r.id = :id")
+    Optional<ReadingStatus> findReadingStatusById(Long id);
+
+    /**
+     * 全件をID順にストリームで取得（CSV出力用）
+     * <p>
+     * 読み取り専用・フェッチサイズ指定で、結果セットを少しずつ読み進めます。
+     * トランザクション内で呼び出し、使用後は必ずクローズしてください。
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ReadingRecord> streamAllByOrderByIdAsc();
+
+    /**
+     * 指定日時より後に更新された読書記録を更新日時・ID順にストリームで取得（差分出力用）
+     * <p>
+     * (updated_at, id) のインデックスの範囲を順に読み出すため、変更が少なければ全件数に関わらず短時間で終わります。
+     * トランザクション内で呼び出し、使用後は必ずクローズしてください。
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ReadingRecord> streamByUpdatedAtAfterOrderByUpdatedAtAscIdAsc(LocalDateTime updatedAt);
+
+    /**
+     * 指定したIDの読書記録の読書状態ごとの件数を取得（一括変更の前後で件数カウンターを補正するため）
+     */
+    @Query("SELECT r.readingStatus AS readingStatus, COUNT(r) AS count FROM ReadingRecord r "
+            + "WHERE r.id IN :ids GROUP BY r.readingStatus")
+    List<ReadingStatusCount> countGroupByReadingStatusByIdIn(Collection<Long> ids);
+
+    /**
+     * 指定したIDの読書記録の読書状態・総ページ数・バージョンを取得（進捗をまとめて書き込む前の確認用）
+     */
+    @Query("SELECT r.id AS id, r.readingStatus AS readingStatus, r.totalPages AS totalPages, r.version AS version "
+            + "FROM ReadingRecord r WHERE r.id IN :ids")
+    List<ReadingRecordProgressState> findProgressStatesByIdIn(Collection<Long> ids);
+
+    /**
+     * 指定したIDの読書記録のあらすじ・感想を取得（検索インデックスの候補を本文で確認するため）
+     */
+    @Query("SELECT r.id AS id, r.summary AS summary, r.thoughts AS thoughts FROM ReadingRecord r WHERE r.id IN :ids")
+    List<ReadingRecordSearchText> findSearchTextsByIdIn(Collection<Long> ids);
+
+    /**
+     * 全ての読書記録を1文で削除（エンティティを読み込まずに削除します）
+     *
+     * @return 削除した件数
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ReadingRecord r")
+    int deleteAllInBulk();
+
+    /**
+     * 指定した読書状態の読書記録を1文で削除
+     *
+     * @return 削除した件数
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ReadingRecord r WHERE r.readingStatus = :readingStatus")
+    int deleteByReadingStatusInBulk(ReadingStatus readingStatus);
+
+    /**
+     * 指定したIDの読書記録の読書状態を1文で変更（編集中の画面からの保存を失敗させるため、バージョンも進める）
+     *
+     * @return 変更した件数
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReadingRecord r SET r.readingStatus = :readingStatus, r.updatedAt = :updatedAt, "
+            + "r.version = r.version + 1 WHERE r.id IN :ids")
+    int updateReadingStatusByIdIn(Collection<Long> ids, ReadingStatus readingStatus, LocalDateTime updatedAt);
+
+    /**
+     * 指定したIDの読書記録の現在ページを、総ページ数に対する割合で1文で設定（総ページ数が未設定のものは対象外。バージョンも進める）
+     *
+     * @return 変更した件数
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReadingRecord r SET r.currentPage = r.totalPages * :percent / 100, r.updatedAt = :updatedAt, "
+            + "r.version = r.version + 1 WHERE r.id IN :ids AND r.totalPages IS NOT NULL")
+    int updateProgressByIdIn(Collection<Long> ids, int percent, LocalDateTime updatedAt);
+
+    /**
+     * 指定したIDのうち、存在する読書記録のIDを取得（CSV取り込みの照合用）
+     */
+    @Query("SELECT r.id FROM ReadingRecord r WHERE r.id IN :ids")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    /**
+     * 指定した正規化済みのタイトル・著者の組のうち、既に登録されているものを取得（CSV取り込みの重複判定用）
+     * <p>
+     * natural_keyはDB側で計算する列のため、エンティティには持たせずSQLで照合します。
+     */
+    @Query(value = "SELECT DISTINCT natural_key FROM reading_record WHERE natural_key IN (:naturalKeys)",
+            nativeQuery = true)
+    List<String> findNaturalKeysIn(Collection<String> naturalKeys);
 }
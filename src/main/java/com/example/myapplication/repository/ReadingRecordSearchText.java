@@ -0,0 +1,13 @@
+package com.example.myapplication.repository;
+
+/**
+ * 検索結果の確認に使う読書記録の本文（あらすじ・感想）
+ */
+public interface ReadingRecordSearchText {
+
+    Long getId();
+
+    String getSummary();
+
+    String getThoughts();
+}
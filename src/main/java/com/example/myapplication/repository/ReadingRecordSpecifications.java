@@ -0,0 +1,90 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.status.ReadingStatus;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * 読書記録一覧の絞り込み条件（{@link ReadingRecordListRepository#findListItems}で使用）
+ * <p>
+ * 一覧は読書状態から始まる複合インデックスで読み出すため、読書状態の条件は必ず含めてください。
+ */
+public final class ReadingRecordSpecifications {
+
+    private ReadingRecordSpecifications() {
+    }
+
+    /**
+     * 指定した読書状態の読書記録
+     */
+    public static Specification<ReadingRecord> hasReadingStatus(ReadingStatus readingStatus) {
+        return (root, query, cb) -> cb.equal(root.get("readingStatus"), readingStatus);
+    }
+
+    /**
+     * 進捗率が下限以上の読書記録
+     */
+    public static Specification<ReadingRecord> progressAtLeast(int minProgress) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("progressPercent"), minProgress);
+    }
+
+    /**
+     * 評価が範囲内の読書記録（評価が未設定のものは含まない）
+     *
+     * @param minRating 下限（nullの場合は指定しない）
+     * @param maxRating 上限（nullの場合は指定しない）
+     */
+    public static Specification<ReadingRecord> ratingBetween(Integer minRating, Integer maxRating) {
+        return (root, query, cb) -> {
+            Path<Integer> rating = root.get("rating");
+            if (minRating != null && maxRating != null) {
+                return cb.between(rating, minRating, maxRating);
+            }
+            if (minRating != null) {
+                return cb.greaterThanOrEqualTo(rating, minRating);
+            }
+            return maxRating != null ? cb.lessThanOrEqualTo(rating, maxRating) : null;
+        };
+    }
+
+    /**
+     * 著者が一致する読書記録
+     */
+    public static Specification<ReadingRecord> authorIs(String author) {
+        return (root, query, cb) -> cb.equal(root.get("author"), author);
+    }
+
+    /**
+     * 前ページ最後の行（並び順の値, ID）より後ろの読書記録（キーセット方式のページ送り）
+     * <p>
+     * 同じ値の行はIDを並び順と同じ向きに並べている前提です。
+     * 値が未設定（null）の行はH2の順序に合わせ、降順では末尾、昇順では先頭にあるものとして扱います。
+     *
+     * @param attribute  並び順に使う属性名
+     * @param descending 降順かどうか
+     * @param nullable   値が未設定の行があるかどうか
+     * @param value      前ページ最後の行の値
+     * @param id         前ページ最後の行のID
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<ReadingRecord> after(String attribute, boolean descending, boolean nullable,
+                                                     Comparable<?> value, long id) {
+        // 値の型は属性ごとに異なるため（日時・整数・文字列）、比較は原型で組み立てる
+        Comparable comparableValue = value;
+        return (root, query, cb) -> {
+            Path<Comparable> key = root.get(attribute);
+            Path<Long> keyId = root.get("id");
+            Predicate idAfter = descending ? cb.lessThan(keyId, id) : cb.greaterThan(keyId, id);
+            if (value == null) {
+                Predicate sameNull = cb.and(cb.isNull(key), idAfter);
+                return descending ? sameNull : cb.or(sameNull, cb.isNotNull(key));
+            }
+            Predicate beyond = descending
+                    ? cb.lessThan(key, comparableValue) : cb.greaterThan(key, comparableValue);
+            Predicate next = cb.or(beyond, cb.and(cb.equal(key, comparableValue), idAfter));
+            return nullable && descending ? cb.or(next, cb.isNull(key)) : next;
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.entity.ReadingRecordTombstone;
+import com.example.myapplication.status.ReadingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+@Repository
+public interface ReadingRecordTombstoneRepository extends JpaRepository<ReadingRecordTombstone, Long> {
+
+    /**
+     * 指定日時より後に削除した読書記録の記録を削除日時順にストリームで取得（差分出力用）
+     * <p>
+     * トランザクション内で呼び出し、使用後は必ずクローズしてください。
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ReadingRecordTombstone> streamByDeletedAtAfterOrderByDeletedAtAscIdAsc(LocalDateTime deletedAt);
+
+    /**
+     * 指定日時より前に削除した読書記録の記録をまとめて削除
+     *
+     * @return 削除した件数
+     */
+    @Modifying
+    @Query("DELETE FROM ReadingRecordTombstone t WHERE t.deletedAt < :deletedAt")
+    int deleteByDeletedAtBefore(LocalDateTime deletedAt);
+
+    /**
+     * 指定した読書状態の読書記録を削除したことを1文でまとめて記録（読書記録の削除より前に、同じトランザクション内で呼び出すこと）
+     *
+     * @return 記録した件数
+     */
+    @Modifying
+    @Query("INSERT INTO ReadingRecordTombstone (id, deletedAt) "
+            + "SELECT r.id, :deletedAt FROM ReadingRecord r WHERE r.readingStatus = :readingStatus")
+    int insertByReadingStatus(ReadingStatus readingStatus, LocalDateTime deletedAt);
+}
@@ -0,0 +1,13 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.status.ReadingStatus;
+
+/**
+ * 読書状態ごとの件数（集計クエリの結果）
+ */
+public interface ReadingStatusCount {
+
+    ReadingStatus getReadingStatus();
+
+    long getCount();
+}
@@ -0,0 +1,28 @@
+package com.example.myapplication.repository;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.jdbc.dialect.spi.DialectResolutionInfo;
+
+/**
+ * 並べ替えの列を列名で出力するH2用のDialect
+ * <p>
+ * Hibernateは選択した列で並べ替える場合に{@code ORDER BY 4, 8 DESC}のように選択リストの位置で出力しますが、
+ * H2は実行計画を選ぶ時点で位置指定の並べ替えを索引の列と照合できず、並び順と同じ索引があっても
+ * 読書状態が一致する最初の索引を使って全件を並べ替えてしまいます。
+ * 列名で出力することで、一覧の並び順ごとの索引（{@code idx_reading_record_status_*}）が選ばれるようにしています。
+ */
+public class ReadricoH2Dialect extends H2Dialect {
+
+    public ReadricoH2Dialect() {
+        super();
+    }
+
+    public ReadricoH2Dialect(DialectResolutionInfo info) {
+        super(info);
+    }
+
+    @Override
+    public boolean supportsOrdinalSelectItemReference() {
+        return false;
+    }
+}
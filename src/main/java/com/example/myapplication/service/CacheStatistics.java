@@ -0,0 +1,26 @@
+package com.example.myapplication.service;
+
+/**
+ * キャッシュの統計情報
+ *
+ * @param name          キャッシュ名
+ * @param hitCount      ヒット数
+ * @param missCount     ミス数
+ * @param evictionCount サイズ上限・有効期限による破棄数
+ * @param size          現在の保持件数（概算）
+ */
+public record CacheStatistics(String name, long hitCount, long missCount, long evictionCount, long size) {
+
+    /**
+     * ヒット率（％）を返します。
+     *
+     * @return ヒット率（％）。参照がない場合は0
+     */
+    public int hitRatePercent() {
+        long requestCount = hitCount + missCount;
+        if (requestCount == 0) {
+            return 0;
+        }
+        return (int) (hitCount * 100 / requestCount);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.myapplication.service;
+
+import java.util.List;
+
+/**
+ * CSV一括登録の処理結果
+ *
+ * @param importedCount     新規登録した件数
+ * @param updatedCount      IDが一致した既存の読書記録を更新した件数
+ * @param duplicateCount    タイトル・著者の重複（またはIDの重複）でスキップした件数
+ * @param skippedCount      解析できずにスキップした行数
+ * @param chunkCommitMillis チャンクごとのコミット所要時間（ミリ秒）
+ * @param elapsedMillis     全体の所要時間（ミリ秒）
+ */
+public record CsvImportResult(long importedCount, long updatedCount, long duplicateCount, long skippedCount,
+                              List<Long> chunkCommitMillis, long elapsedMillis) {
+
+    /**
+     * 1秒あたりの処理件数（新規登録・更新・重複のスキップの合計）を返します。
+     *
+     * @return 処理件数/秒。所要時間が0の場合は処理件数
+     */
+    public long rowsPerSecond() {
+        long processedCount = importedCount + updatedCount + duplicateCount;
+        if (elapsedMillis <= 0) {
+            return processedCount;
+        }
+        return processedCount * 1000 / elapsedMillis;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.status.ReadingStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSVの行を読書記録に変換する
+ * <p>
+ * 先頭行がヘッダー行かどうかはファイルの先頭行から1回だけ判定します。
+ * 先頭の列がIDかどうかは従来どおり行ごとに判定します（数値の場合はID、そうでなければタイトル）。
+ * 各セルの前後の空白は1回だけ取り除き、数値は例外を使わずに解析します。
+ * 状態を持たないため、複数のスレッドから同時に呼び出せます。
+ */
+@Slf4j
+final class CsvRowDecoder {
+
+    /**
+     * 読書状態の表示名・英語名から読書状態への対応
+     */
+    private static final Map<String, ReadingStatus> STATUS_BY_LABEL = new HashMap<>();
+
+    static {
+        for (ReadingStatus status : ReadingStatus.values()) {
+            STATUS_BY_LABEL.put(status.getDisplayName(), status);
+            STATUS_BY_LABEL.put(status.name(), status);
+        }
+    }
+
+    private static final CsvRowDecoder WITH_HEADER = new CsvRowDecoder(true);
+    private static final CsvRowDecoder WITHOUT_HEADER = new CsvRowDecoder(false);
+
+    private final boolean header;
+
+    private CsvRowDecoder(boolean header) {
+        this.header = header;
+    }
+
+    /**
+     * ファイルの先頭行がヘッダー行かどうかを判定します。
+     * <p>
+     * 先頭の列が「ID」または数値でない場合はヘッダー行とみなします。
+     *
+     * @param firstRow ファイルの先頭行
+     * @return 判定した結果で変換する処理
+     */
+    static CsvRowDecoder forFirstRow(String[] firstRow) {
+        if (firstRow.length == 0) {
+            return WITHOUT_HEADER;
+        }
+        String firstCell = firstRow[0].trim();
+        if (firstCell.equalsIgnoreCase("id")) {
+            return WITH_HEADER;
+        }
+        return parseLong(firstCell) == null ? WITH_HEADER : WITHOUT_HEADER;
+    }
+
+    /**
+     * 先頭行がヘッダー行かどうか
+     */
+    boolean hasHeader() {
+        return header;
+    }
+
+    /**
+     * CSV1行分のデータを読書記録に変換します。
+     * <p>
+     * 先頭の列が数値の行はID列ありの行、数値でない行はID列なしの行として扱います。
+     * IDは取り込み方法がIDで更新する場合だけ使用し、新規登録時は破棄して採番し直します。
+     *
+     * @param row CSV1行分のデータ
+     * @return 読書記録（タイトルが空の場合はnull）
+     */
+    ReadingRecord decode(String[] row) {
+        if (row.length < 1) { // 最低限タイトルが必要
+            return null;
+        }
+
+        ReadingRecord readingRecord = new ReadingRecord();
+        int index = 0;
+        String cell = row[0].trim();
+
+        Long id = parseLong(cell);
+        if (id != null) {
+            readingRecord.setId(id);
+            cell = nextCell(row, ++index);
+        }
+
+        // タイトル（必須）
+        if (cell == null || cell.isEmpty()) {
+            return null; // タイトルが空の場合は無効なレコード
+        }
+        readingRecord.setTitle(cell);
+
+        // 著者
+        if ((cell = nextCell(row, ++index)) != null) {
+            readingRecord.setAuthor(cell.isEmpty() ? null : cell);
+        }
+
+        // 読書状態
+        cell = nextCell(row, ++index);
+        readingRecord.setReadingStatus(cell == null ? ReadingStatus.UNREAD : decodeReadingStatus(cell));
+
+        // 現在ページ
+        cell = nextCell(row, ++index);
+        readingRecord.setCurrentPage(cell == null ? Integer.valueOf(0) : decodeInteger(cell, 0));
+
+        // 総ページ数
+        if ((cell = nextCell(row, ++index)) != null) {
+            readingRecord.setTotalPages(decodeInteger(cell, null));
+        }
+
+        // 評価
+        if ((cell = nextCell(row, ++index)) != null) {
+            readingRecord.setRating(decodeRating(cell));
+        }
+
+        // 概要
+        if ((cell = nextCell(row, ++index)) != null) {
+            readingRecord.setSummary(cell.isEmpty() ? null : cell);
+        }
+
+        // 感想
+        if ((cell = nextCell(row, ++index)) != null) {
+            readingRecord.setThoughts(cell.isEmpty() ? null : cell);
+        }
+
+        return readingRecord;
+    }
+
+    /**
+     * 指定した列のセルを前後の空白を取り除いて返します（列がない場合はnull）。
+     */
+    private static String nextCell(String[] row, int index) {
+        return index < row.length ? row[index].trim() : null;
+    }
+
+    /**
+     * 読書状態の文字列（表示名・英語名）を読書状態に変換します（空・不明な場合は未読）。
+     */
+    private static ReadingStatus decodeReadingStatus(String cell) {
+        if (cell.isEmpty()) {
+            return ReadingStatus.UNREAD;
+        }
+        ReadingStatus status = STATUS_BY_LABEL.get(cell);
+        if (status == null) {
+            status = STATUS_BY_LABEL.get(cell.toUpperCase(Locale.ROOT));
+        }
+        if (status == null) {
+            log.warn("Unknown reading status: {}, defaulting to UNREAD", cell);
+            return ReadingStatus.UNREAD;
+        }
+        return status;
+    }
+
+    /**
+     * 文字列を整数に変換します（空・数値でない場合はデフォルト値）。
+     */
+    private static Integer decodeInteger(String cell, Integer defaultValue) {
+        if (cell.isEmpty()) {
+            return defaultValue;
+        }
+        Integer value = parseInt(cell);
+        if (value == null) {
+            log.warn("Failed to parse integer: {}, using default: {}", cell, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * 文字列を評価（1-5）に変換します（空・数値でない・範囲外の場合はnull）。
+     */
+    private static Integer decodeRating(String cell) {
+        if (cell.isEmpty()) {
+            return null;
+        }
+        Integer rating = parseInt(cell);
+        if (rating == null) {
+            log.warn("Failed to parse rating: {}, setting to null", cell);
+            return null;
+        }
+        if (rating < 1 || rating > 5) {
+            log.warn("Rating out of range (1-5): {}, setting to null", rating);
+            return null;
+        }
+        return rating;
+    }
+
+    /**
+     * 文字列を{@link Long#parseLong(String)}と同じ規則で解析します。
+     *
+     * @return 解析した値（数値でない・範囲外の場合は例外を投げずにnull）
+     */
+    static Long parseLong(String s) {
+        int length = s.length();
+        if (length == 0) {
+            return null;
+        }
+        int i = 0;
+        boolean negative = false;
+        long limit = -Long.MAX_VALUE;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return null;
+            }
+            negative = first == '-';
+            if (negative) {
+                limit = Long.MIN_VALUE;
+            }
+            i++;
+        }
+        // 負の値として積み上げ、Long.MIN_VALUEまで桁あふれせずに扱う
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * 文字列を{@link Integer#parseInt(String)}と同じ規則で解析します。
+     *
+     * @return 解析した値（数値でない・範囲外の場合は例外を投げずにnull）
+     */
+    static Integer parseInt(String s) {
+        int length = s.length();
+        if (length == 0) {
+            return null;
+        }
+        int i = 0;
+        boolean negative = false;
+        int limit = -Integer.MAX_VALUE;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return null;
+            }
+            negative = first == '-';
+            if (negative) {
+                limit = Integer.MIN_VALUE;
+            }
+            i++;
+        }
+        int multiplyLimit = limit / 10;
+        int result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.myapplication.service;
+
+/**
+ * CSV取り込みで新規登録・更新・スキップ（重複）する件数
+ * <p>
+ * 確認画面では登録前の見込み、登録後は実際に処理した件数を表します。
+ *
+ * @param insertedCount  新規登録する件数
+ * @param updatedCount   既存の読書記録を更新する件数
+ * @param duplicateCount 重複のためスキップする件数
+ */
+public record ImportCounts(long insertedCount, long updatedCount, long duplicateCount) {
+
+    public static final ImportCounts ZERO = new ImportCounts(0, 0, 0);
+
+    /**
+     * 件数を足し合わせます。
+     */
+    public ImportCounts plus(ImportCounts other) {
+        return new ImportCounts(insertedCount + other.insertedCount, updatedCount + other.updatedCount,
+                duplicateCount + other.duplicateCount);
+    }
+
+    /**
+     * 処理する行数の合計
+     */
+    public long total() {
+        return insertedCount + updatedCount + duplicateCount;
+    }
+}
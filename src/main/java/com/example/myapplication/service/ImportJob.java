@@ -0,0 +1,188 @@
+package com.example.myapplication.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * バックグラウンドで実行する一括登録ジョブ
+ * <p>
+ * 状態と進捗は登録処理のスレッドが更新し、画面・APIのスレッドから参照されます。
+ * CSVの解析は確認画面を表示する時点で済んでいるため、ジョブの進捗は登録（コミット）した件数で表します。
+ */
+public class ImportJob implements ImportProgress {
+
+    /**
+     * ジョブの状態
+     */
+    public enum State {
+        /** 実行待ち（同時実行数の上限に達している） */
+        QUEUED,
+        /** 実行中 */
+        RUNNING,
+        /** 完了 */
+        COMPLETED,
+        /** 中止 */
+        CANCELLED,
+        /** 失敗 */
+        FAILED;
+
+        /**
+         * 終了した状態かどうか
+         */
+        public boolean isFinished() {
+            return this == COMPLETED || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    private final String id;
+    private final long totalCount;
+    private final long skippedCount;
+    private final Instant submittedAt;
+
+    /**
+     * 状態遷移の排他制御（仮想スレッドを固定しないよう、synchronizedではなくロックを使う）
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long committedCount;
+    private volatile boolean cancelRequested;
+    private volatile String errorMessage;
+
+    /**
+     * @param id           ジョブID
+     * @param totalCount   登録対象の件数
+     * @param skippedCount 解析できずにスキップした行数
+     * @param submittedAt  受け付けた日時
+     */
+    ImportJob(String id, long totalCount, long skippedCount, Instant submittedAt) {
+        this.id = id;
+        this.totalCount = totalCount;
+        this.skippedCount = skippedCount;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    @Override
+    public void chunkCommitted(long committedCount) {
+        this.committedCount = committedCount;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    /**
+     * 中止を指示します。実行中の場合は次のチャンクに入る前に中止されます。
+     *
+     * @return 中止を受け付けた場合はtrue（既に終了している場合はfalse）
+     */
+    boolean requestCancel(Instant now) {
+        lock.lock();
+        try {
+            if (state.isFinished()) {
+                return false;
+            }
+            cancelRequested = true;
+            // 実行待ちの場合は実行枠を待たずに中止する
+            if (state == State.QUEUED) {
+                finish(State.CANCELLED, now);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 実行を開始します。
+     *
+     * @return 開始した場合はtrue（実行待ちの間に中止された場合はfalse）
+     */
+    boolean start(Instant now) {
+        lock.lock();
+        try {
+            if (state != State.QUEUED) {
+                return false;
+            }
+            startedAt = now;
+            state = State.RUNNING;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void complete(Instant now) {
+        lock.lock();
+        try {
+            finish(cancelRequested ? State.CANCELLED : State.COMPLETED, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void fail(String message, Instant now) {
+        lock.lock();
+        try {
+            errorMessage = message;
+            finish(State.FAILED, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(State finalState, Instant now) {
+        finishedAt = now;
+        state = finalState;
+    }
+
+    /**
+     * 現時点の状態と進捗を返します。
+     *
+     * @param now 現在日時（残り時間の見積もりに使用）
+     */
+    public ImportJobStatus getStatus(Instant now) {
+        State currentState = state;
+        long committed = committedCount;
+        int progressPercent = totalCount > 0 ? (int) (committed * 100 / totalCount) : 100;
+        return new ImportJobStatus(id, currentState, totalCount, committed, skippedCount,
+                currentState.isFinished() ? 100 : progressPercent,
+                estimateRemainingSeconds(currentState, committed, now), errorMessage, currentState.isFinished());
+    }
+
+    /**
+     * これまでの登録速度から残り時間（秒）を見積もります。見積もれない場合はnull。
+     */
+    private Long estimateRemainingSeconds(State currentState, long committed, Instant now) {
+        Instant started = startedAt;
+        if (currentState != State.RUNNING || started == null || committed <= 0) {
+            return null;
+        }
+        long elapsedMillis = Duration.between(started, now).toMillis();
+        if (elapsedMillis <= 0) {
+            return null;
+        }
+        long remaining = Math.max(0, totalCount - committed);
+        return (remaining * elapsedMillis / committed + 999) / 1000;
+    }
+}
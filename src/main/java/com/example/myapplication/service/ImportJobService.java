@@ -0,0 +1,191 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * CSV一括登録をバックグラウンドのジョブとして実行するサービス
+ * <p>
+ * ジョブはすぐにIDを返して受け付け、登録処理は仮想スレッド（Java 21未満ではプラットフォームスレッド）で実行します。
+ * 同時に実行するジョブの数は上限を設け、超えた分は実行待ちにします。
+ * 終了したジョブの状態は保持期間を過ぎるまで参照できます。
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+
+    /**
+     * 実行待ちのジョブが中止されていないかを確認する間隔（ミリ秒）
+     */
+    static final long PERMIT_POLL_INTERVAL_MILLIS = 100;
+
+    private final ImportStagingService importStagingService;
+    private final ReadingRecordService readingRecordService;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final Duration retention;
+    private final Clock clock;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ImportJobService(ImportStagingService importStagingService,
+                            ReadingRecordService readingRecordService,
+                            @Value("${readrico.import.jobs.max-concurrent:2}") int maxConcurrent,
+                            @Value("${readrico.import.jobs.retention:1h}") Duration retention) {
+        this(importStagingService, readingRecordService, createExecutor(), maxConcurrent, retention,
+                Clock.systemUTC());
+    }
+
+    ImportJobService(ImportStagingService importStagingService, ReadingRecordService readingRecordService,
+                     Executor executor, int maxConcurrent, Duration retention, Clock clock) {
+        this.importStagingService = importStagingService;
+        this.readingRecordService = readingRecordService;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /**
+     * 保持している取り込みデータを登録するジョブを受け付けます。
+     *
+     * @param token 取り込みデータのトークン
+     * @return 受け付けたジョブ。トークンが不明または期限切れの場合は空
+     */
+    public Optional<ImportJob> submit(String token) {
+        Optional<StagedImport> taken = importStagingService.take(token);
+        if (taken.isEmpty()) {
+            return Optional.empty();
+        }
+
+        StagedImport stagedImport = taken.get();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), stagedImport.getRecordCount(),
+                stagedImport.getSkippedCount(), clock.instant());
+        jobs.put(job.getId(), job);
+        log.info("Import job {} submitted ({} records)", job.getId(), stagedImport.getRecordCount());
+
+        try {
+            executor.execute(() -> run(job, stagedImport));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            stagedImport.discard();
+            throw e;
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * ジョブを取得します。
+     *
+     * @param jobId ジョブID
+     * @return ジョブ。不明または保持期間を過ぎた場合は空
+     */
+    public Optional<ImportJob> getJob(String jobId) {
+        if (jobId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * ジョブの中止を指示します。
+     * 実行待ちのジョブはすぐに中止し、実行中のジョブは次のチャンクに入る前に中止します。
+     *
+     * @param jobId ジョブID
+     * @return 中止を受け付けた場合はtrue（不明または既に終了している場合はfalse）
+     */
+    public boolean cancel(String jobId) {
+        boolean accepted = getJob(jobId).map(job -> job.requestCancel(clock.instant())).orElse(false);
+        if (accepted) {
+            log.info("Import job {} cancel requested", jobId);
+        }
+        return accepted;
+    }
+
+    /**
+     * 保持期間を過ぎた終了済みのジョブを定期的に破棄します。
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictFinished() {
+        Instant threshold = clock.instant().minus(retention);
+        jobs.values().removeIf(job -> job.getState().isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    /**
+     * 終了時に実行中・実行待ちのジョブを中止します。
+     */
+    @PreDestroy
+    public void shutdown() {
+        Instant now = clock.instant();
+        jobs.values().forEach(job -> job.requestCancel(now));
+    }
+
+    private void run(ImportJob job, StagedImport stagedImport) {
+        boolean acquired = false;
+        try {
+            // 実行待ちの間も中止を確認し、中止された場合は実行枠を待たずに取り込みデータを破棄する
+            while (!acquired && !job.isCancelled()) {
+                acquired = permits.tryAcquire(PERMIT_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            if (!acquired || !job.start(clock.instant())) {
+                log.info("Import job {} cancelled before start", job.getId());
+                return;
+            }
+
+            try (Stream<ReadingRecord> records = stagedImport.openRecords()) {
+                CsvImportResult result = readingRecordService.importRecords(records.iterator(),
+                        stagedImport.getImportMode(), job);
+                job.complete(clock.instant());
+                log.info("Import job {} {} ({} inserted, {} updated, {} duplicates skipped)",
+                        job.getId(), job.getState(), result.importedCount(), result.updatedCount(),
+                        result.duplicateCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("登録処理が中断されました", clock.instant());
+        } catch (Exception e) {
+            log.error("Import job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.fail("一括登録中にエラーが発生しました", clock.instant());
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+            stagedImport.discard();
+        }
+    }
+
+    /**
+     * ジョブごとにスレッドを作る実行基盤を作成します。
+     * Java 21以上では仮想スレッドを使い、登録処理の待ち時間でOSスレッドを占有しないようにします。
+     */
+    private static Executor createExecutor() {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("import-job-");
+        if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            taskExecutor.setVirtualThreads(true);
+        } else {
+            // 終了処理を妨げないよう、プラットフォームスレッドはデーモンにする
+            taskExecutor.setDaemon(true);
+        }
+        return taskExecutor;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.myapplication.service;
+
+/**
+ * 一括登録ジョブの状態と進捗
+ *
+ * @param jobId           ジョブID
+ * @param state           ジョブの状態
+ * @param totalRows       登録対象の件数
+ * @param committedRows   コミット済みの件数
+ * @param errorRows       解析できずにスキップした行数
+ * @param progressPercent 進捗率（%）
+ * @param etaSeconds      残り時間の見積もり（秒）。見積もれない場合はnull
+ * @param errorMessage    失敗した場合のエラーメッセージ
+ * @param finished        終了したかどうか
+ */
+public record ImportJobStatus(String jobId, ImportJob.State state, long totalRows, long committedRows,
+                              long errorRows, int progressPercent, Long etaSeconds, String errorMessage,
+                              boolean finished) {
+}
@@ -0,0 +1,15 @@
+package com.example.myapplication.service;
+
+import java.io.IOException;
+
+/**
+ * アップロードされたCSVが取り込みの上限（展開後のサイズ・件数）を超えた場合の例外
+ * <p>
+ * 圧縮ファイルの展開で極端に大きなデータになる場合（圧縮爆弾）に、読み込みを途中で打ち切るために使用します。
+ */
+public class ImportLimitExceededException extends IOException {
+
+    public ImportLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.myapplication.service;
+
+import lombok.Getter;
+
+/**
+ * CSV取り込みで、既存の読書記録と一致する行の扱い
+ */
+@Getter
+public enum ImportMode {
+    /** 全ての行を新しい読書記録として登録する（ID列は無視する） */
+    INSERT("全て新規登録"),
+    /** ID列が既存の読書記録と一致する行はその読書記録を更新し、それ以外は新規登録する */
+    UPSERT_BY_ID("IDが一致すれば更新"),
+    /** 正規化したタイトル・著者が既存の読書記録（または先に取り込んだ行）と一致する行はスキップする */
+    SKIP_DUPLICATES("タイトル・著者が一致すればスキップ");
+
+    private final String displayName;
+
+    ImportMode(String displayName) {
+        this.displayName = displayName;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.myapplication.service;
+
+/**
+ * 一括登録の進捗を受け取り、中止を指示するためのリスナー
+ * <p>
+ * 登録処理を実行しているスレッドから呼び出されます。
+ */
+public interface ImportProgress {
+
+    /**
+     * 進捗を受け取らず、中止もしないリスナー
+     */
+    ImportProgress NONE = new ImportProgress() {
+    };
+
+    /**
+     * チャンクをコミットした後に呼び出されます。
+     *
+     * @param committedCount これまでにコミットした件数の合計
+     */
+    default void chunkCommitted(long committedCount) {
+    }
+
+    /**
+     * 次のチャンクを登録する前に呼び出され、trueを返した場合はそこで登録を打ち切ります。
+     * コミット済みのチャンクは取り消されません。
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * CSV一括登録の確認画面と登録実行の間で、解析済みデータをサーバー側に保持するサービス
+ * <p>
+ * 解析結果は推測困難なトークンに紐づけて保持し、登録実行時はトークンだけを受け取ります。
+ * 保持期間（TTL）を過ぎたものと、保持数・メモリ保持件数の上限を超えた古いものから破棄します。
+ * <p>
+ * gzip圧縮されたCSV（.csv.gz）は読み込みながら展開し、展開後のサイズ・件数が上限を超えた時点で中止します。
+ */
+@Slf4j
+@Service
+public class ImportStagingService {
+
+    /**
+     * 確認画面に表示する最大件数
+     */
+    static final int PREVIEW_LIMIT = 100;
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ReadingRecordService readingRecordService;
+    private final Duration ttl;
+    private final int maxSessions;
+    private final int spillThreshold;
+    private final long maxInMemoryRecords;
+    private final long maxInflatedBytes;
+    private final long maxRows;
+    private final Clock clock;
+
+    /**
+     * 登録順（古い順）に保持する
+     */
+    private final Map<String, StagedImport> sessions = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public ImportStagingService(ReadingRecordService readingRecordService,
+                                @Value("${readrico.import.staging.ttl:30m}") Duration ttl,
+                                @Value("${readrico.import.staging.max-sessions:16}") int maxSessions,
+                                @Value("${readrico.import.staging.spill-threshold:1000}") int spillThreshold,
+                                @Value("${readrico.import.staging.max-in-memory-records:10000}") long maxInMemoryRecords,
+                                @Value("${readrico.import.max-inflated-size:1GB}") DataSize maxInflatedSize,
+                                @Value("${readrico.import.max-rows:1000000}") long maxRows) {
+        this(readingRecordService, ttl, maxSessions, spillThreshold, maxInMemoryRecords,
+                maxInflatedSize.toBytes(), maxRows, Clock.systemUTC());
+    }
+
+    ImportStagingService(ReadingRecordService readingRecordService, Duration ttl, int maxSessions,
+                         int spillThreshold, long maxInMemoryRecords, long maxInflatedBytes, long maxRows,
+                         Clock clock) {
+        this.readingRecordService = readingRecordService;
+        this.ttl = ttl;
+        this.maxSessions = maxSessions;
+        this.spillThreshold = spillThreshold;
+        this.maxInMemoryRecords = maxInMemoryRecords;
+        this.maxInflatedBytes = maxInflatedBytes;
+        this.maxRows = maxRows;
+        this.clock = clock;
+    }
+
+    /**
+     * CSVファイルを解析し、結果をサーバー側に保持します。
+     *
+     * @param csvFile アップロードされたCSVファイル（.csv または .csv.gz）
+     * @return 保持した取り込みデータ（トークン・件数・プレビューを含む）
+     * @throws ImportLimitExceededException 展開後のサイズ・件数が上限を超えた場合
+     * @throws IOException                  CSV読み込み時にエラーが発生した場合
+     */
+    public StagedImport stage(MultipartFile csvFile) throws IOException {
+        return stage(csvFile, ImportMode.INSERT);
+    }
+
+    /**
+     * CSVファイルを解析し、結果を取り込み方法と合わせてサーバー側に保持します。
+     * <p>
+     * 新規登録以外の取り込み方法では、既存の読書記録と照合して新規登録・更新・スキップの件数の見込みを求めます。
+     *
+     * @param csvFile    アップロードされたCSVファイル（.csv または .csv.gz）
+     * @param importMode 取り込み方法
+     * @return 保持した取り込みデータ（トークン・件数・件数の見込み・プレビューを含む）
+     * @throws ImportLimitExceededException 展開後のサイズ・件数が上限を超えた場合
+     * @throws IOException                  CSV読み込み時にエラーが発生した場合
+     */
+    public StagedImport stage(MultipartFile csvFile, ImportMode importMode) throws IOException {
+        log.info("stage was called with filename: {}, mode: {}", csvFile.getOriginalFilename(), importMode);
+
+        StagedImport.Builder builder = new StagedImport.Builder(
+                UUID.randomUUID().toString(), clock.instant(), importMode, spillThreshold, PREVIEW_LIMIT);
+        StagedImport stagedImport;
+        try (InputStream inputStream = openCsv(csvFile)) {
+            long skippedCount = readingRecordService.parseCsv(inputStream, readingRecord -> {
+                if (builder.getRecordCount() >= maxRows) {
+                    throw new UncheckedIOException(new ImportLimitExceededException(
+                            "件数が上限（" + maxRows + "件）を超えたため、読み込みを中止しました"));
+                }
+                builder.add(readingRecord);
+            });
+            stagedImport = builder.build(skippedCount);
+        } catch (UncheckedIOException e) {
+            builder.abort();
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+
+        if (importMode != ImportMode.INSERT) {
+            try (Stream<ReadingRecord> records = stagedImport.openRecords()) {
+                stagedImport.setPlannedCounts(readingRecordService.planImport(records.iterator(), importMode));
+            } catch (UncheckedIOException e) {
+                stagedImport.discard();
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                stagedImport.discard();
+                throw e;
+            }
+        }
+
+        register(stagedImport);
+        log.info("Staged {} records (spilled: {}, planned: {})", stagedImport.getRecordCount(),
+                stagedImport.isSpilled(), stagedImport.getPlannedCounts());
+        return stagedImport;
+    }
+
+    /**
+     * アップロードされたファイルを開きます（.gzの場合は読み込みながら展開します）。
+     * 全体をメモリに展開せず、読み込んだサイズが上限を超えた時点で中止します。
+     */
+    private InputStream openCsv(MultipartFile csvFile) throws IOException {
+        InputStream inputStream = csvFile.getInputStream();
+        if (isGzipFileName(csvFile.getOriginalFilename())) {
+            inputStream = new GZIPInputStream(inputStream, GZIP_BUFFER_SIZE);
+        }
+        return new SizeLimitedInputStream(inputStream, maxInflatedBytes);
+    }
+
+    /**
+     * 保持している取り込みデータを管理対象から外して返します。
+     * 同じトークンで取り出せるのは1回だけで、取り出した後の破棄は呼び出し側で行います。
+     *
+     * @param token 取り込みデータのトークン
+     * @return 取り込みデータ。トークンが不明または期限切れの場合は空
+     */
+    public Optional<StagedImport> take(String token) {
+        StagedImport stagedImport = remove(token);
+        if (stagedImport == null) {
+            return Optional.empty();
+        }
+        if (isExpired(stagedImport, clock.instant())) {
+            stagedImport.discard();
+            return Optional.empty();
+        }
+        return Optional.of(stagedImport);
+    }
+
+    /**
+     * 保持している取り込みデータを登録せずに破棄します。
+     *
+     * @param token 取り込みデータのトークン
+     */
+    public void discard(String token) {
+        StagedImport stagedImport = remove(token);
+        if (stagedImport != null) {
+            stagedImport.discard();
+        }
+    }
+
+    /**
+     * 現在保持している取り込みデータの数
+     */
+    public int getSessionCount() {
+        lock.lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 保持期間を過ぎた取り込みデータを定期的に破棄します。
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        List<StagedImport> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            sessions.values().removeIf(stagedImport -> {
+                boolean expired = isExpired(stagedImport, now);
+                if (expired) {
+                    evicted.add(stagedImport);
+                }
+                return expired;
+            });
+        } finally {
+            lock.unlock();
+        }
+        discardAll(evicted, "expired");
+    }
+
+    /**
+     * 終了時に全ての一時ファイルを削除します。
+     */
+    @PreDestroy
+    public void clear() {
+        List<StagedImport> evicted;
+        lock.lock();
+        try {
+            evicted = new ArrayList<>(sessions.values());
+            sessions.clear();
+        } finally {
+            lock.unlock();
+        }
+        discardAll(evicted, "shutdown");
+    }
+
+    /**
+     * 取り込みデータを登録し、上限を超えた場合は古いものから破棄します。
+     */
+    private void register(StagedImport stagedImport) {
+        List<StagedImport> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            sessions.put(stagedImport.getToken(), stagedImport);
+
+            Iterator<StagedImport> oldest = sessions.values().iterator();
+            while (oldest.hasNext() && (sessions.size() > maxSessions || inMemoryCount() > maxInMemoryRecords)) {
+                StagedImport candidate = oldest.next();
+                if (candidate == stagedImport) {
+                    break;
+                }
+                oldest.remove();
+                evicted.add(candidate);
+            }
+        } finally {
+            lock.unlock();
+        }
+        discardAll(evicted, "capacity");
+    }
+
+    private StagedImport remove(String token) {
+        if (token == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return sessions.remove(token);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long inMemoryCount() {
+        long count = 0;
+        for (StagedImport stagedImport : sessions.values()) {
+            count += stagedImport.getInMemoryCount();
+        }
+        return count;
+    }
+
+    private static boolean isGzipFileName(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    private boolean isExpired(StagedImport stagedImport, Instant now) {
+        return stagedImport.getCreatedAt().plus(ttl).isBefore(now);
+    }
+
+    private void discardAll(List<StagedImport> evicted, String reason) {
+        for (StagedImport stagedImport : evicted) {
+            try {
+                stagedImport.discard();
+            } catch (UncheckedIOException e) {
+                log.warn("Failed to delete staged import file: {}", e.getMessage());
+            }
+        }
+        if (!evicted.isEmpty()) {
+            log.info("Evicted {} staged imports ({})", evicted.size(), reason);
+        }
+    }
+}
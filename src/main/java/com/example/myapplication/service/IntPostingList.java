@@ -0,0 +1,130 @@
+package com.example.myapplication.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 文書番号を昇順に保持するint配列のポスティングリスト
+ * <p>
+ * 件数の多い転置インデックスでも要素ごとのオブジェクトを作らないよう、プリミティブ配列で保持します。
+ * スレッドセーフではないため、呼び出し側で排他制御してください。
+ */
+final class IntPostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] values;
+    private int size;
+
+    IntPostingList() {
+        this.values = new int[INITIAL_CAPACITY];
+    }
+
+    private IntPostingList(int[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * 文書番号を追加します（既に含まれる場合は何もしません）。
+     */
+    void add(int value) {
+        // 文書番号は昇順に追加されることが多いため、末尾への追加を先に判定する
+        if (size == 0 || values[size - 1] < value) {
+            ensureCapacity();
+            values[size++] = value;
+            return;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+    }
+
+    /**
+     * 文書番号を削除します。
+     */
+    void remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        // 大きく空きができた場合は配列を縮める
+        if (values.length > INITIAL_CAPACITY && size < values.length / 4) {
+            values = Arrays.copyOf(values, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+    }
+
+    /**
+     * 指定した集合に含まれる文書番号を1回の走査でまとめて削除します。
+     */
+    void removeAll(BitSet removed) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed.get(values[i])) {
+                values[count++] = values[i];
+            }
+        }
+        size = count;
+        if (values.length > INITIAL_CAPACITY && size < values.length / 4) {
+            values = Arrays.copyOf(values, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+    }
+
+    boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 両方に含まれる文書番号のリストを返します。
+     */
+    IntPostingList intersect(IntPostingList other) {
+        int[] result = new int[Math.min(size, other.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            int a = values[i];
+            int b = other.values[j];
+            if (a == b) {
+                result[count++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return new IntPostingList(result, count);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void ensureCapacity() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+    }
+}
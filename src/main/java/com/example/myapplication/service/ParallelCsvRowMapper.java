@@ -0,0 +1,150 @@
+package com.example.myapplication.service;
+
+import com.opencsv.exceptions.CsvException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * CSVの行を読み込み順のまま変換する処理を、行数が多い場合だけ並列に実行する
+ * <p>
+ * 先頭から{@code threshold}行までは呼び出し元のスレッドで1行ずつ変換するため、小さなファイルは並列化しません。
+ * それを超えた分は{@code batchSize}行ずつまとめてフォーク・ジョイン・プールで変換し、
+ * 結果は読み込み順に呼び出し元のスレッドへ渡します。
+ * 同時に変換中のまとまりの数を制限し、メモリ上に保持する行数を一定に抑えます。
+ */
+@Component
+public class ParallelCsvRowMapper {
+
+    private final boolean enabled;
+    private final int threshold;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final ForkJoinPool pool;
+
+    public ParallelCsvRowMapper(@Value("${readrico.import.parallel.enabled:true}") boolean enabled,
+                                @Value("${readrico.import.parallel.threshold:10000}") int threshold,
+                                @Value("${readrico.import.parallel.batch-size:1000}") int batchSize,
+                                @Value("${readrico.import.parallel.parallelism:0}") int parallelism) {
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.enabled = enabled && poolSize > 1;
+        this.threshold = threshold;
+        this.batchSize = batchSize;
+        this.maxInFlightBatches = poolSize * 2;
+        this.pool = this.enabled ? new ForkJoinPool(poolSize) : null;
+    }
+
+    /**
+     * CSVの行を順に変換し、読み込み順に結果を渡します。
+     *
+     * @param reader 次の行を返す処理（終端の場合はnull）
+     * @param mapper 行番号（1始まり）と行から結果を作る処理。並列に呼び出されるため、状態を持たないこと
+     * @param sink   結果を受け取る処理（呼び出し元のスレッドで読み込み順に呼び出されます）
+     * @throws IOException  読み込み時にエラーが発生した場合
+     * @throws CsvException CSVの解析時にエラーが発生した場合
+     */
+    public <R> void map(RowReader reader, RowMapper<R> mapper, Consumer<R> sink) throws IOException, CsvException {
+        long rowNumber = 0;
+        String[] row;
+
+        // 閾値までは呼び出し元のスレッドで1行ずつ変換する
+        while (!enabled || rowNumber < threshold) {
+            if ((row = reader.readNext()) == null) {
+                return;
+            }
+            sink.accept(mapper.map(++rowNumber, row));
+        }
+
+        Deque<Future<List<R>>> inFlight = new ArrayDeque<>();
+        try {
+            while (true) {
+                long firstRowNumber = rowNumber + 1;
+                List<String[]> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && (row = reader.readNext()) != null) {
+                    batch.add(row);
+                }
+                rowNumber += batch.size();
+                if (!batch.isEmpty()) {
+                    inFlight.add(CompletableFuture.supplyAsync(() -> mapBatch(batch, firstRowNumber, mapper), pool));
+                }
+                // 変換中のまとまりが上限に達したか、全て読み終えたら、先頭から順に結果を渡す
+                while (!inFlight.isEmpty() && (inFlight.size() >= maxInFlightBatches || batch.size() < batchSize)) {
+                    await(inFlight.poll()).forEach(sink);
+                }
+                if (batch.size() < batchSize) {
+                    return;
+                }
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * 並列に変換するかどうか
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <R> List<R> mapBatch(List<String[]> batch, long firstRowNumber, RowMapper<R> mapper) {
+        List<R> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            results.add(mapper.map(firstRowNumber + i, batch.get(i)));
+        }
+        return results;
+    }
+
+    private static <R> List<R> await(Future<List<R>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("CSVの解析中に割り込まれました");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * CSVの次の行を返す処理
+     */
+    @FunctionalInterface
+    public interface RowReader {
+        String[] readNext() throws IOException, CsvException;
+    }
+
+    /**
+     * CSVの1行を変換する処理
+     */
+    @FunctionalInterface
+    public interface RowMapper<R> {
+        R map(long rowNumber, String[] row);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.repository.ReadingRecordProgressState;
+import com.example.myapplication.repository.ReadingRecordRepository;
+import com.example.myapplication.status.ReadingStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 読書の進捗（現在ページ）の報告をまとめて書き込むバッファ
+ * <p>
+ * 電子書籍リーダーなどから頻繁に届く現在ページを読書記録ごとに最新の値だけ保持し、
+ * 定期的に（既定5秒ごと）1回のバッチ更新で現在ページ・更新日時だけを書き込みます。
+ * 現在ページが総ページ数以上になった読書記録は、読書状態も読了にします。
+ * 読み込んだ後に他の更新があった読書記録はバージョンの照合で書き込まず、次回に読み込み直して書き込みます。
+ * 書き込むまでの間は詳細画面などに反映されません。終了時には残っている分を書き込みます。
+ */
+@Slf4j
+@Component
+public class ReadingProgressBuffer {
+
+    private static final String UPDATE_PROGRESS =
+            "UPDATE reading_record SET current_page = ?, reading_status = ?, updated_at = ?, version = version + 1 "
+                    + "WHERE id = ? AND version = ?";
+
+    /**
+     * 1トランザクションで書き込む読書記録の件数
+     */
+    static final int FLUSH_CHUNK_SIZE = 1000;
+
+    private final ReadingRecordRepository readingRecordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadingStatusCounter readingStatusCounter;
+    private final ReadingRecordCache readingRecordCache;
+    private final ReadingRecordSearchIndex searchIndex;
+    private final ReadingRecordDataVersion dataVersion;
+    private final int maxPending;
+    private final Clock clock;
+
+    private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+    // 書き込みを1つずつ行い、後の報告が先の報告より前に書き込まれないようにする（仮想スレッドを固定しないようsynchronizedは使わない）
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public ReadingProgressBuffer(ReadingRecordRepository readingRecordRepository, JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate, ReadingStatusCounter readingStatusCounter,
+                                 ReadingRecordCache readingRecordCache, ReadingRecordSearchIndex searchIndex,
+                                 ReadingRecordDataVersion dataVersion,
+                                 @Value("${readrico.progress.max-pending:10000}") int maxPending) {
+        this(readingRecordRepository, jdbcTemplate, transactionTemplate, readingStatusCounter, readingRecordCache,
+                searchIndex, dataVersion, maxPending, Clock.systemDefaultZone());
+    }
+
+    ReadingProgressBuffer(ReadingRecordRepository readingRecordRepository, JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate, ReadingStatusCounter readingStatusCounter,
+                          ReadingRecordCache readingRecordCache, ReadingRecordSearchIndex searchIndex,
+                          ReadingRecordDataVersion dataVersion, int maxPending, Clock clock) {
+        this.readingRecordRepository = readingRecordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readingStatusCounter = readingStatusCounter;
+        this.readingRecordCache = readingRecordCache;
+        this.searchIndex = searchIndex;
+        this.dataVersion = dataVersion;
+        this.maxPending = maxPending;
+        this.clock = clock;
+    }
+
+    /**
+     * 現在ページの報告を受け付けます（同じ読書記録の書き込み前の報告は上書きします）。
+     * <p>
+     * 書き込み待ちの読書記録が上限に達している場合は、先にそれらを書き込みます。
+     *
+     * @param id          読書記録のID（存在しないIDは書き込み時に無視します）
+     * @param currentPage 現在ページ（0以上）
+     */
+    public void submit(Long id, int currentPage) {
+        if (currentPage < 0) {
+            throw new IllegalArgumentException("現在ページは0以上で指定してください: " + currentPage);
+        }
+        if (pending.size() >= maxPending && !pending.containsKey(id)) {
+            flush();
+        }
+        pending.put(id, currentPage);
+    }
+
+    /**
+     * 書き込み待ちの読書記録の件数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 書き込み待ちの現在ページをまとめて書き込みます。
+     * <p>
+     * 書き込みに失敗した分は、その間に新しい報告がなければ書き込み待ちに戻し、次回に書き込みます。
+     *
+     * @return 書き込んだ読書記録の件数
+     */
+    @Scheduled(fixedDelayString = "${readrico.progress.flush-interval:5s}",
+            initialDelayString = "${readrico.progress.flush-interval:5s}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            // 取り出した後に届いた報告は次回に書き込む（取り出しと書き込みの間に上書きされても失われない）
+            Map<Long, Integer> drained = new LinkedHashMap<>();
+            for (Long id : pending.keySet()) {
+                Integer currentPage = pending.remove(id);
+                if (currentPage != null) {
+                    drained.put(id, currentPage);
+                }
+            }
+            if (drained.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> ids = List.copyOf(drained.keySet());
+            int written = 0;
+            for (int from = 0; from < ids.size(); from += FLUSH_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, ids.size()));
+                try {
+                    written += flushChunk(chunk, drained);
+                } catch (RuntimeException e) {
+                    log.error("Failed to write reading progress of {} reading records: {}",
+                            chunk.size(), e.getMessage(), e);
+                    chunk.forEach(id -> pending.putIfAbsent(id, drained.get(id)));
+                }
+            }
+            log.info("Wrote reading progress of {} reading records ({} reported)", written, drained.size());
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 書き込みを止めた状態で処理を実行し、成功した場合は書き込み待ちの報告を破棄します。
+     * <p>
+     * 全ての読書記録を入れ替える復元など、それまでの報告を書き込むと入れ替えた内容を上書きしてしまう処理に使います。
+     * 実行中の書き込みがあれば終わるまで待ちます。処理が例外で終わった場合、書き込み待ちの報告は残します。
+     *
+     * @param action 実行する処理
+     * @return 処理の戻り値
+     */
+    public <T> T discardPendingAfter(Supplier<T> action) {
+        flushLock.lock();
+        try {
+            T result = action.get();
+            int discarded = pending.size();
+            pending.clear();
+            if (discarded > 0) {
+                log.info("Discarded reading progress of {} reading records", discarded);
+            }
+            return result;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 終了時に書き込み待ちの現在ページを書き込みます。
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private int flushChunk(List<Long> chunk, Map<Long, Integer> currentPages) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Long> updated = new ArrayList<>();
+        Map<Long, ReadingStatus> completed = new LinkedHashMap<>();
+        List<Long> conflicted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            // 行ロックは取らず、読み込んだ時点のバージョンと一致する場合だけ書き込む
+            List<ReadingRecordProgressState> states = readingRecordRepository.findProgressStatesByIdIn(chunk);
+            List<Object[]> batchArgs = new ArrayList<>(states.size());
+            List<Boolean> completing = new ArrayList<>(states.size());
+            for (ReadingRecordProgressState state : states) {
+                int currentPage = currentPages.get(state.getId());
+                boolean complete = state.getReadingStatus() != ReadingStatus.COMPLETED
+                        && state.getTotalPages() != null && currentPage >= state.getTotalPages();
+                ReadingStatus readingStatus = complete ? ReadingStatus.COMPLETED : state.getReadingStatus();
+                batchArgs.add(new Object[]{currentPage, readingStatus.name(), now, state.getId(), state.getVersion()});
+                completing.add(complete);
+            }
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_PROGRESS, batchArgs);
+            for (int i = 0; i < states.size(); i++) {
+                ReadingRecordProgressState state = states.get(i);
+                if (counts[i] == 0) {
+                    conflicted.add(state.getId());
+                } else {
+                    updated.add(state.getId());
+                    if (completing.get(i)) {
+                        completed.put(state.getId(), state.getReadingStatus());
+                    }
+                }
+            }
+        });
+        // 他の更新と競合した分は、その間に新しい報告がなければ次回に書き込む
+        conflicted.forEach(id -> pending.putIfAbsent(id, currentPages.get(id)));
+
+        // コミット後に件数カウンター・キャッシュ・検索インデックスへ反映
+        if (updated.isEmpty()) {
+            return 0;
+        }
+        completed.values().forEach(before -> readingStatusCounter.changed(before, ReadingStatus.COMPLETED));
+        updated.forEach(readingRecordCache::evictRecord);
+        for (ReadingStatus readingStatus : ReadingStatus.values()) {
+            readingRecordCache.evictPages(readingStatus);
+        }
+        searchIndex.update(completed.keySet(), ReadingStatus.COMPLETED, now);
+        searchIndex.update(updated.stream().filter(id -> !completed.containsKey(id)).toList(), null, now);
+        dataVersion.increment(updated);
+        if (!completed.isEmpty()) {
+            log.info("Marked {} reading records as completed by reported progress", completed.size());
+        }
+        return updated.size();
+    }
+}
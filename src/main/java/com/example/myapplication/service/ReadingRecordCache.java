@@ -0,0 +1,206 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.status.ReadingStatus;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 読書記録（ID指定）と読書状態ごとの一覧ページの読み取りキャッシュ
+ * <p>
+ * 件数の上限と有効期限を持ち、上限を超えた場合は参照頻度の低いものから破棄します。
+ * 書き込み時はサービスから対象の読書記録と読書状態を指定して破棄します。
+ * 一覧ページは読書状態ごとの世代番号をキーに含め、破棄時に世代を進めることで、
+ * 破棄と同時に読み込み中だった古いページが使われないようにしています。
+ * <p>
+ * 読み込み処理（DBアクセス）はキャッシュ内部のロックの外で、呼び出し元のスレッドで実行します。
+ * ロックを保持したままブロックしないため、仮想スレッドで呼び出してもキャリアスレッドに固定されません。
+ */
+@Component
+public class ReadingRecordCache {
+
+    static final String RECORDS = "readingRecords";
+    static final String PAGES = "readingRecordPages";
+
+    private final boolean enabled;
+    private final AsyncCache<Long, ReadingRecord> records;
+    private final AsyncCache<PageKey, ReadingRecordPage> pages;
+    private final Map<ReadingStatus, AtomicLong> generations = new EnumMap<>(ReadingStatus.class);
+
+    @Autowired
+    public ReadingRecordCache(@Value("${readrico.cache.enabled:true}") boolean enabled,
+                              @Value("${readrico.cache.records.maximum-size:10000}") long maxRecords,
+                              @Value("${readrico.cache.pages.maximum-size:500}") long maxPages,
+                              @Value("${readrico.cache.ttl:10m}") Duration ttl) {
+        this(enabled, maxRecords, maxPages, ttl, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    ReadingRecordCache(boolean enabled, long maxRecords, long maxPages, Duration ttl, Ticker ticker,
+                       Executor executor) {
+        this.enabled = enabled;
+        this.records = Caffeine.newBuilder()
+                .maximumSize(maxRecords)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+        for (ReadingStatus status : ReadingStatus.values()) {
+            generations.put(status, new AtomicLong());
+        }
+    }
+
+    /**
+     * キャッシュを使っているかどうか
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * IDで読書記録を取得します。キャッシュにない場合は読み込んで保持します（存在しない場合は保持しません）。
+     *
+     * @param id     読書記録のID
+     * @param loader キャッシュにない場合の読み込み処理
+     * @return 読書記録
+     */
+    public Optional<ReadingRecord> getRecord(Long id, Function<Long, Optional<ReadingRecord>> loader) {
+        if (!enabled || id == null) {
+            return loader.apply(id);
+        }
+        return Optional.ofNullable(load(records, id, () -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * 読書状態ごとの一覧ページを取得します。キャッシュにない場合は読み込んで保持します。
+     *
+     * @param query  一覧の表示条件（読書状態・並び順・絞り込み）
+     * @param cursor ページ位置のカーソル（先頭ページの場合はnull）
+     * @param loader キャッシュにない場合の読み込み処理
+     * @return 一覧ページ
+     */
+    public ReadingRecordPage getPage(ReadingRecordListQuery query, String cursor, Supplier<ReadingRecordPage> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        PageKey key = new PageKey(query.status(), generations.get(query.status()).get(), query, cursor);
+        return load(pages, key, loader);
+    }
+
+    /**
+     * 読書記録のキャッシュを破棄します。
+     */
+    public void evictRecord(Long id) {
+        if (enabled && id != null) {
+            records.synchronous().invalidate(id);
+        }
+    }
+
+    /**
+     * 指定した読書状態の一覧ページを全て破棄します。
+     */
+    public void evictPages(ReadingStatus status) {
+        if (!enabled || status == null) {
+            return;
+        }
+        generations.get(status).incrementAndGet();
+        pages.asMap().keySet().removeIf(key -> key.status() == status);
+    }
+
+    /**
+     * 全てのキャッシュを破棄します。
+     */
+    public void evictAll() {
+        if (!enabled) {
+            return;
+        }
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        records.synchronous().invalidateAll();
+        pages.synchronous().invalidateAll();
+    }
+
+    /**
+     * キャッシュごとの統計情報を返します。
+     */
+    public List<CacheStatistics> getStatistics() {
+        return List.of(toStatistics(RECORDS, records.synchronous()), toStatistics(PAGES, pages.synchronous()));
+    }
+
+    /**
+     * 保留中の破棄処理を実行します。
+     */
+    void cleanUp() {
+        records.synchronous().cleanUp();
+        pages.synchronous().cleanUp();
+    }
+
+    /**
+     * キャッシュから取得し、ない場合は呼び出し元のスレッドで読み込んで保持します。
+     * <p>
+     * キャッシュには未完了のFutureだけを登録し、読み込みはその後ロックの外で行います。
+     * 同じキーの読み込みが重なった場合は、先に始まった読み込みの完了を待ちます。
+     * 読み込み結果がnullの場合や、読み込み中に破棄された場合は保持されません。
+     */
+    private static <K, V> V load(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> placeholder = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> placeholder);
+        if (future == placeholder) {
+            try {
+                placeholder.complete(loader.get());
+            } catch (RuntimeException | Error e) {
+                placeholder.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // 他のスレッドでの読み込みが失敗した場合は、元の例外を投げる
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static CacheStatistics toStatistics(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(name, stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                cache.estimatedSize());
+    }
+
+    /**
+     * 一覧ページのキャッシュキー
+     */
+    private record PageKey(ReadingStatus status, long generation, ReadingRecordListQuery query, String cursor) {
+    }
+}
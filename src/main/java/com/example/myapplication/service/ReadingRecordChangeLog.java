@@ -0,0 +1,151 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecordTombstone;
+import com.example.myapplication.repository.ReadingRecordTombstoneRepository;
+import com.example.myapplication.status.ReadingStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+/**
+ * 差分出力のための変更の記録
+ * <p>
+ * 読書記録の更新は更新日時で追跡し、削除はIDと削除日時の記録（tombstone）として保持期間の間だけ残します。
+ * 復元・全件削除のように個々の変更として伝えられない操作と、保持期間を過ぎた記録の整理では
+ * 差分の起点にできる最も古い日時（horizon）を進め、それより前を起点とする差分出力を受け付けません。
+ * <p>
+ * 更新日時はコミットより前に設定されるため、直近の変更は未コミットの可能性があります。
+ * 次回の起点（high-water mark）は現在日時から確定待ちの時間を引いた日時とし、
+ * それより後の変更は次回も出力します（同じ変更を2回受け取る場合があります）。
+ */
+@Slf4j
+@Component
+public class ReadingRecordChangeLog {
+
+    private static final String SELECT_HORIZON =
+            "SELECT horizon FROM reading_record_change_horizon WHERE id = 1";
+    private static final String UPDATE_HORIZON =
+            "UPDATE reading_record_change_horizon SET horizon = ? WHERE id = 1";
+
+    private final ReadingRecordTombstoneRepository tombstoneRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration settleTime;
+    private final Duration tombstoneRetention;
+    private final Clock clock;
+
+    @Autowired
+    public ReadingRecordChangeLog(ReadingRecordTombstoneRepository tombstoneRepository, JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${readrico.export.changes.settle-time:5s}") Duration settleTime,
+                                  @Value("${readrico.export.changes.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this(tombstoneRepository, jdbcTemplate, transactionTemplate, settleTime, tombstoneRetention,
+                Clock.systemDefaultZone());
+    }
+
+    ReadingRecordChangeLog(ReadingRecordTombstoneRepository tombstoneRepository, JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate, Duration settleTime, Duration tombstoneRetention,
+                           Clock clock) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+        this.clock = clock;
+    }
+
+    /**
+     * 今から差分を出力する場合の次回の起点（high-water mark）を返します。
+     *
+     * @param since 今回の起点（指定しない場合はnull）
+     * @return 確定待ちの時間を引いた現在日時。今回の起点より前になる場合は今回の起点
+     */
+    public LocalDateTime highWaterMark(LocalDateTime since) {
+        // DBの日時はマイクロ秒までのため、切り捨てて比較時の丸めで変更を取りこぼさないようにする
+        LocalDateTime settled = LocalDateTime.now(clock).minus(settleTime).truncatedTo(ChronoUnit.MICROS);
+        return since != null && since.isAfter(settled) ? since : settled;
+    }
+
+    /**
+     * 指定した起点からの差分を出力できるかどうか
+     *
+     * @param since 差分の起点
+     * @return 起点が復元・全件削除・削除記録の整理より後であればtrue
+     */
+    public boolean covers(LocalDateTime since) {
+        LocalDateTime horizon = jdbcTemplate.queryForObject(SELECT_HORIZON, LocalDateTime.class);
+        return horizon == null || !since.isBefore(horizon);
+    }
+
+    /**
+     * 読書記録の削除を記録します（削除と同じトランザクション内で呼び出すこと）。
+     *
+     * @param id 削除した読書記録のID
+     */
+    public void recordDeletion(Long id) {
+        tombstoneRepository.save(new ReadingRecordTombstone(id, LocalDateTime.now(clock)));
+    }
+
+    /**
+     * 指定した読書状態の読書記録をまとめて削除することを記録します
+     * （削除と同じトランザクション内で、削除する前に呼び出すこと）。
+     *
+     * @param status 削除する読書状態
+     * @return 記録した件数
+     */
+    public int recordDeletionByStatus(ReadingStatus status) {
+        return tombstoneRepository.insertByReadingStatus(status, LocalDateTime.now(clock));
+    }
+
+    /**
+     * 指定日時より後の削除の記録を削除日時順に返します（トランザクション内で呼び出し、使用後は必ずクローズすること）。
+     *
+     * @param since 差分の起点
+     * @return 削除の記録
+     */
+    public Stream<ReadingRecordTombstone> streamDeletedAfter(LocalDateTime since) {
+        return tombstoneRepository.streamByDeletedAtAfterOrderByDeletedAtAscIdAsc(since);
+    }
+
+    /**
+     * 復元・全件削除のように、個々の変更として伝えられない操作を記録します
+     * （操作と同じトランザクション内で呼び出すこと）。
+     * <p>
+     * 削除の記録を全て破棄し、これより前を起点とする差分出力を受け付けないようにします。
+     */
+    public void reset() {
+        tombstoneRepository.deleteAllInBatch();
+        jdbcTemplate.update(UPDATE_HORIZON, LocalDateTime.now(clock));
+        log.info("Change tracking was reset");
+    }
+
+    /**
+     * 保持期間を過ぎた削除の記録を定期的に整理します（1時間ごと）。
+     * <p>
+     * 整理した範囲を起点とする差分出力は受け付けないようにします。
+     */
+    @Scheduled(fixedDelay = 3_600_000)
+    public void purgeExpiredTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(tombstoneRetention);
+        Integer purged = transactionTemplate.execute(status -> {
+            LocalDateTime horizon = jdbcTemplate.queryForObject(SELECT_HORIZON, LocalDateTime.class);
+            if (horizon == null || horizon.isBefore(cutoff)) {
+                jdbcTemplate.update(UPDATE_HORIZON, cutoff);
+            }
+            return tombstoneRepository.deleteByDeletedAtBefore(cutoff);
+        });
+        if (purged != null && purged > 0) {
+            log.info("Purged {} tombstones deleted before {}", purged, cutoff);
+        }
+    }
+}
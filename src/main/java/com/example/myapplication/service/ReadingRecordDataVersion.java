@@ -0,0 +1,75 @@
+package com.example.myapplication.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 読書記録全体と読書記録ごとのデータのバージョン（条件付きGETのETagに使用）
+ * <p>
+ * 読書記録を変更する操作のたびに、コミットした後で進めます。
+ * 画面・CSVを作る側は、DBから読み出す前にバージョンを取得してください
+ * （読み出し中に変更がコミットされても、古いバージョンに新しい内容が紐づくだけで、次の変更で必ず作り直されます）。
+ * カウンターは再起動で0に戻るため、起動ごとに異なる値を先頭に付けて、再起動前のバージョンと重ならないようにしています。
+ * <p>
+ * 読書記録ごとのバージョンは、その読書記録を最後に変更したときのカウンターの値です。
+ * 変更した読書記録を特定できない操作（全件削除・復元など）では全ての読書記録のバージョンを進め、
+ * それより前に記録した読書記録ごとの値は捨てます。
+ */
+@Component
+public class ReadingRecordDataVersion {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong counter = new AtomicLong();
+    // 全ての読書記録のバージョンを進めたときのカウンターの値
+    private final AtomicLong allChangedAt = new AtomicLong();
+    // 読書記録ごとに、最後に変更したときのカウンターの値（allChangedAt以前のものは持たない）
+    private final Map<Long, Long> recordChangedAt = new ConcurrentHashMap<>();
+
+    /**
+     * 現在のバージョンを返します。
+     *
+     * @return 起動ごとの値と変更回数を組み合わせたバージョン（例：m2x9k1ab-42）
+     */
+    public String current() {
+        return bootId + "-" + counter.get();
+    }
+
+    /**
+     * 指定した読書記録の現在のバージョンを返します。他の読書記録の変更では変わりません。
+     *
+     * @param id 読書記録のID
+     * @return 起動ごとの値・IDと、最後に変更したときの変更回数を組み合わせたバージョン（例：m2x9k1ab-r7-42）
+     */
+    public String current(Long id) {
+        long changedAt = Math.max(allChangedAt.get(), recordChangedAt.getOrDefault(id, 0L));
+        return bootId + "-r" + id + "-" + changedAt;
+    }
+
+    /**
+     * 読書記録が変更されたことを記録し、全体と全ての読書記録のバージョンを進めます（変更をコミットした後で呼び出すこと）。
+     */
+    public void increment() {
+        long version = counter.incrementAndGet();
+        allChangedAt.accumulateAndGet(version, Math::max);
+        // 同時に進めた読書記録ごとの値は残す
+        recordChangedAt.values().removeIf(changedAt -> changedAt <= version);
+    }
+
+    /**
+     * 指定した読書記録が変更されたことを記録し、全体とそれらの読書記録のバージョンを進めます（変更をコミットした後で呼び出すこと）。
+     * <p>
+     * 新しく登録しただけの読書記録は、それまでのバージョンで表示されたことがないため指定しなくて構いません。
+     *
+     * @param ids 変更・削除した読書記録のID
+     */
+    public void increment(Collection<Long> ids) {
+        long version = counter.incrementAndGet();
+        for (Long id : ids) {
+            recordChangedAt.merge(id, version, Math::max);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.status.ReadingStatus;
+
+/**
+ * 読書記録一覧の表示条件（一覧ページのキャッシュキーにも使用）
+ *
+ * @param status      読書状態
+ * @param sort        並び順
+ * @param minProgress 進捗率の下限（％、0〜100。並び順が進捗率の高い順の場合だけ使用し、それ以外は0）
+ * @param minRating   評価の下限（1〜5、絞り込まない場合はnull）
+ * @param maxRating   評価の上限（1〜5、絞り込まない場合はnull）
+ * @param author      著者（完全一致、絞り込まない場合はnull）
+ */
+public record ReadingRecordListQuery(ReadingStatus status, ReadingRecordSort sort, int minProgress,
+                                     Integer minRating, Integer maxRating, String author) {
+
+    public ReadingRecordListQuery {
+        if (sort == null) {
+            sort = ReadingRecordSort.UPDATED;
+        }
+        // 進捗率での絞り込みは進捗率のインデックスで範囲検索できる場合だけ受け付ける
+        minProgress = sort == ReadingRecordSort.PROGRESS ? Math.max(0, Math.min(minProgress, 100)) : 0;
+        minRating = clampRating(minRating);
+        maxRating = clampRating(maxRating);
+        if (minRating != null && maxRating != null && minRating > maxRating) {
+            Integer swap = minRating;
+            minRating = maxRating;
+            maxRating = swap;
+        }
+        author = author == null || author.isBlank() ? null : author.trim();
+    }
+
+    public ReadingRecordListQuery(ReadingStatus status, ReadingRecordSort sort, int minProgress) {
+        this(status, sort, minProgress, null, null, null);
+    }
+
+    /**
+     * 指定した読書状態の読書記録を更新日時の新しい順に表示する条件
+     */
+    public static ReadingRecordListQuery of(ReadingStatus status) {
+        return new ReadingRecordListQuery(status, ReadingRecordSort.UPDATED, 0);
+    }
+
+    /**
+     * 評価・著者で絞り込むかどうか
+     */
+    public boolean hasFilters() {
+        return minRating != null || maxRating != null || author != null;
+    }
+
+    private static Integer clampRating(Integer rating) {
+        return rating == null ? null : Math.max(1, Math.min(rating, 5));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.status.ReadingStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * 読書記録に関するアプリケーション固有のメトリクス
+ * <p>
+ * CSV解析の行数・CSV出力のサイズ・読書状態ごとの件数を記録します。
+ * 行数は1行ごとではなく解析の終了時にまとめて加算し、
+ * 読書状態ごとの件数はメモリ上のカウンターから取得して、計測の負荷を抑えています。
+ * サービスのメソッドごとの処理時間は{@code @Timed}で計測します。
+ */
+@Component
+public class ReadingRecordMetrics {
+
+    static final String CSV_ROWS = "readrico.csv.rows";
+    static final String CSV_EXPORT_BYTES = "readrico.csv.export.bytes";
+    static final String RECORDS = "readrico.records";
+
+    private final Counter parsedRows;
+    private final Counter skippedRows;
+    private final Counter failedRows;
+    private final DistributionSummary exportBytes;
+
+    public ReadingRecordMetrics(MeterRegistry meterRegistry, ReadingStatusCounter readingStatusCounter) {
+        this.parsedRows = csvRowsCounter(meterRegistry, "parsed");
+        this.skippedRows = csvRowsCounter(meterRegistry, "skipped");
+        this.failedRows = csvRowsCounter(meterRegistry, "failed");
+        this.exportBytes = DistributionSummary.builder(CSV_EXPORT_BYTES)
+                .description("CSV出力のサイズ")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        for (ReadingStatus status : ReadingStatus.values()) {
+            Gauge.builder(RECORDS, readingStatusCounter, counter -> counter.getCount(status))
+                    .description("読書状態ごとの読書記録の件数")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * CSV解析の行数を記録します。
+     *
+     * @param parsed  解析できた行数
+     * @param skipped タイトルがないなどの理由でスキップした行数
+     * @param failed  解析中に例外が発生した行数
+     */
+    public void csvRows(long parsed, long skipped, long failed) {
+        parsedRows.increment(parsed);
+        skippedRows.increment(skipped);
+        failedRows.increment(failed);
+    }
+
+    /**
+     * CSV出力のサイズを記録します。
+     */
+    public void exportBytes(long bytes) {
+        exportBytes.record(bytes);
+    }
+
+    private static Counter csvRowsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(CSV_ROWS)
+                .description("CSV解析の行数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
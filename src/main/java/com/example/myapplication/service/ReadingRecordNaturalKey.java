@@ -0,0 +1,34 @@
+package com.example.myapplication.service;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * CSV取り込みの重複判定に使う、正規化したタイトル・著者の組
+ * <p>
+ * 空白（全角スペースを含む）の連続を1つにまとめて前後を除き、小文字にしてから区切り文字で連結します。
+ * DBのreading_record.natural_key列（V3のマイグレーションで定義）と同じ値になるようにしてください。
+ */
+final class ReadingRecordNaturalKey {
+
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u3000]+");
+    private static final char SEPARATOR = '\u001F';
+
+    private ReadingRecordNaturalKey() {
+    }
+
+    static String of(String title, String author) {
+        return normalize(title) + SEPARATOR + normalize(author);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        // SQLのTRIMに合わせ、前後は半角スペースだけを除く（空白の連続は1つにまとめ済み）
+        String collapsed = WHITESPACE.matcher(value).replaceAll(" ");
+        int start = collapsed.startsWith(" ") ? 1 : 0;
+        int end = collapsed.length() > start && collapsed.endsWith(" ") ? collapsed.length() - 1 : collapsed.length();
+        return collapsed.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.repository.ReadingRecordListItem;
+
+import java.util.List;
+
+/**
+ * 読書記録一覧の1ページ分
+ *
+ * @param records    このページの読書記録（一覧表示用の列のみ）
+ * @param nextCursor 次のページを取得するためのカーソル（最後のページの場合はnull）
+ */
+public record ReadingRecordPage(List<ReadingRecordListItem> records, String nextCursor) {
+
+    /**
+     * 次のページがあるかどうか
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
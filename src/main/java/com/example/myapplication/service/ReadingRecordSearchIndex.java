@@ -0,0 +1,666 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.repository.ReadingRecordSearchText;
+import com.example.myapplication.status.ReadingStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 読書記録のタイトル・著者・あらすじ・感想を対象にした、メモリ上のbi-gram転置インデックス
+ * <p>
+ * 日本語は空白で単語に区切れないため、正規化した文字列を2文字ずつの組（bi-gram）に分解して索引します。
+ * 検索語のbi-gramを全て含む読書記録を候補とし、検索語が連続して含まれるかを確認してから、
+ * 一致した項目の重みで順位付けします。読書記録のIDは内部の文書番号（int）に置き換え、
+ * ポスティングリストはint配列で保持します。
+ * <p>
+ * メモリに本文の複製を持たないよう、正規化した文字列を保持するのは短いタイトル・著者だけです。
+ * あらすじ・感想はポスティングリストだけを持ち、1〜2文字の検索語はポスティングリストだけで一致が決まります。
+ * 3文字以上の検索語であらすじ・感想だけが候補になった読書記録は、DBから読み込んだ本文で確認します。
+ * あらすじ・感想のポスティングリストからは古い文書番号をすぐには削除せず、検索時に読み飛ばし、
+ * 一定数たまったところでまとめて削除します。
+ */
+@Slf4j
+@Component
+public class ReadingRecordSearchIndex {
+
+    /**
+     * 項目ごとの重み（タイトル・著者・あらすじ・感想の順）
+     */
+    static final int[] FIELD_WEIGHTS = {8, 4, 2, 1};
+
+    /**
+     * 古い文書番号をまとめて削除する件数の下限（索引している件数の1/4とのいずれか大きい方でまとめて削除する）
+     */
+    static final int PURGE_MIN_STALE_DOCUMENTS = 1024;
+
+    /**
+     * 候補の本文をDBから読み込む件数の単位
+     */
+    static final int TEXT_LOAD_BATCH_SIZE = 500;
+
+    private static final int TITLE = 0;
+    private static final int AUTHOR = 1;
+    private static final int SUMMARY = 2;
+    private static final int THOUGHTS = 3;
+    private static final int FIELD_COUNT = FIELD_WEIGHTS.length;
+    private static final int[] SHORT_FIELDS = {TITLE, AUTHOR};
+    private static final int[] LONG_FIELDS = {SUMMARY, THOUGHTS};
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparing(Match::updatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Match::recordId, Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Map<Integer, IntPostingList>> postings = new ArrayList<>(FIELD_COUNT);
+    private final List<IndexedDocument> documents = new ArrayList<>();
+    private final Map<Long, Integer> docIds = new HashMap<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    // あらすじ・感想のポスティングリストに残っている、削除・更新前の文書番号
+    private final BitSet staleDocIds = new BitSet();
+    private int staleCount;
+    private volatile boolean ready;
+
+    public ReadingRecordSearchIndex() {
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            postings.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * インデックスを作り直します。作り直している間の更新は完了まで待たされます。
+     *
+     * @param records 全ての読書記録
+     */
+    public void rebuild(Stream<ReadingRecord> records) {
+        lock.writeLock().lock();
+        try {
+            long startNanos = System.nanoTime();
+            clearInternal();
+            records.forEach(this::indexInternal);
+            ready = true;
+            log.info("検索インデックスを作成しました: {}件, {}種類のbi-gram, {}ms", docIds.size(),
+                    postings.stream().mapToInt(Map::size).sum(), (System.nanoTime() - startNanos) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 読書記録を追加・更新します。
+     */
+    public void index(ReadingRecord readingRecord) {
+        if (readingRecord.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            indexInternal(readingRecord);
+            purgeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 読書記録を削除します。
+     */
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIds.remove(id);
+            if (docId != null) {
+                retire(docId);
+                purgeIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 指定した読書状態の読書記録をまとめて削除します。
+     *
+     * @return 削除した件数
+     */
+    public int removeByStatus(ReadingStatus status) {
+        lock.writeLock().lock();
+        try {
+            List<Long> removed = new ArrayList<>();
+            for (IndexedDocument document : documents) {
+                if (document != null && document.status() == status) {
+                    removed.add(document.recordId());
+                }
+            }
+            for (Long id : removed) {
+                retire(docIds.remove(id));
+            }
+            purgeIfNeeded();
+            return removed.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 指定した読書記録の読書状態・更新日時だけをまとめて変更します（本文は索引し直しません）。
+     *
+     * @param ids       読書記録のID
+     * @param status    変更後の読書状態（nullの場合は変更しない）
+     * @param updatedAt 変更後の更新日時
+     */
+    public void update(Collection<Long> ids, ReadingStatus status, LocalDateTime updatedAt) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                Integer docId = docIds.get(id);
+                if (docId != null) {
+                    IndexedDocument document = documents.get(docId);
+                    documents.set(docId, new IndexedDocument(document.recordId(),
+                            status != null ? status : document.status(), updatedAt, document.title(),
+                            document.author()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全ての読書記録を削除します。
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 起動時のインデックス作成が完了しているかどうか
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 索引している読書記録の件数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * あらすじ・感想のポスティングリストに残っている、削除・更新前の文書番号の件数
+     */
+    int staleDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return staleCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 検索します。空白で区切った検索語は全て含む（AND）読書記録だけを対象にします。
+     * <p>
+     * 3文字以上の検索語であらすじ・感想だけが候補になった読書記録は、本文を読み込んで確認します。
+     * 本文の読み込みはインデックスのロックを外してから行います。
+     *
+     * @param query      検索文字列
+     * @param status     読書状態での絞り込み（nullの場合は絞り込まない）
+     * @param limit      返す件数の上限
+     * @param textLoader 指定したIDの読書記録のあらすじ・感想を読み込む処理（削除されたものは含めなくてよい）
+     * @return スコアの高い順に並べた読書記録のIDと、一致した件数
+     */
+    public Hits search(String query, ReadingStatus status, int limit,
+                       Function<Collection<Long>, List<ReadingRecordSearchText>> textLoader) {
+        List<String> terms = splitTerms(query);
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        Map<Integer, Candidate> candidates = null;
+        lock.readLock().lock();
+        try {
+            for (int t = 0; t < terms.size(); t++) {
+                candidates = matchTerm(terms, t, status, candidates);
+                if (candidates.isEmpty()) {
+                    return new Hits(List.of(), 0);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        verifyPending(candidates.values(), terms, textLoader);
+
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates.values()) {
+            if (candidate.matchesAllTerms()) {
+                matches.add(new Match(candidate.recordId, candidate.score(), candidate.updatedAt));
+            }
+        }
+        List<Long> recordIds = matches.stream()
+                .sorted(RANKING)
+                .limit(limit)
+                .map(Match::recordId)
+                .toList();
+        return new Hits(recordIds, matches.size());
+    }
+
+    /**
+     * 1つの検索語について、一致する（または本文での確認が必要な）文書を求めます。
+     *
+     * @param restrictTo 前の検索語までに一致した文書（nullの場合は制限しない）
+     */
+    private Map<Integer, Candidate> matchTerm(List<String> terms, int termIndex, ReadingStatus status,
+                                              Map<Integer, Candidate> restrictTo) {
+        String term = terms.get(termIndex);
+        Map<Integer, Candidate> matched = new HashMap<>();
+
+        // タイトル・著者は保持している文字列で確認する
+        if (term.length() < 2) {
+            // bi-gramを作れない1文字の検索語は、保持しているタイトル・著者を順に確認する
+            Iterable<Integer> docs = restrictTo != null ? restrictTo.keySet() : docIds.values();
+            for (int docId : docs) {
+                addShortFieldMatch(matched, restrictTo, terms, termIndex, docId, status);
+            }
+        } else {
+            int[] grams = grams(term);
+            for (int field : SHORT_FIELDS) {
+                IntPostingList docs = intersect(postings.get(field), grams);
+                for (int i = 0; docs != null && i < docs.size(); i++) {
+                    if (!matched.containsKey(docs.get(i))) {
+                        addShortFieldMatch(matched, restrictTo, terms, termIndex, docs.get(i), status);
+                    }
+                }
+            }
+        }
+
+        // あらすじ・感想はポスティングリストで判定し、3文字以上の検索語は本文での確認を残す
+        boolean exact = term.length() <= 2;
+        for (int field : LONG_FIELDS) {
+            IntPostingList docs = term.length() < 2
+                    ? unionContaining(postings.get(field), term.charAt(0))
+                    : intersect(postings.get(field), grams(term));
+            for (int i = 0; docs != null && i < docs.size(); i++) {
+                int docId = docs.get(i);
+                Candidate candidate = candidateFor(matched, restrictTo, terms, docId, status);
+                if (candidate == null) {
+                    continue;
+                }
+                if (exact) {
+                    candidate.termScores[termIndex] += FIELD_WEIGHTS[field];
+                } else {
+                    candidate.pendingFields[termIndex] |= 1 << field;
+                }
+            }
+        }
+
+        matched.values().removeIf(candidate -> !candidate.mayMatch(termIndex));
+        return matched;
+    }
+
+    private void addShortFieldMatch(Map<Integer, Candidate> matched, Map<Integer, Candidate> restrictTo,
+                                    List<String> terms, int termIndex, int docId, ReadingStatus status) {
+        IndexedDocument document = documents.get(docId);
+        String term = terms.get(termIndex);
+        int score = (document.title().contains(term) ? FIELD_WEIGHTS[TITLE] : 0)
+                + (document.author().contains(term) ? FIELD_WEIGHTS[AUTHOR] : 0);
+        if (score > 0) {
+            Candidate candidate = candidateFor(matched, restrictTo, terms, docId, status);
+            if (candidate != null) {
+                candidate.termScores[termIndex] += score;
+            }
+        }
+    }
+
+    /**
+     * 検索語に一致した文書の候補を返します（削除済み・絞り込みの対象外・前の検索語に一致していない場合はnull）。
+     */
+    private Candidate candidateFor(Map<Integer, Candidate> matched, Map<Integer, Candidate> restrictTo,
+                                   List<String> terms, int docId, ReadingStatus status) {
+        Candidate candidate = matched.get(docId);
+        if (candidate != null) {
+            return candidate;
+        }
+        if (restrictTo != null) {
+            candidate = restrictTo.get(docId);
+        } else {
+            // 更新・削除前の文書番号はポスティングリストに残っていても読み飛ばす
+            IndexedDocument document = documents.get(docId);
+            if (document == null || (status != null && document.status() != status)) {
+                return null;
+            }
+            candidate = new Candidate(document.recordId(), document.updatedAt(), terms.size());
+        }
+        if (candidate != null) {
+            matched.put(docId, candidate);
+        }
+        return candidate;
+    }
+
+    /**
+     * 本文での確認が残っている候補について、あらすじ・感想を読み込んで検索語が含まれるかを確認します。
+     */
+    private static void verifyPending(Collection<Candidate> candidates, List<String> terms,
+                                      Function<Collection<Long>, List<ReadingRecordSearchText>> textLoader) {
+        Map<Long, Candidate> pending = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.hasPending()) {
+                pending.put(candidate.recordId, candidate);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < ids.size(); from += TEXT_LOAD_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + TEXT_LOAD_BATCH_SIZE, ids.size()));
+            for (ReadingRecordSearchText text : textLoader.apply(batch)) {
+                Candidate candidate = pending.get(text.getId());
+                if (candidate != null) {
+                    candidate.verify(terms, normalize(text.getSummary()), normalize(text.getThoughts()));
+                }
+            }
+        }
+        // 読み込めなかった（検索中に削除された）ものは一致しなかったものとする
+        pending.values().forEach(Candidate::clearPending);
+    }
+
+    /**
+     * 全てのbi-gramを含む文書番号を、件数の少ないポスティングリストから順に絞り込んで求めます。
+     */
+    private static IntPostingList intersect(Map<Integer, IntPostingList> fieldPostings, int[] grams) {
+        List<IntPostingList> lists = new ArrayList<>(grams.length);
+        for (int gram : grams) {
+            IntPostingList list = fieldPostings.get(gram);
+            if (list == null) {
+                return null;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+        IntPostingList result = lists.get(0);
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result = result.intersect(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 指定した文字を含むbi-gram（1文字だけの語の印を含む）のいずれかを持つ文書番号を求めます。
+     */
+    private static IntPostingList unionContaining(Map<Integer, IntPostingList> fieldPostings, char c) {
+        BitSet docs = new BitSet();
+        fieldPostings.forEach((gram, list) -> {
+            if ((gram >>> 16) == c || (gram & 0xFFFF) == c) {
+                for (int i = 0; i < list.size(); i++) {
+                    docs.set(list.get(i));
+                }
+            }
+        });
+        IntPostingList result = new IntPostingList();
+        docs.stream().forEach(result::add);
+        return result;
+    }
+
+    private void indexInternal(ReadingRecord readingRecord) {
+        Integer previous = docIds.get(readingRecord.getId());
+        if (previous != null) {
+            // あらすじ・感想の古いbi-gramは分からないため、新しい文書番号で索引し直す
+            retire(previous);
+        }
+        int docId = freeDocIds.isEmpty() ? documents.size() : freeDocIds.pop();
+        docIds.put(readingRecord.getId(), docId);
+
+        IndexedDocument document = new IndexedDocument(readingRecord.getId(), readingRecord.getReadingStatus(),
+                readingRecord.getUpdatedAt(), normalize(readingRecord.getTitle()),
+                normalize(readingRecord.getAuthor()));
+        if (docId == documents.size()) {
+            documents.add(document);
+        } else {
+            documents.set(docId, document);
+        }
+
+        addPostings(TITLE, grams(document.title()), docId);
+        addPostings(AUTHOR, grams(document.author()), docId);
+        addPostings(SUMMARY, fieldGrams(normalize(readingRecord.getSummary())), docId);
+        addPostings(THOUGHTS, fieldGrams(normalize(readingRecord.getThoughts())), docId);
+    }
+
+    private void addPostings(int field, int[] grams, int docId) {
+        Map<Integer, IntPostingList> fieldPostings = postings.get(field);
+        for (int gram : grams) {
+            fieldPostings.computeIfAbsent(gram, k -> new IntPostingList()).add(docId);
+        }
+    }
+
+    /**
+     * 文書番号を使わなくなったことを記録します。
+     * タイトル・著者のポスティングリストからはすぐに削除し、あらすじ・感想からは後でまとめて削除します。
+     */
+    private void retire(int docId) {
+        IndexedDocument document = documents.get(docId);
+        removePostings(TITLE, grams(document.title()), docId);
+        removePostings(AUTHOR, grams(document.author()), docId);
+        documents.set(docId, null);
+        staleDocIds.set(docId);
+        staleCount++;
+    }
+
+    private void removePostings(int field, int[] grams, int docId) {
+        Map<Integer, IntPostingList> fieldPostings = postings.get(field);
+        for (int gram : grams) {
+            IntPostingList list = fieldPostings.get(gram);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    fieldPostings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 古い文書番号が一定数たまった場合、あらすじ・感想のポスティングリストから1回の走査でまとめて削除し、
+     * 文書番号を再利用できるようにします。
+     */
+    private void purgeIfNeeded() {
+        if (staleCount < Math.max(PURGE_MIN_STALE_DOCUMENTS, docIds.size() / 4)) {
+            return;
+        }
+        for (int field : LONG_FIELDS) {
+            Iterator<IntPostingList> lists = postings.get(field).values().iterator();
+            while (lists.hasNext()) {
+                IntPostingList list = lists.next();
+                list.removeAll(staleDocIds);
+                if (list.isEmpty()) {
+                    lists.remove();
+                }
+            }
+        }
+        staleDocIds.stream().forEach(freeDocIds::push);
+        staleDocIds.clear();
+        staleCount = 0;
+    }
+
+    private void clearInternal() {
+        postings.forEach(Map::clear);
+        documents.clear();
+        docIds.clear();
+        freeDocIds.clear();
+        staleDocIds.clear();
+        staleCount = 0;
+    }
+
+    /**
+     * 検索用に文字列を正規化します（全角英数字・半角カナの統一、英字の小文字化）。
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 検索文字列を正規化し、空白で区切った検索語に分けます（重複は除きます）。
+     */
+    static List<String> splitTerms(String query) {
+        String normalized = normalize(query).strip();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>(Arrays.asList(normalized.split("\\s+")));
+        return List.copyOf(terms);
+    }
+
+    /**
+     * 正規化済みの文字列を、空白をまたがないbi-gramに分解します。
+     * bi-gramは2文字をintにまとめたもので、重複は除きます。
+     */
+    static int[] grams(String normalized) {
+        int length = normalized.length();
+        if (length < 2) {
+            return new int[0];
+        }
+        int[] grams = new int[length - 1];
+        int count = 0;
+        for (int i = 0; i < length - 1; i++) {
+            char first = normalized.charAt(i);
+            char second = normalized.charAt(i + 1);
+            if (!Character.isWhitespace(first) && !Character.isWhitespace(second)) {
+                grams[count++] = (first << 16) | second;
+            }
+        }
+        return Arrays.stream(grams, 0, count).distinct().toArray();
+    }
+
+    /**
+     * あらすじ・感想用に、bi-gramに加えて前後を空白に挟まれた1文字だけの語の印（文字と0の組）を返します。
+     * 1文字の検索語は、その文字を含むbi-gramと印のいずれかがあれば本文に含まれると判定できます。
+     */
+    static int[] fieldGrams(String normalized) {
+        int length = normalized.length();
+        int[] singles = new int[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isWhitespace(c)
+                    && (i == 0 || Character.isWhitespace(normalized.charAt(i - 1)))
+                    && (i == length - 1 || Character.isWhitespace(normalized.charAt(i + 1)))) {
+                singles[count++] = c << 16;
+            }
+        }
+        if (count == 0) {
+            return grams(normalized);
+        }
+        return Stream.of(grams(normalized), Arrays.copyOf(singles, count))
+                .flatMapToInt(Arrays::stream)
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * 検索結果
+     *
+     * @param recordIds スコアの高い順に並べた読書記録のID（件数の上限まで）
+     * @param totalHits 一致した読書記録の件数
+     */
+    public record Hits(List<Long> recordIds, int totalHits) {
+    }
+
+    /**
+     * 索引した読書記録の絞り込み・並び替えに使う項目と、正規化済みのタイトル・著者
+     */
+    private record IndexedDocument(long recordId, ReadingStatus status, LocalDateTime updatedAt,
+                                   String title, String author) {
+    }
+
+    /**
+     * 検索中の候補（検索語ごとの確定したスコアと、本文での確認が残っている項目）
+     */
+    private static final class Candidate {
+
+        private final long recordId;
+        private final LocalDateTime updatedAt;
+        private final int[] termScores;
+        private final int[] pendingFields;
+
+        private Candidate(long recordId, LocalDateTime updatedAt, int termCount) {
+            this.recordId = recordId;
+            this.updatedAt = updatedAt;
+            this.termScores = new int[termCount];
+            this.pendingFields = new int[termCount];
+        }
+
+        private boolean mayMatch(int termIndex) {
+            return termScores[termIndex] > 0 || pendingFields[termIndex] != 0;
+        }
+
+        private boolean hasPending() {
+            return Arrays.stream(pendingFields).anyMatch(fields -> fields != 0);
+        }
+
+        private void verify(List<String> terms, String summary, String thoughts) {
+            for (int t = 0; t < terms.size(); t++) {
+                if ((pendingFields[t] & (1 << SUMMARY)) != 0 && summary.contains(terms.get(t))) {
+                    termScores[t] += FIELD_WEIGHTS[SUMMARY];
+                }
+                if ((pendingFields[t] & (1 << THOUGHTS)) != 0 && thoughts.contains(terms.get(t))) {
+                    termScores[t] += FIELD_WEIGHTS[THOUGHTS];
+                }
+            }
+            clearPending();
+        }
+
+        private void clearPending() {
+            Arrays.fill(pendingFields, 0);
+        }
+
+        private boolean matchesAllTerms() {
+            return Arrays.stream(termScores).allMatch(score -> score > 0);
+        }
+
+        private int score() {
+            return Arrays.stream(termScores).sum();
+        }
+    }
+
+    private record Match(long recordId, int score, LocalDateTime updatedAt) {
+    }
+}
@@ -1,18 +1,37 @@
 package com.example.myapplication.service;
 
 import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.entity.ReadingRecordTombstone;
+import com.example.myapplication.repository.ReadingRecordListItem;
 import com.example.myapplication.repository.ReadingRecordRepository;
+import com.example.myapplication.repository.ReadingRecordSpecifications;
 import com.example.myapplication.status.ReadingStatus;
 import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
 import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -20,27 +39,286 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
+@Timed(value = "readrico.service", description = "ReadingRecordServiceのメソッドごとの処理時間")
 public class ReadingRecordService {
 
+    private static final String[] CSV_HEADERS = {"ID", "タイトル", "著者", "読書状態", "現在ページ", "総ページ数",
+            "評価", "概要", "感想", "作成日時", "更新日時"};
+
+    /**
+     * 差分出力のCSVヘッダー（通常のCSVの列の後ろに削除日時の列を加える）
+     */
+    private static final String[] CHANGES_CSV_HEADERS = {"ID", "タイトル", "著者", "読書状態", "現在ページ", "総ページ数",
+            "評価", "概要", "感想", "作成日時", "更新日時", "削除日時"};
+
+    private static final String CSV_DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * CSV一括登録で1トランザクションにまとめる件数
+     */
+    static final int IMPORT_CHUNK_SIZE = 1000;
+
+    /**
+     * 一括変更で1文のIN句にまとめるIDの件数
+     */
+    static final int BULK_UPDATE_CHUNK_SIZE = 1000;
+
+    /**
+     * 読書記録一覧の1ページあたりの件数
+     */
+    static final int LIST_PAGE_SIZE = 30;
+
+    /**
+     * 検索結果に表示する件数の上限
+     */
+    static final int SEARCH_RESULT_LIMIT = 50;
+
+    private static final String CURSOR_SEPARATOR = "_";
+
     private final ReadingRecordRepository readingRecordRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadingStatusCounter readingStatusCounter;
+    private final ReadingRecordCache readingRecordCache;
+    private final ReadingRecordSearchIndex searchIndex;
+    private final ReadingRecordMetrics metrics;
+    private final ParallelCsvRowMapper csvRowMapper;
+    private final ReadingRecordChangeLog changeLog;
+    private final ReadingRecordDataVersion dataVersion;
 
-    public ReadingRecordService(ReadingRecordRepository readingRecordRepository) {
+    public ReadingRecordService(ReadingRecordRepository readingRecordRepository, EntityManager entityManager,
+                                TransactionTemplate transactionTemplate, ReadingStatusCounter readingStatusCounter,
+                                ReadingRecordCache readingRecordCache, ReadingRecordSearchIndex searchIndex,
+                                ReadingRecordMetrics metrics, ParallelCsvRowMapper csvRowMapper,
+                                ReadingRecordChangeLog changeLog, ReadingRecordDataVersion dataVersion) {
         this.readingRecordRepository = readingRecordRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.readingStatusCounter = readingStatusCounter;
+        this.readingRecordCache = readingRecordCache;
+        this.searchIndex = searchIndex;
+        this.metrics = metrics;
+        this.csvRowMapper = csvRowMapper;
+        this.changeLog = changeLog;
+        this.dataVersion = dataVersion;
     }
 
     /**
-     * 読書状態ごとの読書記録一覧を取得
+     * 読書状態ごとの読書記録一覧を取得（一覧表示用の列のみ）
      */
-    public List<ReadingRecord> getReadingRecordsByStatus(ReadingStatus status) {
+    public List<ReadingRecordListItem> getReadingRecordsByStatus(ReadingStatus status) {
         log.info("getReadingRecordsByStatus was called with status: {}", status);
         return readingRecordRepository.findByReadingStatusOrderByUpdatedAtDesc(status);
     }
 
+    /**
+     * 読書状態ごとの読書記録一覧を1ページ分取得（更新日時の新しい順）
+     *
+     * @param status 読書状態
+     * @param cursor 前ページの{@link ReadingRecordPage#nextCursor()}。nullまたは不正な場合は先頭ページ
+     * @return 読書記録一覧の1ページ分
+     */
+    public ReadingRecordPage getReadingRecordPage(ReadingStatus status, String cursor) {
+        return getReadingRecordPage(ReadingRecordListQuery.of(status), cursor);
+    }
+
+    /**
+     * 表示条件に合う読書記録一覧を1ページ分取得
+     * <p>
+     * 前ページ最後の読書記録を表すカーソルを起点に、続きの{@value #LIST_PAGE_SIZE}件を取得します。
+     * カーソルは並び順ごとに異なるため、並び順を変えた場合は先頭ページから取得してください。
+     *
+     * @param query  一覧の表示条件
+     * @param cursor 前ページの{@link ReadingRecordPage#nextCursor()}。nullまたは不正な場合は先頭ページ
+     * @return 読書記録一覧の1ページ分
+     */
+    public ReadingRecordPage getReadingRecordPage(ReadingRecordListQuery query, String cursor) {
+        log.info("getReadingRecordPage was called with query: {}, cursor: {}", query, cursor);
+        return readingRecordCache.getPage(query, cursor, () -> loadReadingRecordPage(query, cursor));
+    }
+
+    /**
+     * 表示条件に合う読書記録一覧の1ページ分をDBから取得
+     * <p>
+     * 絞り込みのない更新日時順・進捗率順は専用のクエリで、それ以外は条件を組み合わせたクエリで取得します。
+     * いずれも読書状態から始まる並び順の複合インデックスで読み出します。
+     */
+    private ReadingRecordPage loadReadingRecordPage(ReadingRecordListQuery query, String cursor) {
+        // 1件多く取得して次のページの有無を判定する
+        Limit limit = Limit.of(LIST_PAGE_SIZE + 1);
+        ReadingStatus status = query.status();
+        ReadingRecordSort sort = query.sort();
+        ListCursor listCursor = decodeCursor(sort, cursor);
+        List<ReadingRecordListItem> records;
+        if (sort == ReadingRecordSort.UPDATED && !query.hasFilters()) {
+            records = listCursor == null
+                    ? readingRecordRepository.findPageByReadingStatus(status, limit)
+                    : readingRecordRepository.findPageByReadingStatusAfter(
+                    status, (LocalDateTime) listCursor.value(), listCursor.id(), limit);
+        } else if (sort == ReadingRecordSort.PROGRESS && !query.hasFilters()) {
+            records = listCursor == null
+                    ? readingRecordRepository.findPageByReadingStatusOrderByProgress(status, query.minProgress(), limit)
+                    : readingRecordRepository.findPageByReadingStatusOrderByProgressAfter(
+                    status, query.minProgress(), (Integer) listCursor.value(), listCursor.id(), limit);
+        } else {
+            records = readingRecordRepository.findListItems(listSpecification(query, listCursor), listSort(sort), limit);
+        }
+
+        if (records.size() <= LIST_PAGE_SIZE) {
+            return new ReadingRecordPage(records, null);
+        }
+        List<ReadingRecordListItem> pageRecords = List.copyOf(records.subList(0, LIST_PAGE_SIZE));
+        return new ReadingRecordPage(pageRecords, encodeCursor(sort, pageRecords.get(LIST_PAGE_SIZE - 1)));
+    }
+
+    /**
+     * 表示条件とページ位置から、一覧の絞り込み条件を組み立てます。
+     */
+    private static Specification<ReadingRecord> listSpecification(ReadingRecordListQuery query, ListCursor listCursor) {
+        List<Specification<ReadingRecord>> specs = new ArrayList<>();
+        specs.add(ReadingRecordSpecifications.hasReadingStatus(query.status()));
+        if (query.minProgress() > 0) {
+            specs.add(ReadingRecordSpecifications.progressAtLeast(query.minProgress()));
+        }
+        if (query.minRating() != null || query.maxRating() != null) {
+            specs.add(ReadingRecordSpecifications.ratingBetween(query.minRating(), query.maxRating()));
+        }
+        if (query.author() != null) {
+            specs.add(ReadingRecordSpecifications.authorIs(query.author()));
+        }
+        if (listCursor != null) {
+            ReadingRecordSort sort = query.sort();
+            specs.add(ReadingRecordSpecifications.after(sort.getAttribute(), sort.isDescending(), sort.isNullable(),
+                    listCursor.value(), listCursor.id()));
+        }
+        return Specification.allOf(specs);
+    }
+
+    /**
+     * 並び順を、読書状態から始まる複合インデックスの順に合わせて返します（同じ値の行はIDで並べる）。
+     */
+    private static Sort listSort(ReadingRecordSort sort) {
+        Sort.Direction direction = sort.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(Sort.Order.asc("readingStatus"), new Sort.Order(direction, sort.getAttribute()),
+                new Sort.Order(direction, "id"));
+    }
+
+    /**
+     * 読書記録の(並び順の値, ID)をカーソル文字列に変換
+     * <p>
+     * 値が未設定の場合は空にし、文字列の値は空文字列と区別するため先頭に{@code s}を付けます。
+     */
+    private String encodeCursor(ReadingRecordSort sort, ReadingRecordListItem listItem) {
+        Object value = switch (sort) {
+            case UPDATED -> listItem.updatedAt();
+            case PROGRESS -> listItem.progressPercent();
+            case RATING -> listItem.rating();
+            case TITLE -> listItem.title();
+            case AUTHOR -> listItem.author();
+            case CREATED -> listItem.createdAt();
+        };
+        String key;
+        if (value == null) {
+            key = "";
+        } else if (value instanceof LocalDateTime dateTime) {
+            key = dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } else if (value instanceof String text) {
+            key = "s" + text;
+        } else {
+            key = value.toString();
+        }
+        return key + CURSOR_SEPARATOR + listItem.id();
+    }
+
+    /**
+     * カーソル文字列を(並び順の値, ID)に変換（nullまたは不正な場合はnull）
+     */
+    private ListCursor decodeCursor(ReadingRecordSort sort, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+        try {
+            String key = cursor.substring(0, separator);
+            long id = Long.parseLong(cursor.substring(separator + 1));
+            if (key.isEmpty()) {
+                if (!sort.isNullable()) {
+                    throw new IllegalArgumentException("Missing sort value");
+                }
+                return new ListCursor(null, id);
+            }
+            Comparable<?> value = switch (sort) {
+                case UPDATED, CREATED -> LocalDateTime.parse(key);
+                case PROGRESS, RATING -> Integer.parseInt(key);
+                case TITLE, AUTHOR -> {
+                    if (!key.startsWith("s")) {
+                        throw new IllegalArgumentException("Invalid string sort value");
+                    }
+                    yield key.substring(1);
+                }
+            };
+            return new ListCursor(value, id);
+        } catch (RuntimeException e) {
+            log.warn("Invalid cursor: {}, returning first page", cursor);
+            return null;
+        }
+    }
+
+    /**
+     * タイトル・著者・あらすじ・感想から読書記録を検索
+     *
+     * @param query  検索文字列（空白区切りで複数指定した場合は全てを含むもの）
+     * @param status 読書状態での絞り込み（nullの場合は絞り込まない）
+     * @return スコアの高い順に並べた検索結果
+     */
+    public SearchResult searchReadingRecords(String query, ReadingStatus status) {
+        log.info("searchReadingRecords was called with query: {}, status: {}", query, status);
+        ReadingRecordSearchIndex.Hits hits = searchIndex.search(query, status, SEARCH_RESULT_LIMIT,
+                readingRecordRepository::findSearchTextsByIdIn);
+        if (hits.recordIds().isEmpty()) {
+            return new SearchResult(List.of(), hits.totalHits());
+        }
+        Map<Long, ReadingRecord> recordsById = new HashMap<>();
+        readingRecordRepository.findAllById(hits.recordIds()).forEach(r -> recordsById.put(r.getId(), r));
+        // インデックスの順位を保ったまま、検索と同時に削除されたものは除く
+        List<ReadingRecord> records = hits.recordIds().stream()
+                .map(recordsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new SearchResult(records, hits.totalHits());
+    }
+
+    /**
+     * 起動時に全ての読書記録から検索インデックスを作成
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildSearchIndex() {
+        try (Stream<ReadingRecord> records = readingRecordRepository.streamAllByOrderByIdAsc()) {
+            searchIndex.rebuild(records.peek(entityManager::detach));
+        }
+    }
+
     /**
      * 読書状態ごとの件数を取得
      */
@@ -48,19 +326,39 @@ public class ReadingRecordService {
         return readingRecordRepository.countByReadingStatus(status);
     }
 
+    /**
+     * 全ての読書状態の件数をまとめて取得
+     * <p>
+     * カウンターが有効な場合はDBへ問い合わせず、無効な場合は1回の集計クエリで取得します。
+     *
+     * @return 読書状態ごとの件数（全ての読書状態を含む）
+     */
+    public Map<ReadingStatus, Long> getCountsByStatus() {
+        return readingStatusCounter.getCounts();
+    }
+
     /**
      * IDで読書記録を取得
      */
     public Optional<ReadingRecord> getReadingRecordById(Long id) {
         log.info("getReadingRecordById was called with id: {}", id);
-        return readingRecordRepository.findById(id);
+        return readingRecordCache.getRecord(id, readingRecordRepository::findById);
     }
 
     /**
      * 読書記録を保存
+     * <p>
+     * 既存の読書記録は、編集画面で読み込んだ時点のバージョンと一致する場合だけ保存します（楽観的ロック）。
+     *
+     * @throws OptimisticLockingFailureException 読み込んだ後に他の画面・端末で更新・削除された場合、
+     *                                           または既存の読書記録にバージョンが指定されていない場合
      */
     public ReadingRecord saveReadingRecord(ReadingRecord readingRecord) {
         log.info("saveReadingRecord was called");
+        if (readingRecord.getId() != null && readingRecord.getVersion() == null) {
+            // バージョンがないと新規登録として扱われるうえ、どの時点の内容を元にした変更か確認できない
+            throw new ObjectOptimisticLockingFailureException(ReadingRecord.class, readingRecord.getId());
+        }
         LocalDateTime now = LocalDateTime.now();
 
         if (readingRecord.getId() == null) {
@@ -68,20 +366,82 @@ public class ReadingRecordService {
         }
         readingRecord.setUpdatedAt(now);
 
-        return readingRecordRepository.save(readingRecord);
+        ReadingStatus before = findStoredStatus(readingRecord.getId());
+        ReadingRecord saved = readingRecordRepository.save(readingRecord);
+        readingStatusCounter.changed(before, saved.getReadingStatus());
+        readingRecordCache.evictRecord(saved.getId());
+        readingRecordCache.evictPages(before);
+        readingRecordCache.evictPages(saved.getReadingStatus());
+        searchIndex.index(saved);
+        dataVersion.increment(List.of(saved.getId()));
+        return saved;
     }
 
     /**
      * 読書記録を削除
+     * <p>
+     * 差分出力で削除を伝えるため、削除と同じトランザクションで削除の記録を残します。
      */
     public void deleteReadingRecord(Long id) {
         log.info("deleteReadingRecord was called with id: {}", id);
-        readingRecordRepository.deleteById(id);
+        ReadingStatus before = findStoredStatus(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            readingRecordRepository.deleteById(id);
+            changeLog.recordDeletion(id);
+        });
+        afterDelete(id, before);
+    }
+
+    /**
+     * 表示した時点から更新されていない場合だけ読書記録を削除
+     *
+     * @param id      読書記録のID
+     * @param version 表示した時点のバージョン
+     * @throws OptimisticLockingFailureException 表示した後に他の画面・端末で更新された場合
+     */
+    public void deleteReadingRecord(Long id, long version) {
+        log.info("deleteReadingRecord was called with id: {}, version: {}", id, version);
+        ReadingStatus before = findStoredStatus(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<ReadingRecord> stored = readingRecordRepository.findById(id);
+            if (stored.isEmpty()) {
+                return;
+            }
+            if (stored.get().getVersion() != version) {
+                throw new ObjectOptimisticLockingFailureException(ReadingRecord.class, id);
+            }
+            // DELETE文もバージョンで照合するため、読み込んだ後の更新とも競合を検出する
+            readingRecordRepository.delete(stored.get());
+            changeLog.recordDeletion(id);
+        });
+        afterDelete(id, before);
+    }
+
+    /**
+     * 削除をコミットした後で、件数カウンター・キャッシュ・検索インデックスへ反映
+     */
+    private void afterDelete(Long id, ReadingStatus before) {
+        readingStatusCounter.changed(before, null);
+        readingRecordCache.evictRecord(id);
+        readingRecordCache.evictPages(before);
+        searchIndex.remove(id);
+        dataVersion.increment(List.of(id));
+    }
+
+    /**
+     * 件数カウンター・キャッシュの更新用に、保存済みの読書状態を取得
+     * （どちらも無効な場合・未保存の場合はnull）
+     */
+    private ReadingStatus findStoredStatus(Long id) {
+        if (id == null || !(readingStatusCounter.isEnabled() || readingRecordCache.isEnabled())) {
+            return null;
+        }
+        return readingRecordRepository.findReadingStatusById(id).orElse(null);
     }
 
     /**
      * 総数と現在値から進捗率（％）を計算して返します。
-     * 上限は100%です。
+     * 上限は100%です。一覧の並べ替えに使うDBの進捗率の列（progress_percent）も同じ計算で求めています。
      * <p>
      * 以下のいずれかの場合は0を返します。
      * <ul>
@@ -127,23 +487,147 @@ public class ReadingRecordService {
         List<ReadingRecord> records = getAllReadingRecords();
 
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        try (OutputStreamWriter writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
-             CSVWriter csvWriter = new CSVWriter(writer)) {
-
-            // ヘッダー行を設定
-            String[] headers = {"ID", "タイトル", "著者", "読書状態", "現在ページ", "総ページ数",
-                    "評価", "概要", "感想", "作成日時", "更新日時"};
-            csvWriter.writeNext(headers);
-
-            // データ行を出力
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            for (ReadingRecord readingRecord : records) {
-                String[] data = convertToCsvRow(readingRecord, formatter);
-                csvWriter.writeNext(data);
+        writeCsv(records.stream(), outputStream, readingRecord -> {
+        });
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 読書記録をCSV形式で出力ストリームへ直接書き込みます。
+     * <p>
+     * DBから1件ずつ読み進めながら書き込み、書き込み済みのエンティティは
+     * 永続化コンテキストから切り離すため、件数に関わらずヒープ使用量は一定です。
+     * 出力ストリームはクローズしません。
+     *
+     * @param outputStream 書き込み先の出力ストリーム
+     * @throws IOException CSV書き込み時にエラーが発生した場合
+     */
+    @Transactional(readOnly = true)
+    public void exportToCsv(OutputStream outputStream) throws IOException {
+        log.info("exportToCsv was called in streaming mode");
+        try (Stream<ReadingRecord> records = readingRecordRepository.streamAllByOrderByIdAsc()) {
+            writeCsv(records, outputStream, entityManager::detach);
+        }
+    }
+
+    /**
+     * 指定日時より後に変更された読書記録をCSV形式で出力ストリームへ直接書き込みます（差分出力）。
+     * <p>
+     * 通常のCSVの列の後ろに削除日時の列を加え、更新された読書記録を更新日時順に書き込んだ後、
+     * 削除した読書記録をIDと削除日時だけの行として削除日時順に書き込みます。
+     * 起点を指定しない場合は全件を書き込みます（削除の行は含みません）。
+     * 起点が差分を出力できる範囲にあるかは、{@link #isChangeTrackingAvailable(LocalDateTime)}で事前に確認してください。
+     * 出力ストリームはクローズしません。
+     *
+     * @param since        差分の起点（指定しない場合はnull）
+     * @param outputStream 書き込み先の出力ストリーム
+     * @throws IOException CSV書き込み時にエラーが発生した場合
+     */
+    @Transactional(readOnly = true)
+    public void exportChangesToCsv(LocalDateTime since, OutputStream outputStream) throws IOException {
+        log.info("exportChangesToCsv was called with since: {}", since);
+        CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(countingStream, StandardCharsets.UTF_8));
+        CSVWriter csvWriter = new CSVWriter(writer);
+        csvWriter.writeNext(CHANGES_CSV_HEADERS);
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(CSV_DATE_TIME_PATTERN);
+        long changedCount = 0;
+        try (Stream<ReadingRecord> records = since != null
+                ? readingRecordRepository.streamByUpdatedAtAfterOrderByUpdatedAtAscIdAsc(since)
+                : readingRecordRepository.streamAllByOrderByIdAsc()) {
+            Iterator<ReadingRecord> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                ReadingRecord readingRecord = iterator.next();
+                String[] row = Arrays.copyOf(convertToCsvRow(readingRecord, formatter), CHANGES_CSV_HEADERS.length);
+                row[row.length - 1] = "";
+                csvWriter.writeNext(row);
+                entityManager.detach(readingRecord);
+                changedCount++;
             }
         }
 
-        return outputStream.toByteArray();
+        long deletedCount = 0;
+        if (since != null) {
+            try (Stream<ReadingRecordTombstone> tombstones = changeLog.streamDeletedAfter(since)) {
+                Iterator<ReadingRecordTombstone> iterator = tombstones.iterator();
+                while (iterator.hasNext()) {
+                    ReadingRecordTombstone tombstone = iterator.next();
+                    String[] row = new String[CHANGES_CSV_HEADERS.length];
+                    Arrays.fill(row, "");
+                    row[0] = tombstone.getId().toString();
+                    row[row.length - 1] = tombstone.getDeletedAt().format(formatter);
+                    csvWriter.writeNext(row);
+                    deletedCount++;
+                }
+            }
+        }
+
+        csvWriter.flush();
+        metrics.exportBytes(countingStream.getCount());
+        log.info("Exported {} changed and {} deleted records since {}", changedCount, deletedCount, since);
+    }
+
+    /**
+     * 指定した起点からの差分を出力できるかどうか
+     *
+     * @param since 差分の起点
+     * @return 起点が復元・全件削除・削除記録の整理より後であればtrue
+     */
+    public boolean isChangeTrackingAvailable(LocalDateTime since) {
+        return changeLog.covers(since);
+    }
+
+    /**
+     * 今から差分を出力する場合の次回の起点（high-water mark）を返します。
+     *
+     * @param since 今回の起点（指定しない場合はnull）
+     * @return 次回の差分出力に指定する起点
+     */
+    public LocalDateTime getChangesHighWaterMark(LocalDateTime since) {
+        return changeLog.highWaterMark(since);
+    }
+
+    /**
+     * 差分出力用のファイル名を生成
+     *
+     * @return ファイル名（例：reading-records-changes_20241127_143022.csv）
+     */
+    public String generateChangesCsvFileName() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+        String timestamp = LocalDateTime.now().format(formatter);
+        return "reading-records-changes_" + timestamp + ".csv";
+    }
+
+    /**
+     * ヘッダー行と読書記録をCSV形式で書き込み、最後にフラッシュします。
+     *
+     * @param records      出力する読書記録
+     * @param outputStream 書き込み先の出力ストリーム
+     * @param afterWrite   1件書き込むごとに呼び出す処理
+     * @throws IOException CSV書き込み時にエラーが発生した場合
+     */
+    private void writeCsv(Stream<ReadingRecord> records, OutputStream outputStream,
+                          Consumer<ReadingRecord> afterWrite) throws IOException {
+        CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(countingStream, StandardCharsets.UTF_8));
+        CSVWriter csvWriter = new CSVWriter(writer);
+
+        // ヘッダー行を設定
+        csvWriter.writeNext(CSV_HEADERS);
+
+        // データ行を出力
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(CSV_DATE_TIME_PATTERN);
+        Iterator<ReadingRecord> iterator = records.iterator();
+        while (iterator.hasNext()) {
+            ReadingRecord readingRecord = iterator.next();
+            csvWriter.writeNext(convertToCsvRow(readingRecord, formatter));
+            afterWrite.accept(readingRecord);
+        }
+
+        csvWriter.flush();
+        metrics.exportBytes(countingStream.getCount());
     }
 
     /**
@@ -155,7 +639,7 @@ public class ReadingRecordService {
      * @param formatter     日付フォーマット
      * @return CSV出力用の文字列配列
      */
-    private String[] convertToCsvRow(ReadingRecord readingRecord, DateTimeFormatter formatter) {
+    String[] convertToCsvRow(ReadingRecord readingRecord, DateTimeFormatter formatter) {
         return new String[]{
                 readingRecord.getId() != null ? readingRecord.getId().toString() : "",
                 readingRecord.getTitle() != null ? readingRecord.getTitle() : "",
@@ -193,230 +677,598 @@ public class ReadingRecordService {
         log.info("parseCsvFile was called with filename: {}", csvFile.getOriginalFilename());
 
         List<ReadingRecord> records = new ArrayList<>();
+        parseCsv(csvFile.getInputStream(), records::add);
+
+        log.info("Successfully parsed {} records from CSV", records.size());
+        return records;
+    }
+
+    /**
+     * 解析済みの読書記録を順に読み出しながら、取り込み方法に従って一定件数ごとにまとめて登録・更新します。
+     * <p>
+     * 既存の読書記録との照合は1行ずつではなく、チャンクごとに1回のクエリでまとめて行います。
+     * チャンクをコミットするたびに進捗（処理した行数）を通知し、次のチャンクに入る前に中止の指示を確認します。
+     * 中止した場合、それまでにコミットしたチャンクは登録されたままになります。
+     *
+     * @param records  取り込む読書記録
+     * @param mode     取り込み方法
+     * @param progress 進捗の通知先
+     * @return 登録・更新・スキップした件数や所要時間などの処理結果
+     */
+    public CsvImportResult importRecords(Iterator<ReadingRecord> records, ImportMode mode, ImportProgress progress) {
+        log.info("importRecords was called with mode: {}", mode);
+        ChunkedImport chunkedImport = new ChunkedImport(mode, progress);
+        while (records.hasNext()) {
+            if (chunkedImport.isAtChunkBoundary() && progress.isCancelled()) {
+                log.info("Import cancelled after {} records", chunkedImport.counts.total());
+                break;
+            }
+            chunkedImport.add(records.next());
+        }
+        return chunkedImport.finish();
+    }
 
-        try (InputStreamReader reader = new InputStreamReader(csvFile.getInputStream(), StandardCharsets.UTF_8);
-             CSVReader csvReader = new CSVReader(reader)) {
+    /**
+     * 取り込み方法に従って登録した場合の、新規登録・更新・スキップの件数の見込みを返します（DBは変更しません）。
+     * <p>
+     * 登録時と同じく{@value #IMPORT_CHUNK_SIZE}件ずつ既存の読書記録とまとめて照合します。
+     * 重複の判定は既存の読書記録と同じチャンク内の行が対象のため、
+     * 離れた位置（別のチャンク）にある同じタイトル・著者の行は、登録時にはスキップされても見込みでは新規登録に数えます。
+     *
+     * @param records 取り込む読書記録
+     * @param mode    取り込み方法
+     * @return 件数の見込み
+     */
+    public ImportCounts planImport(Iterator<ReadingRecord> records, ImportMode mode) {
+        ImportCounts counts = ImportCounts.ZERO;
+        List<ReadingRecord> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        while (records.hasNext()) {
+            chunk.add(records.next());
+            if (chunk.size() >= IMPORT_CHUNK_SIZE || !records.hasNext()) {
+                Set<Long> ids = mode == ImportMode.UPSERT_BY_ID ? idsOf(chunk) : Set.of();
+                Set<Long> existingIds = ids.isEmpty() ? Set.of() : new HashSet<>(readingRecordRepository.findIdsByIdIn(ids));
+                counts = counts.plus(planChunk(chunk, mode, existingIds).counts());
+                chunk.clear();
+            }
+        }
+        return counts;
+    }
 
-            List<String[]> allData = csvReader.readAll();
+    /**
+     * 1チャンク分の読書記録を、取り込み方法に従って1トランザクションで登録・更新します。
+     * <p>
+     * 新規登録はJDBCバッチでINSERTし、更新はまとめて読み込んだ既存の読書記録に内容を移して
+     * フラッシュ時にJDBCバッチでUPDATEします。
+     *
+     * @param now 作成日時・更新日時に設定する日時
+     * @return 新規登録・更新・スキップした件数
+     */
+    private ImportCounts importChunk(List<ReadingRecord> chunk, ImportMode mode, LocalDateTime now) {
+        if (mode == ImportMode.INSERT) {
+            for (ReadingRecord readingRecord : chunk) {
+                readingRecord.setId(null);
+                readingRecord.setCreatedAt(now);
+                readingRecord.setUpdatedAt(now);
+            }
+            saveChunk(chunk);
+            return new ImportCounts(chunk.size(), 0, 0);
+        }
 
-            if (allData.isEmpty()) {
-                return records;
+        List<ReadingRecord> inserted = new ArrayList<>();
+        List<ReadingRecord> updated = new ArrayList<>();
+        Map<Long, ReadingStatus> statusesBefore = new HashMap<>();
+        ChunkPlan plan = transactionTemplate.execute(status -> {
+            // 更新対象の読書記録は照合を兼ねて1回のクエリでまとめて読み込む
+            Map<Long, ReadingRecord> existing = new HashMap<>();
+            Set<Long> ids = idsOf(chunk);
+            if (mode == ImportMode.UPSERT_BY_ID && !ids.isEmpty()) {
+                readingRecordRepository.findAllById(ids).forEach(r -> existing.put(r.getId(), r));
             }
+            ChunkPlan chunkPlan = planChunk(chunk, mode, existing.keySet());
 
-            // ヘッダー行をスキップ（最初の行が項目名の場合）
-            int startIndex = 0;
-            String[] firstRow = allData.get(0);
-            if (isHeaderRow(firstRow)) {
-                startIndex = 1;
+            for (ReadingRecord readingRecord : chunkPlan.inserts()) {
+                readingRecord.setId(null);
+                readingRecord.setCreatedAt(now);
+                readingRecord.setUpdatedAt(now);
             }
+            inserted.addAll(readingRecordRepository.saveAll(chunkPlan.inserts()));
+            chunkPlan.updates().forEach((id, source) -> {
+                ReadingRecord target = existing.get(id);
+                statusesBefore.put(id, target.getReadingStatus());
+                copyImportedFields(source, target);
+                target.setUpdatedAt(now);
+                updated.add(target);
+            });
+            entityManager.flush();
+            entityManager.clear();
+            return chunkPlan;
+        });
+
+        // コミット後に件数カウンター・キャッシュ・検索インデックスへ反映
+        for (ReadingRecord readingRecord : inserted) {
+            readingStatusCounter.add(readingRecord.getReadingStatus(), 1);
+            readingRecordCache.evictPages(readingRecord.getReadingStatus());
+            searchIndex.index(readingRecord);
+        }
+        for (ReadingRecord readingRecord : updated) {
+            ReadingStatus before = statusesBefore.get(readingRecord.getId());
+            readingStatusCounter.changed(before, readingRecord.getReadingStatus());
+            readingRecordCache.evictRecord(readingRecord.getId());
+            readingRecordCache.evictPages(before);
+            readingRecordCache.evictPages(readingRecord.getReadingStatus());
+            searchIndex.index(readingRecord);
+        }
+        dataVersion.increment(updated.stream().map(ReadingRecord::getId).toList());
+        return plan.counts();
+    }
+
+    /**
+     * 1チャンク分の読書記録を、新規登録・更新・スキップに振り分けます。
+     * <p>
+     * IDで更新する場合は既存のIDの集合、重複をスキップする場合はチャンク内の正規化したタイトル・著者を
+     * 1回のクエリでまとめて照合した集合を使い、各行はハッシュの参照だけで判定します。
+     *
+     * @param existingIds IDで更新する場合の、チャンク内のIDのうち既存の読書記録のID
+     */
+    private ChunkPlan planChunk(List<ReadingRecord> chunk, ImportMode mode, Set<Long> existingIds) {
+        List<ReadingRecord> inserts = new ArrayList<>(chunk.size());
+        Map<Long, ReadingRecord> updates = new LinkedHashMap<>();
+        long duplicateCount = 0;
 
-            // データ行を処理
-            for (int i = startIndex; i < allData.size(); i++) {
-                String[] data = allData.get(i);
-                try {
-                    ReadingRecord readingRecord = parseCsvRow(data);
-                    if (readingRecord != null) {
-                        records.add(readingRecord);
+        switch (mode) {
+            case INSERT -> inserts.addAll(chunk);
+            case UPSERT_BY_ID -> {
+                for (ReadingRecord readingRecord : chunk) {
+                    Long id = readingRecord.getId();
+                    if (id != null && existingIds.contains(id)) {
+                        // 同じIDの行が複数ある場合は後の行の内容で更新する
+                        if (updates.put(id, readingRecord) != null) {
+                            duplicateCount++;
+                        }
+                    } else {
+                        inserts.add(readingRecord);
+                    }
+                }
+            }
+            case SKIP_DUPLICATES -> {
+                Map<ReadingRecord, String> keys = new IdentityHashMap<>();
+                for (ReadingRecord readingRecord : chunk) {
+                    keys.put(readingRecord, ReadingRecordNaturalKey.of(readingRecord.getTitle(), readingRecord.getAuthor()));
+                }
+                Set<String> seen = new HashSet<>(readingRecordRepository.findNaturalKeysIn(new HashSet<>(keys.values())));
+                for (ReadingRecord readingRecord : chunk) {
+                    if (seen.add(keys.get(readingRecord))) {
+                        inserts.add(readingRecord);
+                    } else {
+                        duplicateCount++;
                     }
-                } catch (Exception e) {
-                    log.warn("Failed to parse CSV row {}: {}", i + 1, e.getMessage());
-                    // 個別行のエラーは警告ログに留めて処理を続行
                 }
             }
-        } catch (CsvException e) {
-            log.error("CSV parsing error: {}", e.getMessage(), e);
-            throw new IOException("CSVファイルの解析中にエラーが発生しました: " + e.getMessage(), e);
         }
+        return new ChunkPlan(inserts, updates, new ImportCounts(inserts.size(), updates.size(), duplicateCount));
+    }
 
-        log.info("Successfully parsed {} records from CSV", records.size());
-        return records;
+    private static Set<Long> idsOf(List<ReadingRecord> chunk) {
+        Set<Long> ids = new HashSet<>();
+        for (ReadingRecord readingRecord : chunk) {
+            if (readingRecord.getId() != null) {
+                ids.add(readingRecord.getId());
+            }
+        }
+        return ids;
     }
 
     /**
-     * CSV行がヘッダー行かどうかを判定
+     * 取り込んだ行の内容を既存の読書記録に移します（ID・作成日時は既存のまま）。
      */
-    private boolean isHeaderRow(String[] row) {
-        if (row.length == 0) return false;
+    private static void copyImportedFields(ReadingRecord source, ReadingRecord target) {
+        target.setTitle(source.getTitle());
+        target.setAuthor(source.getAuthor());
+        target.setReadingStatus(source.getReadingStatus());
+        target.setCurrentPage(source.getCurrentPage());
+        target.setTotalPages(source.getTotalPages());
+        target.setRating(source.getRating());
+        target.setSummary(source.getSummary());
+        target.setThoughts(source.getThoughts());
+    }
 
-        // 最初の列がIDの場合（数値でない場合）、ヘッダー行と判定
-        String firstCol = row[0].trim();
-        if (firstCol.equalsIgnoreCase("id")) {
-            return true;
-        }
+    /**
+     * 1チャンク分の読書記録を1トランザクションで登録します。
+     * <p>
+     * フラッシュ時にJDBCバッチでまとめてINSERTし、その後永続化コンテキストをクリアします。
+     *
+     * @return 保存された読書記録（永続化コンテキストからは切り離し済み）
+     */
+    private List<ReadingRecord> saveChunk(List<ReadingRecord> chunk) {
+        List<ReadingRecord> savedRecords = transactionTemplate.execute(status -> {
+            List<ReadingRecord> saved = readingRecordRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+            return saved;
+        });
 
-        // 最初の列が数値でない場合もヘッダー行の可能性が高い
-        try {
-            Long.parseLong(firstCol);
-            return false; // 数値の場合はデータ行
-        } catch (NumberFormatException e) {
-            return true; // 数値でない場合はヘッダー行
+        // コミット後に件数カウンター・キャッシュへ反映
+        Map<ReadingStatus, Long> added = new EnumMap<>(ReadingStatus.class);
+        for (ReadingRecord readingRecord : savedRecords) {
+            added.merge(readingRecord.getReadingStatus(), 1L, Long::sum);
         }
+        added.forEach(readingStatusCounter::add);
+        added.keySet().forEach(readingRecordCache::evictPages);
+        savedRecords.forEach(searchIndex::index);
+        // 新しく登録しただけなので、既存の読書記録ごとのバージョンは進めない
+        dataVersion.increment(List.of());
+        return savedRecords;
     }
 
     /**
-     * CSV1行分のデータを読書記録エンティティに変換
+     * CSVを1行ずつ読み込み、解析できた読書記録を順に渡します。
+     * <p>
+     * 解析できない行は警告ログに留めて処理を続行します。
+     * 行数が多い場合は行の解析を並列に行いますが、読書記録は元の行の順に渡します。
+     *
+     * @param inputStream CSVデータの入力ストリーム
+     * @param consumer    解析できた読書記録を受け取る処理
+     * @return スキップした行数
+     * @throws IOException CSV読み込み時にエラーが発生した場合
      */
-    private ReadingRecord parseCsvRow(String[] data) {
-        if (data.length < 1) { // 最低限タイトルが必要
-            return null;
-        }
+    public long parseCsv(InputStream inputStream, Consumer<ReadingRecord> consumer) throws IOException {
+        long[] counts = new long[3]; // 解析できた行数・スキップした行数・エラーの行数
 
-        ReadingRecord readingRecord = new ReadingRecord();
-        int index = 0;
+        // 読み込み時のIOException（gzipの展開エラー・サイズ上限の超過など）を終端として扱わず呼び出し元へ伝えるため、
+        // 先読みによる終端の確認（verifyReader）は無効にする
+        try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+             CSVReader csvReader = new CSVReaderBuilder(reader).withVerifyReader(false).build()) {
 
-        // 最初の列がIDかどうかを判定（数値の場合はID、そうでなければタイトル）
-        boolean hasIdColumn;
-        try {
-            Long.parseLong(data[0].trim());
-            hasIdColumn = true; // 最初の列が数値の場合はID列とみなす
-        } catch (NumberFormatException e) {
-            hasIdColumn = false; // 数値でない場合はタイトル列とみなす
-        }
+            // ヘッダー行かどうかはファイルの先頭行から1回だけ判定する
+            String[] firstRow = csvReader.readNext();
+            if (firstRow == null) {
+                return 0;
+            }
+            CsvRowDecoder decoder = CsvRowDecoder.forFirstRow(firstRow);
 
-        // IDがある場合はスキップ
-        if (hasIdColumn) {
-            index++; // ID列をスキップ
+            Consumer<ParsedRow> sink = parsedRow -> {
+                if (parsedRow.header()) {
+                    return;
+                }
+                if (parsedRow.error() != null) {
+                    // 個別行のエラーは警告ログに留めて処理を続行
+                    log.warn("Failed to parse CSV row {}: {}", parsedRow.rowNumber(), parsedRow.error());
+                    counts[2]++;
+                } else if (parsedRow.readingRecord() != null) {
+                    consumer.accept(parsedRow.readingRecord());
+                    counts[0]++;
+                } else {
+                    counts[1]++;
+                }
+            };
+            sink.accept(parseRow(decoder, 1, firstRow));
+            // 2行目以降（変換処理の行番号は2行目を1とするため、1を足してファイルの行番号にする）
+            csvRowMapper.map(csvReader::readNext, (rowNumber, data) -> parseRow(decoder, rowNumber + 1, data), sink);
+        } catch (CsvException e) {
+            log.error("CSV parsing error: {}", e.getMessage(), e);
+            throw new IOException("CSVファイルの解析中にエラーが発生しました: " + e.getMessage(), e);
+        } finally {
+            // 行ごとではなく解析の終了時にまとめて記録する
+            metrics.csvRows(counts[0], counts[1], counts[2]);
         }
 
-        // タイトル（必須）
-        if (data.length > index && !data[index].trim().isEmpty()) {
-            readingRecord.setTitle(data[index].trim());
-            index++;
-        } else {
-            return null; // タイトルが空の場合は無効なレコード
-        }
+        return counts[1] + counts[2];
+    }
 
-        // 著者
-        if (data.length > index) {
-            readingRecord.setAuthor(data[index].trim().isEmpty() ? null : data[index].trim());
-            index++;
+    /**
+     * CSV1行分を解析します（並列に呼び出されるため、ログ以外の状態は変更しません）。
+     *
+     * @param decoder   ファイルの先頭行でヘッダー行かどうかを判定した変換処理
+     * @param rowNumber 行番号（1始まり）
+     * @param data      CSV1行分のデータ
+     * @return 解析結果
+     */
+    private static ParsedRow parseRow(CsvRowDecoder decoder, long rowNumber, String[] data) {
+        // ヘッダー行をスキップ（最初の行が項目名の場合）
+        if (rowNumber == 1 && decoder.hasHeader()) {
+            return new ParsedRow(rowNumber, true, null, null);
         }
-
-        // 読書状態
-        if (data.length > index) {
-            readingRecord.setReadingStatus(parseReadingStatus(data[index].trim()));
-            index++;
-        } else {
-            readingRecord.setReadingStatus(ReadingStatus.UNREAD);
+        try {
+            return new ParsedRow(rowNumber, false, decoder.decode(data), null);
+        } catch (RuntimeException e) {
+            return new ParsedRow(rowNumber, false, null, e.getMessage());
         }
+    }
 
-        // 現在ページ
-        if (data.length > index) {
-            readingRecord.setCurrentPage(parseInteger(data[index].trim(), 0));
-            index++;
-        } else {
-            readingRecord.setCurrentPage(0);
-        }
+    /**
+     * 読書記録一覧を一括保存
+     * <p>
+     * {@value #IMPORT_CHUNK_SIZE}件ごとに1トランザクションでJDBCバッチ登録します。
+     */
+    public List<ReadingRecord> saveReadingRecords(List<ReadingRecord> records) {
+        log.info("saveReadingRecords was called with {} records", records.size());
 
-        // 総ページ数
-        if (data.length > index) {
-            readingRecord.setTotalPages(parseInteger(data[index].trim(), null));
-            index++;
-        }
+        LocalDateTime now = LocalDateTime.now();
 
-        // 評価
-        if (data.length > index) {
-            readingRecord.setRating(parseRating(data[index].trim()));
-            index++;
+        // 各レコードに作成日時・更新日時を設定
+        for (ReadingRecord readingRecord : records) {
+            readingRecord.setCreatedAt(now);
+            readingRecord.setUpdatedAt(now);
         }
 
-        // 概要
-        if (data.length > index) {
-            readingRecord.setSummary(data[index].trim().isEmpty() ? null : data[index].trim());
-            index++;
+        List<ReadingRecord> savedRecords = new ArrayList<>(records.size());
+        for (int from = 0; from < records.size(); from += IMPORT_CHUNK_SIZE) {
+            int to = Math.min(from + IMPORT_CHUNK_SIZE, records.size());
+            savedRecords.addAll(saveChunk(records.subList(from, to)));
         }
+        return savedRecords;
+    }
 
-        // 感想
-        if (data.length > index) {
-            readingRecord.setThoughts(data[index].trim().isEmpty() ? null : data[index].trim());
+    /**
+     * 全ての読書記録を削除
+     * <p>
+     * エンティティを読み込まずに1文で削除します。
+     * 個々の削除は記録せず、これより前を起点とする差分出力を受け付けないようにします。
+     *
+     * @return 削除した件数
+     */
+    public int deleteAllReadingRecords() {
+        Integer deleted = transactionTemplate.execute(status -> {
+            int count = readingRecordRepository.deleteAllInBulk();
+            changeLog.reset();
+            return count;
+        });
+        readingStatusCounter.clear();
+        readingRecordCache.evictAll();
+        searchIndex.clear();
+        dataVersion.increment();
+        log.info("Deleted all {} reading records", deleted);
+        return deleted;
+    }
+
+    /**
+     * 指定した読書状態の読書記録をまとめて削除
+     * <p>
+     * 差分出力で削除を伝えるため、削除の記録と削除をそれぞれ1文で同じトランザクション内で実行します。
+     *
+     * @return 削除した件数
+     */
+    public int deleteReadingRecordsByStatus(ReadingStatus readingStatus) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            changeLog.recordDeletionByStatus(readingStatus);
+            return readingRecordRepository.deleteByReadingStatusInBulk(readingStatus);
+        });
+        readingStatusCounter.add(readingStatus, -deleted);
+        readingRecordCache.evictAll();
+        searchIndex.removeByStatus(readingStatus);
+        dataVersion.increment();
+        log.info("Deleted {} reading records with status {}", deleted, readingStatus);
+        return deleted;
+    }
+
+    /**
+     * 指定した読書記録の読書状態をまとめて変更
+     * <p>
+     * {@value #BULK_UPDATE_CHUNK_SIZE}件ずつUPDATE文を実行し、全体を1トランザクションでコミットします。
+     *
+     * @param ids           読書記録のID（存在しないIDは無視します）
+     * @param readingStatus 変更後の読書状態
+     * @return 変更した件数
+     */
+    public int updateReadingStatus(Collection<Long> ids, ReadingStatus readingStatus) {
+        List<Long> targetIds = List.copyOf(new LinkedHashSet<>(ids));
+        if (targetIds.isEmpty()) {
+            return 0;
         }
+        LocalDateTime now = LocalDateTime.now();
+        Map<ReadingStatus, Long> before = new EnumMap<>(ReadingStatus.class);
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (int from = 0; from < targetIds.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+                List<Long> chunk = targetIds.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, targetIds.size()));
+                // 件数カウンターの補正用に、変更前の読書状態ごとの件数を同じトランザクション内で取得
+                if (readingStatusCounter.isEnabled()) {
+                    readingRecordRepository.countGroupByReadingStatusByIdIn(chunk)
+                            .forEach(c -> before.merge(c.getReadingStatus(), c.getCount(), Long::sum));
+                }
+                count += readingRecordRepository.updateReadingStatusByIdIn(chunk, readingStatus, now);
+            }
+            return count;
+        });
 
-        return readingRecord;
+        // コミット後に件数カウンター・キャッシュ・検索インデックスへ反映
+        before.forEach((s, count) -> readingStatusCounter.add(s, -count));
+        readingStatusCounter.add(readingStatus, updated);
+        evictBulkUpdated(targetIds);
+        searchIndex.update(targetIds, readingStatus, now);
+        dataVersion.increment(targetIds);
+        log.info("Updated reading status of {} reading records to {}", updated, readingStatus);
+        return updated;
     }
 
     /**
-     * 読書状態の文字列を読書状態列挙型に変換
+     * 指定した読書記録の進捗をまとめて設定
+     * <p>
+     * 現在ページを総ページ数に対する割合（切り捨て）で設定します。総ページ数が未設定の読書記録は変更しません。
+     * {@value #BULK_UPDATE_CHUNK_SIZE}件ずつUPDATE文を実行し、全体を1トランザクションでコミットします。
+     *
+     * @param ids     読書記録のID（存在しないIDは無視します）
+     * @param percent 進捗率（0〜100）
+     * @return 変更した件数
      */
-    private ReadingStatus parseReadingStatus(String statusStr) {
-        if (statusStr == null || statusStr.trim().isEmpty()) {
-            return ReadingStatus.UNREAD;
+    public int updateProgress(Collection<Long> ids, int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("進捗率は0〜100で指定してください: " + percent);
+        }
+        List<Long> targetIds = List.copyOf(new LinkedHashSet<>(ids));
+        if (targetIds.isEmpty()) {
+            return 0;
         }
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (int from = 0; from < targetIds.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+                List<Long> chunk = targetIds.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, targetIds.size()));
+                count += readingRecordRepository.updateProgressByIdIn(chunk, percent, now);
+            }
+            return count;
+        });
 
-        // 表示名での変換を試行
+        evictBulkUpdated(targetIds);
+        // 総ページ数が未設定で変更しなかった読書記録も含むが、更新日時が前後するだけで検索結果は変わらない
+        searchIndex.update(targetIds, null, now);
+        dataVersion.increment(targetIds);
+        log.info("Updated progress of {} reading records to {}%", updated, percent);
+        return updated;
+    }
+
+    /**
+     * 一括変更した読書記録のキャッシュを破棄
+     * （更新日時が変わり一覧の並び順も変わるため、全ての読書状態のページを破棄する）
+     */
+    private void evictBulkUpdated(List<Long> ids) {
+        ids.forEach(readingRecordCache::evictRecord);
         for (ReadingStatus status : ReadingStatus.values()) {
-            if (status.getDisplayName().equals(statusStr.trim())) {
-                return status;
-            }
+            readingRecordCache.evictPages(status);
         }
+    }
 
-        // 英語名での変換を試行
-        try {
-            return ReadingStatus.valueOf(statusStr.trim().toUpperCase());
-        } catch (IllegalArgumentException e) {
-            log.warn("Unknown reading status: {}, defaulting to UNREAD", statusStr);
-            return ReadingStatus.UNREAD;
-        }
+    /**
+     * 読書記録全体のデータのバージョンを取得（条件付きGETのETag用）
+     * <p>
+     * 読書記録を変更する操作のたびに、コミットした後で変わります。
+     * DBから読み出す前に取得してください。
+     */
+    public String getDataVersion() {
+        return dataVersion.current();
     }
 
     /**
-     * 文字列を整数に変換（失敗時はデフォルト値を返す）
+     * 読書記録ごとのデータのバージョンを取得（詳細画面の条件付きGETのETag用）
+     * <p>
+     * その読書記録を変更・削除したとき、または全件削除・復元などでまとめて変更したときだけ変わります。
+     * DBから読み出す前に取得してください。
+     *
+     * @param id 読書記録のID
      */
-    private Integer parseInteger(String str, Integer defaultValue) {
-        if (str == null || str.trim().isEmpty()) {
-            return defaultValue;
-        }
+    public String getRecordVersion(Long id) {
+        return dataVersion.current(id);
+    }
 
-        try {
-            return Integer.parseInt(str.trim());
-        } catch (NumberFormatException e) {
-            log.warn("Failed to parse integer: {}, using default: {}", str, defaultValue);
-            return defaultValue;
-        }
+    /**
+     * 読み取りキャッシュの統計情報を取得
+     */
+    public List<CacheStatistics> getCacheStatistics() {
+        return readingRecordCache.getStatistics();
     }
 
     /**
-     * 文字列を評価（1-5）に変換（範囲外の場合はnullを返す）
+     * 読書記録を{@value #IMPORT_CHUNK_SIZE}件ずつまとめてコミットし、所要時間を記録します。
      */
-    private Integer parseRating(String str) {
-        if (str == null || str.trim().isEmpty()) {
-            return null;
+    private class ChunkedImport {
+
+        private final long startNanos = System.nanoTime();
+        private final List<ReadingRecord> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        private final List<Long> chunkCommitMillis = new ArrayList<>();
+        private final ImportMode mode;
+        private final ImportProgress progress;
+        private ImportCounts counts = ImportCounts.ZERO;
+
+        ChunkedImport(ImportMode mode, ImportProgress progress) {
+            this.mode = mode;
+            this.progress = progress;
         }
 
-        try {
-            int rating = Integer.parseInt(str.trim());
-            if (rating >= 1 && rating <= 5) {
-                return rating;
-            } else {
-                log.warn("Rating out of range (1-5): {}, setting to null", rating);
-                return null;
+        /**
+         * 直前のチャンクをコミットし終え、次のチャンクに入る前かどうか
+         */
+        boolean isAtChunkBoundary() {
+            return chunk.isEmpty();
+        }
+
+        void add(ReadingRecord readingRecord) {
+            chunk.add(readingRecord);
+            if (chunk.size() >= IMPORT_CHUNK_SIZE) {
+                commitChunk();
             }
-        } catch (NumberFormatException e) {
-            log.warn("Failed to parse rating: {}, setting to null", str);
-            return null;
+        }
+
+        CsvImportResult finish() {
+            if (!chunk.isEmpty()) {
+                commitChunk();
+            }
+
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            // 解析できなかった行は、取り込みデータを保持する時点で除いている
+            CsvImportResult result = new CsvImportResult(counts.insertedCount(), counts.updatedCount(),
+                    counts.duplicateCount(), 0, chunkCommitMillis, elapsedMillis);
+            log.info("Imported {} records, updated {}, skipped {} duplicates ({} unparsable) in {} chunks, {} ms, "
+                            + "{} rows/sec", result.importedCount(), result.updatedCount(), result.duplicateCount(),
+                    result.skippedCount(), chunkCommitMillis.size(), elapsedMillis, result.rowsPerSecond());
+            return result;
+        }
+
+        private void commitChunk() {
+            long chunkStartNanos = System.nanoTime();
+            int size = chunk.size();
+            // 差分出力で取りこぼさないよう、更新日時は取り込みの開始時ではなくチャンクごとのコミット直前に設定する
+            counts = counts.plus(importChunk(chunk, mode, LocalDateTime.now()));
+            chunk.clear();
+
+            long millis = (System.nanoTime() - chunkStartNanos) / 1_000_000;
+            chunkCommitMillis.add(millis);
+            log.info("Committed chunk {} ({} records) in {} ms", chunkCommitMillis.size(), size, millis);
+            progress.chunkCommitted(counts.total());
         }
     }
 
     /**
-     * 読書記録一覧を一括保存
+     * 書き込んだバイト数を数える出力ストリーム（CSV出力のサイズの記録に使用）
      */
-    public List<ReadingRecord> saveReadingRecords(List<ReadingRecord> records) {
-        log.info("saveReadingRecords was called with {} records", records.size());
+    private static final class CountingOutputStream extends FilterOutputStream {
 
-        LocalDateTime now = LocalDateTime.now();
+        private long count;
 
-        // 各レコードに作成日時・更新日時を設定
-        for (ReadingRecord readingRecord : records) {
-            readingRecord.setCreatedAt(now);
-            readingRecord.setUpdatedAt(now);
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
         }
 
-        return readingRecordRepository.saveAll(records);
+        long getCount() {
+            return count;
+        }
     }
 
     /**
-     * 全ての読書記録を削除
+     * 1チャンク分の取り込みの振り分け結果
+     *
+     * @param inserts 新規登録する読書記録
+     * @param updates 更新する読書記録（既存の読書記録のID→取り込む内容）
+     * @param counts  新規登録・更新・スキップの件数
+     */
+    private record ChunkPlan(List<ReadingRecord> inserts, Map<Long, ReadingRecord> updates, ImportCounts counts) {
+    }
+
+    /**
+     * CSV1行分の解析結果
+     *
+     * @param rowNumber     行番号（1始まり）
+     * @param header        ヘッダー行かどうか
+     * @param readingRecord 解析した読書記録（スキップする行・エラーの場合はnull）
+     * @param error         解析時のエラーメッセージ（エラーでない場合はnull）
+     */
+    private record ParsedRow(long rowNumber, boolean header, ReadingRecord readingRecord, String error) {
+    }
+
+    /**
+     * 一覧のページ位置（前ページ最後の読書記録の並び順の値とID。値は並び順に応じて日時・整数・文字列のいずれか）
      */
-    public void deleteAllReadingRecords() {
-        readingRecordRepository.deleteAll();
+    private record ListCursor(Comparable<?> value, long id) {
     }
 }
@@ -0,0 +1,467 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.status.ReadingStatus;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * 読書記録のバイナリスナップショット形式（バックアップ・復元用）
+ * <p>
+ * CSVと異なり、文字列の引用符処理や日時の書式化を行わず、IDと作成・更新日時をそのまま保持します。
+ * 形式は次のとおりです（整数は可変長、文字列は長さ付きのUTF-8）。
+ * <pre>
+ * ヘッダー    : "RDSN" | バージョン(2バイト) | 読書状態の数 | 読書状態の名前...
+ * 読書記録    : ペイロードの長さ | ペイロード（繰り返し）
+ * 終端        : 0 | 件数
+ * チェックサム: ここまでの全バイトのCRC32C(4バイト)
+ * </pre>
+ * 読書状態はヘッダーの名前一覧の番号で保持するため、列挙型の並び順が変わっても復元できます。
+ */
+final class ReadingRecordSnapshot {
+
+    static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'R', 'D', 'S', 'N'};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 1件のペイロードの上限（壊れたファイルで巨大な領域を確保しないため）
+     */
+    private static final int MAX_PAYLOAD_LENGTH = 16 * 1024 * 1024;
+
+    // ペイロード先頭の、値がnullでない項目を表すビット
+    private static final int HAS_AUTHOR = 1;
+    private static final int HAS_CURRENT_PAGE = 1 << 1;
+    private static final int HAS_TOTAL_PAGES = 1 << 2;
+    private static final int HAS_RATING = 1 << 3;
+    private static final int HAS_SUMMARY = 1 << 4;
+    private static final int HAS_THOUGHTS = 1 << 5;
+    private static final int HAS_CREATED_AT = 1 << 6;
+    private static final int HAS_UPDATED_AT = 1 << 7;
+
+    private ReadingRecordSnapshot() {
+    }
+
+    /**
+     * スナップショットの書き込み
+     * <p>
+     * 読書記録を1件ずつバッファに書き込み、バッファが一杯になったらチャンネルへ書き出します。
+     * 最後に{@link #finish()}で終端とチェックサムを書き込みます。チャンネルはクローズしません。
+     */
+    static final class Writer {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32C checksum = new CRC32C();
+        private ByteBuffer payload = ByteBuffer.allocate(1024);
+        private long count;
+        private long bytesWritten;
+
+        Writer(WritableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.put(MAGIC);
+            buffer.putShort((short) VERSION);
+            ReadingStatus[] statuses = ReadingStatus.values();
+            buffer.put((byte) statuses.length);
+            for (ReadingStatus status : statuses) {
+                byte[] name = status.name().getBytes(StandardCharsets.US_ASCII);
+                buffer.put((byte) name.length);
+                buffer.put(name);
+            }
+        }
+
+        /**
+         * 読書記録を1件書き込みます。
+         */
+        void write(ReadingRecord readingRecord) throws IOException {
+            payload.clear();
+            encode(readingRecord);
+            payload.flip();
+
+            ensureRemaining(5);
+            putVarLong(buffer, payload.remaining());
+            if (payload.remaining() > buffer.remaining()) {
+                flush();
+            }
+            if (payload.remaining() > buffer.remaining()) {
+                // バッファより大きい読書記録はそのまま書き出す
+                checksum.update(payload.duplicate());
+                writeFully(payload);
+            } else {
+                buffer.put(payload);
+            }
+            count++;
+        }
+
+        /**
+         * 終端とチェックサムを書き込み、バッファに残った分を書き出します。
+         *
+         * @return 書き込んだ件数
+         */
+        long finish() throws IOException {
+            ensureRemaining(15);
+            putVarLong(buffer, 0);
+            putVarLong(buffer, count);
+            flush();
+            buffer.putInt((int) checksum.getValue());
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+            return count;
+        }
+
+        /**
+         * これまでに書き出したバイト数
+         */
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        private void encode(ReadingRecord readingRecord) {
+            String title = readingRecord.getTitle();
+            if (readingRecord.getId() == null || title == null || readingRecord.getReadingStatus() == null) {
+                throw new IllegalArgumentException("ID・タイトル・読書状態のない読書記録は書き込めません");
+            }
+
+            int flags = 0;
+            flags |= readingRecord.getAuthor() != null ? HAS_AUTHOR : 0;
+            flags |= readingRecord.getCurrentPage() != null ? HAS_CURRENT_PAGE : 0;
+            flags |= readingRecord.getTotalPages() != null ? HAS_TOTAL_PAGES : 0;
+            flags |= readingRecord.getRating() != null ? HAS_RATING : 0;
+            flags |= readingRecord.getSummary() != null ? HAS_SUMMARY : 0;
+            flags |= readingRecord.getThoughts() != null ? HAS_THOUGHTS : 0;
+            flags |= readingRecord.getCreatedAt() != null ? HAS_CREATED_AT : 0;
+            flags |= readingRecord.getUpdatedAt() != null ? HAS_UPDATED_AT : 0;
+
+            putPayloadByte(flags);
+            putPayloadVarLong(readingRecord.getId());
+            putPayloadByte(readingRecord.getReadingStatus().ordinal());
+            putPayloadString(title);
+            if (readingRecord.getAuthor() != null) {
+                putPayloadString(readingRecord.getAuthor());
+            }
+            if (readingRecord.getCurrentPage() != null) {
+                putPayloadVarLong(zigZag(readingRecord.getCurrentPage()));
+            }
+            if (readingRecord.getTotalPages() != null) {
+                putPayloadVarLong(zigZag(readingRecord.getTotalPages()));
+            }
+            if (readingRecord.getRating() != null) {
+                putPayloadVarLong(zigZag(readingRecord.getRating()));
+            }
+            if (readingRecord.getSummary() != null) {
+                putPayloadString(readingRecord.getSummary());
+            }
+            if (readingRecord.getThoughts() != null) {
+                putPayloadString(readingRecord.getThoughts());
+            }
+            if (readingRecord.getCreatedAt() != null) {
+                putPayloadDateTime(readingRecord.getCreatedAt());
+            }
+            if (readingRecord.getUpdatedAt() != null) {
+                putPayloadDateTime(readingRecord.getUpdatedAt());
+            }
+        }
+
+        private void putPayloadByte(int value) {
+            ensurePayloadRemaining(1);
+            payload.put((byte) value);
+        }
+
+        private void putPayloadVarLong(long value) {
+            ensurePayloadRemaining(10);
+            putVarLong(payload, value);
+        }
+
+        private void putPayloadString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensurePayloadRemaining(5 + bytes.length);
+            putVarLong(payload, bytes.length);
+            payload.put(bytes);
+        }
+
+        private void putPayloadDateTime(LocalDateTime value) {
+            putPayloadVarLong(zigZag(value.toEpochSecond(ZoneOffset.UTC)));
+            putPayloadVarLong(value.getNano());
+        }
+
+        private void ensurePayloadRemaining(int length) {
+            if (payload.remaining() < length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(payload.capacity() * 2, payload.position() + length));
+                payload.flip();
+                larger.put(payload);
+                payload = larger;
+            }
+        }
+
+        private void ensureRemaining(int length) throws IOException {
+            if (buffer.remaining() < length) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                bytesWritten += channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * スナップショットの読み込み
+     * <p>
+     * チャンネルから読み込んだバッファ上で1件ずつ復元します。
+     * 終端に達した時点で件数とチェックサムを検証し、一致しない場合は{@link IOException}を投げます。
+     */
+    static final class Reader {
+
+        private final ReadableByteChannel channel;
+        private final CRC32C checksum = new CRC32C();
+        private final ReadingStatus[] statuses;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // バッファのうち、チェックサムに反映済みの位置
+        private int checksumPosition;
+        private long count;
+        private boolean finished;
+
+        Reader(ReadableByteChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.flip();
+
+            byte[] magic = new byte[MAGIC.length];
+            require(magic.length + 3);
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("スナップショットファイルではありません");
+            }
+            int version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("対応していないスナップショットのバージョンです: " + version);
+            }
+
+            int statusCount = Byte.toUnsignedInt(buffer.get());
+            statuses = new ReadingStatus[statusCount];
+            for (int i = 0; i < statusCount; i++) {
+                require(1);
+                byte[] name = new byte[Byte.toUnsignedInt(buffer.get())];
+                require(name.length);
+                buffer.get(name);
+                statuses[i] = parseStatus(new String(name, StandardCharsets.US_ASCII));
+            }
+        }
+
+        /**
+         * 次の読書記録を返します。
+         *
+         * @return 読書記録（終端に達した場合はnull）
+         * @throws IOException 読み込みに失敗した場合、形式・件数・チェックサムが正しくない場合
+         */
+        ReadingRecord next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            long length = readVarLong();
+            if (length == 0) {
+                verifyTrailer();
+                return null;
+            }
+            if (length < 0 || length > MAX_PAYLOAD_LENGTH) {
+                throw new IOException("スナップショットの読書記録の長さが不正です: " + length);
+            }
+            require((int) length);
+            ByteBuffer payload = buffer.slice(buffer.position(), (int) length);
+            buffer.position(buffer.position() + (int) length);
+            try {
+                ReadingRecord readingRecord = decode(payload);
+                if (payload.hasRemaining()) {
+                    throw new IOException("スナップショットの読書記録の長さが一致しません");
+                }
+                count++;
+                return readingRecord;
+            } catch (RuntimeException e) {
+                throw new IOException("スナップショットの読書記録が不正です（" + (count + 1) + "件目）", e);
+            }
+        }
+
+        private ReadingRecord decode(ByteBuffer payload) throws IOException {
+            int flags = Byte.toUnsignedInt(payload.get());
+            ReadingRecord readingRecord = new ReadingRecord();
+            readingRecord.setId(getVarLong(payload));
+            int statusIndex = Byte.toUnsignedInt(payload.get());
+            if (statusIndex >= statuses.length) {
+                throw new IOException("スナップショットの読書状態が不正です: " + statusIndex);
+            }
+            readingRecord.setReadingStatus(statuses[statusIndex]);
+            readingRecord.setTitle(getString(payload));
+            readingRecord.setAuthor((flags & HAS_AUTHOR) != 0 ? getString(payload) : null);
+            readingRecord.setCurrentPage((flags & HAS_CURRENT_PAGE) != 0 ? getInt(payload) : null);
+            readingRecord.setTotalPages((flags & HAS_TOTAL_PAGES) != 0 ? getInt(payload) : null);
+            readingRecord.setRating((flags & HAS_RATING) != 0 ? getInt(payload) : null);
+            readingRecord.setSummary((flags & HAS_SUMMARY) != 0 ? getString(payload) : null);
+            readingRecord.setThoughts((flags & HAS_THOUGHTS) != 0 ? getString(payload) : null);
+            readingRecord.setCreatedAt((flags & HAS_CREATED_AT) != 0 ? getDateTime(payload) : null);
+            readingRecord.setUpdatedAt((flags & HAS_UPDATED_AT) != 0 ? getDateTime(payload) : null);
+            return readingRecord;
+        }
+
+        private void verifyTrailer() throws IOException {
+            long expectedCount = readVarLong();
+            if (expectedCount != count) {
+                throw new IOException("スナップショットの件数が一致しません（記録: " + expectedCount
+                        + "件、読み込み: " + count + "件）");
+            }
+            updateChecksum();
+            require(4);
+            int expectedChecksum = buffer.getInt();
+            if (expectedChecksum != (int) checksum.getValue()) {
+                throw new IOException("スナップショットのチェックサムが一致しません");
+            }
+            if (buffer.hasRemaining() || fill()) {
+                throw new IOException("スナップショットの終端の後にデータがあります");
+            }
+            finished = true;
+        }
+
+        private ReadingStatus parseStatus(String name) throws IOException {
+            try {
+                return ReadingStatus.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("スナップショットの読書状態が不明です: " + name, e);
+            }
+        }
+
+        /**
+         * チャンネルから可変長の整数を1つ読み込みます。
+         */
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("スナップショットの整数が不正です");
+        }
+
+        /**
+         * バッファに指定したバイト数が残るまで読み込みます。
+         */
+        private void require(int length) throws IOException {
+            if (buffer.remaining() >= length) {
+                return;
+            }
+            if (length > buffer.capacity()) {
+                // バッファより大きい読書記録は、読み込めるだけの大きさに広げる
+                updateChecksum();
+                ByteBuffer larger = ByteBuffer.allocate(length);
+                larger.put(buffer);
+                larger.flip();
+                buffer = larger;
+                checksumPosition = 0;
+            }
+            while (buffer.remaining() < length) {
+                if (!fill()) {
+                    throw new EOFException("スナップショットが途中で終わっています");
+                }
+            }
+        }
+
+        /**
+         * 読み込み済みの部分をチェックサムに反映し、残りを詰めてからチャンネルの続きを読み込みます。
+         *
+         * @return 読み込めた場合はtrue、終端の場合はfalse
+         */
+        private boolean fill() throws IOException {
+            updateChecksum();
+            buffer.compact();
+            checksumPosition = 0;
+            try {
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (read == 0);
+                return read > 0;
+            } finally {
+                buffer.flip();
+            }
+        }
+
+        /**
+         * バッファの読み込み済みの部分をチェックサムに反映します。
+         */
+        private void updateChecksum() {
+            checksum.update(buffer.array(), buffer.arrayOffset() + checksumPosition,
+                    buffer.position() - checksumPosition);
+            checksumPosition = buffer.position();
+        }
+
+        private static String getString(ByteBuffer payload) throws IOException {
+            long length = getVarLong(payload);
+            if (length < 0 || length > payload.remaining()) {
+                throw new IOException("スナップショットの文字列の長さが不正です: " + length);
+            }
+            String value = new String(payload.array(), payload.arrayOffset() + payload.position(), (int) length,
+                    StandardCharsets.UTF_8);
+            payload.position(payload.position() + (int) length);
+            return value;
+        }
+
+        private static int getInt(ByteBuffer payload) throws IOException {
+            return Math.toIntExact(unZigZag(getVarLong(payload)));
+        }
+
+        private static LocalDateTime getDateTime(ByteBuffer payload) throws IOException {
+            long epochSecond = unZigZag(getVarLong(payload));
+            int nano = Math.toIntExact(getVarLong(payload));
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+
+        private static long getVarLong(ByteBuffer payload) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = payload.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("スナップショットの整数が不正です");
+        }
+    }
+
+    private static void putVarLong(ByteBuffer target, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.repository.ReadingRecordRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 読書記録のバイナリスナップショットによるバックアップ・復元
+ * <p>
+ * 形式は{@link ReadingRecordSnapshot}を参照してください。
+ * 復元時はIDと作成・更新日時をスナップショットのまま登録します。
+ */
+@Slf4j
+@Service
+public class ReadingRecordSnapshotService {
+
+    /**
+     * 復元時に1回のJDBCバッチでまとめて登録する件数
+     */
+    static final int RESTORE_BATCH_SIZE = 1000;
+
+    /**
+     * IDのシーケンスの増分（{@link ReadingRecord}の採番と同じ値）
+     */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_SQL = "INSERT INTO reading_record (id, title, author, reading_status, "
+            + "current_page, total_pages, rating, summary, thoughts, created_at, updated_at, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ReadingRecordRepository readingRecordRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadingStatusCounter readingStatusCounter;
+    private final ReadingRecordCache readingRecordCache;
+    private final ReadingRecordService readingRecordService;
+    private final ReadingProgressBuffer readingProgressBuffer;
+    private final ReadingRecordChangeLog changeLog;
+    private final ReadingRecordDataVersion dataVersion;
+
+    public ReadingRecordSnapshotService(ReadingRecordRepository readingRecordRepository, EntityManager entityManager,
+                                        JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                        ReadingStatusCounter readingStatusCounter,
+                                        ReadingRecordCache readingRecordCache,
+                                        ReadingRecordService readingRecordService,
+                                        ReadingProgressBuffer readingProgressBuffer,
+                                        ReadingRecordChangeLog changeLog,
+                                        ReadingRecordDataVersion dataVersion) {
+        this.readingRecordRepository = readingRecordRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readingStatusCounter = readingStatusCounter;
+        this.readingRecordCache = readingRecordCache;
+        this.readingRecordService = readingRecordService;
+        this.readingProgressBuffer = readingProgressBuffer;
+        this.changeLog = changeLog;
+        this.dataVersion = dataVersion;
+    }
+
+    /**
+     * 全ての読書記録をスナップショット形式で出力ストリームへ直接書き込みます。
+     * <p>
+     * DBから1件ずつ読み進めながら書き込むため、件数に関わらずヒープ使用量は一定です。
+     * 出力ストリームはクローズしません。
+     *
+     * @param outputStream 書き込み先の出力ストリーム
+     * @return 書き込んだ件数
+     * @throws IOException 書き込み時にエラーが発生した場合
+     */
+    @Transactional(readOnly = true)
+    public long exportSnapshot(OutputStream outputStream) throws IOException {
+        log.info("exportSnapshot was called");
+        ReadingRecordSnapshot.Writer writer = new ReadingRecordSnapshot.Writer(Channels.newChannel(outputStream));
+        try (Stream<ReadingRecord> records = readingRecordRepository.streamAllByOrderByIdAsc()) {
+            Iterator<ReadingRecord> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                ReadingRecord readingRecord = iterator.next();
+                writer.write(readingRecord);
+                entityManager.detach(readingRecord);
+            }
+        }
+        long count = writer.finish();
+        outputStream.flush();
+        log.info("Exported {} records to snapshot ({} bytes)", count, writer.getBytesWritten());
+        return count;
+    }
+
+    /**
+     * スナップショットから読書記録を復元します。
+     * <p>
+     * 既存の読書記録を全て削除し、スナップショットの読書記録を{@value #RESTORE_BATCH_SIZE}件ずつ
+     * JDBCバッチで登録します。全体を1トランザクションで行い、件数・チェックサムの検証は終端で行うため、
+     * 途中で失敗した場合や検証に失敗した場合は何も変更しません。
+     * 楽観的ロックのバージョンは、復元前の全ての読書記録のバージョンより大きい値にします。
+     * 復元前に開いた編集画面・詳細画面から、復元した読書記録を上書き・削除しないようにするためです。
+     * 登録後はIDのシーケンスを復元した最大IDより後ろへ進め、Hibernateが採番済みで未使用のIDも使い切ります。
+     * 復元は個々の変更として差分出力に含められないため、復元前を起点とする差分出力は受け付けなくなります。
+     * 書き込み待ちの読書の進捗は復元前の読書記録に対するものなので、復元の間は書き込まず、復元後に破棄します。
+     *
+     * @param inputStream スナップショットの入力ストリーム
+     * @return 復元した件数
+     * @throws IOException 読み込みに失敗した場合、スナップショットの形式・件数・チェックサムが正しくない場合
+     */
+    public long restoreSnapshot(InputStream inputStream) throws IOException {
+        log.info("restoreSnapshot was called");
+        long startNanos = System.nanoTime();
+        ReadingRecordSnapshot.Reader reader = new ReadingRecordSnapshot.Reader(Channels.newChannel(inputStream));
+
+        long restoredCount;
+        try {
+            restoredCount = readingProgressBuffer.discardPendingAfter(() -> transactionTemplate.execute(status -> {
+                try {
+                    return replaceAll(reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // コミット後に件数カウンター・キャッシュ・検索インデックス・データのバージョンへ反映
+        readingStatusCounter.reconcile();
+        readingRecordCache.evictAll();
+        readingRecordService.rebuildSearchIndex();
+        dataVersion.increment();
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("Restored {} records from snapshot in {} ms", restoredCount, elapsedMillis);
+        return restoredCount;
+    }
+
+    /**
+     * スナップショット出力用のファイル名を生成
+     *
+     * @return ファイル名（例：reading-records_20241127_143022.rdsnap）
+     */
+    public String generateSnapshotFileName() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+        String timestamp = LocalDateTime.now().format(formatter);
+        return "reading-records_" + timestamp + ".rdsnap";
+    }
+
+    /**
+     * 既存の読書記録を削除し、スナップショットの読書記録をまとめて登録します（トランザクション内で呼び出すこと）。
+     */
+    private long replaceAll(ReadingRecordSnapshot.Reader reader) throws IOException {
+        Long maxVersion = jdbcTemplate.queryForObject("SELECT MAX(version) FROM reading_record", Long.class);
+        long version = maxVersion != null ? maxVersion + 1 : 0;
+        jdbcTemplate.update("DELETE FROM reading_record");
+
+        List<Object[]> batch = new ArrayList<>(RESTORE_BATCH_SIZE);
+        long count = 0;
+        long maxId = 0;
+        ReadingRecord readingRecord;
+        while ((readingRecord = reader.next()) != null) {
+            batch.add(toParameters(readingRecord, version));
+            maxId = Math.max(maxId, readingRecord.getId());
+            if (batch.size() >= RESTORE_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                count += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            count += batch.size();
+        }
+
+        advanceIdSequence(maxId);
+        skipAllocatedIds(maxId);
+        changeLog.reset();
+        return count;
+    }
+
+    /**
+     * 次に採番するIDが、現在のシーケンスの値と復元した最大IDのどちらよりも後ろになるよう進めます。
+     */
+    private void advanceIdSequence(long maxId) {
+        Long current = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'READING_RECORD_SEQ'",
+                Long.class);
+        long restartWith = Math.max(current != null ? current : 1, maxId + ID_ALLOCATION_SIZE);
+        jdbcTemplate.execute("ALTER SEQUENCE reading_record_seq RESTART WITH " + restartWith);
+    }
+
+    /**
+     * Hibernateがシーケンスからまとめて採番し、メモリ上に残しているIDのうち、復元した最大ID以下のものを使い切ります。
+     * <p>
+     * 残っているIDを使い切ると、進めた後のシーケンスから採番し直すため、以降の保存で復元したIDと重なりません。
+     * 使い切るIDは最大で{@value #ID_ALLOCATION_SIZE}件です。
+     */
+    private void skipAllocatedIds(long maxId) {
+        IdentifierGenerator generator = (IdentifierGenerator) entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(ReadingRecord.class)
+                .getGenerator();
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        long id;
+        do {
+            id = ((Number) generator.generate(session, null)).longValue();
+        } while (id <= maxId);
+    }
+
+    private static Object[] toParameters(ReadingRecord readingRecord, long version) {
+        return new Object[]{
+                readingRecord.getId(),
+                readingRecord.getTitle(),
+                readingRecord.getAuthor(),
+                readingRecord.getReadingStatus().name(),
+                readingRecord.getCurrentPage(),
+                readingRecord.getTotalPages(),
+                readingRecord.getRating(),
+                readingRecord.getSummary(),
+                readingRecord.getThoughts(),
+                readingRecord.getCreatedAt(),
+                readingRecord.getUpdatedAt(),
+                version
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.myapplication.service;
+
+import lombok.Getter;
+
+/**
+ * 読書記録一覧の並び順
+ * <p>
+ * いずれも読書状態から始まる複合インデックスの順に読み出せる並び順だけを用意しています。
+ * 同じ値の行はIDで並べ、値が未設定（null）の行は降順では末尾、昇順では先頭になります（H2のNULLの順序）。
+ */
+@Getter
+public enum ReadingRecordSort {
+    /**
+     * 更新日時の新しい順（同じ場合はIDの大きい順）
+     */
+    UPDATED("更新日時の新しい順", "updatedAt", true, false),
+    /**
+     * 進捗率の高い順（同じ場合はIDの大きい順）
+     */
+    PROGRESS("進捗率の高い順", "progressPercent", true, false),
+    /**
+     * 評価の高い順（同じ場合はIDの大きい順）
+     */
+    RATING("評価の高い順", "rating", true, true),
+    /**
+     * タイトル順（同じ場合はIDの小さい順）
+     */
+    TITLE("タイトル順", "title", false, false),
+    /**
+     * 著者順（同じ場合はIDの小さい順）
+     */
+    AUTHOR("著者順", "author", false, true),
+    /**
+     * 登録日時の新しい順（同じ場合はIDの大きい順）
+     */
+    CREATED("登録日時の新しい順", "createdAt", true, true);
+
+    private final String displayName;
+    /**
+     * 並べ替えに使う読書記録の属性名
+     */
+    private final String attribute;
+    /**
+     * 降順かどうか（IDも同じ向きに並べる）
+     */
+    private final boolean descending;
+    /**
+     * 値が未設定（null）の行があるかどうか
+     */
+    private final boolean nullable;
+
+    ReadingRecordSort(String displayName, String attribute, boolean descending, boolean nullable) {
+        this.displayName = displayName;
+        this.attribute = attribute;
+        this.descending = descending;
+        this.nullable = nullable;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.repository.ReadingRecordRepository;
+import com.example.myapplication.repository.ReadingStatusCount;
+import com.example.myapplication.status.ReadingStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 読書状態ごとの件数をメモリ上で保持するカウンター
+ * <p>
+ * 有効な場合、件数は初回にDBから集計し、以降は登録・更新・削除のたびに加減算して
+ * DBへ問い合わせずに返します。加減算のずれは定期的な再集計で補正します。
+ * 無効な場合は毎回DBで集計します。
+ */
+@Slf4j
+@Component
+public class ReadingStatusCounter {
+
+    private final ReadingRecordRepository readingRecordRepository;
+    private final boolean enabled;
+    private final Map<ReadingStatus, LongAdder> counters = new EnumMap<>(ReadingStatus.class);
+    private volatile boolean initialized;
+
+    public ReadingStatusCounter(ReadingRecordRepository readingRecordRepository,
+                                @Value("${readrico.status-counter.enabled:true}") boolean enabled) {
+        this.readingRecordRepository = readingRecordRepository;
+        this.enabled = enabled;
+        for (ReadingStatus status : ReadingStatus.values()) {
+            counters.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * メモリ上のカウンターを使っているかどうか
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 読書状態ごとの件数を返します（全ての読書状態を含みます）。
+     *
+     * @return 読書状態ごとの件数
+     */
+    public Map<ReadingStatus, Long> getCounts() {
+        if (!enabled) {
+            return loadCounts();
+        }
+        if (!initialized) {
+            reconcile();
+        }
+
+        Map<ReadingStatus, Long> counts = new EnumMap<>(ReadingStatus.class);
+        counters.forEach((status, counter) -> counts.put(status, counter.sum()));
+        return counts;
+    }
+
+    /**
+     * 指定した読書状態の件数を返します。
+     *
+     * @param status 読書状態
+     * @return 件数
+     */
+    public long getCount(ReadingStatus status) {
+        if (!enabled) {
+            return readingRecordRepository.countByReadingStatus(status);
+        }
+        if (!initialized) {
+            reconcile();
+        }
+        return counters.get(status).sum();
+    }
+
+    /**
+     * 指定した読書状態の件数を加算します（減算する場合は負の値）。
+     */
+    public void add(ReadingStatus status, long delta) {
+        if (enabled && status != null && delta != 0) {
+            counters.get(status).add(delta);
+        }
+    }
+
+    /**
+     * 読書記録の読書状態の変更を反映します。
+     *
+     * @param before 変更前の読書状態（新規登録の場合はnull）
+     * @param after  変更後の読書状態（削除の場合はnull）
+     */
+    public void changed(ReadingStatus before, ReadingStatus after) {
+        if (before == after) {
+            return;
+        }
+        add(before, -1);
+        add(after, 1);
+    }
+
+    /**
+     * 全件削除を反映し、全ての件数を0にします。
+     */
+    public void clear() {
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * DBで再集計し、メモリ上の件数とのずれを補正します。
+     */
+    @Scheduled(fixedDelayString = "${readrico.status-counter.reconcile-interval:5m}",
+            initialDelayString = "${readrico.status-counter.reconcile-interval:5m}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<ReadingStatus, Long> counts = loadCounts();
+        counts.forEach((status, count) -> {
+            LongAdder counter = counters.get(status);
+            long current = counter.sum();
+            if (initialized && current != count) {
+                log.warn("Reading status counter drift corrected: {} {} -> {}", status, current, count);
+            }
+            counter.add(count - current);
+        });
+        initialized = true;
+    }
+
+    /**
+     * DBで読書状態ごとの件数を集計します。
+     */
+    private Map<ReadingStatus, Long> loadCounts() {
+        Map<ReadingStatus, Long> counts = new EnumMap<>(ReadingStatus.class);
+        for (ReadingStatus status : ReadingStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (ReadingStatusCount statusCount : readingRecordRepository.countGroupByReadingStatus()) {
+            counts.put(statusCount.getReadingStatus(), statusCount.getCount());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.repository.ReadingRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 起動時に、読書記録が1件もない場合だけサンプルデータを登録する
+ * <p>
+ * インメモリDBでは毎回、ファイルDB（persistentプロファイル）では初回起動時だけ登録され、
+ * 既存の読書記録を削除・上書きすることはありません。
+ */
+@Slf4j
+@Component
+public class SampleDataSeeder implements ApplicationRunner {
+
+    private final ReadingRecordRepository readingRecordRepository;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Resource script;
+    private final ReadingRecordDataVersion dataVersion;
+
+    public SampleDataSeeder(ReadingRecordRepository readingRecordRepository,
+                            DataSource dataSource,
+                            ReadingRecordDataVersion dataVersion,
+                            @Value("${readrico.seed.enabled:true}") boolean enabled,
+                            @Value("${readrico.seed.location:classpath:db/seed/sample-data.sql}") Resource script) {
+        this.readingRecordRepository = readingRecordRepository;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.script = script;
+        this.dataVersion = dataVersion;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        if (readingRecordRepository.existsBy()) {
+            log.info("Skipped sample data: reading records already exist");
+            return;
+        }
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(script);
+        populator.setSqlScriptEncoding(StandardCharsets.UTF_8.name());
+        populator.execute(dataSource);
+        // 起動直後の画面が登録前の状態のETagで返されていても、登録後は作り直されるようにする
+        dataVersion.increment();
+        log.info("Loaded sample data from {}", script.getDescription());
+    }
+}
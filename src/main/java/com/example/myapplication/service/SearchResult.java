@@ -0,0 +1,21 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+
+import java.util.List;
+
+/**
+ * 読書記録の検索結果
+ *
+ * @param records   スコアの高い順に並べた読書記録（件数の上限まで）
+ * @param totalHits 一致した読書記録の件数
+ */
+public record SearchResult(List<ReadingRecord> records, int totalHits) {
+
+    /**
+     * 件数の上限を超えたため表示していない読書記録があるかどうか
+     */
+    public boolean isTruncated() {
+        return totalHits > records.size();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.myapplication.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 読み込んだバイト数が上限を超えた時点で{@link ImportLimitExceededException}を投げる入力ストリーム
+ * <p>
+ * 圧縮ファイルを展開しながら読み込む場合に、展開後のサイズを制限するために使用します。
+ */
+final class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    SizeLimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            addCount(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            addCount(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        addCount(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void addCount(long bytes) throws ImportLimitExceededException {
+        count += bytes;
+        if (count > maxBytes) {
+            throw new ImportLimitExceededException(
+                    "展開後のサイズが上限（" + maxBytes + "バイト）を超えたため、読み込みを中止しました");
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.myapplication.service;
+
+import com.example.myapplication.entity.ReadingRecord;
+import com.example.myapplication.status.ReadingStatus;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * サーバー側に一時保存した、解析・検証済みのCSV取り込みデータ
+ * <p>
+ * 件数が少ない場合はメモリに保持し、しきい値を超えた場合は一時ファイルへ退避します。
+ */
+@Getter
+public class StagedImport {
+
+    private static final ReadingStatus[] STATUSES = ReadingStatus.values();
+
+    private final String token;
+    private final Instant createdAt;
+    private final long recordCount;
+    private final long skippedCount;
+    private final ImportMode importMode;
+    private final List<ReadingRecord> preview;
+
+    /**
+     * 取り込み方法に従って登録した場合の新規登録・更新・スキップの件数の見込み（確認画面に表示する）
+     */
+    private ImportCounts plannedCounts;
+
+    /**
+     * メモリに保持している読書記録（一時ファイルへ退避した場合はnull）
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<ReadingRecord> records;
+
+    /**
+     * 退避先の一時ファイル（メモリに保持している場合はnull）
+     */
+    @Getter(AccessLevel.NONE)
+    private final Path spillFile;
+
+    private StagedImport(Builder builder, long skippedCount) {
+        this.token = builder.token;
+        this.createdAt = builder.createdAt;
+        this.recordCount = builder.recordCount;
+        this.skippedCount = skippedCount;
+        this.importMode = builder.importMode;
+        this.plannedCounts = new ImportCounts(builder.recordCount, 0, 0);
+        this.preview = Collections.unmodifiableList(builder.preview);
+        this.records = builder.spillFile == null ? builder.buffer : null;
+        this.spillFile = builder.spillFile;
+    }
+
+    void setPlannedCounts(ImportCounts plannedCounts) {
+        this.plannedCounts = plannedCounts;
+    }
+
+    /**
+     * 一時ファイルへ退避しているかどうか
+     */
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * メモリに保持している件数（一時ファイルへ退避した場合は0）
+     */
+    public long getInMemoryCount() {
+        return records != null ? records.size() : 0;
+    }
+
+    /**
+     * 保存した読書記録を先頭から順に読み出すストリームを返します。
+     * 一時ファイルから読み出す場合があるため、使用後は必ずクローズしてください。
+     *
+     * @return 読書記録のストリーム
+     * @throws IOException 一時ファイルを開けない場合
+     */
+    public Stream<ReadingRecord> openRecords() throws IOException {
+        if (spillFile == null) {
+            return records.stream();
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)));
+        Iterator<ReadingRecord> iterator = new Iterator<>() {
+            private long remaining = recordCount;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public ReadingRecord next() {
+                if (remaining <= 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                try {
+                    return readRecord(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(
+                        Spliterators.spliterator(iterator, recordCount, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(() -> {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * 一時ファイルを削除します。メモリに保持している場合は何もしません。
+     */
+    void discard() {
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRecord(DataOutput out, ReadingRecord readingRecord) throws IOException {
+        out.writeBoolean(readingRecord.getId() != null);
+        if (readingRecord.getId() != null) {
+            out.writeLong(readingRecord.getId());
+        }
+        writeString(out, readingRecord.getTitle());
+        writeString(out, readingRecord.getAuthor());
+        out.writeByte(readingRecord.getReadingStatus() != null ? readingRecord.getReadingStatus().ordinal() : -1);
+        writeInteger(out, readingRecord.getCurrentPage());
+        writeInteger(out, readingRecord.getTotalPages());
+        writeInteger(out, readingRecord.getRating());
+        writeString(out, readingRecord.getSummary());
+        writeString(out, readingRecord.getThoughts());
+    }
+
+    private static ReadingRecord readRecord(DataInput in) throws IOException {
+        ReadingRecord readingRecord = new ReadingRecord();
+        readingRecord.setId(in.readBoolean() ? in.readLong() : null);
+        readingRecord.setTitle(readString(in));
+        readingRecord.setAuthor(readString(in));
+        byte status = in.readByte();
+        readingRecord.setReadingStatus(status >= 0 ? STATUSES[status] : null);
+        readingRecord.setCurrentPage(readInteger(in));
+        readingRecord.setTotalPages(readInteger(in));
+        readingRecord.setRating(readInteger(in));
+        readingRecord.setSummary(readString(in));
+        readingRecord.setThoughts(readString(in));
+        return readingRecord;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    /**
+     * 解析した読書記録を順に受け取り、{@link StagedImport}を組み立てます。
+     * <p>
+     * 件数がしきい値を超えた時点で、それまでの分も含めて一時ファイルへ書き出します。
+     */
+    static class Builder {
+
+        private final String token;
+        private final Instant createdAt;
+        private final ImportMode importMode;
+        private final int spillThreshold;
+        private final int previewLimit;
+        private final List<ReadingRecord> preview = new ArrayList<>();
+        private final List<ReadingRecord> buffer = new ArrayList<>();
+        private Path spillFile;
+        private DataOutputStream spillOut;
+        private long recordCount;
+
+        Builder(String token, Instant createdAt, ImportMode importMode, int spillThreshold, int previewLimit) {
+            this.token = token;
+            this.createdAt = createdAt;
+            this.importMode = importMode;
+            this.spillThreshold = spillThreshold;
+            this.previewLimit = previewLimit;
+        }
+
+        void add(ReadingRecord readingRecord) {
+            try {
+                recordCount++;
+                if (preview.size() < previewLimit) {
+                    preview.add(readingRecord);
+                }
+
+                if (spillOut != null) {
+                    writeRecord(spillOut, readingRecord);
+                    return;
+                }
+
+                buffer.add(readingRecord);
+                if (buffer.size() > spillThreshold) {
+                    spill();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long getRecordCount() {
+            return recordCount;
+        }
+
+        StagedImport build(long skippedCount) throws IOException {
+            if (spillOut != null) {
+                spillOut.close();
+            }
+            return new StagedImport(this, skippedCount);
+        }
+
+        /**
+         * 組み立てを中断し、作成途中の一時ファイルを削除します。
+         */
+        void abort() {
+            try {
+                if (spillOut != null) {
+                    spillOut.close();
+                }
+                if (spillFile != null) {
+                    Files.deleteIfExists(spillFile);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void spill() throws IOException {
+            spillFile = Files.createTempFile("readrico-import-", ".bin");
+            spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+            for (ReadingRecord readingRecord : buffer) {
+                writeRecord(spillOut, readingRecord);
+            }
+            buffer.clear();
+        }
+    }
+}
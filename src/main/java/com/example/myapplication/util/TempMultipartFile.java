@@ -1,62 +0,0 @@
-package com.example.myapplication.util;
-
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.InputStream;
-
-/**
- * 一時的なMultipartFileの実装
- */
-public class TempMultipartFile implements MultipartFile {
-    private final byte[] content;
-    private final String name;
-    private final String contentType;
-
-    public TempMultipartFile(byte[] content, String name, String contentType) {
-        this.content = content;
-        this.name = name;
-        this.contentType = contentType;
-    }
-
-    @Override
-    public String getName() {
-        return name;
-    }
-
-    @Override
-    public String getOriginalFilename() {
-        return name;
-    }
-
-    @Override
-    public String getContentType() {
-        return contentType;
-    }
-
-    @Override
-    public boolean isEmpty() {
-        return content.length == 0;
-    }
-
-    @Override
-    public long getSize() {
-        return content.length;
-    }
-
-    @Override
-    public byte[] getBytes() {
-        return content;
-    }
-
-    @Override
-    public InputStream getInputStream() {
-        return new ByteArrayInputStream(content);
-    }
-
-    @Override
-    public void transferTo(File dest) {
-        throw new UnsupportedOperationException();
-    }
-}
@@ -0,0 +1,22 @@
+-- 読書記録のID採番（アプリケーション側で50件ずつまとめて採番する）
+CREATE SEQUENCE reading_record_seq START WITH 1 INCREMENT BY 50;
+
+-- 読書記録
+CREATE TABLE reading_record (
+    id BIGINT DEFAULT NEXT VALUE FOR reading_record_seq,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255),
+    reading_status VARCHAR(20) NOT NULL DEFAULT 'UNREAD',
+    current_page INTEGER DEFAULT 0,
+    total_pages INTEGER,
+    rating INTEGER,
+    summary TEXT,
+    thoughts TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (id)
+);
+
+-- 読書状態ごとの一覧（更新日時の新しい順）のキーセットページング用
+CREATE INDEX idx_reading_record_status_updated
+    ON reading_record (reading_status, updated_at DESC, id DESC);
@@ -0,0 +1,22 @@
+-- 差分出力（指定日時より後に更新された読書記録）の範囲検索用
+CREATE INDEX idx_reading_record_updated
+    ON reading_record (updated_at, id);
+
+-- 削除した読書記録（差分出力で削除を伝えるため、保持期間の間だけ残す）
+CREATE TABLE reading_record_tombstone (
+    id BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_reading_record_tombstone_deleted
+    ON reading_record_tombstone (deleted_at);
+
+-- 差分出力の起点にできる最も古い日時（復元・全件削除・削除記録の整理で進める。1行のみ）
+CREATE TABLE reading_record_change_horizon (
+    id INTEGER NOT NULL,
+    horizon TIMESTAMP,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO reading_record_change_horizon (id, horizon) VALUES (1, NULL);
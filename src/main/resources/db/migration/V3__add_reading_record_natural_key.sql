@@ -0,0 +1,12 @@
+-- CSV取り込みの重複判定用に、正規化したタイトル・著者の組（空白の連続を1つにまとめて前後を除き、小文字にする）を
+-- DB側で計算して保持する。区切りはタイトル・著者に現れない制御文字（U+001F）。
+-- 正規化の内容はReadingRecordNaturalKeyと一致させること
+ALTER TABLE reading_record ADD COLUMN natural_key VARCHAR(1024) GENERATED ALWAYS AS (
+    LOWER(TRIM(REGEXP_REPLACE(title, '[\s\u3000]+', ' ')))
+        || CHAR(31)
+        || COALESCE(LOWER(TRIM(REGEXP_REPLACE(author, '[\s\u3000]+', ' '))), '')
+);
+
+-- 取り込むチャンクのキーをまとめて照合するための索引
+CREATE INDEX idx_reading_record_natural_key
+    ON reading_record (natural_key);
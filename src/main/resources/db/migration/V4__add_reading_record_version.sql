@@ -0,0 +1,2 @@
+-- 楽観的ロック用のバージョン（更新のたびに1ずつ増やし、編集画面で読み込んだ時点から変わっていれば保存しない）
+ALTER TABLE reading_record ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
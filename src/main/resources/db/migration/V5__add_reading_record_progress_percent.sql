@@ -0,0 +1,14 @@
+-- 一覧を進捗率で並べ替え・絞り込むため、現在ページ・総ページ数から進捗率（％）をDB側で計算して保持する。
+-- 計算はReadingRecordService#getProgressPercentと一致させること
+-- （四捨五入・上限100、総ページ数が未設定か0以下・現在ページが未設定か負の場合は0）
+ALTER TABLE reading_record ADD COLUMN progress_percent INTEGER GENERATED ALWAYS AS (
+    CASE
+        WHEN total_pages IS NULL OR total_pages <= 0 OR current_page IS NULL OR current_page < 0 THEN 0
+        WHEN current_page >= total_pages THEN 100
+        ELSE CAST((CAST(current_page AS BIGINT) * 200 + total_pages) / (CAST(total_pages AS BIGINT) * 2) AS INTEGER)
+    END
+);
+
+-- 読書状態ごとの一覧（進捗率の高い順）のキーセットページング・進捗率での絞り込み用
+CREATE INDEX idx_reading_record_status_progress
+    ON reading_record (reading_status, progress_percent DESC, id DESC);
@@ -0,0 +1,10 @@
+-- 読書状態ごとの一覧を評価・タイトル・著者・登録日時で並べ替えるための索引
+-- （一覧の並び順と同じ向きで、同じ値の行はIDで並べる。評価は範囲、著者は一致での絞り込みにも使う）
+CREATE INDEX idx_reading_record_status_rating
+    ON reading_record (reading_status, rating DESC, id DESC);
+CREATE INDEX idx_reading_record_status_title
+    ON reading_record (reading_status, title, id);
+CREATE INDEX idx_reading_record_status_author
+    ON reading_record (reading_status, author, id);
+CREATE INDEX idx_reading_record_status_created
+    ON reading_record (reading_status, created_at DESC, id DESC);
@@ -1,4 +1,3 @@
-DELETE FROM reading_record;
 INSERT INTO reading_record (title, author, reading_status, current_page, total_pages, rating, summary, thoughts) VALUES
 ('吾輩は猫である', '夏目漱石', 'READING', 150, 300, 4, '明治時代の教師の家で飼われている猫の視点から描かれた風刺小説', '猫の視点が面白く、当時の社会を鋭く描写している'),
 ('坊っちゃん', '夏目漱石', 'COMPLETED', 200, 200, 4, '江戸っ子気質の青年教師が四国の中学校で奮闘する物語', '主人公の真っ直ぐな性格が魅力的。痛快な読み物'),
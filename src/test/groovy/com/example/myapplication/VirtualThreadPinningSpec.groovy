@@ -0,0 +1,63 @@
+package com.example.myapplication
+
+import org.springframework.asm.ClassReader
+import org.springframework.asm.ClassVisitor
+import org.springframework.asm.MethodVisitor
+import org.springframework.asm.Opcodes
+import org.springframework.asm.SpringAsmInfo
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+
+/**
+ * 仮想スレッドのピン留め（キャリアスレッドへの固定）を防ぐためのテストクラス
+ * <p>
+ * Java 21の仮想スレッドは、synchronizedのブロック・メソッド内でブロックするとキャリアスレッドに固定されます。
+ * アプリケーションのクラスファイルを解析し、synchronizedを使っている箇所がないことを確認する。
+ * 排他制御が必要な場合はReentrantLockなどのjava.util.concurrentのロックを使うこと。
+ */
+class VirtualThreadPinningSpec extends Specification {
+
+    def "アプリケーションのクラスにsynchronizedのメソッド・ブロックがない"() {
+        given: "コンパイル済みのアプリケーションのクラス"
+        def classesDir = Paths.get(Main.protectionDomain.codeSource.location.toURI())
+        List<Path> classFiles = Files.walk(classesDir).withCloseable { paths ->
+            paths.filter { it.toString().endsWith(".class") }.toList()
+        }
+
+        when: "synchronizedを使っている箇所を探す"
+        def usages = classFiles.collectMany { findSynchronizedUsages(it) }
+
+        then: "見つからない"
+        !classFiles.isEmpty()
+        usages == []
+    }
+
+    /**
+     * synchronizedメソッドとsynchronizedブロック（monitorenter命令）を含むメソッドを返す
+     */
+    private static List<String> findSynchronizedUsages(Path classFile) {
+        List<String> usages = []
+        def reader = new ClassReader(Files.readAllBytes(classFile))
+        reader.accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+            @Override
+            MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                String method = "${reader.className.replace('/', '.')}#${name}"
+                if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                    usages << "${method} (synchronized method)".toString()
+                }
+                return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                    @Override
+                    void visitInsn(int opcode) {
+                        if (opcode == Opcodes.MONITORENTER) {
+                            usages << "${method} (synchronized block)".toString()
+                        }
+                    }
+                }
+            }
+        }, ClassReader.SKIP_DEBUG)
+        return usages
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.myapplication.controller
+
+import com.example.myapplication.service.ImportJob
+import com.example.myapplication.service.ImportJobService
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneOffset
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+/**
+ * ImportJobControllerのテストクラス
+ * 一括登録ジョブの進捗画面・状態取得API・中止をテストする
+ */
+class ImportJobControllerSpec extends Specification {
+
+    // テスト対象のコントローラ
+    @Subject
+    ImportJobController controller
+
+    // モックオブジェクト
+    ImportJobService mockJobService = Mock()
+
+    Instant now = Instant.parse("2025-01-01T00:00:00Z")
+
+    MockMvc mockMvc
+
+    def setup() {
+        controller = new ImportJobController(mockJobService, Clock.fixed(now, ZoneOffset.UTC))
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build()
+    }
+
+    def "status - ジョブの状態と進捗をJSONで返す"() {
+        given: "1000件中400件を登録したジョブ"
+        def job = new ImportJob("job-1", 1000, 3, now)
+        job.start(now.minusSeconds(4))
+        job.chunkCommitted(400)
+        mockJobService.getJob("job-1") >> Optional.of(job)
+
+        when: "状態を取得"
+        def result = mockMvc.perform(get("/reading-records/import-jobs/job-1/status"))
+
+        then: "進捗がJSONで返される"
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath('$.jobId').value("job-1"))
+                .andExpect(jsonPath('$.state').value("RUNNING"))
+                .andExpect(jsonPath('$.totalRows').value(1000))
+                .andExpect(jsonPath('$.committedRows').value(400))
+                .andExpect(jsonPath('$.errorRows').value(3))
+                .andExpect(jsonPath('$.progressPercent').value(40))
+                .andExpect(jsonPath('$.etaSeconds').value(6))
+                .andExpect(jsonPath('$.finished').value(false))
+    }
+
+    def "status - 不明なジョブの場合は404を返す"() {
+        given:
+        mockJobService.getJob("unknown") >> Optional.empty()
+
+        expect:
+        mockMvc.perform(get("/reading-records/import-jobs/unknown/status"))
+                .andExpect(status().isNotFound())
+    }
+
+    def "show - 進捗画面を表示する"() {
+        given:
+        mockJobService.getJob("job-1") >> Optional.of(new ImportJob("job-1", 10, 0, now))
+
+        expect:
+        mockMvc.perform(get("/reading-records/import-jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("reading-records/import-job"))
+                .andExpect(model().attributeExists("job"))
+    }
+
+    def "show - 不明なジョブの場合はエラーでアップロード画面にリダイレクト"() {
+        given:
+        mockJobService.getJob("unknown") >> Optional.empty()
+
+        expect:
+        mockMvc.perform(get("/reading-records/import-jobs/unknown"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/reading-records/upload"))
+                .andExpect(flash().attributeExists("error"))
+    }
+
+    def "cancel - 中止を受け付けて進捗画面にリダイレクト"() {
+        when: "中止を実行"
+        def result = mockMvc.perform(post("/reading-records/import-jobs/job-1/cancel"))
+
+        then: "中止が指示され、進捗画面に戻る"
+        1 * mockJobService.cancel("job-1") >> true
+        result.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/reading-records/import-jobs/job-1"))
+                .andExpect(flash().attributeExists("message"))
+    }
+}
@@ -1,13 +1,33 @@
 package com.example.myapplication.controller
 
 import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordListItem
+import com.example.myapplication.service.ImportJob
+import com.example.myapplication.service.ImportJobService
+import com.example.myapplication.service.ImportCounts
+import com.example.myapplication.service.ImportLimitExceededException
+import com.example.myapplication.service.ImportMode
+import com.example.myapplication.service.ImportStagingService
+import com.example.myapplication.service.ReadingProgressBuffer
+import com.example.myapplication.service.ReadingRecordListQuery
+import com.example.myapplication.service.ReadingRecordPage
 import com.example.myapplication.service.ReadingRecordService
+import com.example.myapplication.service.ReadingRecordSort
+import com.example.myapplication.service.SearchResult
+import com.example.myapplication.service.StagedImport
 import com.example.myapplication.status.ReadingStatus
+import org.springframework.orm.ObjectOptimisticLockingFailureException
 import org.springframework.test.web.servlet.MockMvc
 import org.springframework.test.web.servlet.setup.MockMvcBuilders
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.time.LocalDateTime
+import java.util.zip.GZIPInputStream
+
+import static org.hamcrest.Matchers.hasProperty
+import static org.hamcrest.Matchers.is
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart
@@ -25,46 +45,99 @@ class ReadingRecordControllerSpec extends Specification {
 
     // モックオブジェクト
     ReadingRecordService mockService = Mock()
+    ImportStagingService mockStagingService = Mock()
+    ImportJobService mockJobService = Mock()
+    ReadingProgressBuffer mockProgressBuffer = Mock()
 
     // MockMvcセットアップ
     MockMvc mockMvc
 
     def setup() {
-        controller = new ReadingRecordController(mockService)
+        controller = new ReadingRecordController(mockService, mockStagingService, mockJobService, mockProgressBuffer)
         mockMvc = MockMvcBuilders.standaloneSetup(controller).build()
     }
 
     def "list - デフォルトパラメータで読書記録一覧を表示する"() {
         given: "期待される読書記録のリスト"
         def readingRecords = [
-                new ReadingRecord(id: 1L, title: "テスト本1", readingStatus: ReadingStatus.UNREAD),
-                new ReadingRecord(id: 2L, title: "テスト本2", readingStatus: ReadingStatus.UNREAD)
+                listItem(1L, "テスト本1", ReadingStatus.UNREAD),
+                listItem(2L, "テスト本2", ReadingStatus.UNREAD)
         ]
 
         when: "一覧画面にアクセス"
         def result = mockMvc.perform(get("/reading-records"))
 
         then: "正常にレスポンスが返される"
-        1 * mockService.getReadingRecordsByStatus(ReadingStatus.UNREAD) >> readingRecords
-        4 * mockService.getCountByStatus(_) >> 5L  // 全ステータスの件数取得
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.UNREAD), null) >> new ReadingRecordPage(readingRecords, null)
+        1 * mockService.getCountsByStatus() >> statusCounts(5L)  // 全ステータスの件数を1回で取得
         result.andExpect(status().isOk())
                 .andExpect(view().name("reading-records/list"))
                 .andExpect(model().attribute("readingRecords", readingRecords))
                 .andExpect(model().attribute("currentStatusName", "UNREAD"))
+                .andExpect(model().attribute("unreadCount", 5L))
+                .andExpect(model().attribute("pausedCount", 5L))
+        0 * mockService.getCountByStatus(_)
+    }
+
+    def "list - データのバージョンをETagとして返し、変更がなければDBから読み出さずに304を返す"() {
+        when: "一覧画面にアクセス"
+        def first = mockMvc.perform(get("/reading-records")).andReturn().response
+
+        then: "データのバージョンがETagとして返され、ブラウザが毎回確認するよう指定される"
+        1 * mockService.getDataVersion() >> "boot-7"
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.UNREAD), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
+        first.status == 200
+        first.getHeader("ETag") == "\"boot-7\""
+        first.getHeader("Cache-Control") == "no-cache"
+
+        when: "同じETagを付けて再度アクセス"
+        def second = mockMvc.perform(get("/reading-records").header("If-None-Match", "\"boot-7\""))
+
+        then: "一覧・件数を取得せず、画面も描画せずに304が返される"
+        1 * mockService.getDataVersion() >> "boot-7"
+        0 * mockService.getReadingRecordPage(*_)
+        0 * mockService.getCountsByStatus()
+        second.andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+
+        when: "読書記録の変更後に同じETagを付けてアクセス"
+        def third = mockMvc.perform(get("/reading-records").header("If-None-Match", "\"boot-7\""))
+
+        then: "画面を作り直し、新しいETagが返される"
+        1 * mockService.getDataVersion() >> "boot-8"
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.UNREAD), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
+        third.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"boot-8\""))
+    }
+
+    def "list - 直前の操作のメッセージがある場合はETagが一致しても画面を作る"() {
+        when: "保存後のリダイレクト先として、メッセージ付きで一覧画面にアクセス"
+        def result = mockMvc.perform(get("/reading-records")
+                .header("If-None-Match", "\"boot-7\"")
+                .flashAttr("message", "読書記録を保存しました。"))
+
+        then: "304にせず、メッセージ付きの画面が返される"
+        _ * mockService.getDataVersion() >> "boot-7"
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.UNREAD), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
+        result.andExpect(status().isOk())
+                .andExpect(model().attribute("message", "読書記録を保存しました。"))
     }
 
     def "list - ステータスパラメータを指定して読書記録一覧を表示する"() {
         given: "指定されたステータスの読書記録"
         def readingRecords = [
-                new ReadingRecord(id: 1L, title: "読書中の本", readingStatus: ReadingStatus.READING)
+                listItem(1L, "読書中の本", ReadingStatus.READING)
         ]
 
         when: "READINGステータスで一覧画面にアクセス"
         def result = mockMvc.perform(get("/reading-records").param("status", "READING"))
 
         then: "正常にレスポンスが返される"
-        1 * mockService.getReadingRecordsByStatus(ReadingStatus.READING) >> readingRecords
-        4 * mockService.getCountByStatus(_) >> 3L
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.READING), null) >> new ReadingRecordPage(readingRecords, null)
+        1 * mockService.getCountsByStatus() >> statusCounts(3L)
         result.andExpect(status().isOk())
                 .andExpect(view().name("reading-records/list"))
                 .andExpect(model().attribute("currentStatusName", "READING"))
@@ -75,12 +148,100 @@ class ReadingRecordControllerSpec extends Specification {
         def result = mockMvc.perform(get("/reading-records").param("status", "INVALID"))
 
         then: "UNREADステータスで処理される"
-        1 * mockService.getReadingRecordsByStatus(ReadingStatus.UNREAD) >> []
-        4 * mockService.getCountByStatus(_) >> 0L
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.UNREAD), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
         result.andExpect(status().isOk())
                 .andExpect(model().attribute("currentStatusName", "UNREAD"))
     }
 
+    def "list - カーソルを指定して次のページを表示する"() {
+        given: "2ページ目の読書記録と次のページのカーソル"
+        def readingRecords = [listItem(3L, "2ページ目の本", ReadingStatus.READING)]
+        def cursor = "2025-01-01T10:00:00_5"
+
+        when: "カーソルを指定して一覧画面にアクセス"
+        def result = mockMvc.perform(get("/reading-records").param("status", "READING").param("after", cursor))
+
+        then: "カーソル以降のページと次のカーソルが表示される"
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.READING), cursor) >> new ReadingRecordPage(readingRecords, "2025-01-01T09:00:00_3")
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
+        result.andExpect(status().isOk())
+                .andExpect(model().attribute("readingRecords", readingRecords))
+                .andExpect(model().attribute("nextCursor", "2025-01-01T09:00:00_3"))
+                .andExpect(model().attribute("firstPage", false))
+    }
+
+    def "list - 並び順と進捗率の下限を指定して一覧を表示する"() {
+        when: "進捗率の高い順・80%以上で一覧画面にアクセス"
+        def result = mockMvc.perform(get("/reading-records").param("status", "READING")
+                .param("sort", "PROGRESS").param("minProgress", "80"))
+
+        then: "表示条件がサービスに渡され、画面の選択状態に設定される"
+        1 * mockService.getReadingRecordPage(new ReadingRecordListQuery(ReadingStatus.READING, ReadingRecordSort.PROGRESS, 80), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
+        result.andExpect(status().isOk())
+                .andExpect(model().attribute("currentSortName", "PROGRESS"))
+                .andExpect(model().attribute("minProgress", 80))
+    }
+
+    def "list - 評価の範囲と著者で絞り込んで一覧を表示する"() {
+        when: "評価の高い順・評価5〜3・著者を指定して一覧画面にアクセス"
+        def result = mockMvc.perform(get("/reading-records").param("status", "COMPLETED").param("sort", "RATING")
+                .param("minRating", "5").param("maxRating", "3").param("author", " 夏目漱石 "))
+
+        then: "正規化した表示条件がサービスに渡され、画面の入力状態に設定される"
+        1 * mockService.getReadingRecordPage(new ReadingRecordListQuery(ReadingStatus.COMPLETED, ReadingRecordSort.RATING,
+                0, 3, 5, "夏目漱石"), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
+        result.andExpect(status().isOk())
+                .andExpect(model().attribute("currentSortName", "RATING"))
+                .andExpect(model().attribute("minRating", 3))
+                .andExpect(model().attribute("maxRating", 5))
+                .andExpect(model().attribute("author", "夏目漱石"))
+    }
+
+    def "list - 無効な並び順の場合は更新日時の新しい順にし、進捗率の下限は使わない"() {
+        when:
+        def result = mockMvc.perform(get("/reading-records").param("sort", "SHELF").param("minProgress", "80"))
+
+        then:
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(ReadingStatus.UNREAD), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
+        result.andExpect(model().attribute("currentSortName", "UPDATED"))
+                .andExpect(model().attribute("minProgress", 0))
+    }
+
+    def "search - 検索文字列と読書状態で検索して結果を表示する"() {
+        given: "検索結果"
+        def readingRecords = [new ReadingRecord(id: 1L, title: "吾輩は猫である", readingStatus: ReadingStatus.READING)]
+
+        when: "検索画面にアクセス"
+        def result = mockMvc.perform(get("/reading-records/search").param("q", "猫").param("status", "READING"))
+
+        then: "検索結果が表示される"
+        1 * mockService.searchReadingRecords("猫", ReadingStatus.READING) >> new SearchResult(readingRecords, 1)
+        result.andExpect(status().isOk())
+                .andExpect(view().name("reading-records/search"))
+                .andExpect(model().attribute("readingRecords", readingRecords))
+                .andExpect(model().attribute("searchQuery", "猫"))
+                .andExpect(model().attribute("currentStatusName", "READING"))
+                .andExpect(model().attribute("totalHits", 1))
+                .andExpect(model().attribute("truncated", false))
+    }
+
+    def "search - 読書状態の指定がない・不正な場合は絞り込まない"() {
+        when: "検索画面にアクセス"
+        def result = mockMvc.perform(get("/reading-records/search").param("q", "猫").param("status", status))
+
+        then: "読書状態なしで検索される"
+        1 * mockService.searchReadingRecords("猫", null) >> new SearchResult([], 0)
+        result.andExpect(status().isOk())
+                .andExpect(model().attribute("currentStatusName", ""))
+
+        where:
+        status << ["", "INVALID"]
+    }
+
     def "detail - 存在する読書記録の詳細を表示する"() {
         given: "存在する読書記録"
         def record = new ReadingRecord(
@@ -102,6 +263,29 @@ class ReadingRecordControllerSpec extends Specification {
                 .andExpect(model().attribute("progressPercent", 50))
     }
 
+    def "detail - 読書記録ごとのデータのバージョンをETagとして返し、変更がなければ読書記録を読み出さずに304を返す"() {
+        when: "同じETagを付けて詳細画面にアクセス"
+        def result = mockMvc.perform(get("/reading-records/1").header("If-None-Match", "\"boot-r1-7\""))
+
+        then: "全体のバージョンは使わず、読書記録の読み出し・進捗率の計算・画面の描画をせずに304が返される"
+        1 * mockService.getRecordVersion(1L) >> "boot-r1-7"
+        0 * mockService.getDataVersion()
+        0 * mockService.getReadingRecordById(_)
+        0 * mockService.getProgressPercent(*_)
+        result.andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"boot-r1-7\""))
+
+        when: "読書記録の変更後に同じETagを付けてアクセス"
+        def changed = mockMvc.perform(get("/reading-records/1").header("If-None-Match", "\"boot-r1-7\""))
+
+        then: "読書記録を読み出して画面を作り直し、新しいETagが返される"
+        1 * mockService.getRecordVersion(1L) >> "boot-r1-9"
+        1 * mockService.getReadingRecordById(1L) >> Optional.of(new ReadingRecord(id: 1L, title: "テスト本"))
+        changed.andExpect(status().isOk())
+                .andExpect(view().name("reading-records/detail"))
+                .andExpect(header().string("ETag", "\"boot-r1-9\""))
+    }
+
     def "detail - 存在しない読書記録の詳細にアクセスした場合一覧にリダイレクトする"() {
         when: "存在しないIDで詳細画面にアクセス"
         def result = mockMvc.perform(get("/reading-records/999"))
@@ -162,6 +346,57 @@ class ReadingRecordControllerSpec extends Specification {
                 .andExpect(redirectedUrl("/reading-records/1"))
     }
 
+    def "save - 編集画面を開いた後に更新されていた場合は、入力内容と最新の内容を並べた編集画面を409で返す"() {
+        given: "他の端末で更新された最新の読書記録"
+        def latest = new ReadingRecord(id: 1L, title: "他の端末で変更した本", version: 5L,
+                createdAt: LocalDateTime.of(2025, 1, 1, 0, 0))
+
+        when: "古いバージョンのまま保存"
+        def result = mockMvc.perform(post("/reading-records/save")
+                .param("id", "1")
+                .param("version", "4")
+                .param("title", "この画面で変更した本"))
+
+        then: "保存は競合し、最新の内容が読み込まれる"
+        1 * mockService.saveReadingRecord({ it.version == 4L }) >> {
+            throw new ObjectOptimisticLockingFailureException(ReadingRecord, 1L)
+        }
+        1 * mockService.getReadingRecordById(1L) >> Optional.of(latest)
+
+        and: "入力内容は残り、再度保存すると上書きできるよう最新のバージョンが設定される"
+        result.andExpect(status().isConflict())
+                .andExpect(view().name("reading-records/form"))
+                .andExpect(model().attribute("latestRecord", latest))
+                .andExpect(model().attribute("readingRecord", hasProperty("title", is("この画面で変更した本"))))
+                .andExpect(model().attribute("readingRecord", hasProperty("version", is(5L))))
+                .andExpect(model().attributeExists("error"))
+    }
+
+    def "save - 編集中に削除されていた場合は一覧へリダイレクトする"() {
+        when:
+        def result = mockMvc.perform(post("/reading-records/save")
+                .param("id", "1")
+                .param("version", "4")
+                .param("title", "本"))
+
+        then:
+        1 * mockService.saveReadingRecord(_) >> { throw new ObjectOptimisticLockingFailureException(ReadingRecord, 1L) }
+        1 * mockService.getReadingRecordById(1L) >> Optional.empty()
+        result.andExpect(redirectedUrl("/reading-records"))
+                .andExpect(flash().attribute("error", "他の画面・端末で削除されたため、保存できませんでした。"))
+    }
+
+    def "delete - 表示した時点のバージョンを指定した場合は、その後に更新されていれば削除せず詳細画面へ戻る"() {
+        when:
+        def result = mockMvc.perform(post("/reading-records/1/delete").param("version", "2"))
+
+        then:
+        1 * mockService.deleteReadingRecord(1L, 2L) >> { throw new ObjectOptimisticLockingFailureException(ReadingRecord, 1L) }
+        0 * mockService.deleteReadingRecord(1L)
+        result.andExpect(redirectedUrl("/reading-records/1"))
+                .andExpect(flash().attribute("error", "他の画面・端末で更新されたため、削除していません。内容を確認してから削除してください。"))
+    }
+
     def "delete - 読書記録の削除に成功する"() {
         when: "読書記録を削除"
         def result = mockMvc.perform(post("/reading-records/1/delete"))
@@ -174,13 +409,94 @@ class ReadingRecordControllerSpec extends Specification {
         1 * mockService.deleteReadingRecord(1L)
     }
 
+    def "bulkUpdateStatus - 選択した読書記録の読書状態を一括変更し、表示中のタブへリダイレクトする"() {
+        when: "3件を読了に変更"
+        def result = mockMvc.perform(post("/reading-records/bulk/status")
+                .param("ids", "1", "2", "3")
+                .param("status", "COMPLETED")
+                .param("currentStatus", "READING"))
+
+        then: "変更した件数がメッセージに設定される"
+        1 * mockService.updateReadingStatus([1L, 2L, 3L], ReadingStatus.COMPLETED) >> 3
+        result.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/reading-records?status=READING"))
+                .andExpect(flash().attribute("message", "3件の読書記録を「読了」に変更しました。"))
+    }
+
+    def "bulkUpdateStatus - 読書記録が選択されていない場合は変更しない"() {
+        when:
+        def result = mockMvc.perform(post("/reading-records/bulk/status")
+                .param("status", "COMPLETED")
+                .param("currentStatus", "UNREAD"))
+
+        then:
+        0 * mockService.updateReadingStatus(*_)
+        result.andExpect(redirectedUrl("/reading-records?status=UNREAD"))
+                .andExpect(flash().attribute("error", "読書記録が選択されていません。"))
+    }
+
+    def "bulkUpdateProgress - 選択した読書記録の進捗を一括設定する"() {
+        when: "2件を100%に設定"
+        def result = mockMvc.perform(post("/reading-records/bulk/progress")
+                .param("ids", "4", "5")
+                .param("percent", "100")
+                .param("currentStatus", "READING"))
+
+        then: "変更した件数がメッセージに設定される"
+        1 * mockService.updateProgress([4L, 5L], 100) >> 1
+        result.andExpect(redirectedUrl("/reading-records?status=READING"))
+                .andExpect(flash().attribute("message", "1件の読書記録の進捗を100%に設定しました（総ページ数が未設定のものは除く）。"))
+    }
+
+    def "bulkUpdateProgress - 進捗率が未指定・範囲外の場合は変更しない"() {
+        when:
+        def request = post("/reading-records/bulk/progress").param("ids", "1").param("currentStatus", "READING")
+        if (percent != null) {
+            request.param("percent", percent)
+        }
+        def result = mockMvc.perform(request)
+
+        then:
+        0 * mockService.updateProgress(*_)
+        result.andExpect(flash().attribute("error", "進捗率は0〜100で指定してください。"))
+
+        where:
+        percent << [null, "-1", "101"]
+    }
+
+    def "reportProgress - 現在ページの報告を受け付け、読書記録を保存せずに202を返す"() {
+        when: "現在ページを報告"
+        def result = mockMvc.perform(post("/reading-records/7/progress").param("currentPage", "120"))
+
+        then: "バッファに渡され、読書記録全体の保存は行われない"
+        1 * mockProgressBuffer.submit(7L, 120)
+        0 * mockService.saveReadingRecord(_)
+        result.andExpect(status().isAccepted())
+    }
+
+    def "reportProgress - 現在ページが負・未指定の場合は400を返す"() {
+        when:
+        def request = post("/reading-records/7/progress")
+        if (currentPage != null) {
+            request.param("currentPage", currentPage)
+        }
+        def result = mockMvc.perform(request)
+
+        then:
+        0 * mockProgressBuffer.submit(*_)
+        result.andExpect(status().isBadRequest())
+
+        where:
+        currentPage << [null, "-1", "abc"]
+    }
+
     def "パラメータ化テスト - 様々なステータスでの一覧表示をテストする"() {
         when: "指定されたステータスで一覧画面にアクセス"
         def result = mockMvc.perform(get("/reading-records").param("status", status.name()))
 
         then: "正常にレスポンスが返される"
-        1 * mockService.getReadingRecordsByStatus(status) >> []
-        4 * mockService.getCountByStatus(_) >> 0L
+        1 * mockService.getReadingRecordPage(ReadingRecordListQuery.of(status), null) >> new ReadingRecordPage([], null)
+        1 * mockService.getCountsByStatus() >> statusCounts(0L)
         result.andExpect(status().isOk())
                 .andExpect(model().attribute("currentStatusName", status.name()))
 
@@ -193,30 +509,173 @@ class ReadingRecordControllerSpec extends Specification {
         ]
     }
 
-    def "exportCsv - CSV出力が正常に実行される"() {
+    def "exportCsv - CSV出力がストリーミングで正常に実行される"() {
         given: "CSV出力データ"
         def csvData = "ID,タイトル\n1,テスト本".getBytes("UTF-8")
         def fileName = "reading-records_20241127_143022.csv"
 
         when: "CSV出力エンドポイントにアクセス"
-        def result = mockMvc.perform(get("/reading-records/export-csv"))
+        def mvcResult = mockMvc.perform(get("/reading-records/export-csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(mvcResult))
 
-        then: "CSVデータが正常に返される"
-        1 * mockService.exportToCsv() >> csvData
+        then: "サービスが出力ストリームへ書き込んだCSVデータが返される"
         1 * mockService.generateCsvFileName() >> fileName
+        1 * mockService.exportToCsv(_ as OutputStream) >> { OutputStream out -> out.write(csvData) }
+        0 * mockService.exportToCsv()
         result.andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=\"${fileName}\""))
                 .andExpect(content().bytes(csvData))
     }
 
-    def "exportCsv - CSV出力でエラーが発生した場合は500エラーを返す"() {
+    def "exportCsv - 変更がなければCSVを出力せずに304を返し、圧縮して送る場合はETagを分ける"() {
+        when: "同じETagを付けてCSV出力エンドポイントにアクセス"
+        def notModified = mockMvc.perform(get("/reading-records/export-csv").header("If-None-Match", "\"boot-7\""))
+
+        then: "DBから読み出さずに304が返される"
+        1 * mockService.getDataVersion() >> "boot-7"
+        0 * mockService.exportToCsv(_)
+        notModified.andExpect(status().isNotModified())
+
+        when: "同じETagを付けて、gzipを受け付けるクライアントからアクセス"
+        def mvcResult = mockMvc.perform(get("/reading-records/export-csv")
+                .header("If-None-Match", "\"boot-7\"")
+                .header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def compressed = mockMvc.perform(asyncDispatch(mvcResult)).andReturn().response
+
+        then: "圧縮した内容は別のETagで出力される"
+        1 * mockService.getDataVersion() >> "boot-7"
+        1 * mockService.generateCsvFileName() >> "reading-records.csv"
+        1 * mockService.exportToCsv(_ as OutputStream)
+        compressed.status == 200
+        compressed.getHeader("ETag") == "\"boot-7-gzip\""
+    }
+
+    def "exportCsv - CSV出力でエラーが発生した場合は書き込みを中断する"() {
         when: "CSV出力エンドポイントにアクセス"
-        def result = mockMvc.perform(get("/reading-records/export-csv"))
+        def mvcResult = mockMvc.perform(get("/reading-records/export-csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def asyncResult = mvcResult.getAsyncResult()
+
+        then: "IOExceptionが非同期処理の結果として伝播する"
+        1 * mockService.generateCsvFileName() >> "reading-records.csv"
+        1 * mockService.exportToCsv(_ as OutputStream) >> { throw new IOException("CSV出力エラー") }
+        asyncResult instanceof IOException
+    }
+
+    def "exportCsv - gzip=trueの場合はgzip圧縮した.csv.gzファイルとして出力する"() {
+        given: "CSV出力データ"
+        def csvData = "ID,タイトル\n1,テスト本".getBytes("UTF-8")
+
+        when: "gzip=trueでCSV出力エンドポイントにアクセス"
+        def mvcResult = mockMvc.perform(get("/reading-records/export-csv").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(mvcResult)).andReturn().response
+
+        then: "ファイル名に.gzが付き、展開すると元のCSVになる"
+        1 * mockService.generateCsvFileName() >> "reading-records.csv"
+        1 * mockService.exportToCsv(_ as OutputStream) >> { OutputStream out -> out.write(csvData) }
+        result.status == 200
+        result.getHeader("Content-Disposition") == "attachment; filename=\"reading-records.csv.gz\""
+        result.contentType == "application/gzip"
+        result.getHeader("Content-Encoding") == null
+        gunzip(result.contentAsByteArray) == csvData
+    }
+
+    def "exportCsv - Accept-Encodingでgzipを受け付ける場合はContent-Encoding: gzipで送信する"() {
+        given: "CSV出力データ"
+        def csvData = "ID,タイトル\n1,テスト本".getBytes("UTF-8")
+
+        when: "Accept-Encoding: gzipでCSV出力エンドポイントにアクセス"
+        def mvcResult = mockMvc.perform(get("/reading-records/export-csv").header("Accept-Encoding", "gzip, deflate, br"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(mvcResult)).andReturn().response
+
+        then: "ファイル名・形式はCSVのまま、本文がgzip圧縮される"
+        1 * mockService.generateCsvFileName() >> "reading-records.csv"
+        1 * mockService.exportToCsv(_ as OutputStream) >> { OutputStream out -> out.write(csvData) }
+        result.getHeader("Content-Disposition") == "attachment; filename=\"reading-records.csv\""
+        result.getHeader("Content-Encoding") == "gzip"
+        result.getHeader("Vary") == "Accept-Encoding"
+        gunzip(result.contentAsByteArray) == csvData
+    }
+
+    def "exportChangesCsv - 起点より後の差分を出力し、次回の起点をヘッダーで返す"() {
+        given: "起点と次回の起点"
+        def since = LocalDateTime.of(2025, 1, 1, 10, 0, 0, 123456000)
+        def highWaterMark = LocalDateTime.of(2025, 1, 2, 3, 4, 5, 678000000)
+        def csvData = "ID,タイトル,削除日時\n1,テスト本,\n".getBytes("UTF-8")
+
+        when: "起点を指定して差分出力エンドポイントにアクセス"
+        def mvcResult = mockMvc.perform(get("/reading-records/export-csv/changes").param("since", "2025-01-01T10:00:00.123456"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(mvcResult)).andReturn().response
+
+        then: "起点が記録の範囲内か確認してから差分を出力する"
+        1 * mockService.isChangeTrackingAvailable(since) >> true
+        1 * mockService.getChangesHighWaterMark(since) >> highWaterMark
+        1 * mockService.generateChangesCsvFileName() >> "reading-records-changes.csv"
+        1 * mockService.exportChangesToCsv(since, _ as OutputStream) >> { LocalDateTime s, OutputStream out -> out.write(csvData) }
+        result.status == 200
+        result.getHeader(ReadingRecordController.HIGH_WATER_MARK_HEADER) == "2025-01-02T03:04:05.678"
+        result.getHeader("Content-Disposition") == "attachment; filename=\"reading-records-changes.csv\""
+        result.contentAsByteArray == csvData
+    }
 
-        then: "IOExceptionが発生して500エラーが返される"
-        1 * mockService.exportToCsv() >> { throw new IOException("CSV出力エラー") }
-        0 * mockService.generateCsvFileName()
-        result.andExpect(status().isInternalServerError())
+    def "exportChangesCsv - 起点を指定しない場合は全件を出力する"() {
+        when: "起点なしで差分出力エンドポイントにアクセス"
+        def mvcResult = mockMvc.perform(get("/reading-records/export-csv/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(mvcResult)).andReturn().response
+
+        then: "起点の確認はせず、起点なしで出力する"
+        0 * mockService.isChangeTrackingAvailable(_)
+        1 * mockService.getChangesHighWaterMark(null) >> LocalDateTime.of(2025, 1, 2, 3, 4, 5)
+        1 * mockService.generateChangesCsvFileName() >> "reading-records-changes.csv"
+        1 * mockService.exportChangesToCsv(null, _ as OutputStream)
+        result.getHeader(ReadingRecordController.HIGH_WATER_MARK_HEADER) == "2025-01-02T03:04:05"
+    }
+
+    def "exportChangesCsv - 起点が記録の範囲外の場合は410を返す"() {
+        when: "復元より前の起点で差分出力エンドポイントにアクセス"
+        def result = mockMvc.perform(get("/reading-records/export-csv/changes").param("since", "2024-01-01T00:00:00"))
+
+        then: "全件の取得し直しが必要なため410が返され、出力はしない"
+        1 * mockService.isChangeTrackingAvailable(LocalDateTime.of(2024, 1, 1, 0, 0)) >> false
+        0 * mockService.exportChangesToCsv(*_)
+        result.andExpect(status().isGone())
+    }
+
+    def "exportChangesCsv - 起点の形式が不正な場合は400を返す"() {
+        when: "日時でない起点で差分出力エンドポイントにアクセス"
+        def result = mockMvc.perform(get("/reading-records/export-csv/changes").param("since", "yesterday"))
+
+        then: "400が返され、出力はしない"
+        0 * mockService.exportChangesToCsv(*_)
+        result.andExpect(status().isBadRequest())
+    }
+
+    def "acceptsGzip - Accept-Encodingヘッダーからgzipを受け付けるかを判定する"() {
+        expect:
+        ReadingRecordController.acceptsGzip(acceptEncoding) == expected
+
+        where:
+        acceptEncoding          | expected
+        null                    | false
+        "identity"              | false
+        "gzip"                  | true
+        "deflate, GZIP;q=0.5"   | true
+        "gzip;q=0"              | false
+        "gzip; q=0.000, br"     | false
+        "x-gzip"                | false
     }
 
     def "upload - CSV一括登録画面を表示する"() {
@@ -228,6 +687,41 @@ class ReadingRecordControllerSpec extends Specification {
                 .andExpect(view().name("reading-records/upload"))
     }
 
+    def "uploadConfirm - gzip圧縮したCSV（.csv.gz）も受け付ける"() {
+        given: "保持された取り込みデータ"
+        def stagedImport = Mock(StagedImport) {
+            getRecordCount() >> 1L
+            getPreview() >> []
+            getToken() >> "token-gz"
+        }
+
+        when: ".csv.gzファイルをアップロード"
+        def result = mockMvc.perform(
+                multipart("/reading-records/upload/confirm")
+                        .file(new org.springframework.mock.web.MockMultipartFile(
+                                "csvFile", "books.CSV.GZ", "application/gzip", [1, 2, 3] as byte[]))
+        )
+
+        then: "保持され、確認画面が表示される"
+        1 * mockStagingService.stage(_, ImportMode.INSERT) >> stagedImport
+        result.andExpect(view().name("reading-records/upload-confirm"))
+                .andExpect(model().attribute("importToken", "token-gz"))
+    }
+
+    def "uploadConfirm - 展開後のサイズ・件数が上限を超えた場合は理由をエラーメッセージに設定する"() {
+        when: ".csv.gzファイルをアップロード"
+        def result = mockMvc.perform(
+                multipart("/reading-records/upload/confirm")
+                        .file(new org.springframework.mock.web.MockMultipartFile(
+                                "csvFile", "bomb.csv.gz", "application/gzip", [1, 2, 3] as byte[]))
+        )
+
+        then: "上限を超えた理由がエラーメッセージに設定される"
+        1 * mockStagingService.stage(_, ImportMode.INSERT) >> { throw new ImportLimitExceededException("件数が上限（10件）を超えたため、読み込みを中止しました") }
+        result.andExpect(redirectedUrl("/reading-records/upload"))
+                .andExpect(flash().attribute("error", "件数が上限（10件）を超えたため、読み込みを中止しました。"))
+    }
+
     def "uploadConfirm - 空のCSVファイルの場合はエラーメッセージでリダイレクト"() {
         when: "空のファイルをアップロード"
         def result = mockMvc.perform(
@@ -240,15 +734,120 @@ class ReadingRecordControllerSpec extends Specification {
                 .andExpect(redirectedUrl("/reading-records/upload"))
     }
 
-    def "uploadSave - 無効なBase64データの場合はエラーでリダイレクト"() {
-        when: "無効なBase64データで保存を実行"
+    def "uploadConfirm - CSVファイルをサーバー側に保持してトークンを確認画面に渡す"() {
+        given: "保持された取り込みデータ"
+        def preview = [new ReadingRecord(title: "テスト本1")]
+        def stagedImport = Mock(StagedImport) {
+            getRecordCount() >> 250L
+            getPreview() >> preview
+            getToken() >> "token-123"
+        }
+
+        when: "CSVファイルをアップロード"
+        def result = mockMvc.perform(
+                multipart("/reading-records/upload/confirm")
+                        .file("csvFile", "テスト本1".getBytes("UTF-8"))
+        )
+
+        then: "CSVファイル名がないため再選択を求められる"
+        0 * mockStagingService.stage(*_)
+        result.andExpect(redirectedUrl("/reading-records/upload"))
+
+        when: "CSVファイル名付きでアップロード"
+        result = mockMvc.perform(
+                multipart("/reading-records/upload/confirm")
+                        .file(new org.springframework.mock.web.MockMultipartFile(
+                                "csvFile", "books.csv", "text/csv", "テスト本1".getBytes("UTF-8")))
+        )
+
+        then: "ファイル内容ではなくトークンとプレビューが確認画面に渡される"
+        1 * mockStagingService.stage(_, ImportMode.INSERT) >> stagedImport
+        result.andExpect(status().isOk())
+                .andExpect(view().name("reading-records/upload-confirm"))
+                .andExpect(model().attribute("importToken", "token-123"))
+                .andExpect(model().attribute("totalCount", 250L))
+                .andExpect(model().attribute("readingRecords", preview))
+                .andExpect(model().attributeDoesNotExist("csvData"))
+    }
+
+    def "uploadConfirm - 取り込み方法を指定すると、新規登録・更新・スキップの件数の見込みを確認画面に渡す"() {
+        given: "IDで更新する取り込みデータ"
+        def counts = new ImportCounts(3, 5, 0)
+        def stagedImport = Mock(StagedImport) {
+            getRecordCount() >> 8L
+            getPreview() >> [new ReadingRecord(id: 1L, title: "テスト本1")]
+            getToken() >> "token-456"
+            getImportMode() >> ImportMode.UPSERT_BY_ID
+            getPlannedCounts() >> counts
+        }
+
+        when: "取り込み方法を指定してアップロード"
+        def result = mockMvc.perform(
+                multipart("/reading-records/upload/confirm")
+                        .file(new org.springframework.mock.web.MockMultipartFile(
+                                "csvFile", "books.csv", "text/csv", "1,テスト本1".getBytes("UTF-8")))
+                        .param("importMode", "UPSERT_BY_ID")
+        )
+
+        then: "指定した取り込み方法で保持され、件数の見込みが確認画面に渡される"
+        1 * mockStagingService.stage(_, ImportMode.UPSERT_BY_ID) >> stagedImport
+        result.andExpect(status().isOk())
+                .andExpect(model().attribute("importMode", ImportMode.UPSERT_BY_ID))
+                .andExpect(model().attribute("plannedCounts", counts))
+    }
+
+    def "uploadSave - 保持したデータの登録をジョブとして受け付け、進捗画面にリダイレクト"() {
+        given: "受け付けられるジョブ"
+        ImportJob job = Mock()
+        job.getId() >> "job-123"
+
+        when: "トークンを指定して保存を実行"
+        def result = mockMvc.perform(post("/reading-records/upload/save").param("importToken", "token-123"))
+
+        then: "登録の完了を待たずにジョブの進捗画面へリダイレクトされる"
+        1 * mockJobService.submit("token-123") >> Optional.of(job)
+        0 * mockStagingService.take(_)
+        0 * mockService.parseCsvFile(_)
+        0 * mockService.importRecords(*_)
+        result.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/reading-records/import-jobs/job-123"))
+    }
+
+    def "uploadSave - 不明または期限切れのトークンの場合はエラーでリダイレクト"() {
+        when: "不明なトークンで保存を実行"
         def result = mockMvc.perform(
                 post("/reading-records/upload/save")
-                        .param("csvData", "invalid-base64")
+                        .param("importToken", "unknown-token")
         )
 
         then: "エラーメッセージでアップロード画面にリダイレクトされる"
+        1 * mockJobService.submit("unknown-token") >> Optional.empty()
         result.andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/reading-records/upload"))
+                .andExpect(flash().attributeExists("error"))
+    }
+
+    /**
+     * 一覧表示用の読書記録を作成する
+     */
+    private static ReadingRecordListItem listItem(Long id, String title, ReadingStatus status) {
+        return new ReadingRecordListItem(id, title, null, status, 0, 100, 0, null, LocalDateTime.of(2025, 1, 1, 0, 0),
+                LocalDateTime.of(2025, 1, 1, 0, 0))
+    }
+
+    /**
+     * 全ての読書状態が同じ件数の集計結果を作成する
+     */
+    private static Map<ReadingStatus, Long> statusCounts(long count) {
+        def counts = new EnumMap<ReadingStatus, Long>(ReadingStatus)
+        ReadingStatus.values().each { counts[it] = count }
+        return counts
+    }
+
+    /**
+     * gzip圧縮されたデータを展開する
+     */
+    private static byte[] gunzip(byte[] bytes) {
+        new GZIPInputStream(new ByteArrayInputStream(bytes)).withCloseable { it.readAllBytes() }
     }
 }
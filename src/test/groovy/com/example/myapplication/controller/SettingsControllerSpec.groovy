@@ -0,0 +1,124 @@
+package com.example.myapplication.controller
+
+import com.example.myapplication.service.ReadingRecordService
+import com.example.myapplication.service.ReadingRecordSnapshotService
+import com.example.myapplication.status.ReadingStatus
+import org.springframework.mock.web.MockMultipartFile
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+/**
+ * SettingsControllerのテストクラス
+ * 一括削除とスナップショットによるバックアップ・復元のエンドポイントをテストする
+ */
+class SettingsControllerSpec extends Specification {
+
+    @Subject
+    SettingsController controller
+
+    ReadingRecordService mockService = Mock()
+    ReadingRecordSnapshotService mockSnapshotService = Mock()
+
+    MockMvc mockMvc
+
+    def setup() {
+        controller = new SettingsController(mockService, mockSnapshotService)
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build()
+    }
+
+    def "deleteAll - 削除した件数をメッセージに設定して設定画面へリダイレクトする"() {
+        when: "全件削除エンドポイントにアクセス"
+        def result = mockMvc.perform(post("/settings/delete-all"))
+
+        then:
+        1 * mockService.deleteAllReadingRecords() >> 12
+        result.andExpect(redirectedUrl("/settings"))
+                .andExpect(flash().attribute("message", "全ての読書記録（12件）を削除しました。"))
+    }
+
+    def "deleteByStatus - 指定した読書状態の読書記録を削除し、件数をメッセージに設定する"() {
+        when: "中止の読書記録を削除"
+        def result = mockMvc.perform(post("/settings/delete-by-status").param("status", "PAUSED"))
+
+        then:
+        1 * mockService.deleteReadingRecordsByStatus(ReadingStatus.PAUSED) >> 4
+        result.andExpect(redirectedUrl("/settings"))
+                .andExpect(flash().attribute("message", "「中止」の読書記録を4件削除しました。"))
+    }
+
+    def "deleteByStatus - 読書状態が不正な場合は削除しない"() {
+        when:
+        def result = mockMvc.perform(post("/settings/delete-by-status").param("status", "UNKNOWN"))
+
+        then:
+        0 * mockService.deleteReadingRecordsByStatus(_)
+        result.andExpect(status().isBadRequest())
+    }
+
+    def "exportSnapshot - スナップショットがストリーミングで出力される"() {
+        given: "スナップショットのデータ"
+        def snapshot = [0x52, 0x44, 0x53, 0x4E] as byte[]
+        def fileName = "reading-records_20241127_143022.rdsnap"
+
+        when: "スナップショット出力エンドポイントにアクセス"
+        def mvcResult = mockMvc.perform(get("/settings/snapshot"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(mvcResult))
+
+        then: "サービスが出力ストリームへ書き込んだデータが返される"
+        1 * mockSnapshotService.generateSnapshotFileName() >> fileName
+        1 * mockSnapshotService.exportSnapshot(_ as OutputStream) >> { OutputStream out -> out.write(snapshot); 1L }
+        result.andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"${fileName}\""))
+                .andExpect(content().contentType("application/octet-stream"))
+                .andExpect(content().bytes(snapshot))
+    }
+
+    def "restoreSnapshot - 復元した件数をメッセージに設定して設定画面へリダイレクトする"() {
+        given: "スナップショットファイル"
+        def file = new MockMultipartFile("snapshotFile", "backup.rdsnap", "application/octet-stream", [1, 2, 3] as byte[])
+
+        when: "復元エンドポイントにアクセス"
+        def result = mockMvc.perform(multipart("/settings/snapshot/restore").file(file))
+
+        then: "復元が実行され、件数がメッセージに設定される"
+        1 * mockSnapshotService.restoreSnapshot(_ as InputStream) >> 42L
+        result.andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/settings"))
+                .andExpect(flash().attribute("message", "42件の読書記録を復元しました。"))
+    }
+
+    def "restoreSnapshot - 復元に失敗した場合はエラーメッセージを設定する"() {
+        given: "スナップショットファイル"
+        def file = new MockMultipartFile("snapshotFile", "backup.rdsnap", "application/octet-stream", [1, 2, 3] as byte[])
+
+        when: "復元エンドポイントにアクセス"
+        def result = mockMvc.perform(multipart("/settings/snapshot/restore").file(file))
+
+        then: "失敗の理由がエラーメッセージに設定される"
+        1 * mockSnapshotService.restoreSnapshot(_ as InputStream) >> { throw new IOException("スナップショットのチェックサムが一致しません") }
+        result.andExpect(redirectedUrl("/settings"))
+                .andExpect(flash().attribute("error", "スナップショットの復元に失敗しました: スナップショットのチェックサムが一致しません"))
+    }
+
+    def "restoreSnapshot - ファイルが空の場合は復元しない"() {
+        given: "空のファイル"
+        def file = new MockMultipartFile("snapshotFile", "backup.rdsnap", "application/octet-stream", new byte[0])
+
+        when: "復元エンドポイントにアクセス"
+        def result = mockMvc.perform(multipart("/settings/snapshot/restore").file(file))
+
+        then: "復元は実行されない"
+        0 * mockSnapshotService.restoreSnapshot(_)
+        result.andExpect(flash().attribute("error", "ファイルが選択されていません。"))
+    }
+}
@@ -0,0 +1,487 @@
+package com.example.myapplication.repository
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.status.ReadingStatus
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.data.domain.Limit
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification as JpaSpecification
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.ContextConfiguration
+import spock.lang.Specification
+
+import java.sql.Timestamp
+import java.time.LocalDateTime
+
+/**
+ * ReadingRecordRepositoryのテストクラス
+ * H2データベースに対してクエリを実行し、結果と実行計画（インデックスの使用）をテストする
+ */
+// Spock 2.3はSpring 6では@ContextConfigurationの有無でSpring連携を判定するため明示する
+@ContextConfiguration
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.myapplication.repository.SqlCaptureInspector")
+class ReadingRecordRepositorySpec extends Specification {
+
+    @Autowired
+    ReadingRecordRepository readingRecordRepository
+
+    @Autowired
+    JdbcTemplate jdbcTemplate
+
+    def setup() {
+        readingRecordRepository.deleteAllInBatch()
+        def base = LocalDateTime.of(2025, 1, 1, 0, 0, 0)
+        // 同じ更新日時の行を含めて登録する
+        (1..25).each { i ->
+            readingRecordRepository.save(new ReadingRecord(
+                    title: "本${i}",
+                    readingStatus: i % 5 == 0 ? ReadingStatus.COMPLETED : ReadingStatus.READING,
+                    createdAt: base,
+                    updatedAt: base.plusMinutes(i.intdiv(2))))
+        }
+        readingRecordRepository.flush()
+        SqlCaptureInspector.clear()
+    }
+
+    def "findPageByReadingStatus/findPageByReadingStatusAfter - キーセット方式で重複・欠落なく全件を辿れる"() {
+        given: "期待される並び順（更新日時の新しい順、同じ場合はIDの大きい順）"
+        def expected = readingRecordRepository.findAll()
+                .findAll { it.readingStatus == ReadingStatus.READING }
+                .sort { a, b -> b.updatedAt <=> a.updatedAt ?: b.id <=> a.id }
+                *.id
+
+        when: "7件ずつページを辿る"
+        def visited = []
+        def page = readingRecordRepository.findPageByReadingStatus(ReadingStatus.READING, Limit.of(7))
+        while (!page.isEmpty()) {
+            visited.addAll(page*.id)
+            def last = page.last()
+            page = readingRecordRepository.findPageByReadingStatusAfter(
+                    ReadingStatus.READING, last.updatedAt, last.id, Limit.of(7))
+        }
+
+        then: "全件を期待通りの順序で1回ずつ取得できる"
+        visited == expected
+        visited.size() == 20
+    }
+
+    def "findPageByReadingStatus/findPageByReadingStatusAfter - 複合インデックスを使い、ソートせずに読み出す"() {
+        when: "先頭ページと続きのページを取得"
+        def first = readingRecordRepository.findPageByReadingStatus(ReadingStatus.READING, Limit.of(5))
+        def firstPageSql = SqlCaptureInspector.lastSelect("reading_status")
+        readingRecordRepository.findPageByReadingStatusAfter(
+                ReadingStatus.READING, first.last().updatedAt, first.last().id, Limit.of(5))
+        def nextPageSql = SqlCaptureInspector.lastSelect("updated_at<")
+
+        then: "どちらの実行計画でも複合インデックスが使われ、インデックス順に読み出される"
+        def cursorTime = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 5))
+        [
+                [firstPageSql, ["READING", 6]],
+                [nextPageSql, ["READING", cursorTime, cursorTime, 10L, 6]]
+        ].each { String sql, List parameters ->
+            assert sql != null
+            def plan = explain(sql, parameters)
+            assert plan.contains("IDX_READING_RECORD_STATUS_UPDATED")
+            assert plan.contains("index sorted")
+        }
+    }
+
+    def "progress_percent - 進捗率をgetProgressPercentと同じ計算（四捨五入・上限100・計算できない場合は0）でDB側で求める"() {
+        given:
+        def id = readingRecordRepository.saveAndFlush(new ReadingRecord(title: "進捗の本", currentPage: currentPage,
+                totalPages: totalPages)).id
+
+        expect:
+        jdbcTemplate.queryForObject("SELECT progress_percent FROM reading_record WHERE id = ?", Integer, id) == expected
+
+        where:
+        totalPages | currentPage || expected
+        1000       | 334         || 33
+        1000       | 335         || 34
+        999        | 500         || 50
+        300        | 299         || 100
+        100        | 150         || 100
+        null       | 50          || 0
+        0          | 50          || 0
+        100        | -5          || 0
+        100        | null        || 0
+        2000000000 | 1999999999  || 100
+    }
+
+    def "findPageByReadingStatusOrderByProgress/findPageByReadingStatusOrderByProgressAfter - 進捗率の下限で絞り込み、キーセット方式で全件を辿れる"() {
+        given: "読書中の読書記録に、同じ進捗率を含む現在ページを設定"
+        jdbcTemplate.update("UPDATE reading_record SET total_pages = 200, current_page = MOD(id * 37, 200) "
+                + "WHERE reading_status = 'READING'")
+        def expected = jdbcTemplate.queryForList("SELECT id FROM reading_record WHERE reading_status = 'READING' "
+                + "AND progress_percent >= 30 ORDER BY progress_percent DESC, id DESC", Long)
+
+        when: "4件ずつページを辿る"
+        def visited = []
+        def page = readingRecordRepository.findPageByReadingStatusOrderByProgress(ReadingStatus.READING, 30, Limit.of(4))
+        while (!page.isEmpty()) {
+            visited.addAll(page*.id)
+            def last = page.last()
+            page = readingRecordRepository.findPageByReadingStatusOrderByProgressAfter(
+                    ReadingStatus.READING, 30, last.progressPercent, last.id, Limit.of(4))
+        }
+
+        then: "下限以上の読書記録を進捗率の高い順に1回ずつ取得できる"
+        visited == expected
+        !visited.isEmpty()
+        visited.size() < 20
+    }
+
+    def "findPageByReadingStatusOrderByProgress/findPageByReadingStatusOrderByProgressAfter - 読書状態・進捗率の複合インデックスを使い、ソートせずに読み出す"() {
+        when: "先頭ページと続きのページを取得"
+        readingRecordRepository.findPageByReadingStatusOrderByProgress(ReadingStatus.READING, 80, Limit.of(5))
+        def firstPageSql = SqlCaptureInspector.lastSelect("progress_percent>=")
+        readingRecordRepository.findPageByReadingStatusOrderByProgressAfter(ReadingStatus.READING, 80, 90, 10L, Limit.of(5))
+        def nextPageSql = SqlCaptureInspector.lastSelect("progress_percent<")
+
+        then: "どちらの実行計画でも複合インデックスが使われ、インデックス順に読み出される"
+        [
+                [firstPageSql, ["READING", 80, 5]],
+                [nextPageSql, ["READING", 80, 90, 90, 10L, 5]]
+        ].each { String sql, List parameters ->
+            assert sql != null
+            def plan = explain(sql, parameters)
+            assert plan.contains("IDX_READING_RECORD_STATUS_PROGRESS")
+            assert plan.contains("index sorted")
+        }
+    }
+
+    def "findListItems - 並び順ごとに、未設定の値や同じ値を含めてキーセット方式で重複・欠落なく全件を辿れる"() {
+        given: "評価・著者・登録日時に未設定や同じ値を含む読書記録"
+        givenListSortValues()
+        def expected = jdbcTemplate.queryForList("SELECT id FROM reading_record WHERE reading_status = 'READING' "
+                + "ORDER BY ${column} ${descending ? 'DESC NULLS LAST' : 'ASC NULLS FIRST'}, id ${descending ? 'DESC' : 'ASC'}", Long)
+
+        when: "4件ずつページを辿る"
+        def visited = []
+        def page = readingRecordRepository.findListItems(
+                ReadingRecordSpecifications.hasReadingStatus(ReadingStatus.READING), listSort(attribute, descending), Limit.of(4))
+        while (!page.isEmpty()) {
+            visited.addAll(page*.id)
+            def last = page.last()
+            page = readingRecordRepository.findListItems(
+                    ReadingRecordSpecifications.hasReadingStatus(ReadingStatus.READING)
+                            .and(ReadingRecordSpecifications.after(attribute, descending, nullable, last."${attribute}", last.id)),
+                    listSort(attribute, descending), Limit.of(4))
+        }
+
+        then: "全件を期待通りの順序で1回ずつ取得できる"
+        visited == expected
+        visited.size() == 20
+
+        where:
+        attribute         | column             | descending | nullable
+        "rating"          | "rating"           | true       | true
+        "title"           | "title"            | false      | false
+        "author"          | "author"           | false      | true
+        "createdAt"       | "created_at"       | true       | true
+        "updatedAt"       | "updated_at"       | true       | false
+        "progressPercent" | "progress_percent" | true       | false
+    }
+
+    def "findListItems - 評価の範囲・著者で絞り込み、続きのページも条件を満たすものだけを返す"() {
+        given:
+        givenListSortValues()
+        def expected = jdbcTemplate.queryForList("SELECT id FROM reading_record WHERE reading_status = 'READING' "
+                + "AND rating BETWEEN 2 AND 3 AND author = '著者1' ORDER BY title, id", Long)
+        def spec = ReadingRecordSpecifications.hasReadingStatus(ReadingStatus.READING)
+                .and(ReadingRecordSpecifications.ratingBetween(2, 3))
+                .and(ReadingRecordSpecifications.authorIs("著者1"))
+
+        when: "2件ずつページを辿る"
+        def visited = []
+        def page = readingRecordRepository.findListItems(spec, listSort("title", false), Limit.of(2))
+        while (!page.isEmpty()) {
+            visited.addAll(page*.id)
+            page = readingRecordRepository.findListItems(
+                    spec.and(ReadingRecordSpecifications.after("title", false, false, page.last().title, page.last().id)),
+                    listSort("title", false), Limit.of(2))
+        }
+
+        then:
+        visited == expected
+        visited.size() > 2
+    }
+
+    def "findListItems - 対応する並び順と絞り込みの組み合わせはすべてインデックスで読み出し、全件走査しない"() {
+        given:
+        givenListSortValues()
+        def specs = [ReadingRecordSpecifications.hasReadingStatus(ReadingStatus.READING)]
+        def parameters = ["READING"]
+        if (ratingFilter) {
+            specs << ReadingRecordSpecifications.ratingBetween(3, 5)
+            parameters += [3, 5]
+        }
+        if (authorFilter) {
+            specs << ReadingRecordSpecifications.authorIs("著者1")
+            parameters += ["著者1"]
+        }
+
+        when: "先頭ページと続きのページを取得"
+        readingRecordRepository.findListItems(JpaSpecification.allOf(specs), listSort(attribute, descending), Limit.of(5))
+        def firstPageSql = SqlCaptureInspector.statements.last()
+        readingRecordRepository.findListItems(
+                JpaSpecification.allOf(specs + ReadingRecordSpecifications.after(attribute, descending, nullable, cursorValue, 10L)),
+                listSort(attribute, descending), Limit.of(5))
+        def nextPageSql = SqlCaptureInspector.statements.last()
+
+        then: "どちらの実行計画でも読書状態から始まる複合インデックスが使われる"
+        def jdbcCursorValue = cursorValue instanceof LocalDateTime ? Timestamp.valueOf(cursorValue) : cursorValue
+        [
+                [firstPageSql, parameters + [5]],
+                [nextPageSql, parameters + [jdbcCursorValue, jdbcCursorValue, 10L, 5]]
+        ].each { String sql, List sqlParameters ->
+            def plan = explain(sql, sqlParameters)
+            assert !plan.contains("tableScan")
+            assert plan.contains("IDX_READING_RECORD_STATUS_")
+            if (!ratingFilter && !authorFilter) {
+                // 絞り込みがない場合は並び順と同じインデックスを使い、ソートせずに読み出す
+                assert plan.contains(index)
+                assert plan.contains("index sorted */")
+            }
+        }
+
+        where:
+        [attribute, descending, nullable, cursorValue, index, ratingFilter, authorFilter] << [
+                [
+                        ["rating", true, true, 3, "IDX_READING_RECORD_STATUS_RATING"],
+                        ["title", false, false, "本10", "IDX_READING_RECORD_STATUS_TITLE"],
+                        ["author", false, true, "著者1", "IDX_READING_RECORD_STATUS_AUTHOR"],
+                        ["createdAt", true, true, LocalDateTime.of(2025, 1, 2, 0, 0), "IDX_READING_RECORD_STATUS_CREATED"],
+                        ["updatedAt", true, false, LocalDateTime.of(2025, 1, 1, 0, 5), "IDX_READING_RECORD_STATUS_UPDATED"],
+                        ["progressPercent", true, false, 50, "IDX_READING_RECORD_STATUS_PROGRESS"],
+                ],
+                [false, true],
+                [false, true]
+        ].combinations().collect { sort, ratingFilter, authorFilter -> sort + [ratingFilter, authorFilter] }
+    }
+
+    def "findPageByReadingStatus/findByReadingStatusOrderByUpdatedAtDesc - 概要・感想のTEXT列を読み込まない"() {
+        given: "長い概要・感想を持つ読書記録"
+        def longText = "長い感想。" * 10_000
+        readingRecordRepository.saveAndFlush(new ReadingRecord(title: "長文の本", readingStatus: ReadingStatus.UNREAD,
+                summary: longText, thoughts: longText, createdAt: LocalDateTime.now(), updatedAt: LocalDateTime.now()))
+        SqlCaptureInspector.clear()
+
+        when: "一覧を取得"
+        def page = readingRecordRepository.findPageByReadingStatus(ReadingStatus.UNREAD, Limit.of(5))
+        def all = readingRecordRepository.findByReadingStatusOrderByUpdatedAtDesc(ReadingStatus.UNREAD)
+
+        then: "一覧表示用の列だけが取得される"
+        page*.title == ["長文の本"]
+        all*.title == ["長文の本"]
+        SqlCaptureInspector.statements.size() == 2
+        SqlCaptureInspector.statements.every { !it.contains("summary") && !it.contains("thoughts") }
+    }
+
+    def "streamByUpdatedAtAfterOrderByUpdatedAtAscIdAsc - 起点より後に更新された読書記録を更新日時のインデックスの範囲で読み出す"() {
+        given: "起点（同じ更新日時の行が2件ずつある）"
+        def since = LocalDateTime.of(2025, 1, 1, 0, 10)
+        def expected = readingRecordRepository.findAll()
+                .findAll { it.updatedAt > since }
+                .sort { a, b -> a.updatedAt <=> b.updatedAt ?: a.id <=> b.id }
+                *.id
+
+        when: "差分を読み出す"
+        def changed = readingRecordRepository.streamByUpdatedAtAfterOrderByUpdatedAtAscIdAsc(since)
+                .withCloseable { it.toList()*.id }
+        def sql = SqlCaptureInspector.lastSelect("updated_at>")
+
+        then: "起点より後の行だけが更新日時・ID順に返される"
+        changed == expected
+        changed.size() == 4
+
+        and: "(updated_at, id) のインデックスを範囲検索し、ソートせずに読み出す"
+        def plan = explain(sql, [Timestamp.valueOf(since)])
+        plan.contains("IDX_READING_RECORD_UPDATED")
+        plan.contains("index sorted")
+    }
+
+    def "countGroupByReadingStatus - 読書状態ごとの件数を1回の集計クエリで取得する"() {
+        when: "集計"
+        def counts = readingRecordRepository.countGroupByReadingStatus()
+                .collectEntries { [(it.readingStatus): it.count] }
+
+        then: "登録した件数と一致する"
+        counts == [(ReadingStatus.READING): 20L, (ReadingStatus.COMPLETED): 5L]
+    }
+
+    def "findReadingStatusById - 読書状態だけを取得する"() {
+        given: "登録済みの読書記録"
+        def record = readingRecordRepository.findAll().find { it.readingStatus == ReadingStatus.COMPLETED }
+
+        expect: "読書状態が取得でき、存在しないIDの場合は空"
+        readingRecordRepository.findReadingStatusById(record.id) == Optional.of(ReadingStatus.COMPLETED)
+        readingRecordRepository.findReadingStatusById(-1L).isEmpty()
+    }
+
+    def "existsBy - 読書記録が1件以上あるかどうかを返す"() {
+        expect: "登録済みの場合はtrue"
+        readingRecordRepository.existsBy()
+
+        when: "全件削除"
+        readingRecordRepository.deleteAllInBatch()
+
+        then: "falseになる"
+        !readingRecordRepository.existsBy()
+    }
+
+    def "countGroupByReadingStatusByIdIn - 指定したIDの読書記録だけを読書状態ごとに集計する"() {
+        given: "読了1件・読書中2件のID"
+        def all = readingRecordRepository.findAll()
+        def ids = [all.find { it.readingStatus == ReadingStatus.COMPLETED }.id] +
+                all.findAll { it.readingStatus == ReadingStatus.READING }.take(2)*.id
+
+        when: "集計"
+        def counts = readingRecordRepository.countGroupByReadingStatusByIdIn(ids + [-1L])
+                .collectEntries { [(it.readingStatus): it.count] }
+
+        then: "存在しないIDは無視される"
+        counts == [(ReadingStatus.READING): 2L, (ReadingStatus.COMPLETED): 1L]
+    }
+
+    def "findProgressStatesByIdIn - 読書状態・総ページ数・バージョンだけを行ロックなしの1文で取得する"() {
+        given: "総ページ数が設定済みの読書記録"
+        def saved = readingRecordRepository.saveAndFlush(
+                new ReadingRecord(title: "総ページ数あり", totalPages: 320, readingStatus: ReadingStatus.READING))
+        SqlCaptureInspector.clear()
+
+        when: "存在しないIDを含めて取得"
+        def states = readingRecordRepository.findProgressStatesByIdIn([saved.id, -1L])
+
+        then: "存在する読書記録だけが返される"
+        states.size() == 1
+        states[0].id == saved.id
+        states[0].readingStatus == ReadingStatus.READING
+        states[0].totalPages == 320
+        states[0].version == 0L
+
+        and: "本文の列は読み込まず、行ロックも取得しない"
+        SqlCaptureInspector.statements.size() == 1
+        !SqlCaptureInspector.statements[0].contains("for update")
+        !SqlCaptureInspector.statements[0].contains("summary")
+    }
+
+    def "updateReadingStatusByIdIn - 指定したIDの読書状態と更新日時を1文で変更する"() {
+        given: "読書中の3件のID"
+        def ids = readingRecordRepository.findAll().findAll { it.readingStatus == ReadingStatus.READING }.take(3)*.id
+        def updatedAt = LocalDateTime.of(2025, 2, 1, 9, 0)
+        SqlCaptureInspector.clear()
+
+        when: "読了に変更"
+        def updated = readingRecordRepository.updateReadingStatusByIdIn(ids + [-1L], ReadingStatus.COMPLETED, updatedAt)
+
+        then: "変更した件数が返され、UPDATE文は1回だけ発行される"
+        updated == 3
+        SqlCaptureInspector.statements.count { it.startsWith("update") } == 1
+        SqlCaptureInspector.statements.count { it.startsWith("select") } == 0
+
+        and: "指定した読書記録だけが変更される"
+        def changed = readingRecordRepository.findAllById(ids)
+        changed.every { it.readingStatus == ReadingStatus.COMPLETED && it.updatedAt == updatedAt && it.version == 1L }
+        readingRecordRepository.countGroupByReadingStatus().collectEntries { [(it.readingStatus): it.count] } ==
+                [(ReadingStatus.READING): 17L, (ReadingStatus.COMPLETED): 8L]
+    }
+
+    def "updateProgressByIdIn - 総ページ数に対する割合で現在ページを設定し、総ページ数が未設定のものは変更しない"() {
+        given: "総ページ数が設定済みの読書記録と未設定の読書記録"
+        def withPages = readingRecordRepository.saveAndFlush(
+                new ReadingRecord(title: "総ページ数あり", totalPages: 333, currentPage: 0, updatedAt: LocalDateTime.of(2025, 1, 1, 0, 0)))
+        def withoutPages = readingRecordRepository.saveAndFlush(
+                new ReadingRecord(title: "総ページ数なし", currentPage: 5, updatedAt: LocalDateTime.of(2025, 1, 1, 0, 0)))
+        def updatedAt = LocalDateTime.of(2025, 2, 1, 9, 0)
+
+        when: "50%に設定"
+        def updated = readingRecordRepository.updateProgressByIdIn([withPages.id, withoutPages.id], 50, updatedAt)
+
+        then: "総ページ数が設定済みの読書記録だけが切り捨てで変更される"
+        updated == 1
+        with(readingRecordRepository.findById(withPages.id).get()) {
+            currentPage == 166
+            it.updatedAt == updatedAt
+            version == 1L
+        }
+        with(readingRecordRepository.findById(withoutPages.id).get()) {
+            currentPage == 5
+            it.updatedAt == LocalDateTime.of(2025, 1, 1, 0, 0)
+            version == 0L
+        }
+    }
+
+    def "deleteByReadingStatusInBulk/deleteAllInBulk - エンティティを読み込まずに1文で削除する"() {
+        when: "読了の読書記録を削除"
+        def deleted = readingRecordRepository.deleteByReadingStatusInBulk(ReadingStatus.COMPLETED)
+
+        then: "削除した件数が返され、SELECT文は発行されない"
+        deleted == 5
+        SqlCaptureInspector.statements.count { it.startsWith("delete") } == 1
+        SqlCaptureInspector.statements.count { it.startsWith("select") } == 0
+        readingRecordRepository.countGroupByReadingStatus().collectEntries { [(it.readingStatus): it.count] } ==
+                [(ReadingStatus.READING): 20L]
+
+        when: "全件削除"
+        deleted = readingRecordRepository.deleteAllInBulk()
+
+        then: "残りの件数が返され、読書記録はなくなる"
+        deleted == 20
+        !readingRecordRepository.existsBy()
+    }
+
+    def "findNaturalKeysIn - 正規化したタイトル・著者の組をDB側で計算し、索引で照合する"() {
+        given: "空白・大文字小文字の表記が異なる読書記録"
+        readingRecordRepository.saveAndFlush(new ReadingRecord(title: "  Hello　 World ", author: "Natsume  Soseki"))
+        readingRecordRepository.saveAndFlush(new ReadingRecord(title: "著者なし"))
+        SqlCaptureInspector.clear()
+
+        when: "正規化したキーで照合"
+        def candidates = ["hello world\u001Fnatsume soseki", "著者なし\u001F", "存在しない\u001F"]
+        def keys = readingRecordRepository.findNaturalKeysIn(candidates)
+
+        then: "空白の連続・前後の空白・大文字小文字の違いを無視して一致する"
+        keys.toSet() == ["hello world\u001Fnatsume soseki", "著者なし\u001F"] as Set
+
+        and: "natural_keyの索引を使う"
+        def sql = SqlCaptureInspector.statements.find { it.contains("natural_key") }
+        explain(sql, candidates).contains("IDX_READING_RECORD_NATURAL_KEY")
+    }
+
+    def "findIdsByIdIn - 指定したIDのうち存在するものだけを返す"() {
+        given:
+        def ids = readingRecordRepository.findAll().take(2)*.id
+
+        expect:
+        readingRecordRepository.findIdsByIdIn(ids + [-1L]).toSet() == ids.toSet()
+    }
+
+    /**
+     * 一覧の並び替え・絞り込みに使う列に、未設定（null）や同じ値を含む値を設定する
+     */
+    void givenListSortValues() {
+        jdbcTemplate.update("""UPDATE reading_record SET
+                rating = CASE WHEN MOD(id, 6) = 0 THEN NULL ELSE MOD(id, 5) + 1 END,
+                author = CASE WHEN MOD(id, 4) = 0 THEN NULL ELSE CONCAT('著者', MOD(id, 3)) END,
+                created_at = CASE WHEN MOD(id, 7) = 0 THEN NULL ELSE DATEADD(DAY, MOD(id, 3), created_at) END,
+                total_pages = 200, current_page = MOD(id * 37, 200)""")
+    }
+
+    /**
+     * 一覧の並び順（読書状態、並び順の属性、IDの順）
+     */
+    static Sort listSort(String attribute, boolean descending) {
+        def direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC
+        return Sort.by(Sort.Order.asc("readingStatus"), new Sort.Order(direction, attribute), new Sort.Order(direction, "id"))
+    }
+
+    /**
+     * H2のEXPLAINで実行計画を取得する
+     */
+    String explain(String sql, List<Object> parameters) {
+        assert sql.count("?") == parameters.size()
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String, *parameters)
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.myapplication.repository
+
+import org.hibernate.resource.jdbc.spi.StatementInspector
+
+/**
+ * Hibernateが発行するSQLを記録するテスト用のStatementInspector
+ * 記録したSQLをH2のEXPLAINに渡して実行計画を確認するために使う
+ */
+class SqlCaptureInspector implements StatementInspector {
+
+    static final List<String> statements = Collections.synchronizedList([])
+
+    @Override
+    String inspect(String sql) {
+        statements << sql
+        return sql
+    }
+
+    static void clear() {
+        statements.clear()
+    }
+
+    /**
+     * 指定した文字列を含む最後のSELECT文を返す
+     */
+    static String lastSelect(String fragment) {
+        return statements.reverse().find { it.startsWith("select") && it.contains(fragment) }
+    }
+}
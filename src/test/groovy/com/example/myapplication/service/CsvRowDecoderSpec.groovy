@@ -0,0 +1,177 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.status.ReadingStatus
+import com.opencsv.CSVReader
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+/**
+ * CsvRowDecoderのテストクラス
+ * ヘッダー行の判定と、例外を使わない行の変換が従来の解析（例外で数値を判定する実装）と同じ結果になることをテストする
+ */
+class CsvRowDecoderSpec extends Specification {
+
+    def "decode - 出力済みのCSVファイルを従来の解析と同じ読書記録に変換する"() {
+        given: "テスト用のCSVファイル（評価の列がない形式）"
+        def rows = getClass().getResourceAsStream("/csv/reading-records_20250728_005134.csv").withCloseable {
+            new CSVReader(new InputStreamReader(it, StandardCharsets.UTF_8)).readAll()
+        }
+
+        when: "先頭行でヘッダー行かどうかを判定して2行目以降を変換"
+        def decoder = CsvRowDecoder.forFirstRow(rows[0])
+        def decoded = rows.drop(1).collect { decoder.decode(it as String[]) }
+
+        then: "ヘッダー行ありと判定され、全行が従来の解析と一致する"
+        decoder.hasHeader()
+        decoded.size() == 9
+        decoded == rows.drop(1).collect { legacyParse(it as String[]) }
+        decoded[0].id == 1L
+        decoded[0].title == "吾輩は猫である"
+        decoded[0].readingStatus == ReadingStatus.READING
+    }
+
+    def "decode - 空白・不正な値・列の不足を含む行を従来の解析と同じ読書記録に変換する"() {
+        given: "ID列ありのファイルの変換処理"
+        def decoder = CsvRowDecoder.forFirstRow(["ID", "タイトル"] as String[])
+
+        expect:
+        decoder.decode(row as String[]) == legacyParse(row as String[])
+
+        where:
+        row << [
+                [" 12 ", " 本 ", " 著者 ", " 読書中 ", " 10 ", " 200 ", " 3 ", " 概要 ", " 感想 "],
+                ["1", "本", "", "", "", "", "", "", ""],
+                ["1", "本", "著者", "completed", "abc", "1.5", "6", "概要"],
+                ["1", "本", "著者", "reading", "-5", "+300", "0"],
+                ["1", "本", "著者", "不明", "99999999999", "-", "+"],
+                ["1", "本"],
+                ["1", "", "著者"],
+                ["1"],
+                [""],
+                [],
+                ["タイトルから始まる行", "著者", "読了", "１２", "３００", "５"],
+                ["9223372036854775807", "本"],
+                ["-9223372036854775808", "本"],
+                ["9223372036854775808", "本"],
+        ]
+    }
+
+    def "forFirstRow - 先頭行から、ヘッダー行の有無を判定する"() {
+        expect:
+        CsvRowDecoder.forFirstRow(firstRow as String[]).hasHeader() == header
+
+        where:
+        firstRow                    || header
+        ["ID", "タイトル"]           || true
+        [" id ", "タイトル"]         || true
+        ["タイトル", "著者"]         || true
+        ["1", "本"]                  || false
+        []                          || false
+    }
+
+    def "decode - 先頭の列がIDかどうかは、ファイルの先頭行によらず行ごとに従来の解析と同じく判定する"() {
+        given:
+        def decoder = CsvRowDecoder.forFirstRow(firstRow as String[])
+
+        expect: "先頭の列が数値の行はIDとして読み、数値でない行はタイトルとして読む"
+        decoder.decode(row as String[]) == legacyParse(row as String[])
+        decoder.decode(row as String[]).id == id
+
+        where:
+        firstRow                               | row                                       || id
+        ["タイトル", "著者", "読書状態"]         | ["1984", "ジョージ・オーウェル", "読了"]  || 1984L
+        ["タイトル", "著者", "読書状態"]         | ["本", "著者", "読了"]                    || null
+        ["吾輩は猫である", "夏目漱石", "読了"]   | ["12", "本", "著者", "読書中"]            || 12L
+        ["吾輩は猫である", "夏目漱石", "読了"]   | ["こころ", "夏目漱石", "未読"]            || null
+        ["ID", "タイトル"]                      | ["タイトルから始まる行", "著者"]          || null
+        ["1", "本"]                            | ["タイトルから始まる行", "著者"]          || null
+    }
+
+    def "parseLong・parseInt - Long.parseLong・Integer.parseIntと同じ値を返し、解析できない場合はnullを返す"() {
+        expect:
+        CsvRowDecoder.parseLong(value) == jdkParse { Long.parseLong(value) }
+        CsvRowDecoder.parseInt(value) == jdkParse { Integer.parseInt(value) }
+
+        where:
+        value << ["0", "-0", "+7", "-42", "007", "2147483647", "2147483648", "-2147483648", "-2147483649",
+                  "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+                  "", "-", "+", "1-", "1.0", "1e3", " 1", "abc", "１２３", "٣"]
+    }
+
+    private static Object jdkParse(Closure<?> parse) {
+        try {
+            return parse()
+        } catch (NumberFormatException ignored) {
+            return null
+        }
+    }
+
+    /**
+     * 従来の解析（例外で数値を判定し、行ごとに先頭の列がIDかどうかを判定する実装）
+     */
+    private static ReadingRecord legacyParse(String[] data) {
+        if (data.length < 1) {
+            return null
+        }
+        def readingRecord = new ReadingRecord()
+        int index = 0
+        try {
+            readingRecord.id = Long.parseLong(data[0].trim())
+            index++
+        } catch (NumberFormatException ignored) {
+        }
+        if (data.length > index && !data[index].trim().isEmpty()) {
+            readingRecord.title = data[index++].trim()
+        } else {
+            return null
+        }
+        if (data.length > index) {
+            readingRecord.author = data[index].trim() ?: null
+            index++
+        }
+        readingRecord.readingStatus = data.length > index ? legacyStatus(data[index++].trim()) : ReadingStatus.UNREAD
+        readingRecord.currentPage = data.length > index ? legacyInteger(data[index++].trim(), 0) : 0
+        if (data.length > index) {
+            readingRecord.totalPages = legacyInteger(data[index++].trim(), null)
+        }
+        if (data.length > index) {
+            def rating = legacyInteger(data[index++].trim(), null)
+            readingRecord.rating = rating != null && rating >= 1 && rating <= 5 ? rating : null
+        }
+        if (data.length > index) {
+            readingRecord.summary = data[index++].trim() ?: null
+        }
+        if (data.length > index) {
+            readingRecord.thoughts = data[index].trim() ?: null
+        }
+        return readingRecord
+    }
+
+    private static ReadingStatus legacyStatus(String value) {
+        if (value.isEmpty()) {
+            return ReadingStatus.UNREAD
+        }
+        def byDisplayName = ReadingStatus.values().find { it.displayName == value }
+        if (byDisplayName != null) {
+            return byDisplayName
+        }
+        try {
+            return ReadingStatus.valueOf(value.toUpperCase())
+        } catch (IllegalArgumentException ignored) {
+            return ReadingStatus.UNREAD
+        }
+    }
+
+    private static Integer legacyInteger(String value, Integer defaultValue) {
+        if (value.isEmpty()) {
+            return defaultValue
+        }
+        try {
+            return Integer.parseInt(value)
+        } catch (NumberFormatException ignored) {
+            return defaultValue
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordRepository
+import org.springframework.mock.web.MockMultipartFile
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.util.concurrent.PollingConditions
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+/**
+ * ImportJobServiceのテストクラス
+ * 一括登録ジョブの受け付け・進捗・同時実行数の上限・中止・破棄をテストする
+ */
+class ImportJobServiceSpec extends Specification {
+
+    // テスト対象のサービス
+    @Subject
+    ImportJobService importJobService
+
+    // モックオブジェクト
+    ReadingRecordRepository mockRepository = Mock()
+
+    ImportStagingService importStagingService
+
+    // 受け付けたジョブの処理（runPendingで実行する）
+    List<Runnable> pendingTasks = []
+
+    // 時刻を進められる時計
+    Instant now = Instant.parse("2025-01-01T00:00:00Z")
+    Clock clock = Mock(Clock) {
+        instant() >> { now }
+        getZone() >> ZoneOffset.UTC
+    }
+
+    def setup() {
+        def readingRecordService = ReadingRecordServiceFactory.create(mockRepository)
+        importStagingService = new ImportStagingService(readingRecordService, Duration.ofMinutes(30), 16, 100, 10_000, Long.MAX_VALUE, Long.MAX_VALUE, clock)
+        importJobService = createService(readingRecordService, { pendingTasks << it } as Executor, 2)
+    }
+
+    private ImportJobService createService(ReadingRecordService readingRecordService, Executor executor, int maxConcurrent) {
+        new ImportJobService(importStagingService, readingRecordService, executor, maxConcurrent, Duration.ofHours(1), clock)
+    }
+
+    private void runPending() {
+        def tasks = new ArrayList<Runnable>(pendingTasks)
+        pendingTasks.clear()
+        tasks.each { it.run() }
+    }
+
+    def "submit - ジョブIDをすぐに返し、登録は実行基盤で行う"() {
+        given: "保持した取り込みデータ"
+        def staged = importStagingService.stage(csvFile(3))
+
+        when: "ジョブを受け付ける"
+        def job = importJobService.submit(staged.token)
+
+        then: "登録前に実行待ちのジョブが返される"
+        job.isPresent()
+        job.get().state == ImportJob.State.QUEUED
+        importJobService.getJob(job.get().id).get().is(job.get())
+        importStagingService.sessionCount == 0
+        0 * mockRepository.saveAll(_)
+
+        when: "実行基盤でジョブを実行"
+        runPending()
+        def status = job.get().getStatus(now)
+
+        then: "全件が登録されて完了する"
+        1 * mockRepository.saveAll(_) >> { List args -> new ArrayList(args[0]) }
+        status.state() == ImportJob.State.COMPLETED
+        status.committedRows() == 3L
+        status.totalRows() == 3L
+        status.progressPercent() == 100
+        status.finished()
+    }
+
+    def "submit - 不明なトークンの場合は空を返す"() {
+        expect:
+        importJobService.submit("unknown-token").isEmpty()
+        pendingTasks.isEmpty()
+    }
+
+    def "getStatus - 登録対象の件数・エラー行数・登録済み件数と残り時間を返す"() {
+        given: "2500件を登録中のジョブ"
+        def job = new ImportJob("job-1", 2500, 2, now)
+        job.start(now)
+
+        when: "10秒で1000件コミットした時点の状態"
+        job.chunkCommitted(1000)
+        now = now.plusSeconds(10)
+        def status = job.getStatus(now)
+
+        then: "これまでの速度から残り時間を見積もる"
+        status.state() == ImportJob.State.RUNNING
+        status.totalRows() == 2500L
+        status.errorRows() == 2L
+        status.committedRows() == 1000L
+        status.progressPercent() == 40
+        status.etaSeconds() == 15L
+        !status.finished()
+    }
+
+    def "cancel - 実行中のジョブは次のチャンクに入る前に中止し、コミット済みのチャンクは残す"() {
+        given: "2500件のジョブ"
+        def staged = importStagingService.stage(csvFile(2500))
+        def job = importJobService.submit(staged.token).get()
+        int saveCount = 0
+        mockRepository.saveAll(_) >> { List args ->
+            // 最初のチャンクの登録中に中止を指示する
+            saveCount++
+            importJobService.cancel(job.id)
+            new ArrayList(args[0])
+        }
+
+        when: "ジョブを実行"
+        runPending()
+
+        then: "最初のチャンクだけ登録されて中止される"
+        saveCount == 1
+        job.state == ImportJob.State.CANCELLED
+        job.getStatus(now).committedRows() == 1000L
+        !importJobService.cancel(job.id)
+    }
+
+    def "cancel - 実行待ちのジョブはすぐに中止し、登録しない"() {
+        given: "実行待ちのジョブ"
+        def job = importJobService.submit(importStagingService.stage(csvFile(3)).token).get()
+
+        when: "中止してから実行基盤で実行"
+        def accepted = importJobService.cancel(job.id)
+        def stateBeforeRun = job.state
+        runPending()
+
+        then: "登録されずに中止される"
+        accepted
+        stateBeforeRun == ImportJob.State.CANCELLED
+        job.state == ImportJob.State.CANCELLED
+        0 * mockRepository.saveAll(_)
+    }
+
+    def "run - 登録中にエラーが発生した場合は失敗として記録する"() {
+        given: "実行待ちのジョブ"
+        def job = importJobService.submit(importStagingService.stage(csvFile(3)).token).get()
+        mockRepository.saveAll(_) >> { throw new IllegalStateException("DB error") }
+
+        when: "ジョブを実行"
+        runPending()
+
+        then: "失敗としてエラーメッセージが記録される"
+        job.state == ImportJob.State.FAILED
+        job.getStatus(now).errorMessage() != null
+    }
+
+    def "submit - 同時実行数の上限を超えたジョブは実行枠が空くまで待つ"() {
+        given: "同時実行数1のサービスと、登録を止めておくラッチ"
+        // 別スレッドから呼び出すため、Spockのモックではなく固定の時計と代替のリポジトリを使う
+        def release = new CountDownLatch(1)
+        def repository = [saveAll: { Iterable records ->
+            release.await(10, TimeUnit.SECONDS)
+            new ArrayList(records)
+        }] as ReadingRecordRepository
+        def readingRecordService = ReadingRecordServiceFactory.create(repository)
+        def service = new ImportJobService(importStagingService, readingRecordService,
+                { Runnable task -> new Thread(task).start() } as Executor, 1, Duration.ofHours(1),
+                Clock.fixed(now, ZoneOffset.UTC))
+        def conditions = new PollingConditions(timeout: 10)
+
+        when: "2つのジョブを受け付ける"
+        def first = service.submit(importStagingService.stage(csvFile(3)).token).get()
+        conditions.eventually { assert first.state == ImportJob.State.RUNNING }
+        def second = service.submit(importStagingService.stage(csvFile(3)).token).get()
+        Thread.sleep(200)
+
+        then: "2つ目は実行待ちのまま"
+        second.state == ImportJob.State.QUEUED
+
+        when: "1つ目の登録を進める"
+        release.countDown()
+
+        then: "両方とも完了する"
+        conditions.eventually {
+            assert first.state == ImportJob.State.COMPLETED
+            assert second.state == ImportJob.State.COMPLETED
+        }
+    }
+
+    def "cancel - 実行枠を待っているジョブは、実行中のジョブの終了を待たずに取り込みデータを破棄して終わる"() {
+        given: "同時実行数1のサービスと、登録を止めておくラッチ"
+        def release = new CountDownLatch(1)
+        def repository = [saveAll: { Iterable records ->
+            release.await(10, TimeUnit.SECONDS)
+            new ArrayList(records)
+        }] as ReadingRecordRepository
+        def readingRecordService = ReadingRecordServiceFactory.create(repository)
+        def threads = []
+        def service = new ImportJobService(importStagingService, readingRecordService,
+                { Runnable task -> def thread = new Thread(task); threads << thread; thread.start() } as Executor, 1,
+                Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC))
+        def conditions = new PollingConditions(timeout: 10)
+        def first = service.submit(importStagingService.stage(csvFile(3)).token).get()
+        conditions.eventually { assert first.state == ImportJob.State.RUNNING }
+        // 一時ファイルに書き出される件数の取り込みデータ
+        def staged = importStagingService.stage(csvFile(150))
+        def spillFile = staged.@spillFile as Path
+        def second = service.submit(staged.token).get()
+
+        when: "実行枠を待っている2つ目のジョブを中止"
+        service.cancel(second.id)
+        threads[1].join(5_000)
+
+        then: "1つ目の実行中に、2つ目のジョブの処理が終わる"
+        !threads[1].alive
+        first.state == ImportJob.State.RUNNING
+        second.state == ImportJob.State.CANCELLED
+        staged.spilled
+        !Files.exists(spillFile)
+
+        cleanup:
+        release.countDown()
+        conditions.eventually { assert first.state == ImportJob.State.COMPLETED }
+    }
+
+    def "evictFinished - 保持期間を過ぎた終了済みのジョブを破棄する"() {
+        given: "完了したジョブと実行待ちのジョブ"
+        mockRepository.saveAll(_) >> { List args -> new ArrayList(args[0]) }
+        def finished = importJobService.submit(importStagingService.stage(csvFile(3)).token).get()
+        runPending()
+        def queued = importJobService.submit(importStagingService.stage(csvFile(3)).token).get()
+
+        when: "保持期間を過ぎてから破棄"
+        now = now.plus(Duration.ofHours(2))
+        importJobService.evictFinished()
+
+        then: "終了済みのジョブだけ破棄される"
+        importJobService.getJob(finished.id).isEmpty()
+        importJobService.getJob(queued.id).isPresent()
+    }
+
+    private static MockMultipartFile csvFile(int rows) {
+        def csv = new StringBuilder("ID,タイトル,著者,読書状態,現在ページ,総ページ数,評価,概要\n")
+        (1..rows).each { csv.append("${it},本${it},,読書中,10,100,,概要\n") }
+        return new MockMultipartFile("csvFile", "books.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8))
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordRepository
+import com.example.myapplication.status.ReadingStatus
+import org.springframework.mock.web.MockMultipartFile
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+import java.util.zip.GZIPOutputStream
+
+/**
+ * ImportStagingServiceのテストクラス
+ * CSV取り込みデータのサーバー側保持・一時ファイル退避・破棄をテストする
+ */
+class ImportStagingServiceSpec extends Specification {
+
+    // テスト対象のサービス
+    @Subject
+    ImportStagingService importStagingService
+
+    // モックオブジェクト
+    ReadingRecordRepository mockRepository = Mock()
+
+    // 登録された読書記録
+    List<ReadingRecord> savedRecords = []
+
+    // 時刻を進められる時計
+    Instant now = Instant.parse("2025-01-01T00:00:00Z")
+    Clock clock = Mock(Clock) {
+        instant() >> { now }
+        getZone() >> ZoneOffset.UTC
+    }
+
+    def setup() {
+        def readingRecordService = ReadingRecordServiceFactory.create(mockRepository)
+        mockRepository.saveAll(_) >> { List args ->
+            savedRecords.addAll(args[0])
+            return new ArrayList(args[0])
+        }
+        importStagingService = createService(readingRecordService, Long.MAX_VALUE, Long.MAX_VALUE)
+    }
+
+    def "stage - 解析した読書記録をトークンに紐づけて保持する"() {
+        when: "CSVファイルを保持"
+        def staged = importStagingService.stage(csvFile(3))
+
+        then: "件数とプレビューが返され、メモリに保持される"
+        staged.token != null
+        staged.recordCount == 3
+        staged.preview*.title == ["本1", "本2", "本3"]
+        !staged.spilled
+        importStagingService.sessionCount == 1
+    }
+
+    def "stage - しきい値を超える件数は一時ファイルへ退避し、登録時に同じ内容を読み出す"() {
+        when: "しきい値を超えるCSVファイルを保持"
+        def staged = importStagingService.stage(csvFile(12))
+
+        then: "一時ファイルへ退避される"
+        staged.spilled
+        staged.inMemoryCount == 0
+        staged.recordCount == 12
+
+        when: "取り出して登録"
+        def result = takeAndImport(staged.token)
+
+        then: "再解析せずに全件が同じ内容で登録される"
+        result.get().importedCount() == 12
+        savedRecords*.title == (1..12).collect { "本${it}" }
+        savedRecords.every { it.author == null && it.readingStatus == ReadingStatus.READING && it.currentPage == 10 }
+        savedRecords.every { it.summary == "概要\n改行あり" && it.rating == null }
+    }
+
+    def "stage/take - IDで更新する場合は件数の見込みを求め、一時ファイルから読み出したIDで既存の読書記録を更新する"() {
+        given: "ID 1〜3 が登録済み"
+        def existing = (1L..3L).collect { new ReadingRecord(id: it, title: "旧${it}", readingStatus: ReadingStatus.UNREAD) }
+        mockRepository.findIdsByIdIn(_) >> { List args -> args[0].findAll { it <= 3L }.toList() }
+        mockRepository.findAllById(_) >> { List args -> existing.findAll { it.id in args[0] } }
+
+        when: "しきい値を超えるCSVファイルをIDで更新する方法で保持"
+        def staged = importStagingService.stage(csvFile(12), ImportMode.UPSERT_BY_ID)
+
+        then: "一時ファイルへ退避され、件数の見込みが求められる"
+        staged.spilled
+        staged.importMode == ImportMode.UPSERT_BY_ID
+        staged.plannedCounts == new ImportCounts(9, 3, 0)
+
+        when: "取り出して登録"
+        def result = takeAndImport(staged.token)
+
+        then: "既存の3件は内容が更新され、残りは新しいIDで登録される"
+        result.get().importedCount() == 9
+        result.get().updatedCount() == 3
+        existing*.title == ["本1", "本2", "本3"]
+        existing.every { it.readingStatus == ReadingStatus.READING && it.updatedAt != null }
+        savedRecords*.title == (4..12).collect { "本${it}" }
+        savedRecords.every { it.id == null }
+    }
+
+    def "take - 同じトークンでは1回しか取り出せない"() {
+        given: "保持したデータ"
+        def staged = importStagingService.stage(csvFile(2))
+
+        expect: "1回目は取り出せて管理対象から外れ、2回目は空が返される"
+        importStagingService.take(staged.token).get().is(staged)
+        importStagingService.sessionCount == 0
+        importStagingService.take(staged.token).isEmpty()
+        importStagingService.take(null).isEmpty()
+    }
+
+    def "take - 保持期間を過ぎたデータは取り出せず、一時ファイルも削除する"() {
+        given: "一時ファイルへ退避したデータ"
+        def staged = importStagingService.stage(csvFile(12))
+        def spillFile = staged.@spillFile as Path
+
+        when: "保持期間を過ぎてから取り出す"
+        now = now.plus(Duration.ofMinutes(31))
+        def result = importStagingService.take(staged.token)
+
+        then: "取り出せない"
+        result.isEmpty()
+        !Files.exists(spillFile)
+    }
+
+    def "evictExpired - 保持期間を過ぎたデータを破棄する"() {
+        given: "時刻をずらして保持したデータ"
+        importStagingService.stage(csvFile(1))
+        now = now.plus(Duration.ofMinutes(20))
+        def newer = importStagingService.stage(csvFile(1))
+
+        when: "最初のデータの保持期間が過ぎてから破棄処理を実行"
+        now = now.plus(Duration.ofMinutes(15))
+        importStagingService.evictExpired()
+
+        then: "期限切れのデータだけが破棄される"
+        importStagingService.sessionCount == 1
+        importStagingService.take(newer.token).isPresent()
+    }
+
+    def "stage - 保持数の上限を超えた場合は古いものから破棄する"() {
+        given: "上限数まで保持したデータ"
+        def first = importStagingService.stage(csvFile(1))
+        importStagingService.stage(csvFile(1))
+        importStagingService.stage(csvFile(1))
+
+        when: "上限を超えて保持"
+        def latest = importStagingService.stage(csvFile(1))
+
+        then: "最も古いデータが破棄される"
+        importStagingService.sessionCount == 3
+        importStagingService.take(first.token).isEmpty()
+        importStagingService.take(latest.token).isPresent()
+    }
+
+    def "stage - メモリ保持件数の上限を超えた場合は古いものから破棄する"() {
+        given: "保持数の上限が十分大きいサービスで、メモリ保持件数の上限（20件）まで保持したデータ"
+        importStagingService = new ImportStagingService(importStagingService.readingRecordService,
+                Duration.ofMinutes(30), 10, 5, 20, Long.MAX_VALUE, Long.MAX_VALUE, clock)
+        def first = importStagingService.stage(csvFile(5))
+        def second = importStagingService.stage(csvFile(5))
+        importStagingService.stage(csvFile(5))
+        importStagingService.stage(csvFile(5))
+
+        when: "上限を超えて保持"
+        importStagingService.stage(csvFile(1))
+
+        then: "上限に収まるまで古いものから破棄される"
+        importStagingService.sessionCount == 4
+        importStagingService.take(first.token).isEmpty()
+        importStagingService.take(second.token).isPresent()
+    }
+
+    def "discard - 保持したデータを登録せずに破棄する"() {
+        given: "一時ファイルへ退避したデータ"
+        def staged = importStagingService.stage(csvFile(12))
+
+        when: "破棄"
+        importStagingService.discard(staged.token)
+
+        then: "取り出せなくなる"
+        importStagingService.take(staged.token).isEmpty()
+        importStagingService.sessionCount == 0
+    }
+
+    def "stage - gzip圧縮されたCSV（.csv.gz）は読み込みながら展開して保持する"() {
+        when: "gzip圧縮したCSVファイルを保持"
+        def staged = importStagingService.stage(gzipCsvFile(3))
+
+        then: "圧縮していない場合と同じ内容で保持される"
+        staged.recordCount == 3
+        staged.preview*.title == ["本1", "本2", "本3"]
+        staged.preview[0].summary == "概要\n改行あり"
+    }
+
+    def "stage - 展開後のサイズが上限を超えた場合は途中で中止し、何も保持しない"() {
+        given: "展開後のサイズの上限が1KBのサービスと、1文字を繰り返した圧縮率の高いCSV"
+        importStagingService = createService(importStagingService.readingRecordService, 1024, Long.MAX_VALUE)
+        def csv = "タイトル,著者\n" + ("a" * 10_000_000) + ",著者\n"
+        def file = new MockMultipartFile("csvFile", "bomb.csv.gz", "application/gzip", gzip(csv))
+
+        when: "保持"
+        importStagingService.stage(file)
+
+        then: "上限超過の例外が投げられ、保持されない"
+        def e = thrown(ImportLimitExceededException)
+        e.message.contains("1024バイト")
+        file.size < 20_000
+        importStagingService.sessionCount == 0
+    }
+
+    def "stage - 件数が上限を超えた場合は途中で中止し、一時ファイルも削除する"() {
+        given: "件数の上限が10件のサービス"
+        importStagingService = createService(importStagingService.readingRecordService, Long.MAX_VALUE, 10)
+        def tempFiles = {
+            Files.list(Path.of(System.getProperty("java.io.tmpdir"))).withCloseable { files ->
+                files.filter { it.fileName.toString().startsWith("readrico-import-") }.count()
+            }
+        }
+        def before = tempFiles()
+
+        when: "一時ファイルへ退避する件数を含む11件のCSVを保持"
+        importStagingService.stage(gzipCsvFile(11))
+
+        then: "上限超過の例外が投げられ、保持されない"
+        def e = thrown(ImportLimitExceededException)
+        e.message.contains("10件")
+        importStagingService.sessionCount == 0
+        tempFiles() == before
+    }
+
+    def "stage - 途中で途切れたgzipは読み込みエラーとし、途中までの内容を保持しない"() {
+        given: "末尾を切り詰めた.csv.gzファイル"
+        def bytes = gzipCsvFile(100).bytes
+        def file = new MockMultipartFile("csvFile", "books.csv.gz", "application/gzip",
+                Arrays.copyOf(bytes, bytes.length.intdiv(2)))
+
+        when: "保持"
+        importStagingService.stage(file)
+
+        then: "IOExceptionが投げられ、保持されない"
+        thrown(IOException)
+        importStagingService.sessionCount == 0
+    }
+
+    /**
+     * 一括登録ジョブと同じ手順で、取り出したデータを登録して破棄する
+     */
+    private Optional<CsvImportResult> takeAndImport(String token) {
+        importStagingService.take(token).map { staged ->
+            try {
+                staged.openRecords().withCloseable { records ->
+                    importStagingService.readingRecordService.importRecords(records.iterator(), staged.importMode,
+                            ImportProgress.NONE)
+                }
+            } finally {
+                staged.discard()
+            }
+        }
+    }
+
+    ImportStagingService createService(ReadingRecordService readingRecordService, long maxInflatedBytes, long maxRows) {
+        new ImportStagingService(readingRecordService, Duration.ofMinutes(30), 3, 5, 20, maxInflatedBytes, maxRows, clock)
+    }
+
+    private static MockMultipartFile gzipCsvFile(int rows) {
+        def file = csvFile(rows)
+        return new MockMultipartFile("csvFile", "books.csv.gz", "application/gzip", gzip(new String(file.bytes, StandardCharsets.UTF_8)))
+    }
+
+    private static byte[] gzip(String text) {
+        def bytes = new ByteArrayOutputStream()
+        new GZIPOutputStream(bytes).withCloseable { it.write(text.getBytes(StandardCharsets.UTF_8)) }
+        return bytes.toByteArray()
+    }
+
+    private static MockMultipartFile csvFile(int rows) {
+        def csv = new StringBuilder("ID,タイトル,著者,読書状態,現在ページ,総ページ数,評価,概要\n")
+        (1..rows).each { csv.append("${it},本${it},,読書中,10,100,,\"概要\n改行あり\"\n") }
+        return new MockMultipartFile("csvFile", "books.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8))
+    }
+}
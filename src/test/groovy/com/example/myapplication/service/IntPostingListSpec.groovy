@@ -0,0 +1,64 @@
+package com.example.myapplication.service
+
+import spock.lang.Specification
+
+/**
+ * IntPostingListのテストクラス
+ * 昇順のint配列での追加・削除・まとめての削除と、積集合をテストする
+ */
+class IntPostingListSpec extends Specification {
+
+    def "add - 順序に関わらず昇順・重複なしで保持する"() {
+        given:
+        def list = new IntPostingList()
+
+        when: "順不同・重複ありで追加"
+        [5, 1, 9, 3, 5, 1, 20, 7].each { list.add(it) }
+
+        then: "昇順・重複なし"
+        list.toArray() == [1, 3, 5, 7, 9, 20] as int[]
+        list.contains(9)
+        !list.contains(2)
+    }
+
+    def "remove - 削除しても昇順を保ち、大きく減った場合は配列を縮める"() {
+        given: "100件のリスト"
+        def list = new IntPostingList()
+        (0..<100).each { list.add(it) }
+
+        when: "偶数以外と10以上を削除"
+        (0..<100).findAll { it % 2 == 1 || it >= 10 }.each { list.remove(it) }
+        list.remove(1000)
+
+        then:
+        list.toArray() == [0, 2, 4, 6, 8] as int[]
+        list.size() == 5
+    }
+
+    def "removeAll - 指定した集合に含まれる文書番号をまとめて削除する"() {
+        given: "100件のリスト"
+        def list = new IntPostingList()
+        (0..<100).each { list.add(it) }
+        def removed = new BitSet()
+        (0..<100).findAll { it % 3 != 0 }.each { removed.set(it) }
+        removed.set(500)
+
+        when:
+        list.removeAll(removed)
+
+        then: "残りは昇順のまま"
+        list.toArray() == (0..<100).findAll { it % 3 == 0 } as int[]
+        list.size() == 34
+    }
+
+    def "intersect - 積集合を昇順で返す"() {
+        given:
+        def a = new IntPostingList()
+        def b = new IntPostingList()
+        [1, 3, 5, 7].each { a.add(it) }
+        [3, 4, 5, 8].each { b.add(it) }
+
+        expect:
+        a.intersect(b).toArray() == [3, 5] as int[]
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.myapplication.service
+
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * ParallelCsvRowMapperのテストクラス
+ * 閾値までの逐次変換、それ以降の並列変換と、読み込み順・行番号の維持をテストする
+ */
+class ParallelCsvRowMapperSpec extends Specification {
+
+    ParallelCsvRowMapper mapper
+
+    def cleanup() {
+        mapper?.shutdown()
+    }
+
+    def "map - 並列に変換しても読み込み順・行番号どおりに結果を渡す"() {
+        given: "閾値10行・7行ずつ変換するマッパーと1000行"
+        mapper = new ParallelCsvRowMapper(true, 10, 7, 4)
+        def rows = (0..<rowCount).collect { ["row${it + 1}"] as String[] }
+        def results = []
+        def threads = ConcurrentHashMap.newKeySet()
+
+        when: "変換"
+        mapper.map(reader(rows), { long rowNumber, String[] row ->
+            threads << Thread.currentThread()
+            // 後の行ほど早く終わるようにして、完了順が入れ替わっても順序が保たれることを確認する
+            Thread.sleep(rowNumber % 3)
+            "${rowNumber}:${row[0]}".toString()
+        }, { results << it })
+
+        then: "全ての行が元の順に、正しい行番号で渡される"
+        results == (0..<rowCount).collect { "${it + 1}:row${it + 1}".toString() }
+
+        and: "閾値を超えた分は呼び出し元以外のスレッドで変換される"
+        threads.any { it != Thread.currentThread() } == (rowCount > 10)
+
+        where:
+        rowCount << [0, 5, 10, 11, 17, 1000]
+    }
+
+    def "map - 無効な場合は全て呼び出し元のスレッドで変換する"() {
+        given:
+        mapper = new ParallelCsvRowMapper(false, 0, 7, 4)
+        def rows = (1..100).collect { ["row${it}"] as String[] }
+        def threads = ConcurrentHashMap.newKeySet()
+        def results = []
+
+        when:
+        mapper.map(reader(rows), { long rowNumber, String[] row ->
+            threads << Thread.currentThread()
+            rowNumber
+        }, { results << it })
+
+        then:
+        !mapper.isEnabled()
+        threads == [Thread.currentThread()] as Set
+        results == (1L..100L).toList()
+    }
+
+    def "map - 変換中の例外は呼び出し元へ伝わる"() {
+        given:
+        mapper = new ParallelCsvRowMapper(true, 0, 5, 2)
+        def rows = (1..50).collect { ["row${it}"] as String[] }
+
+        when:
+        mapper.map(reader(rows), { long rowNumber, String[] row ->
+            if (rowNumber == 23) {
+                throw new IllegalStateException("row 23")
+            }
+            rowNumber
+        }, {})
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "row 23"
+    }
+
+    private static ParallelCsvRowMapper.RowReader reader(List<String[]> rows) {
+        def iterator = rows.iterator()
+        return { iterator.hasNext() ? iterator.next() : null } as ParallelCsvRowMapper.RowReader
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordRepository
+import com.example.myapplication.status.ReadingStatus
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.LocalDateTime
+import java.time.ZoneId
+import java.time.ZonedDateTime
+
+/**
+ * ReadingProgressBufferのテストクラス
+ * H2データベースに対して現在ページの報告をまとめて書き込み、書き込む列・読了への変更・書き込み後の反映・破棄をテストする
+ */
+// Spock 2.3はSpring 6では@ContextConfigurationの有無でSpring連携を判定するため明示する
+@ContextConfiguration
+@DataJpaTest
+// 書き込みのトランザクションがコミットされた結果を確認するため、テストメソッドはトランザクション外で実行する
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadingProgressBufferSpec extends Specification {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 10, 0)
+
+    @Autowired
+    ReadingRecordRepository readingRecordRepository
+
+    @Autowired
+    JdbcTemplate jdbcTemplate
+
+    @Autowired
+    PlatformTransactionManager transactionManager
+
+    ReadingStatusCounter mockCounter = Mock()
+    ReadingRecordCache mockCache = Mock()
+    ReadingRecordSearchIndex mockSearchIndex = Mock()
+    ReadingRecordDataVersion dataVersion = new ReadingRecordDataVersion()
+
+    ReadingProgressBuffer progressBuffer
+
+    def setup() {
+        def clock = Clock.fixed(ZonedDateTime.of(NOW, ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault())
+        progressBuffer = createBuffer(10_000, clock)
+        readingRecordRepository.deleteAllInBatch()
+    }
+
+    def cleanup() {
+        readingRecordRepository.deleteAllInBatch()
+    }
+
+    ReadingProgressBuffer createBuffer(int maxPending, Clock clock) {
+        new ReadingProgressBuffer(readingRecordRepository, jdbcTemplate, new TransactionTemplate(transactionManager),
+                mockCounter, mockCache, mockSearchIndex, dataVersion, maxPending, clock)
+    }
+
+    ReadingRecord saveRecord(Map properties) {
+        readingRecordRepository.saveAndFlush(new ReadingRecord([title: "本", readingStatus: ReadingStatus.READING,
+                                                                currentPage: 10, totalPages: 300, summary: "あらすじ",
+                                                                createdAt: NOW.minusDays(1), updatedAt: NOW.minusDays(1)] + properties))
+    }
+
+    def "flush - 同じ読書記録の報告は最新の値だけを、現在ページと更新日時だけ書き込む"() {
+        given: "読書中の読書記録への複数回の報告"
+        def saved = saveRecord(title: "途中の本")
+        progressBuffer.submit(saved.id, 20)
+        progressBuffer.submit(saved.id, 35)
+        progressBuffer.submit(saved.id, 30)
+
+        when: "書き込む"
+        def written = progressBuffer.flush()
+
+        then: "最後の報告の現在ページと更新日時だけが変わる"
+        written == 1
+        progressBuffer.pendingCount == 0
+        def stored = readingRecordRepository.findById(saved.id).get()
+        stored.currentPage == 30
+        stored.updatedAt == NOW
+        stored.readingStatus == ReadingStatus.READING
+        stored.title == "途中の本"
+        stored.summary == "あらすじ"
+        stored.createdAt == NOW.minusDays(1)
+
+        and: "キャッシュ・検索インデックスへ反映し、読書状態の件数は変わらない"
+        1 * mockCache.evictRecord(saved.id)
+        ReadingStatus.values().each { 1 * mockCache.evictPages(it) }
+        1 * mockSearchIndex.update([saved.id], null, NOW)
+        0 * mockCounter.changed(*_)
+    }
+
+    def "flush - 現在ページが総ページ数以上になった読書記録は読了にする"() {
+        given: "総ページ数に達する報告・超える報告・達しない報告・総ページ数が未設定の報告"
+        def reached = saveRecord(title: "読み終えた本", readingStatus: ReadingStatus.UNREAD)
+        def exceeded = saveRecord(title: "超えた本")
+        def reading = saveRecord(title: "途中の本")
+        def unknownTotal = saveRecord(title: "総ページ数なし", totalPages: null)
+        progressBuffer.submit(reached.id, 300)
+        progressBuffer.submit(exceeded.id, 305)
+        progressBuffer.submit(reading.id, 299)
+        progressBuffer.submit(unknownTotal.id, 1000)
+
+        when: "書き込む"
+        progressBuffer.flush()
+
+        then: "総ページ数以上になった読書記録だけが読了になる"
+        readingRecordRepository.findAllById([reached.id, exceeded.id, reading.id, unknownTotal.id])
+                .collectEntries { [(it.title): it.readingStatus] } ==
+                ["読み終えた本": ReadingStatus.COMPLETED, "超えた本": ReadingStatus.COMPLETED,
+                 "途中の本": ReadingStatus.READING, "総ページ数なし": ReadingStatus.READING]
+
+        and: "読書状態の件数と検索インデックスに反映される"
+        1 * mockCounter.changed(ReadingStatus.UNREAD, ReadingStatus.COMPLETED)
+        1 * mockCounter.changed(ReadingStatus.READING, ReadingStatus.COMPLETED)
+        1 * mockSearchIndex.update({ it as Set == [reached.id, exceeded.id] as Set }, ReadingStatus.COMPLETED, NOW)
+        1 * mockSearchIndex.update({ it as Set == [reading.id, unknownTotal.id] as Set }, null, NOW)
+    }
+
+    def "flush - 読了済みの読書記録は件数を変えず、存在しない読書記録への報告は無視する"() {
+        given:
+        def completed = saveRecord(readingStatus: ReadingStatus.COMPLETED, currentPage: 300)
+        progressBuffer.submit(completed.id, 310)
+        progressBuffer.submit(-1L, 50)
+
+        when:
+        def written = progressBuffer.flush()
+
+        then:
+        written == 1
+        readingRecordRepository.findById(completed.id).get().currentPage == 310
+        0 * mockCounter.changed(*_)
+    }
+
+    def "flush - 読み込んだ後に他の更新があった読書記録は書き込まず、次回に読み込み直して書き込む"() {
+        given: "読み込んだ直後に同じトランザクション内で別の更新（バージョンを進める）が入るリポジトリ"
+        def saved = saveRecord(title: "編集中の本")
+        def interfering = [findProgressStatesByIdIn: { Collection<Long> ids ->
+            def states = readingRecordRepository.findProgressStatesByIdIn(ids)
+            jdbcTemplate.update("UPDATE reading_record SET title = '別の画面で変更', version = version + 1 WHERE id = ?", saved.id)
+            states
+        }] as ReadingRecordRepository
+        def buffer = new ReadingProgressBuffer(interfering, jdbcTemplate, new TransactionTemplate(transactionManager),
+                mockCounter, mockCache, mockSearchIndex, dataVersion, 10_000, Clock.systemDefaultZone())
+        buffer.submit(saved.id, 50)
+
+        when: "書き込む"
+        def written = buffer.flush()
+
+        then: "バージョンが一致しないため書き込まれず、書き込み待ちに戻される"
+        written == 0
+        buffer.pendingCount == 1
+        with(readingRecordRepository.findById(saved.id).get()) {
+            title == "別の画面で変更"
+            currentPage == 10
+        }
+
+        when: "次回に書き込む"
+        progressBuffer.submit(saved.id, 50)
+        progressBuffer.flush()
+
+        then: "他の更新を上書きせずに現在ページだけが書き込まれ、バージョンが進む"
+        with(readingRecordRepository.findById(saved.id).get()) {
+            title == "別の画面で変更"
+            currentPage == 50
+            version == 2L
+        }
+    }
+
+    def "flush - 書き込み待ちがなければDBにもキャッシュにもアクセスしない"() {
+        given:
+        def versionBefore = dataVersion.current()
+
+        when:
+        def written = progressBuffer.flush()
+
+        then:
+        written == 0
+        dataVersion.current() == versionBefore
+        0 * mockCache._
+    }
+
+    def "submit - 現在ページが負の場合は受け付けない"() {
+        when:
+        progressBuffer.submit(1L, -1)
+
+        then:
+        thrown(IllegalArgumentException)
+        progressBuffer.pendingCount == 0
+    }
+
+    def "submit - 書き込み待ちが上限に達した場合は、先に書き込んでから受け付ける"() {
+        given: "上限2件のバッファと書き込み待ちの2件"
+        def buffer = createBuffer(2, Clock.systemDefaultZone())
+        def records = (1..3).collect { saveRecord(title: "本${it}") }
+        buffer.submit(records[0].id, 50)
+        buffer.submit(records[1].id, 60)
+
+        when: "書き込み待ちの読書記録への報告と新しい読書記録への報告"
+        buffer.submit(records[1].id, 70)
+        def pendingBefore = buffer.pendingCount
+        buffer.submit(records[2].id, 80)
+
+        then: "新しい読書記録の報告の前に書き込まれる"
+        pendingBefore == 2
+        buffer.pendingCount == 1
+        readingRecordRepository.findAllById(records*.id).collectEntries { [(it.title): it.currentPage] } ==
+                ["本1": 50, "本2": 70, "本3": 10]
+    }
+
+    def "discardPendingAfter - 処理が成功した場合は書き込み待ちの報告を書き込まずに破棄する"() {
+        given: "書き込み待ちの報告"
+        def saved = saveRecord(title: "途中の本")
+        progressBuffer.submit(saved.id, 50)
+
+        when: "処理を実行"
+        def result = progressBuffer.discardPendingAfter { "restored" }
+
+        then: "処理の戻り値が返され、報告は破棄される"
+        result == "restored"
+        progressBuffer.pendingCount == 0
+        progressBuffer.flush() == 0
+        readingRecordRepository.findById(saved.id).get().currentPage == 10
+    }
+
+    def "discardPendingAfter - 処理が例外で終わった場合は書き込み待ちの報告を残す"() {
+        given: "書き込み待ちの報告"
+        def saved = saveRecord(title: "途中の本")
+        progressBuffer.submit(saved.id, 50)
+
+        when: "失敗する処理を実行"
+        progressBuffer.discardPendingAfter { throw new IllegalStateException("restore failed") }
+
+        then: "例外が伝わり、報告は残る"
+        thrown(IllegalStateException)
+        progressBuffer.pendingCount == 1
+    }
+
+    def "shutdown - 終了時に書き込み待ちの報告を書き込む"() {
+        given:
+        def saved = saveRecord([:])
+        progressBuffer.submit(saved.id, 123)
+
+        when:
+        progressBuffer.shutdown()
+
+        then:
+        readingRecordRepository.findById(saved.id).get().currentPage == 123
+        progressBuffer.pendingCount == 0
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordListItem
+import com.example.myapplication.status.ReadingStatus
+import com.github.benmanes.caffeine.cache.Ticker
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.function.Function
+import java.util.function.Supplier
+
+/**
+ * ReadingRecordCacheのテストクラス
+ * 読み取りキャッシュの保持・有効期限・件数上限・破棄・統計情報をテストする
+ */
+class ReadingRecordCacheSpec extends Specification {
+
+    // テスト用の時刻（ナノ秒）
+    long nanos = 0L
+    Ticker ticker = { nanos } as Ticker
+
+    ReadingRecordCache createCache(long maxRecords = 10, long maxPages = 10) {
+        new ReadingRecordCache(true, maxRecords, maxPages, Duration.ofMinutes(10), ticker, Runnable::run)
+    }
+
+    def "getRecord - 2回目以降は読み込み処理を呼ばずにキャッシュから返す"() {
+        given: "キャッシュと読み込み処理"
+        def cache = createCache()
+        def record = new ReadingRecord(id: 1L, title: "テスト本")
+        Function<Long, Optional<ReadingRecord>> loader = Mock()
+
+        when: "同じIDで2回取得"
+        def first = cache.getRecord(1L, loader)
+        def second = cache.getRecord(1L, loader)
+
+        then: "読み込みは1回だけ"
+        1 * loader.apply(1L) >> Optional.of(record)
+        first.get() == record
+        second.get() == record
+    }
+
+    def "getRecord - 存在しない読書記録はキャッシュしない"() {
+        given: "キャッシュと読み込み処理"
+        def cache = createCache()
+        Function<Long, Optional<ReadingRecord>> loader = Mock()
+
+        when: "存在しないIDで2回取得"
+        def first = cache.getRecord(999L, loader)
+        def second = cache.getRecord(999L, loader)
+
+        then: "毎回読み込まれ、空のOptionalが返される"
+        2 * loader.apply(999L) >> Optional.empty()
+        first.isEmpty()
+        second.isEmpty()
+    }
+
+    def "getRecord - 有効期限を過ぎると再度読み込む"() {
+        given: "キャッシュと読み込み処理"
+        def cache = createCache()
+        Function<Long, Optional<ReadingRecord>> loader = Mock()
+
+        when: "取得後、有効期限を過ぎてから再度取得"
+        cache.getRecord(1L, loader)
+        nanos += TimeUnit.MINUTES.toNanos(11)
+        cache.getRecord(1L, loader)
+
+        then: "2回読み込まれる"
+        2 * loader.apply(1L) >> Optional.of(new ReadingRecord(id: 1L))
+    }
+
+    def "getRecord - 件数上限を超えると古いものから破棄される"() {
+        given: "上限3件のキャッシュ"
+        def cache = createCache(3)
+
+        when: "10件読み込む"
+        (1L..10L).each { id -> cache.getRecord(id, { Optional.of(new ReadingRecord(id: it)) }) }
+        cache.cleanUp()
+        def stats = cache.getStatistics().find { it.name() == ReadingRecordCache.RECORDS }
+
+        then: "上限件数まで減り、破棄件数が記録される"
+        stats.size() <= 3
+        stats.evictionCount() >= 7
+    }
+
+    def "getRecord - 読み込み中に破棄された場合、読み込んだ値は保持しない"() {
+        given: "キャッシュ"
+        def cache = createCache()
+        int loadCount = 0
+        def loader = { Long id ->
+            loadCount++
+            // 読み込み処理の途中で同じ読書記録が更新・破棄される
+            cache.evictRecord(id)
+            Optional.of(new ReadingRecord(id: id, title: "更新前"))
+        }
+
+        when: "2回取得"
+        cache.getRecord(1L, loader)
+        cache.getRecord(1L, loader)
+
+        then: "破棄された読み込み結果は使われず、再度読み込まれる"
+        loadCount == 2
+    }
+
+    def "getRecord - 同じIDの読み込みが重なった場合は先の読み込みの完了を待つ"() {
+        given: "読み込みを止めておけるキャッシュ"
+        def cache = createCache()
+        def loading = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        int loadCount = 0
+        def loader = { Long id ->
+            loadCount++
+            loading.countDown()
+            release.await(10, TimeUnit.SECONDS)
+            Optional.of(new ReadingRecord(id: id))
+        }
+
+        when: "1つ目の読み込み中に別のスレッドから同じIDを取得"
+        def first = CompletableFuture.supplyAsync { cache.getRecord(1L, loader) }
+        loading.await(10, TimeUnit.SECONDS)
+        def second = CompletableFuture.supplyAsync { cache.getRecord(1L, loader) }
+        release.countDown()
+
+        then: "読み込みは1回だけで、両方に同じ読書記録が返される"
+        first.get(10, TimeUnit.SECONDS).get().is(second.get(10, TimeUnit.SECONDS).get())
+        loadCount == 1
+    }
+
+    def "getRecord - 読み込みに失敗した場合は元の例外を投げ、結果を保持しない"() {
+        given: "キャッシュ"
+        def cache = createCache()
+
+        when: "読み込みに失敗"
+        cache.getRecord(1L, { throw new IllegalStateException("DB error") })
+
+        then: "元の例外が投げられる"
+        thrown(IllegalStateException)
+        cache.getStatistics().find { it.name() == ReadingRecordCache.RECORDS }.size() == 0L
+    }
+
+    def "getPage - 読書状態とカーソルごとにキャッシュし、evictPagesで該当の読書状態だけ破棄する"() {
+        given: "キャッシュと読み込み処理"
+        def cache = createCache()
+        Supplier<ReadingRecordPage> readingLoader = Mock()
+        Supplier<ReadingRecordPage> completedLoader = Mock()
+
+        when: "各ページを2回ずつ取得"
+        2.times {
+            cache.getPage(ReadingRecordListQuery.of(ReadingStatus.READING), null, readingLoader)
+            cache.getPage(ReadingRecordListQuery.of(ReadingStatus.READING), "cursor", readingLoader)
+            cache.getPage(ReadingRecordListQuery.of(ReadingStatus.COMPLETED), null, completedLoader)
+        }
+
+        then: "ページごとに1回だけ読み込まれる"
+        2 * readingLoader.get() >> new ReadingRecordPage([], null)
+        1 * completedLoader.get() >> new ReadingRecordPage([], null)
+
+        when: "読書中の一覧を破棄して再度取得"
+        cache.evictPages(ReadingStatus.READING)
+        cache.getPage(ReadingRecordListQuery.of(ReadingStatus.READING), null, readingLoader)
+        cache.getPage(ReadingRecordListQuery.of(ReadingStatus.COMPLETED), null, completedLoader)
+
+        then: "読書中の一覧だけ再読み込みされる"
+        1 * readingLoader.get() >> new ReadingRecordPage([], null)
+        0 * completedLoader.get()
+    }
+
+    def "getPage - 読み込み中に破棄された場合、古いページは以降の取得で使われない"() {
+        given: "キャッシュ"
+        def cache = createCache()
+        def stalePage = new ReadingRecordPage([new ReadingRecordListItem(1L, "古い本", null, ReadingStatus.READING, 0, 100, 0, null, null, null)], null)
+        def freshPage = new ReadingRecordPage([], null)
+
+        when: "読み込み処理の途中で同じ読書状態の一覧が破棄される"
+        cache.getPage(ReadingRecordListQuery.of(ReadingStatus.READING), null, {
+            cache.evictPages(ReadingStatus.READING)
+            stalePage
+        })
+        def result = cache.getPage(ReadingRecordListQuery.of(ReadingStatus.READING), null, { freshPage })
+
+        then: "破棄後の取得では再読み込みしたページが返される"
+        result.is(freshPage)
+    }
+
+    def "evictAll - 全てのキャッシュを破棄する"() {
+        given: "読書記録と一覧ページを保持したキャッシュ"
+        def cache = createCache()
+        cache.getRecord(1L, { Optional.of(new ReadingRecord(id: 1L)) })
+        cache.getPage(ReadingRecordListQuery.of(ReadingStatus.UNREAD), null, { new ReadingRecordPage([], null) })
+
+        when: "全て破棄"
+        cache.evictAll()
+
+        then: "どちらのキャッシュも空になる"
+        cache.getStatistics().every { it.size() == 0L }
+    }
+
+    def "getStatistics - ヒット数・ミス数とヒット率を返す"() {
+        given: "キャッシュ"
+        def cache = createCache()
+
+        when: "1回のミスと3回のヒット"
+        4.times { cache.getRecord(1L, { Optional.of(new ReadingRecord(id: 1L)) }) }
+        def stats = cache.getStatistics().find { it.name() == ReadingRecordCache.RECORDS }
+
+        then: "統計情報に反映される"
+        stats.hitCount() == 3L
+        stats.missCount() == 1L
+        stats.hitRatePercent() == 75
+        stats.size() == 1L
+    }
+
+    def "無効な場合 - 毎回読み込み処理を呼び、何も保持しない"() {
+        given: "無効なキャッシュ"
+        def cache = new ReadingRecordCache(false, 10, 10, Duration.ofMinutes(10))
+        Function<Long, Optional<ReadingRecord>> loader = Mock()
+
+        when: "同じIDで2回取得"
+        cache.getRecord(1L, loader)
+        cache.getRecord(1L, loader)
+
+        then: "毎回読み込まれる"
+        2 * loader.apply(1L) >> Optional.of(new ReadingRecord(id: 1L))
+        cache.getStatistics().every { it.size() == 0L }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordRepository
+import com.example.myapplication.repository.ReadingRecordTombstoneRepository
+import com.example.myapplication.status.ReadingStatus
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+
+/**
+ * ReadingRecordChangeLogのテストクラス
+ * H2データベースに対して削除の記録・差分の起点の判定・保持期間を過ぎた記録の整理をテストする
+ */
+// Spock 2.3はSpring 6では@ContextConfigurationの有無でSpring連携を判定するため明示する
+@ContextConfiguration
+@DataJpaTest
+class ReadingRecordChangeLogSpec extends Specification {
+
+    @Autowired
+    ReadingRecordTombstoneRepository tombstoneRepository
+
+    @Autowired
+    ReadingRecordRepository readingRecordRepository
+
+    @Autowired
+    JdbcTemplate jdbcTemplate
+
+    @Autowired
+    PlatformTransactionManager transactionManager
+
+    // 時刻を進められる時計
+    LocalDateTime now = LocalDateTime.of(2025, 1, 31, 12, 0)
+    Clock clock = Mock(Clock) {
+        instant() >> { now.toInstant(ZoneOffset.UTC) }
+        getZone() >> ZoneOffset.UTC
+    }
+
+    ReadingRecordChangeLog changeLog
+
+    def setup() {
+        changeLog = new ReadingRecordChangeLog(tombstoneRepository, jdbcTemplate,
+                new TransactionTemplate(transactionManager), Duration.ofSeconds(5), Duration.ofDays(30), clock)
+    }
+
+    List<Long> deletedAfter(LocalDateTime since) {
+        changeLog.streamDeletedAfter(since).withCloseable { it.toList()*.id }
+    }
+
+    def "recordDeletion/streamDeletedAfter - 起点より後に削除した読書記録のIDを削除日時順に返す"() {
+        given: "時刻をずらして3件を削除"
+        def start = now
+        changeLog.recordDeletion(30L)
+        now = now.plusMinutes(1)
+        changeLog.recordDeletion(10L)
+        now = now.plusMinutes(1)
+        changeLog.recordDeletion(20L)
+
+        expect: "起点より後の削除だけが削除日時順に返される"
+        deletedAfter(start.minusSeconds(1)) == [30L, 10L, 20L]
+        deletedAfter(start) == [10L, 20L]
+        deletedAfter(now) == []
+    }
+
+    def "recordDeletionByStatus - 指定した読書状態の読書記録のIDを1文でまとめて記録する"() {
+        given: "読書状態の異なる読書記録"
+        def records = readingRecordRepository.saveAllAndFlush([
+                new ReadingRecord(title: "本1", readingStatus: ReadingStatus.PAUSED),
+                new ReadingRecord(title: "本2", readingStatus: ReadingStatus.READING),
+                new ReadingRecord(title: "本3", readingStatus: ReadingStatus.PAUSED)])
+        def start = now.minusSeconds(1)
+
+        when: "中止の読書記録の削除を記録"
+        def recorded = changeLog.recordDeletionByStatus(ReadingStatus.PAUSED)
+
+        then: "中止の読書記録のIDだけが現在日時で記録される"
+        recorded == 2
+        deletedAfter(start) == [records[0].id, records[2].id]
+        tombstoneRepository.findAll()*.deletedAt.every { it == now }
+    }
+
+    def "highWaterMark - 確定待ちの時間を引いた現在日時を返し、起点より前には戻さない"() {
+        expect:
+        changeLog.highWaterMark(null) == now.minusSeconds(5)
+        changeLog.highWaterMark(now.minusMinutes(1)) == now.minusSeconds(5)
+        changeLog.highWaterMark(now.minusSeconds(1)) == now.minusSeconds(1)
+    }
+
+    def "reset - 削除の記録を破棄し、リセットより前を起点とする差分は出力できなくなる"() {
+        given: "削除の記録"
+        def before = now.minusDays(1)
+        changeLog.recordDeletion(1L)
+
+        expect: "リセット前はどの起点でも出力できる"
+        changeLog.covers(before)
+
+        when: "リセット"
+        changeLog.reset()
+
+        then: "削除の記録はなくなり、リセットより前の起点は範囲外になる"
+        tombstoneRepository.count() == 0L
+        !changeLog.covers(before)
+        changeLog.covers(now)
+    }
+
+    def "purgeExpiredTombstones - 保持期間を過ぎた削除の記録を整理し、その範囲を起点とする差分は出力できなくなる"() {
+        given: "40日前と10日前の削除の記録"
+        def recent = now
+        now = recent.minusDays(40)
+        changeLog.recordDeletion(1L)
+        now = recent.minusDays(10)
+        changeLog.recordDeletion(2L)
+        now = recent
+
+        when: "整理"
+        changeLog.purgeExpiredTombstones()
+
+        then: "保持期間内の記録だけが残り、保持期間より前の起点は範囲外になる"
+        tombstoneRepository.findAll()*.id == [2L]
+        !changeLog.covers(now.minusDays(31))
+        changeLog.covers(now.minusDays(30))
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordRepository
+import com.example.myapplication.status.ReadingStatus
+import jakarta.persistence.EntityManager
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.dao.OptimisticLockingFailureException
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 読書記録の同時更新のテストクラス
+ * H2データベースに対して多数のスレッドから同じ読書記録を更新し、楽観的ロックで更新が失われないことをテストする
+ */
+// Spock 2.3はSpring 6では@ContextConfigurationの有無でSpring連携を判定するため明示する
+@ContextConfiguration
+@DataJpaTest
+// 各スレッドの保存がそれぞれコミットされるよう、テストメソッドはトランザクション外で実行する
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadingRecordConcurrencySpec extends Specification {
+
+    static final int THREADS = 8
+    static final int UPDATES_PER_THREAD = 10
+
+    @Autowired
+    ReadingRecordRepository readingRecordRepository
+
+    @Autowired
+    EntityManager entityManager
+
+    @Autowired
+    PlatformTransactionManager transactionManager
+
+    ReadingRecordService readingRecordService
+
+    def setup() {
+        readingRecordService = ReadingRecordServiceFactory.create(readingRecordRepository,
+                entityManager: entityManager, transactionManager: transactionManager,
+                counter: new ReadingStatusCounter(readingRecordRepository, true),
+                cache: new ReadingRecordCache(true, 100, 100, Duration.ofMinutes(10)))
+        readingRecordRepository.deleteAllInBatch()
+    }
+
+    def cleanup() {
+        readingRecordRepository.deleteAllInBatch()
+    }
+
+    /**
+     * 編集画面と同じく、読み込んだ読書記録の値とバージョンをフォームから受け取った新しいオブジェクトとして保存する
+     */
+    static ReadingRecord editedCopy(ReadingRecord loaded, int currentPage) {
+        new ReadingRecord(id: loaded.id, title: loaded.title, readingStatus: loaded.readingStatus,
+                currentPage: currentPage, totalPages: loaded.totalPages,
+                createdAt: loaded.createdAt, version: loaded.version)
+    }
+
+    def "saveReadingRecord - 多数のスレッドから同じ読書記録を読み込んで更新しても、競合時に再試行すれば更新が失われない"() {
+        given: "1件の読書記録"
+        def saved = readingRecordService.saveReadingRecord(
+                new ReadingRecord(title: "同時に編集される本", readingStatus: ReadingStatus.READING, currentPage: 0, totalPages: 10_000))
+        def pool = Executors.newFixedThreadPool(THREADS)
+        def start = new CountDownLatch(1)
+
+        when: "各スレッドが「読み込み→現在ページを1増やして保存」を繰り返す（競合したら読み込み直す）"
+        def futures = (1..THREADS).collect {
+            pool.submit {
+                start.await()
+                UPDATES_PER_THREAD.times {
+                    for (int attempt = 0; ; attempt++) {
+                        assert attempt < 1_000: "再試行が終わらない（古い読書記録を読み込み続けている）"
+                        def loaded = readingRecordService.getReadingRecordById(saved.id).get()
+                        try {
+                            readingRecordService.saveReadingRecord(editedCopy(loaded, loaded.currentPage + 1))
+                            break
+                        } catch (OptimisticLockingFailureException ignored) {
+                            // 他のスレッドが先に保存したため、読み込み直して再試行する
+                        }
+                    }
+                }
+            }
+        }
+        start.countDown()
+        futures*.get(60, TimeUnit.SECONDS)
+        pool.shutdown()
+
+        then: "全ての更新が反映され、バージョンは更新の回数だけ進む"
+        def stored = readingRecordRepository.findById(saved.id).get()
+        stored.currentPage == THREADS * UPDATES_PER_THREAD
+        stored.version == saved.version + THREADS * UPDATES_PER_THREAD
+    }
+
+    def "saveReadingRecord - 同じバージョンを元にした同時の保存は1件だけが成功し、他は上書きせずに失敗する"() {
+        given: "全スレッドが同じ時点の読書記録を読み込む"
+        def saved = readingRecordService.saveReadingRecord(
+                new ReadingRecord(title: "同時に編集される本", readingStatus: ReadingStatus.READING, currentPage: 0))
+        def loaded = readingRecordService.getReadingRecordById(saved.id).get()
+        def succeeded = Collections.synchronizedList([])
+        def conflicts = new AtomicInteger()
+        def pool = Executors.newFixedThreadPool(THREADS)
+        def start = new CountDownLatch(1)
+
+        when: "各スレッドが異なる現在ページで一斉に保存"
+        def futures = (1..THREADS).collect { int page ->
+            pool.submit {
+                start.await()
+                try {
+                    readingRecordService.saveReadingRecord(editedCopy(loaded, page))
+                    succeeded << page
+                } catch (OptimisticLockingFailureException ignored) {
+                    conflicts.incrementAndGet()
+                }
+            }
+        }
+        start.countDown()
+        futures*.get(60, TimeUnit.SECONDS)
+        pool.shutdown()
+
+        then: "成功した1件の内容だけが保存され、残りは競合として報告される"
+        succeeded.size() == 1
+        conflicts.get() == THREADS - 1
+        def stored = readingRecordRepository.findById(saved.id).get()
+        stored.currentPage == succeeded[0]
+        stored.version == saved.version + 1
+    }
+}
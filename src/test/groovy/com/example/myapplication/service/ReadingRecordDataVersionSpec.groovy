@@ -0,0 +1,56 @@
+package com.example.myapplication.service
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+/**
+ * ReadingRecordDataVersionのテストクラス
+ * 全体のバージョンと読書記録ごとのバージョンの進め方をテストする
+ */
+class ReadingRecordDataVersionSpec extends Specification {
+
+    @Subject
+    ReadingRecordDataVersion dataVersion = new ReadingRecordDataVersion()
+
+    def "increment(ids) - 全体と指定した読書記録のバージョンだけを進める"() {
+        given:
+        def total = dataVersion.current()
+        def changed = dataVersion.current(1L)
+        def other = dataVersion.current(2L)
+
+        when:
+        dataVersion.increment([1L])
+
+        then:
+        dataVersion.current() != total
+        dataVersion.current(1L) != changed
+        dataVersion.current(2L) == other
+    }
+
+    def "increment - 全ての読書記録のバージョンを進め、それ以前の変更と重ならない"() {
+        given: "1件目だけを変更した後のバージョン"
+        dataVersion.increment([1L])
+        def changed = dataVersion.current(1L)
+        def other = dataVersion.current(2L)
+
+        when: "全ての読書記録のバージョンを進める"
+        dataVersion.increment()
+
+        then: "どちらのバージョンもこれまでと異なる"
+        dataVersion.current(1L) != changed
+        dataVersion.current(2L) != other
+
+        when: "その後に1件目だけを変更"
+        def afterAll = dataVersion.current(2L)
+        dataVersion.increment([1L])
+
+        then: "2件目のバージョンは変わらない"
+        dataVersion.current(2L) == afterAll
+        dataVersion.current(1L) != changed
+    }
+
+    def "current - 読書記録のIDが異なればバージョンも異なる"() {
+        expect:
+        dataVersion.current(1L) != dataVersion.current(2L)
+    }
+}
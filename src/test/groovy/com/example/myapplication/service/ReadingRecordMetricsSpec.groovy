@@ -0,0 +1,59 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.status.ReadingStatus
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+/**
+ * ReadingRecordMetricsのテストクラス
+ * CSVの行数・出力サイズ・読書状態ごとの件数のメトリクスをテストする
+ */
+class ReadingRecordMetricsSpec extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    ReadingStatusCounter mockCounter = Mock()
+
+    def "csvRows - 結果ごとの行数をまとめて加算する"() {
+        given:
+        def metrics = new ReadingRecordMetrics(meterRegistry, mockCounter)
+
+        when: "2回分の解析結果を記録"
+        metrics.csvRows(100, 3, 1)
+        metrics.csvRows(50, 0, 2)
+
+        then: "結果ごとに合計される"
+        meterRegistry.get(ReadingRecordMetrics.CSV_ROWS).tag("result", "parsed").counter().count() == 150
+        meterRegistry.get(ReadingRecordMetrics.CSV_ROWS).tag("result", "skipped").counter().count() == 3
+        meterRegistry.get(ReadingRecordMetrics.CSV_ROWS).tag("result", "failed").counter().count() == 3
+    }
+
+    def "exportBytes - 出力サイズの分布を記録する"() {
+        given:
+        def metrics = new ReadingRecordMetrics(meterRegistry, mockCounter)
+
+        when:
+        metrics.exportBytes(1000)
+        metrics.exportBytes(3000)
+
+        then:
+        def summary = meterRegistry.get(ReadingRecordMetrics.CSV_EXPORT_BYTES).summary()
+        summary.count() == 2
+        summary.totalAmount() == 4000
+        summary.max() == 3000
+    }
+
+    def "読書状態ごとの件数 - 参照時にカウンターから取得する"() {
+        given:
+        new ReadingRecordMetrics(meterRegistry, mockCounter)
+
+        when: "読書中の件数を参照"
+        def value = meterRegistry.get(ReadingRecordMetrics.RECORDS).tag("status", "READING").gauge().value()
+
+        then: "カウンターの件数が返される"
+        1 * mockCounter.getCount(ReadingStatus.READING) >> 7L
+        value == 7.0d
+
+        and: "全ての読書状態のゲージが登録される"
+        meterRegistry.get(ReadingRecordMetrics.RECORDS).gauges().size() == ReadingStatus.values().length
+    }
+}
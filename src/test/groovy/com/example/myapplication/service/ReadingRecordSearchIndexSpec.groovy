@@ -0,0 +1,227 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordSearchText
+import com.example.myapplication.status.ReadingStatus
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+
+/**
+ * ReadingRecordSearchIndexのテストクラス
+ * bi-gram転置インデックスによる検索・順位付け・絞り込みと、差分更新をテストする
+ */
+class ReadingRecordSearchIndexSpec extends Specification {
+
+    @Subject
+    ReadingRecordSearchIndex index = new ReadingRecordSearchIndex()
+
+    def base = LocalDateTime.of(2025, 1, 1, 10, 0)
+
+    // DBの代わりに、索引した読書記録のあらすじ・感想を返す
+    Map<Long, ReadingRecord> stored = [:]
+    List<Collection<Long>> loadedIds = []
+    def loader = { Collection<Long> ids ->
+        loadedIds << new ArrayList<>(ids)
+        ids.findResults { stored[it] }.collect { ReadingRecord r ->
+            [getId: { r.id }, getSummary: { r.summary }, getThoughts: { r.thoughts }] as ReadingRecordSearchText
+        }
+    }
+
+    def setup() {
+        index.rebuild([
+                record(1L, "吾輩は猫である", "夏目漱石", ReadingStatus.READING, "猫の視点から描かれた風刺小説", "猫の視点が面白い"),
+                record(2L, "坊っちゃん", "夏目漱石", ReadingStatus.COMPLETED, "青年教師が四国の中学校で奮闘する物語", ""),
+                record(3L, "銀河鉄道の夜", "宮沢賢治", ReadingStatus.UNREAD, "", ""),
+                record(4L, "Java入門", "山田太郎", ReadingStatus.UNREAD, "プログラミングの基礎", "猫の写真が表紙")
+        ].stream())
+    }
+
+    def "search - 日本語の部分文字列で検索できる"() {
+        when: "タイトルの一部で検索"
+        def hits = index.search("銀河鉄道", null, 10, loader)
+
+        then: "一致した読書記録が返される"
+        hits.recordIds() == [3L]
+        hits.totalHits() == 1
+    }
+
+    def "search - 一致した項目の重みで順位付けされる"() {
+        when: "タイトル・あらすじ・感想に含まれる読書記録と、感想だけに含まれる読書記録がある語で検索"
+        def hits = index.search("猫", null, 10, loader)
+
+        then: "タイトルにも含まれる読書記録が先に返される"
+        hits.recordIds() == [1L, 4L]
+    }
+
+    def "search - 空白区切りの検索語は全て含むものだけを返す"() {
+        expect: "著者と本文の両方に一致するものだけ"
+        index.search("夏目漱石 四国", null, 10, loader).recordIds() == [2L]
+        index.search("夏目漱石 宮沢賢治", null, 10, loader).recordIds() == []
+    }
+
+    def "search - 読書状態で絞り込める"() {
+        expect: "指定した読書状態のものだけ"
+        index.search("夏目漱石", ReadingStatus.COMPLETED, 10, loader).recordIds() == [2L]
+        index.search("夏目漱石", null, 10, loader).totalHits() == 2
+    }
+
+    def "search - 同じスコアの場合は更新日時の新しい順"() {
+        expect: "更新日時の新しい坊っちゃんが先"
+        index.search("夏目漱石", null, 10, loader).recordIds() == [2L, 1L]
+    }
+
+    def "search - 1文字の検索語でも検索できる"() {
+        expect: "1文字を含む読書記録が返される"
+        index.search("夜", null, 10, loader).recordIds() == [3L]
+        index.search("視点 夜", null, 10, loader).recordIds() == []
+    }
+
+    def "search - 全角英数字・大文字小文字の違いを区別しない"() {
+        expect: "正規化して一致する"
+        index.search("ｊａｖａ", null, 10, loader).recordIds() == [4L]
+        index.search("JAVA", null, 10, loader).recordIds() == [4L]
+    }
+
+    def "search - bi-gramは全て含むが連続していない場合は一致しない"() {
+        expect: "「猫で」は「猫である」に含まれるが、「教師猫」はどこにも含まれない"
+        index.search("猫で", null, 10, loader).recordIds() == [1L]
+        index.search("教師猫", null, 10, loader).recordIds() == []
+    }
+
+    def "search - 件数の上限を超える場合は上位だけを返し、一致件数は全件数"() {
+        when: "上限1件で検索"
+        def hits = index.search("夏目漱石", null, 1, loader)
+
+        then: "1件だけ返され、一致件数は2件"
+        hits.recordIds() == [2L]
+        hits.totalHits() == 2
+    }
+
+    def "search - 空の検索文字列の場合は何も返さない"() {
+        expect:
+        index.search(query, null, 10, loader).recordIds() == []
+
+        where:
+        query << [null, "", "   "]
+    }
+
+    def "index - 更新した読書記録は新しい内容で検索される"() {
+        when: "タイトルを変更"
+        index.index(record(3L, "風の又三郎", "宮沢賢治", ReadingStatus.READING, "", ""))
+
+        then: "古いタイトルでは見つからず、新しいタイトル・状態で見つかる"
+        index.search("銀河鉄道", null, 10, loader).recordIds() == []
+        index.search("又三郎", ReadingStatus.READING, 10, loader).recordIds() == [3L]
+        index.size() == 4
+    }
+
+    def "remove - 削除した読書記録は検索されない"() {
+        when: "削除してから新しい読書記録を追加"
+        index.remove(1L)
+        index.index(record(5L, "こころ", "夏目漱石", ReadingStatus.UNREAD, "", ""))
+
+        then: "削除したものは見つからず、追加したものは見つかる"
+        index.search("吾輩", null, 10, loader).recordIds() == []
+        index.search("夏目漱石", null, 10, loader).recordIds() as Set == [2L, 5L] as Set
+        index.size() == 4
+    }
+
+    def "search - 3文字以上の検索語であらすじ・感想だけが候補の場合は、本文を読み込んで確認する"() {
+        when: "あらすじだけに含まれる語で検索"
+        def hits = index.search("中学校", null, 10, loader)
+
+        then: "候補だけを読み込んで一致が確認される"
+        hits.recordIds() == [2L]
+        loadedIds == [[2L]]
+    }
+
+    def "search - 本文で確認した結果、連続して含まれない候補は除く"() {
+        given: "「と猫と」のbi-gramを全て含むが、連続しては含まないあらすじ"
+        index.index(record(5L, "犬", "", ReadingStatus.UNREAD, "猫と犬と猫", ""))
+
+        expect:
+        index.search("と猫と", null, 10, loader).totalHits() == 0
+        index.search("犬と猫", null, 10, loader).recordIds() == [5L]
+    }
+
+    def "search - 1〜2文字の検索語とタイトル・著者は本文を読み込まずに判定する"() {
+        given: "空白に挟まれた1文字の語を含む感想"
+        index.index(record(5L, "こころ", "夏目漱石", ReadingStatus.UNREAD, "", "犬 猫"))
+
+        expect:
+        index.search("犬", null, 10, loader).recordIds() == [5L]
+        index.search("視点", null, 10, loader).recordIds() == [1L]
+        index.search("吾輩は猫", null, 10, loader).recordIds() == [1L]
+        loadedIds.isEmpty()
+    }
+
+    def "search - 検索中に削除されて本文を読み込めなかった候補は一致しない"() {
+        given: "DBからは削除済みの読書記録"
+        stored.remove(2L)
+
+        expect:
+        index.search("中学校", null, 10, loader).totalHits() == 0
+    }
+
+    def "index - 更新前のあらすじでは検索されない"() {
+        when: "あらすじを変更"
+        index.index(record(2L, "坊っちゃん", "夏目漱石", ReadingStatus.COMPLETED, "東京に戻る話", ""))
+
+        then: "古いあらすじでは見つからず、新しいあらすじで見つかる"
+        index.search("四国", null, 10, loader).recordIds() == []
+        index.search("東京", null, 10, loader).recordIds() == [2L]
+        index.staleDocumentCount() == 1
+    }
+
+    def "index - 古い文書番号が一定数たまると、まとめて削除して再利用する"() {
+        given: "上限を超える件数を索引"
+        def count = ReadingRecordSearchIndex.PURGE_MIN_STALE_DOCUMENTS
+        (1..count).each { index.index(record(100L + it, "本${it}", "", ReadingStatus.UNREAD, "あらすじ${it}", "")) }
+
+        when: "全て索引し直す"
+        (1..count).each { index.index(record(100L + it, "本${it}", "", ReadingStatus.UNREAD, "概要${it}", "")) }
+
+        then: "古い文書番号は削除され、検索結果にも残らない"
+        index.staleDocumentCount() == 0
+        index.size() == count + 4
+        index.search("あらすじ", null, 10, loader).totalHits() == 0
+        index.search("概要", null, 10, loader).totalHits() == count
+
+        when: "さらに追加"
+        index.index(record(5L, "こころ", "夏目漱石", ReadingStatus.UNREAD, "先生と私", ""))
+
+        then: "空いた文書番号が再利用される"
+        index.search("先生", null, 10, loader).recordIds() == [5L]
+        index.@documents.size() == count * 2 + 4
+    }
+
+    def "clear - 全て削除する"() {
+        when:
+        index.clear()
+
+        then:
+        index.size() == 0
+        index.search("夏目漱石", null, 10, loader).recordIds() == []
+    }
+
+    def "grams - 空白をまたがない重複のないbi-gramに分解する"() {
+        expect:
+        ReadingRecordSearchIndex.grams(text).length == expected
+
+        where:
+        text        | expected
+        ""          | 0
+        "猫"         | 0
+        "猫の"        | 1
+        "猫の 猫の"     | 1
+        "abab"      | 2
+    }
+
+    private ReadingRecord record(Long id, String title, String author, ReadingStatus status,
+                                 String summary, String thoughts) {
+        stored[id] = new ReadingRecord(id: id, title: title, author: author, readingStatus: status, summary: summary,
+                thoughts: thoughts, updatedAt: base.plusMinutes(id == 2L ? 10 : id))
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.repository.ReadingRecordRepository
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import jakarta.persistence.EntityManager
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import spock.mock.DetachedMockFactory
+
+import java.time.Duration
+
+/**
+ * テスト用にReadingRecordServiceを組み立てるファクトリ
+ * 指定しなかった依存関係は、カウンター・キャッシュが無効でメモリ上だけで動作する既定のもので補う
+ *
+ * <pre>
+ * ReadingRecordServiceFactory.create(mockRepository, cache: new ReadingRecordCache(true, 10, 10, Duration.ofMinutes(10)))
+ * </pre>
+ */
+class ReadingRecordServiceFactory {
+
+    private static final Set<String> OVERRIDES = ["entityManager", "transactionManager", "counter", "cache",
+                                                  "searchIndex", "meterRegistry", "mapper", "changeLog",
+                                                  "dataVersion"] as Set
+
+    private static final DetachedMockFactory mockFactory = new DetachedMockFactory()
+
+    static ReadingRecordService create(ReadingRecordRepository repository) {
+        return create([:], repository)
+    }
+
+    /**
+     * @param overrides  既定のものの代わりに使う依存関係（entityManager・transactionManager・counter・cache・searchIndex・
+     *                   meterRegistry・mapper・changeLog・dataVersion）
+     * @param repository 読書記録のリポジトリ
+     */
+    static ReadingRecordService create(Map<String, ?> overrides, ReadingRecordRepository repository) {
+        def unknown = overrides.keySet() - OVERRIDES
+        if (unknown) {
+            throw new IllegalArgumentException("Unknown overrides: ${unknown}")
+        }
+        def counter = overrides.counter ?: new ReadingStatusCounter(repository, false)
+        return new ReadingRecordService(repository,
+                overrides.entityManager ?: mockFactory.Mock(EntityManager),
+                new TransactionTemplate(overrides.transactionManager ?: mockFactory.Mock(PlatformTransactionManager)),
+                counter,
+                overrides.cache ?: new ReadingRecordCache(false, 10, 10, Duration.ofMinutes(10)),
+                overrides.searchIndex ?: new ReadingRecordSearchIndex(),
+                new ReadingRecordMetrics(overrides.meterRegistry ?: new SimpleMeterRegistry(), counter),
+                overrides.mapper ?: new ParallelCsvRowMapper(false, 0, 1, 1),
+                overrides.changeLog ?: mockFactory.Stub(ReadingRecordChangeLog),
+                overrides.dataVersion ?: new ReadingRecordDataVersion())
+    }
+}
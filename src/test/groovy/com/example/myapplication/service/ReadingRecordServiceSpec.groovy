@@ -1,12 +1,28 @@
 package com.example.myapplication.service
 
 import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.entity.ReadingRecordTombstone
+import com.example.myapplication.repository.ReadingRecordListItem
 import com.example.myapplication.repository.ReadingRecordRepository
+import com.example.myapplication.repository.ReadingRecordSearchText
+import com.example.myapplication.repository.ReadingStatusCount
 import com.example.myapplication.status.ReadingStatus
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import jakarta.persistence.EntityManager
+import jakarta.persistence.criteria.CriteriaBuilder
+import jakarta.persistence.criteria.CriteriaQuery
+import jakarta.persistence.criteria.Root
+import org.springframework.dao.OptimisticLockingFailureException
+import org.springframework.data.domain.Limit
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification as JpaSpecification
+import org.springframework.orm.ObjectOptimisticLockingFailureException
+import org.springframework.transaction.PlatformTransactionManager
 import spock.lang.Specification
 import spock.lang.Subject
 
 import java.nio.charset.StandardCharsets
+import java.time.Duration
 import java.time.LocalDateTime
 
 /**
@@ -21,18 +37,39 @@ class ReadingRecordServiceSpec extends Specification {
 
     // モックオブジェクト
     ReadingRecordRepository mockRepository = Mock()
+    EntityManager mockEntityManager = Mock()
+    PlatformTransactionManager mockTransactionManager = Mock()
+    ReadingRecordChangeLog mockChangeLog = Mock()
+
+    // 一覧の絞り込み条件（Specification）が組み立てる条件を確認するためのモック
+    CriteriaBuilder criteriaBuilder = Mock()
+
+    // 実際のデータのバージョン
+    ReadingRecordDataVersion dataVersion = new ReadingRecordDataVersion()
+
+    // 実際の検索インデックス（メモリ上のみで動作する）
+    ReadingRecordSearchIndex searchIndex = new ReadingRecordSearchIndex()
+
+    // メトリクスの記録先
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
 
     def setup() {
         // テスト対象のサービスを初期化
-        readingRecordService = new ReadingRecordService(mockRepository)
+        readingRecordService = newService()
+    }
+
+    /**
+     * このテストクラスのモック・検索インデックス・データのバージョンを使うサービスを作成する
+     */
+    private ReadingRecordService newService(Map<String, ?> overrides = [:]) {
+        def defaults = [entityManager: mockEntityManager, transactionManager: mockTransactionManager, searchIndex: searchIndex,
+                        meterRegistry: meterRegistry, changeLog: mockChangeLog, dataVersion: dataVersion]
+        return ReadingRecordServiceFactory.create(defaults + overrides, mockRepository)
     }
 
     def "getReadingRecordsByStatus - 指定されたステータスの読書記録一覧を取得する"() {
         given: "期待される読書記録のリスト"
-        def expectedRecords = [
-                new ReadingRecord(id: 1L, title: "テスト本1", readingStatus: ReadingStatus.READING),
-                new ReadingRecord(id: 2L, title: "テスト本2", readingStatus: ReadingStatus.READING)
-        ]
+        def expectedRecords = [listItem(1L, "テスト本1", ReadingStatus.READING), listItem(2L, "テスト本2", ReadingStatus.READING)]
 
         when: "読書記録一覧を取得"
         def result = readingRecordService.getReadingRecordsByStatus(ReadingStatus.READING)
@@ -42,6 +79,210 @@ class ReadingRecordServiceSpec extends Specification {
         result == expectedRecords
     }
 
+    def "getReadingRecordPage - カーソルなしの場合は先頭ページを取得し次のカーソルを返す"() {
+        given: "1ページの件数より1件多い読書記録"
+        def base = LocalDateTime.of(2025, 1, 1, 10, 0, 0, 123456000)
+        def records = (0..ReadingRecordService.LIST_PAGE_SIZE).collect {
+            listItem(100L - it, "テスト本${it}", ReadingStatus.READING, base.minusMinutes(it))
+        }
+        def lastOnPage = records[ReadingRecordService.LIST_PAGE_SIZE - 1]
+
+        when: "先頭ページを取得"
+        def result = readingRecordService.getReadingRecordPage(ReadingStatus.READING, null)
+
+        then: "1件多く取得し、1ページ分と最後の行を表すカーソルが返される"
+        1 * mockRepository.findPageByReadingStatus(ReadingStatus.READING, Limit.of(ReadingRecordService.LIST_PAGE_SIZE + 1)) >> records
+        0 * mockRepository.findPageByReadingStatusAfter(*_)
+        result.records() == records.take(ReadingRecordService.LIST_PAGE_SIZE)
+        result.hasNext()
+        result.nextCursor() == lastOnPage.updatedAt.toString() + "_" + lastOnPage.id
+    }
+
+    def "getReadingRecordPage - カーソルを指定した場合はその位置から続きを取得する"() {
+        given: "最後のページの読書記録"
+        def records = [listItem(3L, "最後の本", ReadingStatus.UNREAD)]
+
+        when: "カーソルを指定して取得"
+        def result = readingRecordService.getReadingRecordPage(ReadingStatus.UNREAD, "2025-01-01T10:00:00.123456_7")
+
+        then: "カーソルの(更新日時, ID)より後ろを取得し、最後のページでは次のカーソルはない"
+        1 * mockRepository.findPageByReadingStatusAfter(ReadingStatus.UNREAD,
+                LocalDateTime.of(2025, 1, 1, 10, 0, 0, 123456000), 7L, _) >> records
+        result.records() == records
+        !result.hasNext()
+        result.nextCursor() == null
+    }
+
+    def "getReadingRecordPage - 不正なカーソルの場合は先頭ページを取得する"() {
+        when: "不正なカーソルで取得"
+        readingRecordService.getReadingRecordPage(ReadingStatus.UNREAD, cursor)
+
+        then: "先頭から取得される"
+        1 * mockRepository.findPageByReadingStatus(ReadingStatus.UNREAD, _) >> []
+        0 * mockRepository.findPageByReadingStatusAfter(*_)
+
+        where:
+        cursor << ["", "invalid", "2025-01-01T10:00:00_abc", "_7"]
+    }
+
+    def "getReadingRecordPage - 進捗率の高い順の場合は(進捗率, ID)のカーソルで続きを取得する"() {
+        given: "1ページの件数より1件多い読書記録"
+        def records = (0..ReadingRecordService.LIST_PAGE_SIZE).collect {
+            new ReadingRecordListItem(100L - it, "テスト本${it}", null, ReadingStatus.READING, 0, 100, 90 - it, null,
+                    null, LocalDateTime.of(2025, 1, 1, 0, 0))
+        }
+        def query = new ReadingRecordListQuery(ReadingStatus.READING, ReadingRecordSort.PROGRESS, 50)
+
+        when: "先頭ページと、そのカーソルで続きのページを取得"
+        def first = readingRecordService.getReadingRecordPage(query, null)
+        readingRecordService.getReadingRecordPage(query, first.nextCursor())
+
+        then: "進捗率の下限を指定して取得し、カーソルには最後の行の進捗率とIDが使われる"
+        1 * mockRepository.findPageByReadingStatusOrderByProgress(ReadingStatus.READING, 50, Limit.of(ReadingRecordService.LIST_PAGE_SIZE + 1)) >> records
+        first.nextCursor() == "61_71"
+        1 * mockRepository.findPageByReadingStatusOrderByProgressAfter(ReadingStatus.READING, 50, 61, 71L, _) >> []
+        0 * mockRepository.findPageByReadingStatus(*_)
+    }
+
+    def "getReadingRecordPage - タイトル順の場合は条件を組み合わせたクエリで取得し、(タイトル, ID)のカーソルで続きを取得する"() {
+        given: "1ページの件数より1件多い読書記録"
+        def records = (0..ReadingRecordService.LIST_PAGE_SIZE).collect {
+            new ReadingRecordListItem(it + 1L, "本${it + 10}", null, ReadingStatus.READING, 0, null, 0, null,
+                    null, LocalDateTime.of(2025, 1, 1, 0, 0))
+        }
+        def query = new ReadingRecordListQuery(ReadingStatus.READING, ReadingRecordSort.TITLE, 0)
+        def sort = Sort.by(Sort.Order.asc("readingStatus"), Sort.Order.asc("title"), Sort.Order.asc("id"))
+        JpaSpecification<ReadingRecord> nextPageSpec = null
+
+        when: "先頭ページと、そのカーソルで続きのページを取得"
+        def first = readingRecordService.getReadingRecordPage(query, null)
+        readingRecordService.getReadingRecordPage(query, first.nextCursor())
+
+        then: "読書状態・タイトル・IDの順で取得し、カーソルには最後の行のタイトルとIDが使われる"
+        1 * mockRepository.findListItems(_, sort, Limit.of(ReadingRecordService.LIST_PAGE_SIZE + 1)) >> records
+        first.nextCursor() == "s本39_30"
+        1 * mockRepository.findListItems(_, sort, _) >> { spec, s, l -> nextPageSpec = spec; [] }
+        0 * mockRepository.findPageByReadingStatus(*_)
+
+        when: "続きのページの条件を組み立てる"
+        applySpecification(nextPageSpec)
+
+        then: "前ページ最後の(タイトル, ID)より後ろの読書記録が対象になる"
+        1 * criteriaBuilder.equal(_, ReadingStatus.READING)
+        1 * criteriaBuilder.greaterThan(_, "本39")
+        1 * criteriaBuilder.equal(_, "本39")
+        1 * criteriaBuilder.greaterThan(_, 30L)
+        0 * criteriaBuilder.isNull(_)
+    }
+
+    def "getReadingRecordPage - 評価・著者で絞り込む場合は更新日時順でも条件を組み合わせたクエリで取得する"() {
+        given:
+        def query = new ReadingRecordListQuery(ReadingStatus.COMPLETED, ReadingRecordSort.UPDATED, 0, 4, null, " 夏目漱石 ")
+        JpaSpecification<ReadingRecord> spec = null
+
+        when:
+        readingRecordService.getReadingRecordPage(query, null)
+
+        then: "専用のクエリは使わない"
+        1 * mockRepository.findListItems(_, Sort.by(Sort.Order.asc("readingStatus"), Sort.Order.desc("updatedAt"),
+                Sort.Order.desc("id")), _) >> { s, sort, l -> spec = s; [] }
+        0 * mockRepository.findPageByReadingStatus(*_)
+
+        when: "条件を組み立てる"
+        applySpecification(spec)
+
+        then: "読書状態・評価の下限・著者（前後の空白を除く）で絞り込む"
+        1 * criteriaBuilder.equal(_, ReadingStatus.COMPLETED)
+        1 * criteriaBuilder.greaterThanOrEqualTo(_, 4)
+        1 * criteriaBuilder.equal(_, "夏目漱石")
+    }
+
+    def "getReadingRecordPage - 評価が未設定の行でページが終わる場合は、値が空のカーソルで未設定の行の続きを取得する"() {
+        given:
+        def records = (0..ReadingRecordService.LIST_PAGE_SIZE).collect {
+            new ReadingRecordListItem(100L - it, "本${it}", null, ReadingStatus.READING, 0, null, 0, null,
+                    null, LocalDateTime.of(2025, 1, 1, 0, 0))
+        }
+        def query = new ReadingRecordListQuery(ReadingStatus.READING, ReadingRecordSort.RATING, 0)
+        JpaSpecification<ReadingRecord> nextPageSpec = null
+
+        when:
+        def first = readingRecordService.getReadingRecordPage(query, null)
+        readingRecordService.getReadingRecordPage(query, first.nextCursor())
+
+        then:
+        1 * mockRepository.findListItems(*_) >> records
+        first.nextCursor() == "_71"
+        1 * mockRepository.findListItems(*_) >> { spec, s, l -> nextPageSpec = spec; [] }
+
+        when:
+        applySpecification(nextPageSpec)
+
+        then: "評価が未設定で、IDが前ページ最後の行より小さい読書記録が対象になる"
+        1 * criteriaBuilder.isNull(_)
+        1 * criteriaBuilder.lessThan(_, 71L)
+        0 * criteriaBuilder.lessThan(_, { it instanceof Integer })
+    }
+
+    def "getReadingRecordPage - 並び順に合わないカーソルの場合は先頭ページを取得する"() {
+        given:
+        JpaSpecification<ReadingRecord> spec = null
+
+        when:
+        readingRecordService.getReadingRecordPage(new ReadingRecordListQuery(ReadingStatus.READING, sort, 0), cursor)
+
+        then:
+        1 * mockRepository.findListItems(*_) >> { s, sortArg, l -> spec = s; [] }
+
+        when:
+        applySpecification(spec)
+
+        then: "前ページ最後の行より後ろという条件が付かない"
+        0 * criteriaBuilder.greaterThan(*_)
+        0 * criteriaBuilder.lessThan(*_)
+        0 * criteriaBuilder.isNull(_)
+
+        where:
+        sort                     | cursor
+        ReadingRecordSort.TITLE  | "_5"
+        ReadingRecordSort.TITLE  | "本_5"
+        ReadingRecordSort.AUTHOR | "s著者_x"
+        ReadingRecordSort.RATING | "3.5_5"
+        ReadingRecordSort.RATING | "2025-01-01T10:00:00_5"
+    }
+
+    def "ReadingRecordListQuery - 評価は1〜5の範囲で、下限と上限が逆の場合は入れ替え、著者は前後の空白を除く"() {
+        when:
+        def query = new ReadingRecordListQuery(ReadingStatus.READING, ReadingRecordSort.RATING, 0, minRating, maxRating, author)
+
+        then:
+        query.minRating() == expectedMin
+        query.maxRating() == expectedMax
+        query.author() == expectedAuthor
+        query.hasFilters() == (expectedMin != null || expectedMax != null || expectedAuthor != null)
+
+        where:
+        minRating | maxRating | author     || expectedMin | expectedMax | expectedAuthor
+        null      | null      | null       || null        | null        | null
+        2         | 4         | "著者"     || 2           | 4           | "著者"
+        4         | 2         | " 著者 "   || 2           | 4           | "著者"
+        0         | 9         | "  "       || 1           | 5           | null
+        null      | 3         | ""         || null        | 3           | null
+    }
+
+    def "ReadingRecordListQuery - 進捗率の下限は進捗率の高い順の場合だけ0〜100の範囲で使う"() {
+        expect:
+        new ReadingRecordListQuery(ReadingStatus.READING, sort, minProgress).minProgress() == expected
+
+        where:
+        sort                       | minProgress || expected
+        ReadingRecordSort.PROGRESS | 80          || 80
+        ReadingRecordSort.PROGRESS | 150         || 100
+        ReadingRecordSort.PROGRESS | -1          || 0
+        ReadingRecordSort.UPDATED  | 80          || 0
+        null                       | 80          || 0
+    }
+
     def "getCountByStatus - 指定されたステータスの件数を取得する"() {
         when: "件数を取得"
         def result = readingRecordService.getCountByStatus(ReadingStatus.COMPLETED)
@@ -51,6 +292,93 @@ class ReadingRecordServiceSpec extends Specification {
         result == 5L
     }
 
+    def "getCountsByStatus - 全ての読書状態の件数を1回の集計クエリで取得する"() {
+        when: "件数をまとめて取得"
+        def result = readingRecordService.getCountsByStatus()
+
+        then: "集計クエリが1回だけ実行され、件数0の読書状態も含まれる"
+        1 * mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.READING, 3L), statusCount(ReadingStatus.COMPLETED, 7L)]
+        0 * mockRepository.countByReadingStatus(_)
+        result instanceof EnumMap
+        result == [(ReadingStatus.UNREAD): 0L, (ReadingStatus.READING): 3L, (ReadingStatus.COMPLETED): 7L, (ReadingStatus.PAUSED): 0L]
+    }
+
+    def "カウンター有効時 - 保存・削除・一括登録・全件削除で件数がDBに問い合わせずに更新される"() {
+        given: "カウンターが有効なサービス"
+        def counter = new ReadingStatusCounter(mockRepository, true)
+        readingRecordService = newService(counter: counter)
+        mockRepository.save(_) >> { ReadingRecord r -> r.id = r.id ?: 10L; r }
+        mockRepository.saveAll(_) >> { List args -> args[0] }
+
+        when: "初回の件数取得"
+        def initial = readingRecordService.getCountsByStatus()
+
+        then: "DBで集計される"
+        1 * mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.UNREAD, 2L)]
+        initial[ReadingStatus.UNREAD] == 2L
+
+        when: "新規登録・状態変更・削除・一括登録を行う"
+        readingRecordService.saveReadingRecord(new ReadingRecord(title: "新しい本", readingStatus: ReadingStatus.READING))
+        readingRecordService.saveReadingRecord(new ReadingRecord(id: 1L, title: "既存の本", readingStatus: ReadingStatus.COMPLETED, version: 0L))
+        readingRecordService.deleteReadingRecord(2L)
+        readingRecordService.saveReadingRecords([
+                new ReadingRecord(title: "本A", readingStatus: ReadingStatus.PAUSED),
+                new ReadingRecord(title: "本B", readingStatus: ReadingStatus.PAUSED)])
+        def counts = readingRecordService.getCountsByStatus()
+
+        then: "変更前の読書状態との差分だけが反映され、集計クエリは実行されない"
+        1 * mockRepository.findReadingStatusById(1L) >> Optional.of(ReadingStatus.UNREAD)
+        1 * mockRepository.findReadingStatusById(2L) >> Optional.of(ReadingStatus.UNREAD)
+        0 * mockRepository.countGroupByReadingStatus()
+        counts == [(ReadingStatus.UNREAD): 0L, (ReadingStatus.READING): 1L, (ReadingStatus.COMPLETED): 1L, (ReadingStatus.PAUSED): 2L]
+
+        when: "全件削除"
+        readingRecordService.deleteAllReadingRecords()
+
+        then: "全ての件数が0になる"
+        readingRecordService.getCountsByStatus().values().every { it == 0L }
+    }
+
+    def "キャッシュ有効時 - 読書記録と一覧ページは2回目以降DBに問い合わせず、書き込みで破棄される"() {
+        given: "キャッシュが有効なサービス"
+        readingRecordService = newService(cache: new ReadingRecordCache(true, 10, 10, Duration.ofMinutes(10)))
+        def record = new ReadingRecord(id: 1L, title: "テスト本", readingStatus: ReadingStatus.READING)
+        mockRepository.save(_) >> { ReadingRecord r -> r }
+
+        when: "同じ読書記録と一覧ページを2回ずつ取得"
+        readingRecordService.getReadingRecordById(1L)
+        def cachedRecord = readingRecordService.getReadingRecordById(1L)
+        readingRecordService.getReadingRecordPage(ReadingStatus.READING, null)
+        def cachedPage = readingRecordService.getReadingRecordPage(ReadingStatus.READING, null)
+
+        then: "DBへの問い合わせはそれぞれ1回だけ"
+        1 * mockRepository.findById(1L) >> Optional.of(record)
+        1 * mockRepository.findPageByReadingStatus(ReadingStatus.READING, _) >> [listItem(1L, "テスト本", ReadingStatus.READING)]
+        cachedRecord.get() == record
+        cachedPage.records()*.id == [1L]
+
+        when: "読書状態を変更して保存し、再度取得"
+        readingRecordService.saveReadingRecord(new ReadingRecord(id: 1L, title: "テスト本", readingStatus: ReadingStatus.COMPLETED, version: 0L))
+        readingRecordService.getReadingRecordById(1L)
+        readingRecordService.getReadingRecordPage(ReadingStatus.READING, null)
+        readingRecordService.getReadingRecordPage(ReadingStatus.COMPLETED, null)
+
+        then: "変更前後の読書状態の一覧と読書記録が再読み込みされる"
+        1 * mockRepository.findReadingStatusById(1L) >> Optional.of(ReadingStatus.READING)
+        1 * mockRepository.findById(1L) >> Optional.of(record)
+        1 * mockRepository.findPageByReadingStatus(ReadingStatus.READING, _) >> []
+        1 * mockRepository.findPageByReadingStatus(ReadingStatus.COMPLETED, _) >> [listItem(1L, "テスト本", ReadingStatus.COMPLETED)]
+
+        when: "削除して再度取得"
+        readingRecordService.deleteReadingRecord(1L)
+        def deleted = readingRecordService.getReadingRecordById(1L)
+
+        then: "削除した読書記録はキャッシュから返されない"
+        1 * mockRepository.findReadingStatusById(1L) >> Optional.of(ReadingStatus.COMPLETED)
+        1 * mockRepository.findById(1L) >> Optional.empty()
+        deleted.isEmpty()
+    }
+
     def "getReadingRecordById - 存在するIDで読書記録を取得する"() {
         given: "存在する読書記録"
         def expectedRecord = new ReadingRecord(id: 1L, title: "テスト本")
@@ -90,8 +418,8 @@ class ReadingRecordServiceSpec extends Specification {
 
     def "saveReadingRecord - 既存読書記録を更新する"() {
         given: "既存読書記録（IDが設定済み）"
-        def existingRecord = new ReadingRecord(id: 1L, title: "既存の本", author: "著者名")
-        def savedRecord = new ReadingRecord(id: 1L, title: "既存の本", author: "著者名")
+        def existingRecord = new ReadingRecord(id: 1L, title: "既存の本", author: "著者名", version: 2L)
+        def savedRecord = new ReadingRecord(id: 1L, title: "既存の本", author: "著者名", version: 3L)
 
         when: "読書記録を保存"
         def result = readingRecordService.saveReadingRecord(existingRecord)
@@ -103,12 +431,282 @@ class ReadingRecordServiceSpec extends Specification {
         existingRecord.updatedAt != null
     }
 
+    def "saveReadingRecord - 既存読書記録にバージョンがない場合は競合として保存しない"() {
+        when: "バージョンのない既存読書記録を保存"
+        readingRecordService.saveReadingRecord(new ReadingRecord(id: 1L, title: "既存の本"))
+
+        then: "楽観的ロックの失敗として扱われる"
+        thrown(OptimisticLockingFailureException)
+        0 * mockRepository.save(_)
+    }
+
+    def "saveReadingRecord - 他の更新と競合した場合は件数カウンター・キャッシュ・検索インデックスを変更しない"() {
+        given:
+        def versionBefore = dataVersion.current()
+
+        when: "保存時にバージョンの不一致が検出される"
+        readingRecordService.saveReadingRecord(new ReadingRecord(id: 1L, title: "既存の本", version: 1L))
+
+        then:
+        1 * mockRepository.save(_) >> { throw new ObjectOptimisticLockingFailureException(ReadingRecord, 1L) }
+        thrown(OptimisticLockingFailureException)
+        dataVersion.current() == versionBefore
+    }
+
+    def "deleteReadingRecord - 表示した時点のバージョンと一致する場合は削除する"() {
+        given:
+        def stored = new ReadingRecord(id: 1L, title: "本", version: 4L)
+
+        when:
+        readingRecordService.deleteReadingRecord(1L, 4L)
+
+        then: "読み込んだ読書記録を削除し、削除を記録する"
+        1 * mockRepository.findById(1L) >> Optional.of(stored)
+        1 * mockRepository.delete(stored)
+        1 * mockChangeLog.recordDeletion(1L)
+    }
+
+    def "deleteReadingRecord - 表示した後に更新されていた場合は削除しない"() {
+        when:
+        readingRecordService.deleteReadingRecord(1L, 3L)
+
+        then:
+        1 * mockRepository.findById(1L) >> Optional.of(new ReadingRecord(id: 1L, title: "本", version: 4L))
+        thrown(OptimisticLockingFailureException)
+        0 * mockRepository.delete(_)
+        0 * mockChangeLog.recordDeletion(_)
+    }
+
     def "deleteReadingRecord - 読書記録を削除する"() {
         when: "読書記録を削除"
         readingRecordService.deleteReadingRecord(1L)
 
-        then: "リポジトリの削除メソッドが呼ばれる"
+        then: "リポジトリの削除メソッドが呼ばれ、差分出力のために削除が記録される"
         1 * mockRepository.deleteById(1L)
+        1 * mockChangeLog.recordDeletion(1L)
+    }
+
+    def "deleteAllReadingRecords - 全件削除すると差分出力の記録をリセットする"() {
+        when: "全件削除"
+        def deleted = readingRecordService.deleteAllReadingRecords()
+
+        then: "1文で削除した件数が返され、同じトランザクションで差分出力の記録がリセットされる"
+        1 * mockRepository.deleteAllInBulk() >> 3
+        0 * mockRepository.deleteAll()
+        1 * mockChangeLog.reset()
+        0 * mockChangeLog.recordDeletion(_)
+        deleted == 3
+    }
+
+    def "deleteReadingRecordsByStatus - 削除を記録してから1文で削除し、件数カウンターと検索インデックスに反映する"() {
+        given: "カウンターが有効なサービスと、検索インデックスに登録済みの読書記録"
+        def counter = new ReadingStatusCounter(mockRepository, true)
+        readingRecordService = newService(counter: counter)
+        mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.PAUSED, 2L), statusCount(ReadingStatus.READING, 1L)]
+        readingRecordService.getCountsByStatus()
+        searchIndex.index(new ReadingRecord(id: 1L, title: "中止した本", readingStatus: ReadingStatus.PAUSED))
+        searchIndex.index(new ReadingRecord(id: 2L, title: "中止した本2", readingStatus: ReadingStatus.PAUSED))
+        searchIndex.index(new ReadingRecord(id: 3L, title: "読書中の本", readingStatus: ReadingStatus.READING))
+        def versionBefore = readingRecordService.getDataVersion()
+
+        when: "中止の読書記録を削除"
+        def deleted = readingRecordService.deleteReadingRecordsByStatus(ReadingStatus.PAUSED)
+
+        then: "削除の記録、削除の順に実行される"
+        1 * mockChangeLog.recordDeletionByStatus(ReadingStatus.PAUSED) >> 2
+
+        then:
+        1 * mockRepository.deleteByReadingStatusInBulk(ReadingStatus.PAUSED) >> 2
+        0 * mockRepository.deleteById(_)
+
+        and: "削除した件数が返され、件数カウンター・検索インデックス・データのバージョンに反映される"
+        deleted == 2
+        readingRecordService.getCountsByStatus()[ReadingStatus.PAUSED] == 0L
+        readingRecordService.getCountsByStatus()[ReadingStatus.READING] == 1L
+        searchIndex.search("本", null, 10, { [] }).recordIds() == [3L]
+        readingRecordService.getDataVersion() != versionBefore
+    }
+
+    def "updateReadingStatus - チャンクごとに1文で変更し、変更前の読書状態との差分を件数カウンターに反映する"() {
+        given: "カウンターが有効なサービス"
+        def counter = new ReadingStatusCounter(mockRepository, true)
+        readingRecordService = newService(counter: counter)
+        mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.UNREAD, 1500L)]
+        readingRecordService.getCountsByStatus()
+        def ids = (1L..1500L).toList()
+        searchIndex.index(new ReadingRecord(id: 1L, title: "未読の本", readingStatus: ReadingStatus.UNREAD))
+
+        when: "重複を含むIDを指定して読了に変更"
+        def updated = readingRecordService.updateReadingStatus(ids + [1L, 2L], ReadingStatus.COMPLETED)
+
+        then: "重複を除いたIDがチャンクに分けて変更される"
+        1 * mockRepository.countGroupByReadingStatusByIdIn({ it.size() == ReadingRecordService.BULK_UPDATE_CHUNK_SIZE }) >>
+                [statusCount(ReadingStatus.UNREAD, 1000L)]
+        1 * mockRepository.countGroupByReadingStatusByIdIn({ it.size() == 500 }) >> [statusCount(ReadingStatus.UNREAD, 500L)]
+        1 * mockRepository.updateReadingStatusByIdIn({ it.size() == ReadingRecordService.BULK_UPDATE_CHUNK_SIZE },
+                ReadingStatus.COMPLETED, _ as LocalDateTime) >> 1000
+        1 * mockRepository.updateReadingStatusByIdIn({ it.size() == 500 }, ReadingStatus.COMPLETED, _ as LocalDateTime) >> 500
+
+        and: "変更した件数が返され、件数カウンター・検索インデックスに反映される"
+        updated == 1500
+        readingRecordService.getCountsByStatus()[ReadingStatus.UNREAD] == 0L
+        readingRecordService.getCountsByStatus()[ReadingStatus.COMPLETED] == 1500L
+        searchIndex.search("本", ReadingStatus.COMPLETED, 10, { [] }).recordIds() == [1L]
+        searchIndex.search("本", ReadingStatus.UNREAD, 10, { [] }).recordIds() == []
+    }
+
+    def "updateReadingStatus - IDが指定されていない場合は何もしない"() {
+        given:
+        def versionBefore = readingRecordService.getDataVersion()
+
+        when:
+        def updated = readingRecordService.updateReadingStatus([], ReadingStatus.COMPLETED)
+
+        then:
+        0 * mockRepository.updateReadingStatusByIdIn(*_)
+        updated == 0
+        readingRecordService.getDataVersion() == versionBefore
+    }
+
+    def "updateProgress - 進捗率を指定して1文で変更し、キャッシュ済みの読書記録を破棄する"() {
+        given: "キャッシュが有効なサービスと、キャッシュ済みの読書記録"
+        readingRecordService = newService(cache: new ReadingRecordCache(true, 10, 10, Duration.ofMinutes(10)))
+        mockRepository.findById(1L) >> Optional.of(new ReadingRecord(id: 1L, title: "本", totalPages: 200, currentPage: 10))
+        readingRecordService.getReadingRecordById(1L)
+
+        when: "50%に設定してから再取得"
+        def updated = readingRecordService.updateProgress([1L, 2L], 50)
+        readingRecordService.getReadingRecordById(1L)
+
+        then: "変更した件数が返され、再取得はDBに問い合わせる"
+        1 * mockRepository.updateProgressByIdIn([1L, 2L], 50, _ as LocalDateTime) >> 1
+        1 * mockRepository.findById(1L) >> Optional.of(new ReadingRecord(id: 1L, title: "本", totalPages: 200, currentPage: 100))
+        updated == 1
+    }
+
+    def "updateProgress - 進捗率が0〜100の範囲外の場合は例外を投げる"() {
+        when:
+        readingRecordService.updateProgress([1L], percent)
+
+        then:
+        thrown(IllegalArgumentException)
+        0 * mockRepository.updateProgressByIdIn(*_)
+
+        where:
+        percent << [-1, 101]
+    }
+
+    def "getDataVersion - 保存・削除・一括登録・全件削除のたびにデータのバージョンが変わる"() {
+        given: "保存時にIDを採番するリポジトリ"
+        mockRepository.save(_) >> { ReadingRecord r -> r.id = r.id ?: 1L; r }
+        mockRepository.saveAll(_) >> { List args -> args[0] }
+        mockRepository.findById(_) >> Optional.empty()
+        mockRepository.countGroupByReadingStatus() >> []
+        def versions = [readingRecordService.getDataVersion()]
+
+        when: "変更のたびにバージョンを取得"
+        readingRecordService.saveReadingRecord(new ReadingRecord(title: "本", readingStatus: ReadingStatus.UNREAD))
+        versions << readingRecordService.getDataVersion()
+        readingRecordService.deleteReadingRecord(1L)
+        versions << readingRecordService.getDataVersion()
+        readingRecordService.saveReadingRecords([new ReadingRecord(title: "本A", readingStatus: ReadingStatus.READING)])
+        versions << readingRecordService.getDataVersion()
+        readingRecordService.deleteAllReadingRecords()
+        versions << readingRecordService.getDataVersion()
+
+        and: "読み取りだけの操作"
+        readingRecordService.getReadingRecordById(1L)
+        readingRecordService.getCountsByStatus()
+
+        then: "変更のたびに異なるバージョンになり、読み取りでは変わらない"
+        versions.unique(false).size() == 5
+        readingRecordService.getDataVersion() == versions.last()
+    }
+
+    def "getRecordVersion - 変更した読書記録のバージョンだけが変わり、全件削除では全ての読書記録のバージョンが変わる"() {
+        given: "2件の読書記録"
+        mockRepository.save(_) >> { ReadingRecord r -> r }
+        mockRepository.findById(_) >> Optional.empty()
+        def otherBefore = readingRecordService.getRecordVersion(2L)
+
+        when: "1件目を保存"
+        def savedBefore = readingRecordService.getRecordVersion(1L)
+        readingRecordService.saveReadingRecord(new ReadingRecord(id: 1L, version: 0L, title: "本",
+                readingStatus: ReadingStatus.UNREAD))
+
+        then: "保存した読書記録のバージョンだけが変わる"
+        readingRecordService.getRecordVersion(1L) != savedBefore
+        readingRecordService.getRecordVersion(2L) == otherBefore
+
+        when: "全件削除"
+        readingRecordService.deleteAllReadingRecords()
+
+        then: "他の読書記録のバージョンも変わる"
+        readingRecordService.getRecordVersion(2L) != otherBefore
+    }
+
+    def "searchReadingRecords - 保存・削除が検索インデックスに反映され、インデックスの順位で読書記録を返す"() {
+        given: "保存時にIDを採番するリポジトリ"
+        long nextId = 1L
+        mockRepository.save(_) >> { ReadingRecord r -> r.id = r.id ?: nextId++; r }
+        def cat = new ReadingRecord(title: "吾輩は猫である", author: "夏目漱石")
+        def bocchan = new ReadingRecord(title: "坊っちゃん", author: "夏目漱石", thoughts: "猫は出てこない")
+
+        when: "2件保存して検索"
+        readingRecordService.saveReadingRecord(cat)
+        readingRecordService.saveReadingRecord(bocchan)
+        def result = readingRecordService.searchReadingRecords("猫", null)
+
+        then: "タイトルに一致する読書記録が先に返される"
+        1 * mockRepository.findAllById([1L, 2L]) >> [bocchan, cat]
+        result.records() == [cat, bocchan]
+        result.totalHits() == 2
+
+        when: "1件削除して検索"
+        readingRecordService.deleteReadingRecord(1L)
+        def afterDelete = readingRecordService.searchReadingRecords("吾輩", null)
+
+        then: "削除した読書記録は検索されず、DBにも問い合わせない"
+        0 * mockRepository.findAllById(_)
+        afterDelete.records().isEmpty()
+        afterDelete.totalHits() == 0
+    }
+
+    def "searchReadingRecords - 3文字以上の検索語で感想だけが候補になった読書記録は、DBの本文で確認する"() {
+        given: "感想に検索語のbi-gramを全て含む読書記録"
+        long nextId = 1L
+        mockRepository.save(_) >> { ReadingRecord r -> r.id = r.id ?: nextId++; r }
+        def cat = new ReadingRecord(title: "吾輩は猫である", thoughts: "猫は出てこない")
+        def dog = new ReadingRecord(title: "犬の本", thoughts: "猫は出ない。出てくるのは犬")
+        readingRecordService.saveReadingRecord(cat)
+        readingRecordService.saveReadingRecord(dog)
+
+        when: "連続した検索語で検索"
+        def result = readingRecordService.searchReadingRecords("猫は出て", null)
+
+        then: "候補の本文を読み込み、連続して含むものだけが返される"
+        1 * mockRepository.findSearchTextsByIdIn({ it as Set == [1L, 2L] as Set }) >> [
+                [getId: { 1L }, getSummary: { null }, getThoughts: { "猫は出てこない" }] as ReadingRecordSearchText,
+                [getId: { 2L }, getSummary: { null }, getThoughts: { "猫は出ない。出てくるのは犬" }] as ReadingRecordSearchText]
+        1 * mockRepository.findAllById([1L]) >> [cat]
+        result.records() == [cat]
+        result.totalHits() == 1
+    }
+
+    def "rebuildSearchIndex - 全ての読書記録をストリームで読み込んでインデックスを作成する"() {
+        given: "DBの読書記録"
+        def record = new ReadingRecord(id: 7L, title: "銀河鉄道の夜", readingStatus: ReadingStatus.UNREAD)
+
+        when: "インデックスを作成して検索"
+        readingRecordService.rebuildSearchIndex()
+        def result = readingRecordService.searchReadingRecords("銀河", ReadingStatus.UNREAD)
+
+        then: "ストリームから読み込んだ読書記録が検索される"
+        1 * mockRepository.streamAllByOrderByIdAsc() >> [record].stream()
+        1 * mockEntityManager.detach(record)
+        1 * mockRepository.findAllById([7L]) >> [record]
+        searchIndex.isReady()
+        result.records() == [record]
     }
 
     def "getProgressPercent - 様々な条件での進捗率計算をテストする"() {
@@ -214,6 +812,76 @@ class ReadingRecordServiceSpec extends Specification {
         !csvContent.contains("\"1\",") // データ行が含まれていない
     }
 
+    def "exportToCsv - ストリームから読み出した読書記録を出力ストリームへ書き込む"() {
+        given: "テスト用の読書記録と出力先"
+        def records = [
+                new ReadingRecord(id: 1L, title: "テスト本1", readingStatus: ReadingStatus.READING, currentPage: 50, totalPages: 100),
+                new ReadingRecord(id: 2L, title: "テスト本2", readingStatus: ReadingStatus.UNREAD)
+        ]
+        def outputStream = new ByteArrayOutputStream()
+
+        when: "ストリーミングでCSV出力を実行"
+        readingRecordService.exportToCsv(outputStream)
+
+        then: "全件取得は使わずストリームから読み出す"
+        1 * mockRepository.streamAllByOrderByIdAsc() >> records.stream()
+        0 * mockRepository.findAll()
+
+        and: "書き込んだエンティティは永続化コンテキストから切り離される"
+        1 * mockEntityManager.detach(records[0])
+        1 * mockEntityManager.detach(records[1])
+
+        and: "ヘッダー行とデータ行が出力される"
+        String csvContent = new String(outputStream.toByteArray(), StandardCharsets.UTF_8)
+        csvContent.startsWith("\"ID\",\"タイトル\"")
+        csvContent.contains("\"1\",\"テスト本1\",\"\",\"読書中\",\"50\",\"100\"")
+        csvContent.contains("\"2\",\"テスト本2\",\"\",\"未読\"")
+
+        and: "出力サイズがメトリクスに記録される"
+        def exportBytes = meterRegistry.get(ReadingRecordMetrics.CSV_EXPORT_BYTES).summary()
+        exportBytes.count() == 1
+        exportBytes.totalAmount() == outputStream.size()
+    }
+
+    def "exportChangesToCsv - 起点より後に更新・削除された読書記録を削除日時の列付きで出力する"() {
+        given: "起点と、起点より後に更新・削除された読書記録"
+        def since = LocalDateTime.of(2024, 11, 27, 10, 0, 0)
+        def updated = new ReadingRecord(id: 1L, title: "更新した本", readingStatus: ReadingStatus.READING,
+                createdAt: LocalDateTime.of(2024, 11, 1, 9, 0, 0), updatedAt: LocalDateTime.of(2024, 11, 27, 11, 0, 0))
+        def tombstone = new ReadingRecordTombstone(2L, LocalDateTime.of(2024, 11, 27, 12, 0, 0))
+        def outputStream = new ByteArrayOutputStream()
+
+        when: "差分を出力"
+        readingRecordService.exportChangesToCsv(since, outputStream)
+
+        then: "更新日時・削除日時の範囲で読み出す"
+        1 * mockRepository.streamByUpdatedAtAfterOrderByUpdatedAtAscIdAsc(since) >> [updated].stream()
+        1 * mockChangeLog.streamDeletedAfter(since) >> [tombstone].stream()
+        0 * mockRepository.streamAllByOrderByIdAsc()
+        1 * mockEntityManager.detach(updated)
+
+        and: "更新した読書記録の後に、IDと削除日時だけの削除の行が出力される"
+        def lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).readLines()
+        lines == [
+                "\"ID\",\"タイトル\",\"著者\",\"読書状態\",\"現在ページ\",\"総ページ数\",\"評価\",\"概要\",\"感想\",\"作成日時\",\"更新日時\",\"削除日時\"",
+                "\"1\",\"更新した本\",\"\",\"読書中\",\"0\",\"\",\"\",\"\",\"\",\"2024-11-01 09:00:00\",\"2024-11-27 11:00:00\",\"\"",
+                "\"2\",\"\",\"\",\"\",\"\",\"\",\"\",\"\",\"\",\"\",\"\",\"2024-11-27 12:00:00\""
+        ]
+    }
+
+    def "exportChangesToCsv - 起点を指定しない場合は全件を出力し、削除の行は含めない"() {
+        given: "出力先"
+        def outputStream = new ByteArrayOutputStream()
+
+        when: "起点なしで出力"
+        readingRecordService.exportChangesToCsv(null, outputStream)
+
+        then: "全件をID順に読み出し、削除の記録は読み出さない"
+        1 * mockRepository.streamAllByOrderByIdAsc() >> [new ReadingRecord(id: 1L, title: "本", readingStatus: ReadingStatus.UNREAD)].stream()
+        0 * mockChangeLog.streamDeletedAfter(_)
+        new String(outputStream.toByteArray(), StandardCharsets.UTF_8).readLines().size() == 2
+    }
+
     def "generateCsvFileName - CSVファイル名が正しい形式で生成される"() {
         when: "CSVファイル名を生成"
         String fileName = readingRecordService.generateCsvFileName()
@@ -322,6 +990,11 @@ class ReadingRecordServiceSpec extends Specification {
         result.size() == 2
         result[0].title == "テスト本1"
         result[1].title == "テスト本3"
+
+        and: "解析できた行数とスキップした行数がメトリクスに記録される"
+        meterRegistry.get(ReadingRecordMetrics.CSV_ROWS).tag("result", "parsed").counter().count() == 2
+        meterRegistry.get(ReadingRecordMetrics.CSV_ROWS).tag("result", "skipped").counter().count() == 1
+        meterRegistry.get(ReadingRecordMetrics.CSV_ROWS).tag("result", "failed").counter().count() == 0
     }
 
     def "saveReadingRecords - 読書記録のリストを一括保存する"() {
@@ -358,6 +1031,175 @@ class ReadingRecordServiceSpec extends Specification {
         }
     }
 
+    def "saveReadingRecords - チャンク件数を超える場合はチャンクごとにコミットする"() {
+        given: "チャンク件数を超える読書記録"
+        def records = (1..ReadingRecordService.IMPORT_CHUNK_SIZE + 1).collect { new ReadingRecord(title: "本${it}") }
+
+        when: "読書記録を一括保存"
+        def result = readingRecordService.saveReadingRecords(records)
+
+        then: "チャンクごとに保存・フラッシュ・クリアされる"
+        2 * mockRepository.saveAll(_) >> { List args -> args[0] }
+        2 * mockEntityManager.flush()
+        2 * mockEntityManager.clear()
+        2 * mockTransactionManager.commit(_)
+        result.size() == records.size()
+    }
+
+    def "importRecords - 読書記録を順に読み出しながらチャンク単位で登録する"() {
+        given: "チャンク件数を超える読書記録"
+        def rowCount = ReadingRecordService.IMPORT_CHUNK_SIZE + 10
+        def records = (1..rowCount).collect { new ReadingRecord(title: "本${it}", author: "著者${it}") }
+        def savedChunkSizes = []
+
+        when: "取り込む"
+        def result = readingRecordService.importRecords(records.iterator(), ImportMode.INSERT, ImportProgress.NONE)
+
+        then: "チャンクごとに登録される"
+        2 * mockRepository.saveAll(_) >> { List args ->
+            def chunk = args[0]
+            savedChunkSizes << chunk.size()
+            chunk.each { assert it.createdAt != null && it.updatedAt != null }
+            return new ArrayList(chunk)
+        }
+        2 * mockEntityManager.flush()
+        2 * mockEntityManager.clear()
+        savedChunkSizes == [ReadingRecordService.IMPORT_CHUNK_SIZE, 10]
+
+        and: "処理結果が返される"
+        result.importedCount() == rowCount
+        result.chunkCommitMillis().size() == 2
+        result.rowsPerSecond() >= 0
+    }
+
+    def "importRecords - 新規登録の場合は読書記録のIDは保持せず、新しいIDで登録する"() {
+        given: "IDを持つ読書記録（出力したCSVを解析したもの）"
+        def records = [new ReadingRecord(id: 5L, title: "本A", author: "著者A")]
+        def saved = []
+
+        when: "取り込む"
+        readingRecordService.importRecords(records.iterator(), ImportMode.INSERT, ImportProgress.NONE)
+
+        then: "IDを破棄して登録される"
+        1 * mockRepository.saveAll(_) >> { List args -> saved.addAll(args[0]); new ArrayList(args[0]) }
+        saved*.id == [null]
+        0 * mockRepository.findAllById(_)
+    }
+
+    def "importRecords - IDで更新する場合は、チャンクごとに1回の読み込みで照合して既存の読書記録を更新する"() {
+        given: "ID 1・2 が登録済み"
+        def existing = [new ReadingRecord(id: 1L, title: "旧1", readingStatus: ReadingStatus.UNREAD, createdAt: LocalDateTime.of(2024, 1, 1, 0, 0)),
+                        new ReadingRecord(id: 2L, title: "旧2", readingStatus: ReadingStatus.UNREAD)]
+        def records = [new ReadingRecord(id: 1L, title: "新1", readingStatus: ReadingStatus.COMPLETED),
+                       new ReadingRecord(id: 9L, title: "新9"),
+                       new ReadingRecord(id: 2L, title: "新2a"),
+                       new ReadingRecord(title: "IDなし"),
+                       new ReadingRecord(id: 2L, title: "新2b")]
+        def inserted = []
+
+        when: "IDで更新する方法で取り込む"
+        def result = readingRecordService.importRecords(records.iterator(), ImportMode.UPSERT_BY_ID, ImportProgress.NONE)
+
+        then: "IDの照合は1回のクエリで行われる"
+        1 * mockRepository.findAllById([1L, 2L, 9L] as Set) >> existing
+        1 * mockRepository.saveAll(_) >> { List args -> inserted.addAll(args[0]); new ArrayList(args[0]) }
+        1 * mockEntityManager.flush()
+
+        and: "既存の読書記録は後の行の内容で更新され、作成日時は変わらない"
+        existing*.title == ["新1", "新2b"]
+        existing[0].readingStatus == ReadingStatus.COMPLETED
+        existing[0].createdAt == LocalDateTime.of(2024, 1, 1, 0, 0)
+        existing.every { it.updatedAt != null }
+
+        and: "一致しないIDの行とIDのない行は新しいIDで登録される"
+        inserted*.title == ["新9", "IDなし"]
+        inserted.every { it.id == null && it.createdAt != null }
+
+        and: "件数が返される"
+        result.importedCount() == 2
+        result.updatedCount() == 2
+        result.duplicateCount() == 1
+    }
+
+    def "importRecords - タイトル・著者の重複をスキップする場合は、既存の読書記録とチャンク内の行の両方と照合する"() {
+        given: "「坊っちゃん / 夏目漱石」が登録済み"
+        def records = [new ReadingRecord(title: "坊っちゃん", author: "夏目漱石"),
+                       new ReadingRecord(title: "Kokoro", author: "Natsume Soseki"),
+                       new ReadingRecord(title: "kokoro ", author: "NATSUME  SOSEKI"),
+                       new ReadingRecord(title: "こころ")]
+        def inserted = []
+
+        when: "重複をスキップする方法で取り込む"
+        def result = readingRecordService.importRecords(records.iterator(), ImportMode.SKIP_DUPLICATES, ImportProgress.NONE)
+
+        then: "正規化したキーをまとめて1回照合する"
+        1 * mockRepository.findNaturalKeysIn({ it.size() == 3 }) >> ["坊っちゃん\u001F夏目漱石"]
+        1 * mockRepository.saveAll(_) >> { List args -> inserted.addAll(args[0]); new ArrayList(args[0]) }
+        0 * mockRepository.findAllById(_)
+
+        and: "既存と一致する行・先の行と表記だけが異なる行はスキップされる"
+        inserted*.title == ["Kokoro", "こころ"]
+        result.importedCount() == 2
+        result.duplicateCount() == 2
+    }
+
+    def "planImport - DBを変更せずに、チャンクごとに照合して件数の見込みを返す"() {
+        given: "チャンク件数を超える、IDが1から連番の読書記録"
+        def records = (1L..ReadingRecordService.IMPORT_CHUNK_SIZE + 5L).collect { new ReadingRecord(id: it, title: "本${it}") }
+
+        when: "IDで更新する場合の見込みを求める"
+        def counts = readingRecordService.planImport(records.iterator(), ImportMode.UPSERT_BY_ID)
+
+        then: "チャンクごとにIDだけを照合し、読書記録は読み込まない"
+        1 * mockRepository.findIdsByIdIn({ it.size() == ReadingRecordService.IMPORT_CHUNK_SIZE }) >> [1L, 2L, 3L]
+        1 * mockRepository.findIdsByIdIn({ it.size() == 5 }) >> [ReadingRecordService.IMPORT_CHUNK_SIZE + 1L]
+        0 * mockRepository.findAllById(_)
+        0 * mockRepository.saveAll(_)
+        counts == new ImportCounts(ReadingRecordService.IMPORT_CHUNK_SIZE + 1, 4, 0)
+    }
+
+    def "parseCsv - 並列に解析しても逐次の場合と同じ読書記録を同じ順で返す"() {
+        given: "閾値を超える、不正な行や値を含むCSV"
+        def csvContent = new StringBuilder("ID,タイトル,著者,読書状態,現在ページ,総ページ数,評価,概要,感想\n")
+        (1..500).each {
+            def title = it % 50 == 0 ? "" : "本${it}"
+            def status = ["未読", "読書中", "COMPLETED", "不明"][it % 4]
+            def page = it % 7 == 0 ? "abc" : "${it % 300}"
+            csvContent.append("${it},${title},著者${it},${status},${page},300,${it % 8},概要${it},感想${it}\n")
+        }
+        def bytes = csvContent.toString().getBytes(StandardCharsets.UTF_8)
+
+        and: "並列に解析するサービス（閾値5行・3行ずつ）"
+        def parallelMapper = new ParallelCsvRowMapper(true, 5, 3, 4)
+        def parallelService = newService(mapper: parallelMapper, meterRegistry: new SimpleMeterRegistry())
+        def sequential = []
+        def parallel = []
+
+        when: "逐次と並列で解析"
+        def sequentialSkipped = readingRecordService.parseCsv(new ByteArrayInputStream(bytes), { sequential << it })
+        def parallelSkipped = parallelService.parseCsv(new ByteArrayInputStream(bytes), { parallel << it })
+
+        then: "結果が完全に一致する"
+        parallel == sequential
+        parallel.size() == 490
+        parallelSkipped == sequentialSkipped
+        parallelSkipped == 10
+
+        cleanup:
+        parallelMapper.shutdown()
+    }
+
+    def "importRecords - 読書記録がない場合は何も登録しない"() {
+        when: "空の読書記録を取り込む"
+        def result = readingRecordService.importRecords(Collections.emptyIterator(), ImportMode.INSERT,
+                ImportProgress.NONE)
+
+        then: "登録処理は呼ばれない"
+        0 * mockRepository.saveAll(_)
+        result.importedCount() == 0
+        result.chunkCommitMillis().isEmpty()
+    }
+
     def "parseCsvFile - 評価値のバリデーションテスト"() {
         given: "評価値が含まれたCSVデータ"
         String csvContent = """ID,タイトル,著者,読書状態,現在ページ,総ページ数,評価,概要,感想
@@ -384,4 +1226,30 @@ class ReadingRecordServiceSpec extends Specification {
         result[3].rating == null   // 文字列はnull
         result[4].rating == null   // 空文字はnull
     }
+
+    /**
+     * 集計クエリの結果を作成する
+     */
+    private ReadingStatusCount statusCount(ReadingStatus status, long count) {
+        return Stub(ReadingStatusCount) {
+            getReadingStatus() >> status
+            getCount() >> count
+        }
+    }
+
+    /**
+     * 一覧表示用の読書記録を作成する
+     */
+    private static ReadingRecordListItem listItem(Long id, String title, ReadingStatus status,
+                                                  LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 1, 0, 0)) {
+        return new ReadingRecordListItem(id, title, null, status, 0, 100, 0, null, updatedAt, updatedAt)
+    }
+
+    /**
+     * 一覧の絞り込み条件をモックのCriteriaBuilderで組み立てる
+     */
+    private void applySpecification(JpaSpecification<ReadingRecord> spec) {
+        assert spec != null
+        spec.toPredicate(Stub(Root), Stub(CriteriaQuery), criteriaBuilder)
+    }
 }
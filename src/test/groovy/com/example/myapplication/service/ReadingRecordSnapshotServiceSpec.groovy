@@ -0,0 +1,206 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.repository.ReadingRecordRepository
+import com.example.myapplication.status.ReadingStatus
+import jakarta.persistence.EntityManager
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.orm.ObjectOptimisticLockingFailureException
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.nio.channels.Channels
+import java.time.LocalDateTime
+
+/**
+ * ReadingRecordSnapshotServiceのテストクラス
+ * H2データベースに対してスナップショットの出力・復元を行い、IDと日時の保持・失敗時のロールバックをテストする
+ */
+// Spock 2.3はSpring 6では@ContextConfigurationの有無でSpring連携を判定するため明示する
+@ContextConfiguration
+@DataJpaTest
+// 復元のトランザクションがコミット・ロールバックされた結果を確認するため、テストメソッドはトランザクション外で実行する
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadingRecordSnapshotServiceSpec extends Specification {
+
+    @Autowired
+    ReadingRecordRepository readingRecordRepository
+
+    @Autowired
+    EntityManager entityManager
+
+    @Autowired
+    JdbcTemplate jdbcTemplate
+
+    @Autowired
+    PlatformTransactionManager transactionManager
+
+    ReadingStatusCounter mockCounter = Mock()
+    ReadingRecordCache mockCache = Mock()
+    ReadingRecordService mockReadingRecordService = Mock()
+    ReadingProgressBuffer readingProgressBuffer
+    ReadingRecordChangeLog mockChangeLog = Mock()
+    ReadingRecordDataVersion dataVersion = new ReadingRecordDataVersion()
+
+    ReadingRecordSnapshotService snapshotService
+    TransactionTemplate transactionTemplate
+
+    def setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager)
+        readingProgressBuffer = new ReadingProgressBuffer(readingRecordRepository, jdbcTemplate, transactionTemplate,
+                Stub(ReadingStatusCounter), Stub(ReadingRecordCache), new ReadingRecordSearchIndex(),
+                new ReadingRecordDataVersion(), 100)
+        snapshotService = new ReadingRecordSnapshotService(readingRecordRepository, entityManager, jdbcTemplate,
+                transactionTemplate, mockCounter, mockCache, mockReadingRecordService, readingProgressBuffer,
+                mockChangeLog, dataVersion)
+        readingRecordRepository.deleteAllInBatch()
+    }
+
+    def cleanup() {
+        readingRecordRepository.deleteAllInBatch()
+    }
+
+    byte[] exportSnapshot() {
+        def outputStream = new ByteArrayOutputStream()
+        transactionTemplate.executeWithoutResult { snapshotService.exportSnapshot(outputStream) }
+        outputStream.toByteArray()
+    }
+
+    def saveRecords(int count) {
+        def base = LocalDateTime.of(2024, 4, 1, 12, 34, 56, 789_000_000)
+        readingRecordRepository.saveAllAndFlush((1..count).collect { i ->
+            new ReadingRecord(title: "本${i}", author: i % 2 == 0 ? "著者${i}" : null,
+                    readingStatus: ReadingStatus.values()[i % ReadingStatus.values().length],
+                    currentPage: i, totalPages: 300, rating: i % 5 + 1, summary: "あらすじ${i}",
+                    createdAt: base.plusDays(i), updatedAt: base.plusDays(i).plusHours(1))
+        })
+    }
+
+    def "restoreSnapshot - 出力したスナップショットからIDと日時を含めて全件を復元する"() {
+        given: "バッチの件数を超える読書記録を出力したスナップショット"
+        saveRecords(ReadingRecordSnapshotService.RESTORE_BATCH_SIZE + 5)
+        def expected = readingRecordRepository.findAll().sort { it.id }
+        def snapshot = exportSnapshot()
+
+        when: "別の内容に置き換えてから復元"
+        readingRecordRepository.deleteAllInBatch()
+        saveRecords(3)
+        def versionBefore = dataVersion.current()
+        def restoredCount = snapshotService.restoreSnapshot(new ByteArrayInputStream(snapshot))
+
+        then: "スナップショットの内容だけになり、差分出力の記録・件数カウンター・キャッシュ・検索インデックスが更新される"
+        restoredCount == expected.size()
+        // バージョンだけは復元前の読書記録（バージョン0）より大きい値になる
+        readingRecordRepository.findAll().sort { it.id } == expected.each { it.version = 1L }
+        1 * mockChangeLog.reset()
+        1 * mockCounter.reconcile()
+        1 * mockCache.evictAll()
+        1 * mockReadingRecordService.rebuildSearchIndex()
+        dataVersion.current() != versionBefore
+    }
+
+    def "restoreSnapshot - 復元後に新しく登録した読書記録のIDは復元したIDと重ならない"() {
+        given: "スナップショット"
+        saveRecords(10)
+        def maxId = readingRecordRepository.findAll()*.id.max()
+        def snapshot = exportSnapshot()
+
+        when: "復元後に1件登録"
+        snapshotService.restoreSnapshot(new ByteArrayInputStream(snapshot))
+        def saved = readingRecordRepository.saveAndFlush(new ReadingRecord(title: "新しい本"))
+
+        then: "復元した最大IDより大きいIDが採番される"
+        saved.id > maxId
+        readingRecordRepository.count() == 11L
+    }
+
+    def "restoreSnapshot - 復元前に採番済みで未使用のIDと重なるIDを復元しても、復元後の登録でIDが重ならない"() {
+        given: "復元前に1件登録し、メモリ上に採番済みのIDが残っている状態"
+        def before = readingRecordRepository.saveAndFlush(new ReadingRecord(title: "復元前の本"))
+        def restoredIds = (before.id + 1..before.id + 3).toList()
+
+        and: "採番済みで未使用のIDを含むスナップショット"
+        def outputStream = new ByteArrayOutputStream()
+        def writer = new ReadingRecordSnapshot.Writer(Channels.newChannel(outputStream))
+        restoredIds.each { id ->
+            writer.write(new ReadingRecord(id: id, title: "本${id}", readingStatus: ReadingStatus.UNREAD,
+                    createdAt: LocalDateTime.of(2024, 4, 1, 0, 0), updatedAt: LocalDateTime.of(2024, 4, 1, 0, 0)))
+        }
+        writer.finish()
+
+        when: "復元後に2件登録"
+        snapshotService.restoreSnapshot(new ByteArrayInputStream(outputStream.toByteArray()))
+        def saved = (1..2).collect { readingRecordRepository.saveAndFlush(new ReadingRecord(title: "新しい本${it}")) }
+
+        then: "エラーにならず、復元した最大IDより大きいIDが採番される"
+        saved*.id.every { it > restoredIds.max() }
+        readingRecordRepository.count() == 5L
+    }
+
+    def "restoreSnapshot - 書き込み待ちの読書の進捗は、復元した読書記録に書き込まず破棄する"() {
+        given: "スナップショットと、復元前の読書記録に対する進捗の報告"
+        saveRecords(3)
+        def snapshot = exportSnapshot()
+        def id = readingRecordRepository.findAll()*.id.min()
+        readingProgressBuffer.submit(id, 250)
+
+        when: "復元してから書き込む"
+        snapshotService.restoreSnapshot(new ByteArrayInputStream(snapshot))
+        def written = readingProgressBuffer.flush()
+
+        then: "報告は破棄され、復元した現在ページのまま"
+        written == 0
+        readingProgressBuffer.pendingCount == 0
+        readingRecordRepository.findById(id).get().currentPage == 1
+    }
+
+    def "restoreSnapshot - 復元前に読み込んだバージョンで保存・削除しても、復元した読書記録は上書きされない"() {
+        given: "スナップショットと、復元前に読み込んだ読書記録"
+        saveRecords(3)
+        def snapshot = exportSnapshot()
+        def openedBefore = readingRecordRepository.findAll().sort { it.id }
+        def editedBefore = openedBefore[0]
+
+        when: "復元後に、復元前のバージョンのまま保存"
+        snapshotService.restoreSnapshot(new ByteArrayInputStream(snapshot))
+        editedBefore.title = "復元前の編集"
+        readingRecordRepository.saveAndFlush(editedBefore)
+
+        then: "バージョンが一致せず、上書きされない"
+        thrown(ObjectOptimisticLockingFailureException)
+        readingRecordRepository.findById(editedBefore.id).get().title == "本1"
+
+        and: "復元した読書記録のバージョンは、復元前の全てのバージョンより大きい"
+        readingRecordRepository.findAll().every { restored -> openedBefore.every { restored.version > it.version } }
+        jdbcTemplate.update("DELETE FROM reading_record WHERE id = ? AND version = ?",
+                openedBefore[1].id, openedBefore[1].version) == 0
+    }
+
+    def "restoreSnapshot - チェックサムが一致しない場合は何も変更しない"() {
+        given: "末尾のチェックサムを書き換えたスナップショット"
+        saveRecords(5)
+        def snapshot = exportSnapshot()
+        snapshot[snapshot.length - 1] = (byte) (snapshot[snapshot.length - 1] ^ 0xFF)
+        readingRecordRepository.deleteAllInBatch()
+        saveRecords(2)
+
+        when: "復元"
+        snapshotService.restoreSnapshot(new ByteArrayInputStream(snapshot))
+
+        then: "IOExceptionが投げられ、既存の読書記録はそのまま残る"
+        thrown(IOException)
+        readingRecordRepository.count() == 2L
+        0 * mockCache.evictAll()
+    }
+
+    def "generateSnapshotFileName - 日時付きのファイル名を生成する"() {
+        expect:
+        snapshotService.generateSnapshotFileName() ==~ /reading-records_\d{8}_\d{6}\.rdsnap/
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.entity.ReadingRecord
+import com.example.myapplication.status.ReadingStatus
+import spock.lang.Specification
+
+import java.nio.channels.Channels
+import java.time.LocalDateTime
+
+/**
+ * ReadingRecordSnapshotのテストクラス
+ * スナップショット形式の書き込み・読み込みと、壊れたファイルの検出をテストする
+ */
+class ReadingRecordSnapshotSpec extends Specification {
+
+    byte[] writeSnapshot(List<ReadingRecord> records) {
+        def outputStream = new ByteArrayOutputStream()
+        def writer = new ReadingRecordSnapshot.Writer(Channels.newChannel(outputStream))
+        records.each { writer.write(it) }
+        writer.finish()
+        outputStream.toByteArray()
+    }
+
+    List<ReadingRecord> readSnapshot(byte[] bytes) {
+        def reader = new ReadingRecordSnapshot.Reader(Channels.newChannel(new ByteArrayInputStream(bytes)))
+        def records = []
+        def record
+        while ((record = reader.next()) != null) {
+            records << record
+        }
+        records
+    }
+
+    def "書き込んだ読書記録をIDと日時を含めてそのまま読み込める"() {
+        given: "全ての項目を持つ読書記録と、任意項目がnullの読書記録"
+        def full = new ReadingRecord(id: 123456789L, title: "吾輩は猫である", author: "夏目漱石",
+                readingStatus: ReadingStatus.COMPLETED, currentPage: 350, totalPages: 350, rating: 5,
+                summary: "猫の視点から描かれた小説,\"引用符\"\n改行", thoughts: "面白い",
+                createdAt: LocalDateTime.of(1999, 12, 31, 23, 59, 59, 123456789),
+                updatedAt: LocalDateTime.of(2025, 1, 1, 0, 0))
+        def sparse = new ReadingRecord(id: 1L, title: "タイトルのみ", readingStatus: ReadingStatus.UNREAD,
+                currentPage: null)
+        def negative = new ReadingRecord(id: 2L, title: "負の値", readingStatus: ReadingStatus.PAUSED,
+                currentPage: -1, createdAt: LocalDateTime.of(1900, 1, 1, 0, 0))
+
+        when: "書き込んで読み込む"
+        def restored = readSnapshot(writeSnapshot([full, sparse, negative]))
+
+        then: "全ての項目が一致する"
+        restored == [full, sparse, negative]
+    }
+
+    def "バッファより大きい読書記録も読み書きできる"() {
+        given: "64KBを超える感想を持つ読書記録"
+        def large = new ReadingRecord(id: 1L, title: "長い感想", readingStatus: ReadingStatus.READING,
+                thoughts: "あ" * 100_000)
+        def small = (2L..500L).collect { new ReadingRecord(id: it, title: "本${it}", readingStatus: ReadingStatus.READING) }
+
+        when: "書き込んで読み込む"
+        def restored = readSnapshot(writeSnapshot([large] + small))
+
+        then: "全件が一致する"
+        restored.size() == 500
+        restored[0].thoughts == "あ" * 100_000
+        restored == [large] + small
+    }
+
+    def "読書記録がない場合も読み書きできる"() {
+        expect:
+        readSnapshot(writeSnapshot([])).isEmpty()
+    }
+
+    def "途中のバイトが変わっている場合はチェックサムの不一致として読み込みに失敗する"() {
+        given: "書き込んだスナップショットのタイトルの1バイトを書き換える"
+        def bytes = writeSnapshot([new ReadingRecord(id: 1L, title: "abcdef", readingStatus: ReadingStatus.UNREAD)])
+        def index = new String(bytes, "ISO-8859-1").indexOf("abcdef")
+        bytes[index] = (byte) 0x78 // 'x'
+
+        when: "読み込む"
+        readSnapshot(bytes)
+
+        then: "チェックサムの不一致でIOExceptionが投げられる"
+        def e = thrown(IOException)
+        e.message.contains("チェックサム")
+    }
+
+    def "途中で途切れている場合は読み込みに失敗する"() {
+        given: "末尾を切り詰めたスナップショット"
+        def bytes = writeSnapshot((1L..100L).collect {
+            new ReadingRecord(id: it, title: "本${it}", readingStatus: ReadingStatus.READING)
+        })
+        def truncated = Arrays.copyOf(bytes, bytes.length - 10)
+
+        when: "読み込む"
+        readSnapshot(truncated)
+
+        then: "IOExceptionが投げられる"
+        thrown(IOException)
+    }
+
+    def "スナップショットでないファイルは読み込みに失敗する"() {
+        when: "CSVを読み込む"
+        readSnapshot("ID,タイトル\n1,本\n".getBytes("UTF-8"))
+
+        then: "IOExceptionが投げられる"
+        def e = thrown(IOException)
+        e.message == "スナップショットファイルではありません"
+    }
+
+    def "IDのない読書記録は書き込めない"() {
+        when: "IDのない読書記録を書き込む"
+        writeSnapshot([new ReadingRecord(title: "未保存", readingStatus: ReadingStatus.UNREAD)])
+
+        then: "IllegalArgumentExceptionが投げられる"
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.repository.ReadingRecordRepository
+import com.example.myapplication.repository.ReadingStatusCount
+import com.example.myapplication.status.ReadingStatus
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * ReadingStatusCounterのテストクラス
+ * 読書状態ごとの件数のメモリ上での加減算と、DB集計による補正をテストする
+ */
+class ReadingStatusCounterSpec extends Specification {
+
+    // モックオブジェクト
+    ReadingRecordRepository mockRepository = Mock()
+
+    def "getCounts - 無効な場合は毎回DBで集計する"() {
+        given: "無効なカウンター"
+        def counter = new ReadingStatusCounter(mockRepository, false)
+
+        when: "加算してから2回取得"
+        counter.add(ReadingStatus.READING, 5)
+        def first = counter.getCounts()
+        def second = counter.getCounts()
+
+        then: "加算は無視され、毎回DBで集計される"
+        2 * mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.READING, 1L)]
+        first[ReadingStatus.READING] == 1L
+        second[ReadingStatus.READING] == 1L
+        first[ReadingStatus.UNREAD] == 0L
+    }
+
+    def "getCount - 無効な場合は指定した読書状態だけをDBで数え、有効な場合はメモリ上の件数を返す"() {
+        given: "無効なカウンターと有効なカウンター"
+        def disabled = new ReadingStatusCounter(mockRepository, false)
+        def enabled = new ReadingStatusCounter(mockRepository, true)
+
+        when: "件数を取得"
+        def disabledCount = disabled.getCount(ReadingStatus.READING)
+        enabled.add(ReadingStatus.READING, 0)
+        def enabledCount = enabled.getCount(ReadingStatus.READING)
+        enabled.add(ReadingStatus.READING, 2)
+        def enabledCountAfterAdd = enabled.getCount(ReadingStatus.READING)
+
+        then: "無効な場合は読書状態を指定した件数取得、有効な場合は初回の集計のみ"
+        1 * mockRepository.countByReadingStatus(ReadingStatus.READING) >> 4L
+        1 * mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.READING, 3L)]
+        disabledCount == 4L
+        enabledCount == 3L
+        enabledCountAfterAdd == 5L
+    }
+
+    def "getCounts - 有効な場合は初回だけDBで集計し、以降は加減算した件数を返す"() {
+        given: "有効なカウンター"
+        def counter = new ReadingStatusCounter(mockRepository, true)
+
+        when: "取得・状態変更・取得"
+        def first = counter.getCounts()
+        counter.changed(ReadingStatus.UNREAD, ReadingStatus.READING)
+        counter.changed(null, ReadingStatus.COMPLETED)
+        counter.changed(ReadingStatus.COMPLETED, null)
+        counter.changed(ReadingStatus.PAUSED, ReadingStatus.PAUSED)
+        def second = counter.getCounts()
+
+        then: "DB集計は初回のみ"
+        1 * mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.UNREAD, 3L), statusCount(ReadingStatus.PAUSED, 1L)]
+        first == [(ReadingStatus.UNREAD): 3L, (ReadingStatus.READING): 0L, (ReadingStatus.COMPLETED): 0L, (ReadingStatus.PAUSED): 1L]
+        second == [(ReadingStatus.UNREAD): 2L, (ReadingStatus.READING): 1L, (ReadingStatus.COMPLETED): 0L, (ReadingStatus.PAUSED): 1L]
+    }
+
+    def "reconcile - メモリ上の件数のずれをDBの集計結果で補正する"() {
+        given: "初期化済みのカウンター"
+        def counter = new ReadingStatusCounter(mockRepository, true)
+        mockRepository.countGroupByReadingStatus() >>> [
+                [statusCount(ReadingStatus.UNREAD, 3L)],
+                [statusCount(ReadingStatus.UNREAD, 10L), statusCount(ReadingStatus.READING, 2L)]
+        ]
+        counter.getCounts()
+
+        when: "ずれが生じた後に再集計"
+        counter.add(ReadingStatus.COMPLETED, 4)
+        counter.reconcile()
+
+        then: "DBの件数に補正される"
+        counter.getCounts() == [(ReadingStatus.UNREAD): 10L, (ReadingStatus.READING): 2L, (ReadingStatus.COMPLETED): 0L, (ReadingStatus.PAUSED): 0L]
+    }
+
+    def "add - 複数スレッドから同時に加減算しても件数が失われない"() {
+        given: "初期化済みのカウンター"
+        def counter = new ReadingStatusCounter(mockRepository, true)
+        mockRepository.countGroupByReadingStatus() >> []
+        counter.getCounts()
+        def executor = Executors.newFixedThreadPool(8)
+
+        when: "8スレッドで状態変更を10000回ずつ行う"
+        8.times {
+            executor.submit {
+                10000.times { counter.changed(null, ReadingStatus.READING); counter.changed(ReadingStatus.READING, ReadingStatus.COMPLETED) }
+            }
+        }
+        executor.shutdown()
+        executor.awaitTermination(30, TimeUnit.SECONDS)
+
+        then: "全ての加減算が反映される"
+        counter.getCounts()[ReadingStatus.READING] == 0L
+        counter.getCounts()[ReadingStatus.COMPLETED] == 80000L
+    }
+
+    def "clear - 全ての件数を0にする"() {
+        given: "初期化済みのカウンター"
+        def counter = new ReadingStatusCounter(mockRepository, true)
+        mockRepository.countGroupByReadingStatus() >> [statusCount(ReadingStatus.UNREAD, 3L)]
+        counter.getCounts()
+
+        when: "クリア"
+        counter.clear()
+
+        then: "全て0になる"
+        counter.getCounts().values().every { it == 0L }
+    }
+
+    private ReadingStatusCount statusCount(ReadingStatus status, long count) {
+        return Stub(ReadingStatusCount) {
+            getReadingStatus() >> status
+            getCount() >> count
+        }
+    }
+}
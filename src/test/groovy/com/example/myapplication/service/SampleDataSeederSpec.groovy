@@ -0,0 +1,63 @@
+package com.example.myapplication.service
+
+import com.example.myapplication.repository.ReadingRecordRepository
+import org.springframework.core.io.ClassPathResource
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType
+import spock.lang.Specification
+
+/**
+ * SampleDataSeederのテストクラス
+ * 読書記録が空の場合だけサンプルデータを登録することをテストする
+ */
+class SampleDataSeederSpec extends Specification {
+
+    // マイグレーションでテーブルを作成したH2
+    EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("db/migration/V1__create_reading_record.sql")
+            .build()
+
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(database)
+
+    ReadingRecordRepository mockRepository = Mock()
+
+    def cleanup() {
+        database.shutdown()
+    }
+
+    SampleDataSeeder createSeeder(boolean enabled = true) {
+        new SampleDataSeeder(mockRepository, database, new ReadingRecordDataVersion(), enabled, new ClassPathResource("db/seed/sample-data.sql"))
+    }
+
+    def "run - 読書記録が空の場合はサンプルデータを登録する"() {
+        when: "起動時の処理を実行"
+        createSeeder().run(null)
+
+        then: "サンプルデータが登録される"
+        1 * mockRepository.existsBy() >> false
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reading_record", Long) > 0
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reading_record WHERE title = '吾輩は猫である'", Long) == 1L
+    }
+
+    def "run - 読書記録がある場合は何もしない"() {
+        when: "起動時の処理を実行"
+        createSeeder().run(null)
+
+        then: "既存の読書記録は削除・上書きされない"
+        1 * mockRepository.existsBy() >> true
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reading_record", Long) == 0L
+    }
+
+    def "run - 無効な場合は何もしない"() {
+        when: "起動時の処理を実行"
+        createSeeder(false).run(null)
+
+        then: "件数の確認もしない"
+        0 * mockRepository.existsBy()
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reading_record", Long) == 0L
+    }
+}